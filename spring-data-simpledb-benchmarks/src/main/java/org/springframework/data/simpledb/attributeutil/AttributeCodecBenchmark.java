@@ -0,0 +1,110 @@
+package org.springframework.data.simpledb.attributeutil;
+
+import java.math.BigDecimal;
+import java.text.ParseException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encoding and decoding throughput of {@link SimpleDBAttributeConverter}, which goes through
+ * {@link LexicographicCodec} for primitives and dates, compared to the {@link BigDecimal} and
+ * {@link java.text.SimpleDateFormat} based {@link AmazonSimpleDBUtil} it used for every value.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class AttributeCodecBenchmark {
+
+	private long longValue;
+	private double doubleValue;
+	private Date dateValue;
+
+	private String encodedLong;
+	private String encodedDouble;
+	private String encodedDate;
+
+	@Setup
+	public void setUp() {
+		longValue = -1234567890123L;
+		doubleValue = 98765.4321;
+		dateValue = new Date(1356998400123L);
+
+		encodedLong = SimpleDBAttributeConverter.encode(longValue);
+		encodedDouble = SimpleDBAttributeConverter.encode(doubleValue);
+		encodedDate = SimpleDBAttributeConverter.encode(dateValue);
+	}
+
+	@Benchmark
+	public String encodeLong() {
+		return SimpleDBAttributeConverter.encode(longValue);
+	}
+
+	@Benchmark
+	public String encodeLongLegacy() {
+		return AmazonSimpleDBUtil.encodeAsIntegerNumber(longValue);
+	}
+
+	@Benchmark
+	public Object decodeLong() throws ParseException {
+		return SimpleDBAttributeConverter.decodeToFieldOfType(encodedLong, long.class);
+	}
+
+	@Benchmark
+	public long decodeLongLegacy() {
+		return AmazonSimpleDBUtil.decodeIntegerNumber(encodedLong).longValue();
+	}
+
+	@Benchmark
+	public String encodeDouble() {
+		return SimpleDBAttributeConverter.encode(doubleValue);
+	}
+
+	@Benchmark
+	public String encodeDoubleLegacy() {
+		return AmazonSimpleDBUtil.encodeAsRealNumber(doubleValue);
+	}
+
+	@Benchmark
+	public Object decodeDouble() throws ParseException {
+		return SimpleDBAttributeConverter.decodeToFieldOfType(encodedDouble, double.class);
+	}
+
+	@Benchmark
+	public double decodeDoubleLegacy() {
+		return AmazonSimpleDBUtil.decodeRealNumber(encodedDouble).doubleValue();
+	}
+
+	@Benchmark
+	public String encodeDate() {
+		return SimpleDBAttributeConverter.encode(dateValue);
+	}
+
+	@Benchmark
+	public String encodeDateLegacy() {
+		return AmazonSimpleDBUtil.encodeDate(dateValue);
+	}
+
+	@Benchmark
+	public Object decodeDate() throws ParseException {
+		return SimpleDBAttributeConverter.decodeToFieldOfType(encodedDate, Date.class);
+	}
+
+	@Benchmark
+	public Date decodeDateLegacy() throws ParseException {
+		return AmazonSimpleDBUtil.decodeDate(encodedDate);
+	}
+}
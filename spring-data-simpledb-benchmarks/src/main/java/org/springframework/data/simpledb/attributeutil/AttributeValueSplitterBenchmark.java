@@ -0,0 +1,66 @@
+package org.springframework.data.simpledb.attributeutil;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of {@link SimpleDbAttributeValueSplitter} chunking values longer than
+ * {@link SimpleDbAttributeValueSplitter#MAX_ATTR_VALUE_LEN} and joining the chunks back, next to a few short values
+ * that are passed through.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class AttributeValueSplitterBenchmark {
+
+	private static final int SHORT_VALUES = 10;
+
+	@Param({ "4096", "65536" })
+	private int valueLength;
+
+	private Map<String, String> rawAttributes;
+	private Map<String, List<String>> splitAttributes;
+
+	@Setup
+	public void setUp() {
+		rawAttributes = new LinkedHashMap<String, String>();
+		for(int i = 0; i < SHORT_VALUES; i++) {
+			rawAttributes.put("short" + i, "value " + i);
+		}
+
+		final StringBuilder longValue = new StringBuilder(valueLength);
+		for(int i = 0; i < valueLength; i++) {
+			longValue.append((char) ('a' + i % ('z' - 'a' + 1)));
+		}
+		rawAttributes.put("long", longValue.toString());
+
+		splitAttributes = SimpleDbAttributeValueSplitter.splitAttributeValuesWithExceedingLengths(rawAttributes);
+	}
+
+	@Benchmark
+	public Map<String, List<String>> split() {
+		return SimpleDbAttributeValueSplitter.splitAttributeValuesWithExceedingLengths(rawAttributes);
+	}
+
+	@Benchmark
+	public Map<String, String> combine() {
+		return SimpleDbAttributeValueSplitter.combineAttributeValuesWithExceedingLengths(splitAttributes);
+	}
+}
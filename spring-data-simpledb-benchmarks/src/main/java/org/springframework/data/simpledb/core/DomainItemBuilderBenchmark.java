@@ -0,0 +1,76 @@
+package org.springframework.data.simpledb.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.simpledb.core.domain.SampleEntity;
+import org.springframework.data.simpledb.core.entity.EntityWrapper;
+import org.springframework.data.simpledb.repository.support.entityinformation.SimpleDbEntityInformation;
+
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.Item;
+import com.amazonaws.services.simpledb.model.SelectResult;
+
+/**
+ * Throughput of {@link DomainItemBuilder} mapping a select page of {@link SampleEntity} items, for the default page
+ * size of a select and for the largest page SimpleDB returns.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class DomainItemBuilderBenchmark {
+
+	@Param({ "100", "2500" })
+	private int pageSize;
+
+	private SimpleDbEntityInformation<SampleEntity, String> entityInformation;
+	private DomainItemBuilder<SampleEntity> domainItemBuilder;
+	private SelectResult page;
+
+	@Setup
+	public void setUp() {
+		entityInformation = SampleEntity.entityInformation();
+		domainItemBuilder = new DomainItemBuilder<SampleEntity>();
+
+		final List<Item> items = new ArrayList<Item>(pageSize);
+		for(int i = 0; i < pageSize; i++) {
+			items.add(toItem(SampleEntity.create(i)));
+		}
+		page = new SelectResult().withItems(items);
+	}
+
+	@Benchmark
+	public List<SampleEntity> populateDomainItems() {
+		return domainItemBuilder.populateDomainItems(entityInformation, page);
+	}
+
+	private Item toItem(SampleEntity entity) {
+		final EntityWrapper<SampleEntity, String> wrapper = new EntityWrapper<SampleEntity, String>(entityInformation,
+				entity);
+
+		final List<Attribute> attributes = new ArrayList<Attribute>();
+		for(Entry<String, List<String>> attribute : wrapper.toMultiValueAttributes().entrySet()) {
+			for(String value : attribute.getValue()) {
+				attributes.add(new Attribute(attribute.getKey(), value));
+			}
+		}
+
+		return new Item(wrapper.getItemName(), attributes);
+	}
+}
@@ -0,0 +1,201 @@
+package org.springframework.data.simpledb.core.domain;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.simpledb.annotation.Attributes;
+import org.springframework.data.simpledb.repository.support.entityinformation.SimpleDbEntityInformation;
+import org.springframework.data.simpledb.repository.support.entityinformation.SimpleDbEntityInformationSupport;
+
+/**
+ * An entity with a field of each kind the mapping layer handles: primitives, a date, strings, a JSON serialized list
+ * and map, a nested entity and free form attributes.
+ */
+public class SampleEntity {
+
+	public static final String DOMAIN = "sampleEntity";
+
+	private static final int TAGS = 5;
+	private static final long CREATED_BASE = 1356998400000L;
+	private static final double BALANCE_FACTOR = 1.25;
+
+	@Id
+	private String itemName;
+
+	private boolean active;
+
+	private int age;
+
+	private long counter;
+
+	private double balance;
+
+	private Date created;
+
+	private String name;
+
+	private List<String> tags;
+
+	private Map<String, Long> scores;
+
+	private Address address;
+
+	@Attributes
+	private Map<String, String> atts;
+
+	/**
+	 * @return an entity whose values all depend on the given index, so that every index makes a distinct item
+	 */
+	public static SampleEntity create(int index) {
+		final SampleEntity entity = new SampleEntity();
+		entity.setItemName("item-" + index);
+		entity.setActive(index % 2 == 0);
+		entity.setAge(index);
+		entity.setCounter(-index * CREATED_BASE);
+		entity.setBalance(index * BALANCE_FACTOR);
+		entity.setCreated(new Date(CREATED_BASE + index));
+		entity.setName("name " + index);
+
+		final List<String> tags = new ArrayList<String>();
+		final Map<String, Long> scores = new LinkedHashMap<String, Long>();
+		for(int i = 0; i < TAGS; i++) {
+			tags.add("tag " + i);
+			scores.put("score " + i, Long.valueOf(index + i));
+		}
+		entity.setTags(tags);
+		entity.setScores(scores);
+
+		final Address address = new Address();
+		address.setStreet("street " + index);
+		address.setNumber(index);
+		entity.setAddress(address);
+
+		final Map<String, String> atts = new LinkedHashMap<String, String>();
+		atts.put("color", "blue");
+		atts.put("size", "large");
+		entity.setAtts(atts);
+
+		return entity;
+	}
+
+	@SuppressWarnings("unchecked")
+	public static SimpleDbEntityInformation<SampleEntity, String> entityInformation() {
+		return (SimpleDbEntityInformation<SampleEntity, String>) SimpleDbEntityInformationSupport.getMetadata(
+				SampleEntity.class, DOMAIN);
+	}
+
+	public String getItemName() {
+		return itemName;
+	}
+
+	public void setItemName(String itemName) {
+		this.itemName = itemName;
+	}
+
+	public boolean isActive() {
+		return active;
+	}
+
+	public void setActive(boolean active) {
+		this.active = active;
+	}
+
+	public int getAge() {
+		return age;
+	}
+
+	public void setAge(int age) {
+		this.age = age;
+	}
+
+	public long getCounter() {
+		return counter;
+	}
+
+	public void setCounter(long counter) {
+		this.counter = counter;
+	}
+
+	public double getBalance() {
+		return balance;
+	}
+
+	public void setBalance(double balance) {
+		this.balance = balance;
+	}
+
+	public Date getCreated() {
+		return created;
+	}
+
+	public void setCreated(Date created) {
+		this.created = created;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public List<String> getTags() {
+		return tags;
+	}
+
+	public void setTags(List<String> tags) {
+		this.tags = tags;
+	}
+
+	public Map<String, Long> getScores() {
+		return scores;
+	}
+
+	public void setScores(Map<String, Long> scores) {
+		this.scores = scores;
+	}
+
+	public Address getAddress() {
+		return address;
+	}
+
+	public void setAddress(Address address) {
+		this.address = address;
+	}
+
+	public Map<String, String> getAtts() {
+		return atts;
+	}
+
+	public void setAtts(Map<String, String> atts) {
+		this.atts = atts;
+	}
+
+	public static class Address {
+
+		private String street;
+
+		private int number;
+
+		public String getStreet() {
+			return street;
+		}
+
+		public void setStreet(String street) {
+			this.street = street;
+		}
+
+		public int getNumber() {
+			return number;
+		}
+
+		public void setNumber(int number) {
+			this.number = number;
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package org.springframework.data.simpledb.core.entity;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.simpledb.core.domain.SampleEntity;
+import org.springframework.data.simpledb.repository.support.entityinformation.SimpleDbEntityInformation;
+
+/**
+ * Throughput of {@link EntityWrapper} turning a {@link SampleEntity} into the attributes written to SimpleDB and back,
+ * wrapper creation included as the template wraps each entity it writes or reads.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class EntityWrapperBenchmark {
+
+	private static final int SAMPLE_INDEX = 42;
+
+	private SimpleDbEntityInformation<SampleEntity, String> entityInformation;
+	private SampleEntity entity;
+	private Map<String, String> attributes;
+
+	@Setup
+	public void setUp() {
+		entityInformation = SampleEntity.entityInformation();
+		entity = SampleEntity.create(SAMPLE_INDEX);
+		attributes = new EntityWrapper<SampleEntity, String>(entityInformation, entity).serialize();
+	}
+
+	@Benchmark
+	public Map<String, String> serialize() {
+		return new EntityWrapper<SampleEntity, String>(entityInformation, entity).serialize();
+	}
+
+	@Benchmark
+	public Map<String, List<String>> toMultiValueAttributes() {
+		return new EntityWrapper<SampleEntity, String>(entityInformation, entity).toMultiValueAttributes();
+	}
+
+	@Benchmark
+	public Object deserialize() {
+		final EntityWrapper<SampleEntity, Serializable> wrapper = new EntityWrapper<SampleEntity, Serializable>(
+				entityInformation);
+		wrapper.setId(entity.getItemName());
+		return wrapper.deserialize(attributes);
+	}
+}
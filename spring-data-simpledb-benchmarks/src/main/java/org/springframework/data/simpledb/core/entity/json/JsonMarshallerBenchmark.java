@@ -0,0 +1,88 @@
+package org.springframework.data.simpledb.core.entity.json;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.codehaus.jackson.annotate.JsonAutoDetect;
+import org.codehaus.jackson.annotate.JsonMethod;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serialization throughput of {@link JsonMarshaller} with its pre-configured reader and writer, compared to building
+ * and configuring an {@link ObjectMapper} on each call as the marshaller used to.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class JsonMarshallerBenchmark {
+
+	private static final int SAMPLE_SIZE = 20;
+
+	private JsonMarshaller marshaller;
+	private List<String> list;
+	private Map<String, Long> map;
+	private String marshalledList;
+
+	@Setup
+	public void setUp() {
+		marshaller = JsonMarshaller.createNew();
+
+		list = new ArrayList<String>();
+		map = new LinkedHashMap<String, Long>();
+		for(int i = 0; i < SAMPLE_SIZE; i++) {
+			list.add("value " + i);
+			map.put("key " + i, Long.valueOf(i));
+		}
+
+		marshalledList = marshaller.marshall(list);
+	}
+
+	@Benchmark
+	public String marshallList() {
+		return marshaller.marshall(list);
+	}
+
+	@Benchmark
+	public String marshallMap() {
+		return marshaller.marshall(map);
+	}
+
+	@Benchmark
+	public List<String> unmarshallList() {
+		return marshaller.unmarshall(marshalledList, List.class);
+	}
+
+	@Benchmark
+	public String marshallListWithMapperPerCall() throws IOException {
+		return createPerCallMapper().writeValueAsString(list);
+	}
+
+	@Benchmark
+	public String marshallMapWithMapperPerCall() throws IOException {
+		return createPerCallMapper().writeValueAsString(map);
+	}
+
+	/* the configuration JsonMarshaller.marshall used to build on each invocation */
+	private static ObjectMapper createPerCallMapper() {
+		final ObjectMapper mapper = new ObjectMapper().setVisibility(JsonMethod.FIELD, JsonAutoDetect.Visibility.ANY);
+		mapper.enableDefaultTypingAsProperty(ObjectMapper.DefaultTyping.NON_FINAL, "@class");
+		return mapper;
+	}
+}
@@ -0,0 +1,67 @@
+package org.springframework.data.simpledb.parser;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of {@link SimpleDBParser} validating selects the way the template does before sending them, from a bare
+ * select to one with a long where clause, sort and limit.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SimpleDBParserBenchmark {
+
+	private static final int IN_LIST_VALUES = 20;
+
+	private String simpleQuery;
+	private String whereQuery;
+	private String inListQuery;
+
+	@Setup
+	public void setUp() {
+		simpleQuery = "select * from `sampleEntity`";
+		whereQuery = "select * from `sampleEntity` where age > '00000042' and (name like 'name%' or active = 'true') "
+				+ "and `address.street` is not null order by age desc limit 100";
+
+		final StringBuilder inList = new StringBuilder("select itemName() from `sampleEntity` where itemName() in (");
+		for(int i = 0; i < IN_LIST_VALUES; i++) {
+			inList.append(i == 0 ? "" : ", ").append("'item-").append(i).append('\'');
+		}
+		inListQuery = inList.append(')').toString();
+	}
+
+	@Benchmark
+	public SimpleDBParser validateSimpleQuery() throws ParseException {
+		return validate(simpleQuery);
+	}
+
+	@Benchmark
+	public SimpleDBParser validateWhereQuery() throws ParseException {
+		return validate(whereQuery);
+	}
+
+	@Benchmark
+	public SimpleDBParser validateInListQuery() throws ParseException {
+		return validate(inListQuery);
+	}
+
+	private static SimpleDBParser validate(String query) throws ParseException {
+		final SimpleDBParser parser = new SimpleDBParser(query);
+		parser.selectQuery();
+		return parser;
+	}
+}
@@ -0,0 +1,74 @@
+package org.springframework.data.simpledb.query;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.RepositoryMetadata;
+import org.springframework.data.repository.core.support.DefaultRepositoryMetadata;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.simpledb.annotation.Query;
+import org.springframework.data.simpledb.core.SimpleDbDomain;
+import org.springframework.data.simpledb.core.domain.SampleEntity;
+
+/**
+ * Throughput of {@link QueryUtils#bindQueryParameters(SimpleDbQueryMethod, Object...)} building the select of an
+ * annotated repository method for each invocation, with positional and with named parameters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class QueryUtilsBenchmark {
+
+	private static final int AGE = 42;
+	private static final String NAME = "name 42";
+	private static final Date CREATED = new Date(1356998400000L);
+
+	private SimpleDbQueryMethod positionalQueryMethod;
+	private SimpleDbQueryMethod namedQueryMethod;
+
+	@Setup
+	public void setUp() throws NoSuchMethodException {
+		final RepositoryMetadata metadata = new DefaultRepositoryMetadata(SampleEntityRepository.class);
+		final SimpleDbDomain simpleDbDomain = new SimpleDbDomain();
+
+		positionalQueryMethod = new SimpleDbQueryMethod(SampleEntityRepository.class.getMethod("findByPositional",
+				int.class, String.class, Date.class), metadata, simpleDbDomain);
+		namedQueryMethod = new SimpleDbQueryMethod(SampleEntityRepository.class.getMethod("findByNamed", int.class,
+				String.class, Date.class), metadata, simpleDbDomain);
+	}
+
+	@Benchmark
+	public String bindPositionalParameters() {
+		return QueryUtils.bindQueryParameters(positionalQueryMethod, AGE, NAME, CREATED);
+	}
+
+	@Benchmark
+	public String bindNamedParameters() {
+		return QueryUtils.bindQueryParameters(namedQueryMethod, AGE, NAME, CREATED);
+	}
+
+	public interface SampleEntityRepository extends Repository<SampleEntity, String> {
+
+		@Query(value = "select * from `sampleEntity` where age > ? and name = ? and created < ?")
+		List<SampleEntity> findByPositional(int age, String name, Date created);
+
+		@Query(where = "age > :age and name = :name and created < :created")
+		List<SampleEntity> findByNamed(@Param("age") int age, @Param("name") String name,
+				@Param("created") Date created);
+	}
+}
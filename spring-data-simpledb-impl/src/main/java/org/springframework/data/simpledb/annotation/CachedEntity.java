@@ -0,0 +1,45 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.simpledb.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Caches the entities of the annotated class read by id, overriding the entity cache settings of
+ * {@link org.springframework.data.simpledb.core.SimpleDb}. A <tt>maxSize</tt> of 0 disables the cache for the class.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+public @interface CachedEntity {
+
+	int DEFAULT_MAX_SIZE = 1000;
+	long DEFAULT_TIME_TO_LIVE_SECONDS = 60L;
+
+	/**
+	 * Maximum number of cached entities of the class.
+	 */
+	int maxSize() default DEFAULT_MAX_SIZE;
+
+	/**
+	 * Time in seconds after which a cached entity is read again, 0 to keep entities until they are written or evicted.
+	 */
+	long timeToLiveSeconds() default DEFAULT_TIME_TO_LIVE_SECONDS;
+}
@@ -0,0 +1,452 @@
+package org.springframework.data.simpledb.attributeutil;
+
+import java.util.Date;
+
+/**
+ * Encodes and decodes primitive numbers and dates in the lexicographic format of {@link AmazonSimpleDBUtil} without
+ * going through {@link java.math.BigDecimal} or {@link java.text.SimpleDateFormat}, using a per thread reusable
+ * <tt>char[]</tt>:
+ * <ul>
+ * <li>integer numbers: <tt>value + 2^63</tt>, left padded with zeros to 20 digits</li>
+ * <li>real numbers: <tt>(value + 2^63) * 10^20</tt>, left padded with zeros to 40 digits</li>
+ * <li>dates: <tt>yyyy-MM-ddTHH:mm:ss.SS:SZ</tt> in UTC</li>
+ * </ul>
+ * The codec only handles the values it encodes exactly as {@link AmazonSimpleDBUtil} does: real numbers which need
+ * rounding, values out of range and dates before the Gregorian calendar or after year 9999 are reported as not
+ * handled (<tt>null</tt> or <tt>false</tt>) and must go through {@link AmazonSimpleDBUtil}.
+ */
+final class LexicographicCodec {
+
+	static final int INTEGER_DIGITS = 20;
+	static final int REAL_DIGITS = 40;
+	static final int DATE_LENGTH = 25;
+
+	/* 2^64 - 1, the largest encoded integer part */
+	private static final String MAX_UNSIGNED_LONG = "18446744073709551615";
+
+	private static final int BASE = 10;
+	private static final int HUNDRED = 100;
+	private static final int MAX_SIGNED_LONG_DIGITS = 19;
+	private static final int BUFFER_SIZE = 64;
+
+	private static final int FRACTION_ZERO = 0;
+	private static final int FRACTION_NON_ZERO = 1;
+	private static final int FRACTION_NEEDS_ROUNDING = 2;
+
+	private static final int FIRST_GREGORIAN_YEAR = 1583;
+	private static final int MAX_YEAR = 9999;
+	private static final int MONTHS = 12;
+	private static final int FEBRUARY = 2;
+	private static final int[] DAYS_IN_MONTH = { 31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31 };
+	private static final int HOURS_PER_DAY = 24;
+	private static final int MINUTES_PER_HOUR = 60;
+	private static final int SECONDS_PER_MINUTE = 60;
+	private static final long MILLIS_PER_SECOND = 1000L;
+	private static final long MILLIS_PER_DAY = 86400000L;
+
+	/* days_from_civil constants: shift to a 0000-03-01 based calendar of 400 years eras */
+	private static final long DAYS_0000_03_01_TO_EPOCH = 719468L;
+	private static final long DAYS_PER_ERA = 146097L;
+	private static final long YEARS_PER_ERA = 400L;
+	private static final long DAYS_PER_4_YEARS = 1460L;
+	private static final long DAYS_PER_CENTURY = 36524L;
+	private static final long DAYS_PER_YEAR = 365L;
+	private static final int MONTH_DAYS_NUMERATOR = 153;
+	private static final int MONTH_DAYS_DIVISOR = 5;
+	private static final int MARCH_BASED_SHIFT = 9;
+	private static final int MARCH = 3;
+	private static final int FOUR = 4;
+	private static final int CENTURY = 100;
+
+	private static final int MILLIS_POSITION = 20;
+	private static final int MILLIS_LAST_DIGIT_POSITION = 23;
+	private static final int[] DATE_DIGIT_POSITIONS = { 0, 1, 2, 3, 5, 6, 8, 9, 11, 12, 14, 15, 17, 18, 20, 21, 23 };
+	private static final char[] DATE_SEPARATORS = { '-', '-', 'T', ':', ':', '.', ':', 'Z' };
+	private static final int[] DATE_SEPARATOR_POSITIONS = { 4, 7, 10, 13, 16, 19, 22, 24 };
+
+	private static final ThreadLocal<char[]> BUFFER = new ThreadLocal<char[]>() {
+
+		@Override
+		protected char[] initialValue() {
+			return new char[BUFFER_SIZE];
+		}
+	};
+
+	private LexicographicCodec() {
+		/* utility class */
+	}
+
+	static String encodeInteger(long value) {
+		final char[] buffer = BUFFER.get();
+		writeUnsigned(buffer, 0, value ^ Long.MIN_VALUE);
+
+		return new String(buffer, 0, INTEGER_DIGITS);
+	}
+
+	/**
+	 * @return true if the value is an integer encoded by {@link #encodeInteger(long)}
+	 */
+	static boolean isEncodedInteger(String value) {
+		return value.length() == INTEGER_DIGITS && isUnsignedLong(value, 0);
+	}
+
+	/**
+	 * @param value
+	 *            must satisfy {@link #isEncodedInteger(String)}
+	 */
+	static long decodeInteger(String value) {
+		return readUnsigned(value, 0) ^ Long.MIN_VALUE;
+	}
+
+	/**
+	 * @param decimal
+	 *            the {@link Double#toString(double)} or {@link Float#toString(float)} of a finite value
+	 * @return the encoded value, or null if the value needs rounding or is out of range
+	 */
+	static String encodeReal(String decimal) {
+		final char[] buffer = BUFFER.get();
+		final boolean negative = decimal.charAt(0) == '-';
+		final int start = negative ? 1 : 0;
+
+		/* the significant digits go after the encoded integer and fraction parts */
+		final int digitCount = collectDigits(decimal, start, buffer);
+		final int exponentIndex = decimal.indexOf('E');
+		int pointPosition = decimal.indexOf('.') - start;
+		if(exponentIndex > 0) {
+			pointPosition += Integer.parseInt(decimal.substring(exponentIndex + 1));
+		}
+
+		final long integerPart = readIntegerPart(buffer, digitCount, pointPosition);
+		final int fraction = writeFraction(buffer, digitCount, pointPosition);
+		if(integerPart < 0 || fraction == FRACTION_NEEDS_ROUNDING) {
+			return null;
+		}
+
+		long floor = integerPart;
+		if(negative) {
+			floor = -integerPart;
+			if(fraction != FRACTION_ZERO) {
+				floor--;
+				tensComplement(buffer, INTEGER_DIGITS);
+			}
+		}
+		writeUnsigned(buffer, 0, floor ^ Long.MIN_VALUE);
+
+		return new String(buffer, 0, REAL_DIGITS);
+	}
+
+	private static int collectDigits(String decimal, int start, char[] buffer) {
+		int digitCount = 0;
+		for(int i = start; i < decimal.length(); i++) {
+			final char c = decimal.charAt(i);
+			if(c == 'E') {
+				break;
+			}
+			if(c != '.') {
+				buffer[REAL_DIGITS + digitCount++] = c;
+			}
+		}
+
+		return digitCount;
+	}
+
+	/* returns -1 if the integer part does not fit in a long */
+	private static long readIntegerPart(char[] buffer, int digitCount, int pointPosition) {
+		long integerPart = 0;
+		int integerDigits = 0;
+		for(int i = 0; i < pointPosition; i++) {
+			final int digit = i < digitCount ? buffer[REAL_DIGITS + i] - '0' : 0;
+			if(integerDigits > 0 || digit != 0) {
+				integerDigits++;
+			}
+			integerPart = integerPart * BASE + digit;
+			if(integerDigits > MAX_SIGNED_LONG_DIGITS || integerPart < 0) {
+				return -1;
+			}
+		}
+
+		return integerPart;
+	}
+
+	/* writes the fraction part as 20 digits */
+	private static int writeFraction(char[] buffer, int digitCount, int pointPosition) {
+		int fraction = FRACTION_ZERO;
+		for(int i = 0; i < INTEGER_DIGITS; i++) {
+			final int digitIndex = pointPosition + i;
+			final char digit = digitIndex >= 0 && digitIndex < digitCount ? buffer[REAL_DIGITS + digitIndex] : '0';
+			buffer[INTEGER_DIGITS + i] = digit;
+			if(digit != '0') {
+				fraction = FRACTION_NON_ZERO;
+			}
+		}
+		for(int i = Math.max(pointPosition + INTEGER_DIGITS, 0); i < digitCount; i++) {
+			if(buffer[REAL_DIGITS + i] != '0') {
+				return FRACTION_NEEDS_ROUNDING;
+			}
+		}
+
+		return fraction;
+	}
+
+	/**
+	 * @return true if the value is a real number encoded by {@link #encodeReal(String)}, which can be decoded with
+	 *         {@link #decodeReal(String)}
+	 */
+	static boolean isEncodedReal(String value) {
+		if(value.length() != REAL_DIGITS || !isUnsignedLong(value, 0)) {
+			return false;
+		}
+
+		for(int i = INTEGER_DIGITS; i < REAL_DIGITS; i++) {
+			if(!isDigit(value.charAt(i))) {
+				return false;
+			}
+		}
+
+		/* -2^63 has no positive counterpart as a long */
+		return readUnsigned(value, 0) != 0;
+	}
+
+	/**
+	 * @param value
+	 *            must satisfy {@link #isEncodedReal(String)}
+	 * @return the exact decimal representation of the encoded value, to be parsed as a double or a float
+	 */
+	static String decodeReal(String value) {
+		final char[] buffer = BUFFER.get();
+		final long floor = readUnsigned(value, 0) ^ Long.MIN_VALUE;
+
+		boolean zeroFraction = true;
+		for(int i = 0; i < INTEGER_DIGITS; i++) {
+			final char digit = value.charAt(INTEGER_DIGITS + i);
+			buffer[REAL_DIGITS + i] = digit;
+			zeroFraction = zeroFraction && digit == '0';
+		}
+
+		int position = 0;
+		long integerPart = floor;
+		if(floor < 0) {
+			buffer[position++] = '-';
+			integerPart = -floor;
+			if(!zeroFraction) {
+				integerPart--;
+				tensComplement(buffer, REAL_DIGITS);
+			}
+		}
+
+		position = writeDecimal(buffer, position, integerPart);
+		buffer[position++] = '.';
+		System.arraycopy(buffer, REAL_DIGITS, buffer, position, INTEGER_DIGITS);
+
+		return new String(buffer, 0, position + INTEGER_DIGITS);
+	}
+
+	/**
+	 * @return the encoded date, or null if it is before the Gregorian calendar or after year 9999
+	 */
+	static String encodeDate(Date date) {
+		final long millis = date.getTime();
+		final long epochDay = floorDiv(millis, MILLIS_PER_DAY);
+		long millisOfDay = millis - epochDay * MILLIS_PER_DAY;
+
+		/* civil_from_days */
+		final long shiftedDay = epochDay + DAYS_0000_03_01_TO_EPOCH;
+		final long era = floorDiv(shiftedDay, DAYS_PER_ERA);
+		final long dayOfEra = shiftedDay - era * DAYS_PER_ERA;
+		final long yearOfEra = (dayOfEra - dayOfEra / DAYS_PER_4_YEARS + dayOfEra / DAYS_PER_CENTURY - dayOfEra
+				/ (DAYS_PER_ERA - 1)) / DAYS_PER_YEAR;
+		final long dayOfYear = dayOfEra - (DAYS_PER_YEAR * yearOfEra + yearOfEra / FOUR - yearOfEra / CENTURY);
+		final long marchBasedMonth = (MONTH_DAYS_DIVISOR * dayOfYear + 2) / MONTH_DAYS_NUMERATOR;
+		final int day = (int) (dayOfYear - (MONTH_DAYS_NUMERATOR * marchBasedMonth + 2) / MONTH_DAYS_DIVISOR + 1);
+		final int month = (int) (marchBasedMonth < BASE ? marchBasedMonth + MARCH : marchBasedMonth
+				- MARCH_BASED_SHIFT);
+		final long year = yearOfEra + era * YEARS_PER_ERA + (month <= FEBRUARY ? 1 : 0);
+
+		if(year < FIRST_GREGORIAN_YEAR || year > MAX_YEAR) {
+			return null;
+		}
+
+		final int millisecond = (int) (millisOfDay % MILLIS_PER_SECOND);
+		millisOfDay /= MILLIS_PER_SECOND;
+		final int second = (int) (millisOfDay % SECONDS_PER_MINUTE);
+		millisOfDay /= SECONDS_PER_MINUTE;
+		final int minute = (int) (millisOfDay % MINUTES_PER_HOUR);
+		final int hour = (int) (millisOfDay / MINUTES_PER_HOUR);
+
+		final int[] fields = { (int) year / CENTURY, (int) year % CENTURY, month, day, hour, minute, second,
+				millisecond / BASE, millisecond % BASE };
+
+		final char[] buffer = BUFFER.get();
+		int digit = 0;
+		for(int field = 0; field < fields.length - 1; field++) {
+			buffer[DATE_DIGIT_POSITIONS[digit++]] = (char) ('0' + fields[field] / BASE);
+			buffer[DATE_DIGIT_POSITIONS[digit++]] = (char) ('0' + fields[field] % BASE);
+		}
+		buffer[DATE_DIGIT_POSITIONS[digit]] = (char) ('0' + fields[fields.length - 1]);
+		for(int i = 0; i < DATE_SEPARATORS.length; i++) {
+			buffer[DATE_SEPARATOR_POSITIONS[i]] = DATE_SEPARATORS[i];
+		}
+
+		return new String(buffer, 0, DATE_LENGTH);
+	}
+
+	/**
+	 * @return the decoded date, or null if the value is not a well formed date of the range handled by
+	 *         {@link #encodeDate(Date)}
+	 */
+	static Date decodeDate(String value) {
+		if(value.length() != DATE_LENGTH) {
+			return null;
+		}
+		for(int i = 0; i < DATE_SEPARATORS.length; i++) {
+			if(value.charAt(DATE_SEPARATOR_POSITIONS[i]) != DATE_SEPARATORS[i]) {
+				return null;
+			}
+		}
+		for(int position : DATE_DIGIT_POSITIONS) {
+			if(!isDigit(value.charAt(position))) {
+				return null;
+			}
+		}
+
+		final int year = readDigits(value, 0, FOUR);
+		final int month = readDigits(value, 5, 2);
+		final int day = readDigits(value, 8, 2);
+		final int hour = readDigits(value, 11, 2);
+		final int minute = readDigits(value, 14, 2);
+		final int second = readDigits(value, 17, 2);
+		final int millisecond = readDigits(value, MILLIS_POSITION, 2) * BASE
+				+ readDigits(value, MILLIS_LAST_DIGIT_POSITION, 1);
+
+		if(!isValidDate(year, month, day) || hour >= HOURS_PER_DAY || minute >= MINUTES_PER_HOUR
+				|| second >= SECONDS_PER_MINUTE) {
+			return null;
+		}
+
+		/* days_from_civil */
+		final long marchBasedYear = month <= FEBRUARY ? year - 1 : year;
+		final long era = floorDiv(marchBasedYear, YEARS_PER_ERA);
+		final long yearOfEra = marchBasedYear - era * YEARS_PER_ERA;
+		final long dayOfYear = (MONTH_DAYS_NUMERATOR * (month > FEBRUARY ? month - MARCH : month + MARCH_BASED_SHIFT) + 2)
+				/ MONTH_DAYS_DIVISOR + day - 1;
+		final long dayOfEra = yearOfEra * DAYS_PER_YEAR + yearOfEra / FOUR - yearOfEra / CENTURY + dayOfYear;
+		final long epochDay = era * DAYS_PER_ERA + dayOfEra - DAYS_0000_03_01_TO_EPOCH;
+
+		final long secondOfDay = (hour * (long) MINUTES_PER_HOUR + minute) * SECONDS_PER_MINUTE + second;
+		return new Date(epochDay * MILLIS_PER_DAY + secondOfDay * MILLIS_PER_SECOND + millisecond);
+	}
+
+	private static boolean isValidDate(int year, int month, int day) {
+		if(year < FIRST_GREGORIAN_YEAR || year > MAX_YEAR) {
+			return false;
+		}
+		if(month < 1 || month > MONTHS || day < 1) {
+			return false;
+		}
+
+		final boolean leapYear = year % FOUR == 0 && (year % CENTURY != 0 || year % (FOUR * CENTURY) == 0);
+		final int daysInMonth = DAYS_IN_MONTH[month - 1] + (leapYear && month == FEBRUARY ? 1 : 0);
+
+		return day <= daysInMonth;
+	}
+
+	private static int readDigits(String value, int start, int count) {
+		int result = 0;
+		for(int i = start; i < start + count; i++) {
+			result = result * BASE + value.charAt(i) - '0';
+		}
+
+		return result;
+	}
+
+	/* writes exactly 20 digits */
+	private static void writeUnsigned(char[] buffer, int offset, long unsigned) {
+		long remaining = unsigned;
+		int position = offset + INTEGER_DIGITS - 1;
+
+		if(remaining < 0) {
+			final long quotient = (remaining >>> 1) / (BASE / 2);
+			buffer[position--] = (char) ('0' + (remaining - quotient * BASE));
+			remaining = quotient;
+		}
+		while(position >= offset) {
+			buffer[position--] = (char) ('0' + remaining % BASE);
+			remaining /= BASE;
+		}
+	}
+
+	/* writes the digits of a positive value, returns the position after the last one */
+	private static int writeDecimal(char[] buffer, int offset, long value) {
+		int digits = 1;
+		for(long remaining = value / BASE; remaining > 0; remaining /= BASE) {
+			digits++;
+		}
+
+		long remaining = value;
+		for(int position = offset + digits - 1; position >= offset; position--) {
+			buffer[position] = (char) ('0' + remaining % BASE);
+			remaining /= BASE;
+		}
+
+		return offset + digits;
+	}
+
+	/* replaces the 20 digits at offset, which must not all be zeros, by 10^20 minus their value */
+	private static void tensComplement(char[] buffer, int offset) {
+		int position = offset + INTEGER_DIGITS - 1;
+		while(buffer[position] == '0') {
+			position--;
+		}
+
+		buffer[position] = (char) ('0' + BASE - (buffer[position] - '0'));
+		for(int i = offset; i < position; i++) {
+			buffer[i] = (char) ('0' + BASE - 1 - (buffer[i] - '0'));
+		}
+	}
+
+	private static boolean isUnsignedLong(String value, int offset) {
+		for(int i = 0; i < INTEGER_DIGITS; i++) {
+			final char c = value.charAt(offset + i);
+			if(!isDigit(c)) {
+				return false;
+			}
+		}
+
+		/* digit strings of the same length compare as their values */
+		return value.regionMatches(offset, MAX_UNSIGNED_LONG, 0, INTEGER_DIGITS)
+				|| compareDigits(value, offset, MAX_UNSIGNED_LONG) < 0;
+	}
+
+	private static int compareDigits(String value, int offset, String other) {
+		for(int i = 0; i < INTEGER_DIGITS; i++) {
+			final int difference = value.charAt(offset + i) - other.charAt(i);
+			if(difference != 0) {
+				return difference;
+			}
+		}
+
+		return 0;
+	}
+
+	/* the value must be at most 2^64 - 1 */
+	private static long readUnsigned(String value, int offset) {
+		long high = 0;
+		for(int i = offset; i < offset + INTEGER_DIGITS - 2; i++) {
+			high = high * BASE + value.charAt(i) - '0';
+		}
+		final int low = (value.charAt(offset + INTEGER_DIGITS - 2) - '0') * BASE
+				+ value.charAt(offset + INTEGER_DIGITS - 1) - '0';
+
+		/* overflows into the unsigned range */
+		return high * HUNDRED + low;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static long floorDiv(long dividend, long divisor) {
+		final long quotient = dividend / divisor;
+		return (dividend % divisor != 0 && (dividend < 0) != (divisor < 0)) ? quotient - 1 : quotient;
+	}
+}
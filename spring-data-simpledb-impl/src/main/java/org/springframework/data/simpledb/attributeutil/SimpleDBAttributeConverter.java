@@ -7,17 +7,28 @@ import java.lang.reflect.Array;
 import java.math.BigDecimal;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 public final class SimpleDBAttributeConverter {
 
+	private static final Set<Class<?>> INTEGER_TYPES = new HashSet<Class<?>>(Arrays.<Class<?>> asList(Integer.class,
+			int.class, Long.class, long.class, Short.class, short.class, Byte.class, byte.class));
+
 	private SimpleDBAttributeConverter() {
 		/* utility class */
 	}
 
 	public static String encode(Object ob) {
+		String primitiveEncoding = encodePrimitive(ob);
+		if(primitiveEncoding != null) {
+			return primitiveEncoding;
+		}
+
 		String integerNumberEncoding = AmazonSimpleDBUtil.encodeAsIntegerNumber(ob);
 
 		if(integerNumberEncoding != null) {
@@ -37,6 +48,28 @@ public final class SimpleDBAttributeConverter {
 		return ob.toString();
 	}
 
+	/**
+	 * Encodes the primitive wrappers and dates with {@link LexicographicCodec}, null if the value has to go through
+	 * {@link AmazonSimpleDBUtil}.
+	 */
+	private static String encodePrimitive(Object ob) {
+		if(ob instanceof Long || ob instanceof Integer || ob instanceof Short || ob instanceof Byte) {
+			return LexicographicCodec.encodeInteger(((Number) ob).longValue());
+		}
+		if(ob instanceof Double || ob instanceof Float) {
+			final double value = ((Number) ob).doubleValue();
+			if(Double.isNaN(value) || Double.isInfinite(value)) {
+				return null;
+			}
+			return LexicographicCodec.encodeReal(ob.toString());
+		}
+		if(ob instanceof Date) {
+			return LexicographicCodec.encodeDate((Date) ob);
+		}
+
+		return null;
+	}
+
 	public static List<String> encodeArray(final Object arrayValues) {
 		Assert.notNull(arrayValues);
         Assert.isTrue(SupportedCoreTypes.ARRAYS.isOfType(arrayValues.getClass()));
@@ -60,7 +93,7 @@ public final class SimpleDBAttributeConverter {
 		} else if(BigDecimal.class.isAssignableFrom(retType)) {
 			val = AmazonSimpleDBUtil.decodeRealNumber(value);
 		} else if(Date.class.isAssignableFrom(retType)) {
-			val = AmazonSimpleDBUtil.decodeDate(value);
+			val = decodeDate(value);
 		} else if(Boolean.class.isAssignableFrom(retType) || retType == boolean.class) {
 			val = Boolean.parseBoolean(value);
 		} else if(String.class.isAssignableFrom(retType)) {
@@ -73,23 +106,42 @@ public final class SimpleDBAttributeConverter {
 	private static Object decodeToFieldOfNumericType(String value, Class<?> retType) throws ParseException {
 		Object val = null;
 
+		if(INTEGER_TYPES.contains(retType)) {
+			val = decodeToFieldOfIntegerType(value, retType);
+		} else if(Float.class.isAssignableFrom(retType) || retType == float.class) {
+			val = LexicographicCodec.isEncodedReal(value) ? Float.parseFloat(LexicographicCodec.decodeReal(value))
+					: AmazonSimpleDBUtil.decodeRealNumber(value).floatValue();
+		} else if(Double.class.isAssignableFrom(retType) || retType == double.class) {
+			val = LexicographicCodec.isEncodedReal(value) ? Double.parseDouble(LexicographicCodec.decodeReal(value))
+					: AmazonSimpleDBUtil.decodeRealNumber(value).doubleValue();
+		}
+
+		return val;
+	}
+
+	private static Object decodeToFieldOfIntegerType(String value, Class<?> retType) {
+		final long decoded = LexicographicCodec.isEncodedInteger(value) ? LexicographicCodec.decodeInteger(value)
+				: AmazonSimpleDBUtil.decodeIntegerNumber(value).longValue();
+		Object val;
+
 		if(Integer.class.isAssignableFrom(retType) || retType == int.class) {
-			val = AmazonSimpleDBUtil.decodeIntegerNumber(value).intValue();
+			val = (int) decoded;
 		} else if(Long.class.isAssignableFrom(retType) || retType == long.class) {
-			val = AmazonSimpleDBUtil.decodeIntegerNumber(value).longValue();
+			val = decoded;
 		} else if(Short.class.isAssignableFrom(retType) || retType == short.class) {
-			val = AmazonSimpleDBUtil.decodeIntegerNumber(value).shortValue();
-		} else if(Byte.class.isAssignableFrom(retType) || retType == byte.class) {
-			val = AmazonSimpleDBUtil.decodeIntegerNumber(value).byteValue();
-		} else if(Float.class.isAssignableFrom(retType) || retType == float.class) {
-			val = AmazonSimpleDBUtil.decodeRealNumber(value).floatValue();
-		} else if(Double.class.isAssignableFrom(retType) || retType == double.class) {
-			val = AmazonSimpleDBUtil.decodeRealNumber(value).doubleValue();
+			val = (short) decoded;
+		} else {
+			val = (byte) decoded;
 		}
 
 		return val;
 	}
 
+	private static Date decodeDate(String value) throws ParseException {
+		final Date date = LexicographicCodec.decodeDate(value);
+		return date != null ? date : AmazonSimpleDBUtil.decodeDate(value);
+	}
+
 	public static Object decodeToPrimitiveArray(List<String> fromSimpleDbAttValues, Class<?> retType)
 			throws ParseException {
 		Object primitiveCollection = Array.newInstance(retType, fromSimpleDbAttValues.size());
@@ -1,24 +1,52 @@
 package org.springframework.data.simpledb.core;
 
 import com.amazonaws.AmazonClientException;
-import com.amazonaws.AmazonServiceException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.data.simpledb.exception.SimpleDbExceptionTranslator;
 
 /**
- * Enables callbacks on execute()
+ * Enables callbacks on execute(), which is retried on the failures accepted by the {@link RetryPolicy}
  */
 public abstract class AbstractServiceUnavailableOperationRetrier {
 
-    private int serviceUnavailableRetries;
+    private static final RetryPolicy DEFAULT_RETRY_POLICY = new DefaultRetryPolicy();
+    private static final RetryMetrics DEFAULT_RETRY_METRICS = new RetryMetrics();
 
+    private final int serviceUnavailableRetries;
+    private final RetryPolicy retryPolicy;
+    private final RetryMetrics retryMetrics;
+    private final boolean idempotent;
+
+    /**
+     * Retries with a {@link DefaultRetryPolicy} shared by all retriers created with this constructor.
+     * 
+     * @param serviceUnavailableRetries
+     *            number of attempts, see {@link SimpleDb#setUnavailableServiceRetries(int)}
+     */
     public AbstractServiceUnavailableOperationRetrier(int serviceUnavailableRetries) {
+        this(serviceUnavailableRetries, DEFAULT_RETRY_POLICY, DEFAULT_RETRY_METRICS);
+    }
+
+    public AbstractServiceUnavailableOperationRetrier(int serviceUnavailableRetries, RetryPolicy retryPolicy,
+                                                      RetryMetrics retryMetrics) {
+        this(serviceUnavailableRetries, retryPolicy, retryMetrics, true);
+    }
+
+    /**
+     * @param idempotent
+     *            false if execute() must not be applied twice, it is then only retried on failures
+     *            {@link RetryPolicy#isRetryableIfNotApplied(AmazonClientException)} accepts
+     */
+    public AbstractServiceUnavailableOperationRetrier(int serviceUnavailableRetries, RetryPolicy retryPolicy,
+                                                      RetryMetrics retryMetrics, boolean idempotent) {
         this.serviceUnavailableRetries = serviceUnavailableRetries;
+        this.retryPolicy = retryPolicy;
+        this.retryMetrics = retryMetrics;
+        this.idempotent = idempotent;
     }
 
-    private static final int RETRY_TIME = 400;
     private int currentRetry = 0;
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractSimpleDbTemplate.class);
     public static final int SERVICE_UNAVAILABLE_STATUS_CODE = 503;
@@ -29,26 +57,42 @@ public abstract class AbstractServiceUnavailableOperationRetrier {
     public abstract void execute();
 
     public final void executeWithRetries() {
+        final long start = System.currentTimeMillis();
+        final long timeout = retryPolicy.getOperationTimeoutMillis();
+        long delay = 0;
+
         try {
-            AmazonClientException serviceUnavailableException = null;
-            serviceUnavailableException = tryExecute();
-
-            while ((serviceUnavailableException != null) && currentRetry < serviceUnavailableRetries) {
-                try {
-                    Thread.sleep(RETRY_TIME);
-                } catch (InterruptedException e) {
-                    LOGGER.debug(e.getLocalizedMessage());
+            AmazonClientException retryableException = tryExecute();
+
+            while (retryableException != null) {
+                if (currentRetry + 1 >= serviceUnavailableRetries) {
+                    retryMetrics.exhausted();
+                    throw new DataAccessResourceFailureException("SimpleDB operation failed for "
+                            + (currentRetry + 1) + " times", retryableException);
+                }
+
+                delay = retryPolicy.getRetryDelayMillis(currentRetry + 1, delay);
+                if (timeout > 0 && System.currentTimeMillis() + delay - start > timeout) {
+                    retryMetrics.deadlineExceeded();
+                    throw new DataAccessResourceFailureException("SimpleDB operation failed for "
+                            + (currentRetry + 1) + " times within its timeout of " + timeout + " ms",
+                            retryableException);
                 }
+                if (!retryPolicy.tryAcquireRetry()) {
+                    retryMetrics.budgetRejected();
+                    throw new DataAccessResourceFailureException("SimpleDB operation failed for "
+                            + (currentRetry + 1) + " times, the retry budget is exhausted", retryableException);
+                }
+
+                sleep(delay);
 
-                LOGGER.debug("Retrying operation");
+                LOGGER.debug("Retrying operation after {} ms", delay);
+                retryMetrics.retried(delay);
                 currentRetry++;
-                serviceUnavailableException = tryExecute();
+                retryableException = tryExecute();
             }
 
-            if (currentRetry == serviceUnavailableRetries) {
-                throw new DataAccessResourceFailureException(
-                        "SimpleDB operation failed for " + currentRetry + " times", serviceUnavailableException);
-            }
+            retryPolicy.operationSucceeded();
         } catch (AmazonClientException exception) {
             throw SimpleDbExceptionTranslator.getTranslatorInstance().translateAmazonClientException(exception);
         }
@@ -62,7 +106,8 @@ public abstract class AbstractServiceUnavailableOperationRetrier {
         try {
             execute();
         } catch (AmazonClientException clientException) {
-            if (isServiceUnavailableException(clientException)) {
+            if (idempotent ? retryPolicy.isRetryable(clientException) : retryPolicy
+                    .isRetryableIfNotApplied(clientException)) {
                 return clientException;
             }
 
@@ -72,10 +117,13 @@ public abstract class AbstractServiceUnavailableOperationRetrier {
         return null;
     }
 
-    private boolean isServiceUnavailableException(AmazonClientException e) {
-        return (((AmazonServiceException) e).getErrorType() == AmazonServiceException.ErrorType.Service
-                && ((AmazonServiceException) e).getStatusCode() == AbstractServiceUnavailableOperationRetrier.SERVICE_UNAVAILABLE_STATUS_CODE);
-
+    private static void sleep(long delay) {
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessResourceFailureException("Interrupted while waiting to retry a SimpleDB operation", e);
+        }
     }
 
     public int getCurrentRetry() {
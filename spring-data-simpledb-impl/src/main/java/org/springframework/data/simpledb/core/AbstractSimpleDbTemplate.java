@@ -3,8 +3,12 @@ package org.springframework.data.simpledb.core;
 import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -18,6 +22,7 @@ import org.springframework.data.simpledb.repository.support.entityinformation.Si
 import org.springframework.util.Assert;
 
 import com.amazonaws.services.simpledb.AmazonSimpleDB;
+import com.amazonaws.services.simpledb.model.Item;
 import com.amazonaws.services.simpledb.model.SelectResult;
 
 /**
@@ -26,27 +31,46 @@ import com.amazonaws.services.simpledb.model.SelectResult;
 public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
 
     private final int serviceUnavailableMaxRetries;
+    private final RetryPolicy retryPolicy;
+    private final RetryMetrics retryMetrics;
     private final SimpleDb simpleDb;
     private final AmazonSimpleDB simpleDbClient;
     private final DomainManager domainManager;
+    private final ReadCoalescer readCoalescer;
 
     public AbstractSimpleDbTemplate(SimpleDb simpleDb) {
         Assert.notNull(simpleDb);
         this.simpleDb = simpleDb;
         this.simpleDbClient = simpleDb.getSimpleDbClient();
         this.serviceUnavailableMaxRetries = simpleDb.getUnavailableServiceRetries();
+        this.retryPolicy = simpleDb.getRetryPolicy();
+        this.retryMetrics = simpleDb.getRetryMetrics();
         this.domainManager = new DomainManager();
+        this.readCoalescer = simpleDb.getReadBatchWindowMillis() > 0 ? new TemplateReadCoalescer(this) : null;
     }
 
     public abstract <T> Page<T> executePagedQueryImpl(Class<T> entityClass, String query, Pageable pageable,
                                                       boolean consistentRead, SimpleDbEntityInformation<T, ?> entityInformation);
 
+    public abstract <T> SimpleDbSlice<T> executeSlicedQueryImpl(Class<T> entityClass, String query,
+                                                                Pageable pageable, String continuationToken, boolean consistentRead,
+                                                                SimpleDbEntityInformation<T, ?> entityInformation);
+
+    public abstract <T> SimpleDbSlice<T> executeSlicedQueryImpl(Class<T> entityClass, String query,
+                                                                Pageable pageable, boolean consistentRead,
+                                                                SimpleDbEntityInformation<T, ?> entityInformation);
+
     public abstract <T> T createOrUpdateImpl(T domainItem, EntityWrapper<T, ?> entity);
 
+    public abstract <T> void createOrUpdateImpl(List<T> domainItems, List<EntityWrapper<T, ?>> entities);
+
     public abstract void deleteAttributesImpl(String domainName, String itemName);
 
     public abstract <T> void deleteImpl(T domainItem, SimpleDbEntityInformation<T, ?> entityInformation, EntityWrapper<T, ?> entity);
 
+    public abstract <T> long deleteByQueryImpl(Class<T> entityClass, String whereClause,
+                                               SimpleDbEntityInformation<T, ?> entityInformation);
+
     public abstract <T> List<T> findAllQueryImpl(Class<T> entityClass, SimpleDbEntityInformation<T, ?> entityInformation);
 
     public abstract <T> List<T> recursiveFindImpl(Class<T> entityClass, String query, boolean consistentRead,
@@ -56,12 +80,33 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
 
     public abstract SelectResult invokeFindImpl(boolean consistentRead, String escapedQuery);
 
+    public abstract SelectResult invokeFindImpl(boolean consistentRead, String escapedQuery, String nextToken);
+
+    public abstract <T> CloseableIterator<T> streamImpl(Class<T> entityClass, String query, boolean consistentRead,
+                                                       SimpleDbEntityInformation<T, ?> entityInformation);
+
     public abstract <T> long countImpl(String query, boolean consistentRead,
                                        SimpleDbEntityInformation<T, ?> entityInformation);
 
+    public abstract <T> long parallelScanImpl(Class<T> entityClass, String whereClause, int segments,
+                                              ItemCallback<? super T> callback, boolean consistentRead,
+                                              SimpleDbEntityInformation<T, ?> entityInformation);
+
     public abstract <T, ID extends Serializable> T readImpl(ID id, Class<T> entityClass, boolean consistentRead,
                                                             SimpleDbEntityInformation<T, ?> entityInformation);
 
+    public abstract <T> Map<String, T> readImpl(List<String> itemNames, Class<T> entityClass, boolean consistentRead,
+                                                SimpleDbEntityInformation<T, ?> entityInformation);
+
+    public abstract <T> List<T> readAllImpl(List<String> itemNames, Class<T> entityClass, boolean consistentRead,
+                                            SimpleDbEntityInformation<T, ?> entityInformation);
+
+    public abstract <T> T populateCachedItemImpl(Item item, Class<T> entityClass, boolean consistentRead,
+                                                 SimpleDbEntityInformation<T, ?> entityInformation);
+
+    public abstract <T, ID extends Serializable> boolean existsImpl(ID id, boolean consistentRead,
+                                                                    SimpleDbEntityInformation<T, ?> entityInformation);
+
     public abstract <T> List<T> findImpl(SimpleDbEntityInformation<T, ?> entityInformation, String query,
                                          String nextToken, boolean consistentRead);
 
@@ -83,23 +128,53 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
     }
 
     @Override
-    public final <T> T createOrUpdate(final T domainItem) {
+    public final <T> T createOrUpdate(T item) {
+        final T domainItem = LazyReferences.getTarget(item);
         final SimpleDbEntityInformation<T, ?> entityInformation = getEntityInformation(domainItem.getClass());
         final EntityWrapper<T, ?> entity = getEntityWrapper(domainItem, entityInformation);
 
         manageSimpleDbDomains(entityInformation);
 
-        final List<T> items = new ArrayList<T>();
+        evictCachedEntity(domainItem.getClass(), entity.getItemName());
 
-        new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries) {
+        /* each request of the write is retried on its own */
+        final T result = createOrUpdateImpl(domainItem, entity);
+        if (result != null) {
+            cacheWrittenEntity(entity);
+        }
 
-            @Override
-            public void execute() {
-                items.add(createOrUpdateImpl(domainItem, entity));
+        return result;
+    }
+
+    @Override
+    public final <T> List<T> createOrUpdate(Iterable<T> entities) {
+        final List<T> domainItems = new ArrayList<T>();
+        final List<EntityWrapper<T, ?>> entityWrappers = new ArrayList<EntityWrapper<T, ?>>();
+
+        for (T item : entities) {
+            final T domainItem = LazyReferences.getTarget(item);
+            final SimpleDbEntityInformation<T, ?> entityInformation = getEntityInformation(domainItem.getClass());
+
+            manageSimpleDbDomains(entityInformation);
+
+            domainItems.add(domainItem);
+            entityWrappers.add(getEntityWrapper(domainItem, entityInformation));
+        }
+
+        if (!domainItems.isEmpty()) {
+            for (int i = 0; i < domainItems.size(); i++) {
+                evictCachedEntity(domainItems.get(i).getClass(), entityWrappers.get(i).getItemName());
             }
-        }.executeWithRetries();
 
-        return items.size() > 0 ? items.get(0) : null;
+            /* batch requests are retried one by one */
+            createOrUpdateImpl(domainItems, entityWrappers);
+
+            for (EntityWrapper<T, ?> entityWrapper : entityWrappers) {
+                cacheWrittenEntity(entityWrapper);
+            }
+        }
+
+        return domainItems;
     }
 
 	@Override
@@ -107,29 +182,41 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
 		
 		manageSimpleDbDomain(domainName);
         
-		new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries) {
-
-            @Override
-            public void execute() {
-                deleteAttributesImpl(domainName, itemName);
-            }
-        }.executeWithRetries();
+		try {
+			new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries, retryPolicy, retryMetrics) {
+
+				@Override
+				public void execute() {
+					deleteAttributesImpl(domainName, itemName);
+				}
+			}.executeWithRetries();
+		} finally {
+			final EntityCache entityCache = simpleDb.getEntityCache(domainName);
+			if (entityCache != null) {
+				entityCache.invalidate(itemName);
+			}
+		}
     }
 
     @Override
-    public final <T> void delete(final T domainItem) {
+    public final <T> void delete(T item) {
+        final T domainItem = LazyReferences.getTarget(item);
         final SimpleDbEntityInformation<T, ?> entityInformation = getEntityInformation(domainItem.getClass());
         final EntityWrapper<T, ?> entity = getEntityWrapper(domainItem, entityInformation);
 
         manageSimpleDbDomain(entityInformation.getDomain());
         
-        new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries) {
-
-            @Override
-            public void execute() {
-                deleteImpl(domainItem, entityInformation, entity);
-            }
-        }.executeWithRetries();
+        try {
+            new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries, retryPolicy, retryMetrics) {
+
+                @Override
+                public void execute() {
+                    deleteImpl(domainItem, entityInformation, entity);
+                }
+            }.executeWithRetries();
+        } finally {
+            evictCachedEntity(domainItem.getClass(), entity.getItemName());
+        }
     }
 
     @Override
@@ -146,11 +233,24 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
 
 	@Override
     public final <T> void deleteAll(Class<T> entityClass) {
-        for (T element : findAll(entityClass, true)) {
-            delete(element);
+        try {
+            deleteByQuery(entityClass, null);
+        } finally {
+            final EntityCache entityCache = simpleDb.getEntityCache(entityClass);
+            if (entityCache != null) {
+                entityCache.clear();
+            }
         }
     }
 
+    @Override
+    public final <T> long deleteByQuery(Class<T> entityClass, String whereClause) {
+        final SimpleDbEntityInformation<T, ?> entityInformation = getEntityInformation(entityClass);
+        manageSimpleDbDomain(entityInformation.getDomain());
+
+        return deleteByQueryImpl(entityClass, whereClause, entityInformation);
+    }
+
     @Override
     public final <T, ID extends Serializable> T read(ID id, Class<T> entityClass) {
         return read(id, entityClass, simpleDb.isConsistentRead());
@@ -161,18 +261,115 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
                                                      final boolean consistentRead) {
         
     	final SimpleDbEntityInformation<T, ?> entityInformation = getEntityInformation(entityClass);
+
+        /* consistent reads skip the cached entity, but refresh it */
+        final EntityCache entityCache = simpleDb.getEntityCache(entityClass);
+        if (entityCache != null && !consistentRead) {
+            final Item cachedItem = entityCache.get(id.toString(), entityClass);
+            if (cachedItem != null) {
+                return populateCachedItemImpl(cachedItem, entityClass, consistentRead, entityInformation);
+            }
+        }
+        final long cacheGeneration = entityCache != null ? entityCache.getGeneration() : 0;
+
         manageSimpleDbDomain(entityInformation.getDomain());
         final List<T> items = new ArrayList<T>();
 
-        new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries) {
+        if (readCoalescer != null) {
+            items.add(readCoalescer.read(entityClass, id.toString(), consistentRead));
+        } else {
+            new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries, retryPolicy, retryMetrics) {
+
+                @Override
+                public void execute() {
+                    items.add(readImpl(id, entityClass, consistentRead, entityInformation));
+                }
+            }.executeWithRetries();
+        }
+
+        final T item = items.size() > 0 ? items.get(0) : null;
+        if (entityCache != null && item != null) {
+            entityCache.put(id.toString(), entityClass, getEntityWrapper(item, entityInformation)
+                    .toMultiValueAttributes(), cacheGeneration);
+        }
+
+        return item;
+    }
+
+    @Override
+    public final <T> List<T> readAll(Iterable<?> ids, Class<T> entityClass, boolean preserveOrder) {
+        return readAll(ids, entityClass, preserveOrder, simpleDb.isConsistentRead());
+    }
+
+    /*
+     * Each select of a chunk is retried on its own, like the selects of a parallel scan.
+     */
+    @Override
+    public final <T> List<T> readAll(Iterable<?> ids, Class<T> entityClass, boolean preserveOrder,
+                                     boolean consistentRead) {
+        Assert.notNull(ids);
+
+        final Set<String> itemNames = new LinkedHashSet<String>();
+        for (Object id : ids) {
+            Assert.notNull(id, "The given ids must not contain null!");
+            itemNames.add(id.toString());
+        }
+        if (itemNames.isEmpty()) {
+            return new ArrayList<T>();
+        }
+
+        final SimpleDbEntityInformation<T, ?> entityInformation = getEntityInformation(entityClass);
+        manageSimpleDbDomain(entityInformation.getDomain());
+
+        final List<T> entities = readAllImpl(new ArrayList<String>(itemNames), entityClass, consistentRead,
+                entityInformation);
+        if (!preserveOrder) {
+            return entities;
+        }
+
+        final Map<String, T> entitiesByItemName = new HashMap<String, T>();
+        for (T entity : entities) {
+            entitiesByItemName.put(entityInformation.getItemName(entity), entity);
+        }
+
+        final List<T> orderedEntities = new ArrayList<T>(entitiesByItemName.size());
+        for (String itemName : itemNames) {
+            final T entity = entitiesByItemName.get(itemName);
+            if (entity != null) {
+                orderedEntities.add(entity);
+            }
+        }
+
+        return orderedEntities;
+    }
+
+    @Override
+    public final <T, ID extends Serializable> boolean exists(ID id, Class<T> entityClass) {
+        return exists(id, entityClass, simpleDb.isConsistentRead());
+    }
+
+    @Override
+    public final <T, ID extends Serializable> boolean exists(final ID id, final Class<T> entityClass,
+                                                             final boolean consistentRead) {
+
+        final EntityCache entityCache = simpleDb.getEntityCache(entityClass);
+        if (entityCache != null && !consistentRead && entityCache.contains(id.toString(), entityClass)) {
+            return true;
+        }
+
+        final SimpleDbEntityInformation<T, ?> entityInformation = getEntityInformation(entityClass);
+        manageSimpleDbDomain(entityInformation.getDomain());
+        final List<Boolean> results = new ArrayList<Boolean>();
+
+        new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries, retryPolicy, retryMetrics) {
 
             @Override
             public void execute() {
-                items.add(readImpl(id, entityClass, consistentRead, entityInformation));
+                results.add(existsImpl(id, consistentRead, entityInformation));
             }
         }.executeWithRetries();
 
-        return items.size() > 0 ? items.get(0) : null;
+        return results.size() > 0 && results.get(0);
     }
 
     @Override
@@ -192,7 +389,7 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
         manageSimpleDbDomain(entityInformation.getDomain());
         final List<Long> items = new ArrayList<Long>();
 
-        new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries) {
+        new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries, retryPolicy, retryMetrics) {
 
             @Override
             public void execute() {
@@ -210,7 +407,7 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
     	manageSimpleDbDomain(entityInformation.getDomain());
         final List<Long> items = new ArrayList<Long>();
 
-        new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries) {
+        new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries, retryPolicy, retryMetrics) {
 
             @Override
             public void execute() {
@@ -233,7 +430,7 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
     	manageSimpleDbDomain(entityInformation.getDomain());
         final List<T> items = new ArrayList<T>();
 
-        new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries) {
+        new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries, retryPolicy, retryMetrics) {
 
             @Override
             public void execute() {
@@ -244,13 +441,79 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
         return items;
     }
 
+    protected final int getServiceUnavailableMaxRetries() {
+        return serviceUnavailableMaxRetries;
+    }
+
+    protected final RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    protected final RetryMetrics getRetryMetrics() {
+        return retryMetrics;
+    }
+
+    @Override
+    public final <T> CloseableIterator<T> stream(Class<T> entityClass, String query) {
+        return stream(entityClass, query, simpleDb.isConsistentRead());
+    }
+
+    @Override
+    public final <T> CloseableIterator<T> stream(final Class<T> entityClass, final String query,
+                                                 final boolean consistentRead) {
+
+    	final SimpleDbEntityInformation<T, ?> entityInformation = getEntityInformation(entityClass);
+    	manageSimpleDbDomain(entityInformation.getDomain());
+
+        return streamImpl(entityClass, query, consistentRead, entityInformation);
+    }
+
+    @Override
+    public final <T> long parallelScan(Class<T> entityClass, String whereClause, int segments,
+                                       ItemCallback<? super T> callback) {
+        return parallelScan(entityClass, whereClause, segments, callback, simpleDb.isConsistentRead());
+    }
+
+    /*
+     * Each select of the scan is retried on its own, a whole segment is never read twice.
+     */
+    @Override
+    public final <T> long parallelScan(Class<T> entityClass, String whereClause, int segments,
+                                       ItemCallback<? super T> callback, boolean consistentRead) {
+        Assert.notNull(callback);
+
+        final SimpleDbEntityInformation<T, ?> entityInformation = getEntityInformation(entityClass);
+        manageSimpleDbDomain(entityInformation.getDomain());
+
+        return parallelScanImpl(entityClass, whereClause, segments, callback, consistentRead, entityInformation);
+    }
+
+    /**
+     * Runs a single select request, retrying it on service unavailability. Used by lazy iterators, which fetch
+     * their pages outside of the retried operations.
+     */
+    protected final SelectResult select(final String escapedQuery, final String nextToken,
+                                        final boolean consistentRead) {
+        final List<SelectResult> results = new ArrayList<SelectResult>();
+
+        new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries, retryPolicy, retryMetrics) {
+
+            @Override
+            public void execute() {
+                results.add(invokeFindImpl(consistentRead, escapedQuery, nextToken));
+            }
+        }.executeWithRetries();
+
+        return results.get(0);
+    }
+
     protected <T> List<T> find(final SimpleDbEntityInformation<T, ?> entityInformation, final String query,
                                final String nextToken, final boolean consistentRead) {
 
     	manageSimpleDbDomain(entityInformation.getDomain());
         final List<T> items = new ArrayList<T>();
 
-        new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries) {
+        new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries, retryPolicy, retryMetrics) {
 
             @Override
             public void execute() {
@@ -273,7 +536,7 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
     	manageSimpleDbDomain(entityInformation.getDomain());
         final List<T> items = new ArrayList<T>();
 
-        new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries) {
+        new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries, retryPolicy, retryMetrics) {
 
             @Override
             public void execute() {
@@ -297,7 +560,7 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
     	manageSimpleDbDomain(entityInformation.getDomain());
         final List<Page<T>> pages = new ArrayList<Page<T>>();
 
-        new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries) {
+        new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries, retryPolicy, retryMetrics) {
 
             @Override
             public void execute() {
@@ -308,18 +571,73 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
         return pages.isEmpty() ? null : pages.get(0);
     }
 
+    @Override
+    public final <T> SimpleDbSlice<T> executeSlicedQuery(Class<T> entityClass, String query, Pageable pageable) {
+        return executeSlicedQuery(entityClass, query, pageable, simpleDb.isConsistentRead());
+    }
+
+    @Override
+    public final <T> SimpleDbSlice<T> executeSlicedQuery(final Class<T> entityClass, final String query,
+                                                         final Pageable pageable, final boolean consistentRead) {
+
+        final SimpleDbEntityInformation<T, ?> entityInformation = getEntityInformation(entityClass);
+        manageSimpleDbDomain(entityInformation.getDomain());
+        final List<SimpleDbSlice<T>> slices = new ArrayList<SimpleDbSlice<T>>();
+
+        new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries, retryPolicy, retryMetrics) {
+
+            @Override
+            public void execute() {
+                slices.add(executeSlicedQueryImpl(entityClass, query, pageable, consistentRead, entityInformation));
+            }
+        }.executeWithRetries();
+
+        return slices.get(0);
+    }
+
+    @Override
+    public final <T> SimpleDbSlice<T> executeSlicedQuery(Class<T> entityClass, String query, Pageable pageable,
+                                                         String continuationToken) {
+        return executeSlicedQuery(entityClass, query, pageable, continuationToken, simpleDb.isConsistentRead());
+    }
+
+    @Override
+    public final <T> SimpleDbSlice<T> executeSlicedQuery(final Class<T> entityClass, final String query,
+                                                         final Pageable pageable, final String continuationToken,
+                                                         final boolean consistentRead) {
+
+        final SimpleDbEntityInformation<T, ?> entityInformation = getEntityInformation(entityClass);
+        manageSimpleDbDomain(entityInformation.getDomain());
+        final List<SimpleDbSlice<T>> slices = new ArrayList<SimpleDbSlice<T>>();
+
+        new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries, retryPolicy, retryMetrics) {
+
+            @Override
+            public void execute() {
+                slices.add(executeSlicedQueryImpl(entityClass, query, pageable, continuationToken, consistentRead,
+                        entityInformation));
+            }
+        }.executeWithRetries();
+
+        return slices.get(0);
+    }
+
     @Override
 	public <T, ID> void update(final ID id, final Class<T> entityClass, 
 			final Map<String, ? extends Object> propertyMap) {
 
     	manageSimpleDbDomain(getDomainName(entityClass));
-		new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries) {
-			
-			@Override
-			public void execute() {
-				updateImpl(id, entityClass, propertyMap);
-			}
-		}.executeWithRetries();
+    	try {
+    		new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries, retryPolicy, retryMetrics) {
+
+    			@Override
+    			public void execute() {
+    				updateImpl(id, entityClass, propertyMap);
+    			}
+    		}.executeWithRetries();
+    	} finally {
+    		evictCachedEntity(entityClass, id);
+    	}
     }
 
 	@Override
@@ -349,13 +667,55 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
     }
 
     @SuppressWarnings("unchecked")
-    private <T> SimpleDbEntityInformation<T, ?> getEntityInformation(Class<?> domainClass) {
+    protected <T> SimpleDbEntityInformation<T, ?> getEntityInformation(Class<?> domainClass) {
         String simpleDbDomain = simpleDb.getSimpleDbDomain().getDomain(domainClass);
         return (SimpleDbEntityInformation<T, ?>) SimpleDbEntityInformationSupport.getMetadata(domainClass,
                 simpleDbDomain);
     }
 
-    private <T> void manageSimpleDbDomain(final String domainName) {
+    private Map<String, Item> readItemsWithRetries(Class<?> entityClass, List<String> itemNames,
+                                                   final boolean consistentRead) {
+        final String query = new QueryBuilder(getEntityInformation(entityClass)).withItemNamesIn(itemNames).toString();
+        final List<SelectResult> results = new ArrayList<SelectResult>();
+
+        new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries, retryPolicy, retryMetrics) {
+
+            @Override
+            public void execute() {
+                results.add(invokeFindImpl(consistentRead, query));
+            }
+        }.executeWithRetries();
+
+        final Map<String, Item> items = new HashMap<String, Item>();
+        for (Item item : results.get(0).getItems()) {
+            items.put(item.getName(), item);
+        }
+
+        return items;
+    }
+
+    /**
+     * Drops the cached entity of the item, if its class is cached.
+     */
+    protected final void evictCachedEntity(Class<?> entityClass, Object id) {
+        final EntityCache entityCache = simpleDb.getEntityCache(entityClass);
+        if (entityCache != null && id != null) {
+            entityCache.invalidate(id.toString());
+        }
+    }
+
+    /*
+     * Caches a snapshot of the written attributes, later changes of the caller's instance are not seen by readers.
+     */
+    private void cacheWrittenEntity(EntityWrapper<?, ?> entity) {
+        final Class<?> entityClass = entity.getItem().getClass();
+        final EntityCache entityCache = simpleDb.getEntityCache(entityClass);
+        if (entityCache != null && entity.getItemName() != null) {
+            entityCache.put(entity.getItemName(), entityClass, entity.toMultiValueAttributes());
+        }
+    }
+
+    protected final void manageSimpleDbDomain(final String domainName) {
     	domainManager.manageDomain(domainName, simpleDb.getDomainManagementPolicy(), simpleDbClient);
     }
 
@@ -370,6 +730,26 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
 
         manageSimpleDbDomain(entityInformation.getDomain());
     }
-    
-    
+
+    private static final class TemplateReadCoalescer extends ReadCoalescer {
+
+        private final AbstractSimpleDbTemplate template;
+
+        private TemplateReadCoalescer(AbstractSimpleDbTemplate template) {
+            super(template.getSimpleDb().getReadBatchWindowMillis(), TimeUnit.MILLISECONDS,
+                    template.getSimpleDb().getReadBatchMaxSize());
+            this.template = template;
+        }
+
+        @Override
+        Map<String, Item> readItems(Class<?> entityClass, List<String> itemNames, boolean consistentRead) {
+            return template.readItemsWithRetries(entityClass, itemNames, consistentRead);
+        }
+
+        @Override
+        <T> T toEntity(Class<T> entityClass, Item item, boolean consistentRead) {
+            return template.populateCachedItemImpl(item, entityClass, consistentRead,
+                    template.<T> getEntityInformation(entityClass));
+        }
+    }
 }
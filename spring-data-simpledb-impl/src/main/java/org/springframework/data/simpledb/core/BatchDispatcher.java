@@ -0,0 +1,192 @@
+package org.springframework.data.simpledb.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.simpledb.core.BatchOperationResult.BatchFailure;
+
+import com.amazonaws.services.simpledb.AmazonSimpleDB;
+import com.amazonaws.services.simpledb.model.BatchDeleteAttributesRequest;
+import com.amazonaws.services.simpledb.model.BatchPutAttributesRequest;
+import com.amazonaws.services.simpledb.model.DeletableItem;
+import com.amazonaws.services.simpledb.model.ReplaceableItem;
+
+/**
+ * Sends independent batch requests, each with its own retries. With an executor, the requests
+ * are sent concurrently, at most <tt>maxInFlightBatches</tt> at a time; otherwise they are sent one after another on
+ * the caller thread. A failed batch does not stop the others, all failures are collected in the result.
+ */
+final class BatchDispatcher {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(BatchDispatcher.class);
+
+	private final AmazonSimpleDB client;
+	private final ExecutorService executor;
+	private final int maxInFlightBatches;
+	private final int serviceUnavailableRetries;
+	private final RetryPolicy retryPolicy;
+	private final RetryMetrics retryMetrics;
+
+	/**
+	 * @param executor
+	 *            executor sending the batches, may be {@code null} to send them on the caller thread
+	 */
+	BatchDispatcher(AmazonSimpleDB client, ExecutorService executor, int maxInFlightBatches,
+			int serviceUnavailableRetries, RetryPolicy retryPolicy, RetryMetrics retryMetrics) {
+		this.client = client;
+		this.executor = executor;
+		this.maxInFlightBatches = maxInFlightBatches;
+		this.serviceUnavailableRetries = serviceUnavailableRetries;
+		this.retryPolicy = retryPolicy;
+		this.retryMetrics = retryMetrics;
+	}
+
+	BatchOperationResult batchPutAttributes(List<BatchPutAttributesRequest> requests) {
+		final List<Batch> batches = new ArrayList<Batch>(requests.size());
+
+		for(final BatchPutAttributesRequest request : requests) {
+			final List<String> itemNames = new ArrayList<String>();
+			for(ReplaceableItem item : request.getItems()) {
+				itemNames.add(item.getName());
+			}
+
+			batches.add(new Batch(request.getDomainName(), itemNames) {
+
+				@Override
+				void send() {
+					client.batchPutAttributes(request);
+				}
+			});
+		}
+
+		return dispatch(batches);
+	}
+
+	BatchOperationResult batchDeleteAttributes(List<BatchDeleteAttributesRequest> requests) {
+		final List<Batch> batches = new ArrayList<Batch>(requests.size());
+
+		for(final BatchDeleteAttributesRequest request : requests) {
+			final List<String> itemNames = new ArrayList<String>();
+			for(DeletableItem item : request.getItems()) {
+				itemNames.add(item.getName());
+			}
+
+			batches.add(new Batch(request.getDomainName(), itemNames) {
+
+				@Override
+				void send() {
+					client.batchDeleteAttributes(request);
+				}
+			});
+		}
+
+		return dispatch(batches);
+	}
+
+	private BatchOperationResult dispatch(List<Batch> batches) {
+		if(executor == null || maxInFlightBatches <= 1 || batches.size() <= 1) {
+			for(Batch batch : batches) {
+				execute(batch);
+			}
+		} else {
+			dispatchConcurrently(batches);
+		}
+
+		int itemCount = 0;
+		final List<BatchFailure> failures = new ArrayList<BatchFailure>();
+		for(Batch batch : batches) {
+			itemCount += batch.itemNames.size();
+			if(batch.failure != null) {
+				failures.add(new BatchFailure(batch.domain, batch.itemNames, batch.failure));
+			}
+		}
+
+		return new BatchOperationResult(batches.size(), itemCount, failures);
+	}
+
+	private void dispatchConcurrently(List<Batch> batches) {
+		final Semaphore inFlight = new Semaphore(maxInFlightBatches);
+		final List<Future<?>> futures = new ArrayList<Future<?>>(batches.size());
+
+		try {
+			for(final Batch batch : batches) {
+				inFlight.acquire();
+				try {
+					futures.add(executor.submit(new Runnable() {
+
+						@Override
+						public void run() {
+							try {
+								execute(batch);
+							} finally {
+								inFlight.release();
+							}
+						}
+					}));
+				} catch(RejectedExecutionException e) {
+					LOGGER.debug("Batch executor rejected the request, sending it on the caller thread");
+					inFlight.release();
+					execute(batch);
+				}
+			}
+
+			for(Future<?> future : futures) {
+				future.get();
+			}
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			cancel(futures);
+			throw new DataAccessResourceFailureException("Interrupted while sending batch requests", e);
+		} catch(ExecutionException e) {
+			cancel(futures);
+			throw new DataAccessResourceFailureException("Batch request failed", e);
+		}
+	}
+
+	/*
+	 * Batches must not keep running once the caller is told the operation failed, a retry would race them.
+	 */
+	private static void cancel(List<Future<?>> futures) {
+		for(Future<?> future : futures) {
+			future.cancel(true);
+		}
+	}
+
+	private void execute(final Batch batch) {
+		try {
+			new AbstractServiceUnavailableOperationRetrier(serviceUnavailableRetries, retryPolicy, retryMetrics) {
+
+				@Override
+				public void execute() {
+					batch.send();
+				}
+			}.executeWithRetries();
+		} catch(RuntimeException e) {
+			LOGGER.debug("Batch request of {} items in domain {} failed", batch.itemNames.size(), batch.domain);
+			batch.failure = e;
+		}
+	}
+
+	private abstract static class Batch {
+
+		private final String domain;
+		private final List<String> itemNames;
+
+		private volatile RuntimeException failure;
+
+		Batch(String domain, List<String> itemNames) {
+			this.domain = domain;
+			this.itemNames = itemNames;
+		}
+
+		abstract void send();
+	}
+}
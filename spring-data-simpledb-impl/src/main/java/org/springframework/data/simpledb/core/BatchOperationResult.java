@@ -0,0 +1,89 @@
+package org.springframework.data.simpledb.core;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a bulk operation split into several SimpleDB batch requests: the number of batches and items sent, and
+ * the batches which failed after all retries.
+ */
+public class BatchOperationResult implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int batchCount;
+	private final int itemCount;
+	private final List<BatchFailure> failures;
+
+	public BatchOperationResult(int batchCount, int itemCount, List<BatchFailure> failures) {
+		this.batchCount = batchCount;
+		this.itemCount = itemCount;
+		this.failures = Collections.unmodifiableList(new ArrayList<BatchFailure>(failures));
+	}
+
+	public int getBatchCount() {
+		return batchCount;
+	}
+
+	public int getItemCount() {
+		return itemCount;
+	}
+
+	/**
+	 * @return the number of items of the failed batches
+	 */
+	public int getFailedItemCount() {
+		int failedItemCount = 0;
+		for(BatchFailure failure : failures) {
+			failedItemCount += failure.getItemNames().size();
+		}
+
+		return failedItemCount;
+	}
+
+	public boolean hasFailures() {
+		return !failures.isEmpty();
+	}
+
+	public List<BatchFailure> getFailures() {
+		return failures;
+	}
+
+	@Override
+	public String toString() {
+		return "BatchOperationResult{batchCount=" + batchCount + ", itemCount=" + itemCount + ", failedBatches="
+				+ failures.size() + "}";
+	}
+
+	/**
+	 * A batch request which could not be executed: none, some or all of its items may have been written.
+	 */
+	public static class BatchFailure implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String domain;
+		private final List<String> itemNames;
+		private final RuntimeException cause;
+
+		public BatchFailure(String domain, List<String> itemNames, RuntimeException cause) {
+			this.domain = domain;
+			this.itemNames = Collections.unmodifiableList(new ArrayList<String>(itemNames));
+			this.cause = cause;
+		}
+
+		public String getDomain() {
+			return domain;
+		}
+
+		public List<String> getItemNames() {
+			return itemNames;
+		}
+
+		public RuntimeException getCause() {
+			return cause;
+		}
+	}
+}
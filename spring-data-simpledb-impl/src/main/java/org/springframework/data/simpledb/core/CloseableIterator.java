@@ -0,0 +1,15 @@
+package org.springframework.data.simpledb.core;
+
+import java.util.Iterator;
+
+/**
+ * An {@link Iterator} over a lazily fetched result which may hold resources while it is being consumed. Callers
+ * that stop iterating before the end of the result should {@link #close()} the iterator.
+ */
+public interface CloseableIterator<T> extends Iterator<T> {
+
+	/**
+	 * Releases the resources held by this iterator. Subsequent calls to {@link #hasNext()} return {@code false}.
+	 */
+	void close();
+}
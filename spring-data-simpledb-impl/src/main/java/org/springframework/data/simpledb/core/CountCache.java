@@ -0,0 +1,118 @@
+package org.springframework.data.simpledb.core;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.data.simpledb.util.ExpiringLruCache;
+
+/**
+ * Remembers the results of eventually consistent count queries for a short time, keyed by domain and count query,
+ * so that list screens do not run a full count select on every page flip. Writes through the template invalidate the
+ * counts of the written domain: each write moves the domain to a new generation, and the counts of older generations
+ * are no longer looked up and age out of the cache.
+ * <p>
+ * Enabled by {@link SimpleDb#setCountCacheSize(int)}.
+ */
+public final class CountCache {
+
+	private final ExpiringLruCache<Key, Long> counts;
+	private final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<String, AtomicLong>();
+
+	public CountCache(int maxSize, long timeToLive, TimeUnit unit) {
+		this.counts = new ExpiringLruCache<Key, Long>(maxSize, timeToLive, unit);
+	}
+
+	/**
+	 * @return the current generation of the domain, to be read before running the count query which is put
+	 */
+	public long getGeneration(String domain) {
+		return getGenerationCounter(domain).get();
+	}
+
+	/**
+	 * @param countQuery
+	 *            the escaped count query, with its where clause
+	 * @return the cached count, null if it is not cached
+	 */
+	public Long get(String domain, String countQuery) {
+		return counts.get(new Key(domain, getGeneration(domain), countQuery));
+	}
+
+	/**
+	 * @param generation
+	 *            the {@link #getGeneration(String) generation} of the domain when the count query started, so that a
+	 *            count overlapping a write is not cached for the new generation
+	 */
+	public void put(String domain, long generation, String countQuery, long count) {
+		counts.put(new Key(domain, generation, countQuery), count);
+	}
+
+	/**
+	 * Drops the counts of the domain, called when items of the domain are written.
+	 */
+	public void invalidate(String domain) {
+		getGenerationCounter(domain).incrementAndGet();
+	}
+
+	public void clear() {
+		counts.clear();
+	}
+
+	public long getHitCount() {
+		return counts.getHitCount();
+	}
+
+	public long getMissCount() {
+		return counts.getMissCount();
+	}
+
+	private AtomicLong getGenerationCounter(String domain) {
+		AtomicLong generation = generations.get(domain);
+		if(generation == null) {
+			generation = new AtomicLong();
+			final AtomicLong existing = generations.putIfAbsent(domain, generation);
+			if(existing != null) {
+				generation = existing;
+			}
+		}
+
+		return generation;
+	}
+
+	private static final class Key {
+
+		private final String domain;
+		private final long generation;
+		private final String countQuery;
+
+		private Key(String domain, long generation, String countQuery) {
+			this.domain = domain;
+			this.generation = generation;
+			this.countQuery = countQuery;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj) {
+				return true;
+			}
+			if(!(obj instanceof Key)) {
+				return false;
+			}
+
+			final Key other = (Key) obj;
+			return generation == other.generation && domain.equals(other.domain)
+					&& countQuery.equals(other.countQuery);
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = domain.hashCode();
+			result = prime * result + (int) (generation ^ (generation >>> Integer.SIZE));
+			return prime * result + countQuery.hashCode();
+		}
+	}
+}
@@ -0,0 +1,182 @@
+package org.springframework.data.simpledb.core;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+
+/**
+ * Retries service unavailability, internal errors, throttling and network failures with decorrelated jitter
+ * exponential backoff: each delay is random between the base delay and three times the previous delay, capped by
+ * the maximum delay. Requests which must not be applied twice are only retried after throttling and unavailability.
+ * <p>
+ * Retries are taken from a budget which each successful operation refills by one, up to its size. While SimpleDB is
+ * failing for everyone the budget runs out and operations fail at once, instead of multiplying the load of an
+ * overloaded service.
+ */
+public class DefaultRetryPolicy implements RetryPolicy {
+
+	public static final long DEFAULT_BASE_DELAY_MILLIS = 100L;
+	public static final long DEFAULT_MAX_DELAY_MILLIS = 20000L;
+	public static final long DEFAULT_OPERATION_TIMEOUT_MILLIS = 60000L;
+	public static final int DEFAULT_RETRY_BUDGET = 100;
+
+	private static final int INTERNAL_ERROR_STATUS_CODE = 500;
+	private static final int SERVICE_UNAVAILABLE_STATUS_CODE =
+			AbstractServiceUnavailableOperationRetrier.SERVICE_UNAVAILABLE_STATUS_CODE;
+	private static final int BACKOFF_FACTOR = 3;
+	private static final Set<String> THROTTLING_ERROR_CODES = new HashSet<String>(Arrays.asList("Throttling",
+			"ThrottlingException", "RequestThrottled", "RequestLimitExceeded", "SlowDown", "ServiceUnavailable"));
+
+	private final Random random = new Random();
+	private final AtomicInteger availableRetries = new AtomicInteger(DEFAULT_RETRY_BUDGET);
+
+	private volatile long baseDelayMillis = DEFAULT_BASE_DELAY_MILLIS;
+	private volatile long maxDelayMillis = DEFAULT_MAX_DELAY_MILLIS;
+	private volatile long operationTimeoutMillis = DEFAULT_OPERATION_TIMEOUT_MILLIS;
+	private volatile int retryBudget = DEFAULT_RETRY_BUDGET;
+
+	@Override
+	public boolean isRetryable(AmazonClientException exception) {
+		if(isRetryableIfNotApplied(exception)) {
+			return true;
+		}
+
+		if(exception instanceof AmazonServiceException) {
+			final AmazonServiceException serviceException = (AmazonServiceException) exception;
+
+			return serviceException.getErrorType() == AmazonServiceException.ErrorType.Service
+					&& serviceException.getStatusCode() == INTERNAL_ERROR_STATUS_CODE;
+		}
+
+		/* client side failures are retried when the request could not be sent or answered */
+		for(Throwable cause = exception.getCause(); cause != null; cause = cause.getCause()) {
+			if(cause instanceof IOException) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/*
+	 * Throttled and unavailable requests are rejected before they are applied. An internal error or a lost response
+	 * may follow a request which was applied.
+	 */
+	@Override
+	public boolean isRetryableIfNotApplied(AmazonClientException exception) {
+		if(!(exception instanceof AmazonServiceException)) {
+			return false;
+		}
+
+		final AmazonServiceException serviceException = (AmazonServiceException) exception;
+		if(THROTTLING_ERROR_CODES.contains(serviceException.getErrorCode())) {
+			return true;
+		}
+
+		return serviceException.getErrorType() == AmazonServiceException.ErrorType.Service
+				&& serviceException.getStatusCode() == SERVICE_UNAVAILABLE_STATUS_CODE;
+	}
+
+	@Override
+	public long getRetryDelayMillis(int retry, long previousDelayMillis) {
+		final long upperBound = Math.min(maxDelayMillis, Math.max(baseDelayMillis, previousDelayMillis)
+				* BACKOFF_FACTOR);
+		if(upperBound <= baseDelayMillis) {
+			return upperBound;
+		}
+
+		return baseDelayMillis + (long) (random.nextDouble() * (upperBound - baseDelayMillis));
+	}
+
+	@Override
+	public long getOperationTimeoutMillis() {
+		return operationTimeoutMillis;
+	}
+
+	@Override
+	public boolean tryAcquireRetry() {
+		for(;;) {
+			final int available = availableRetries.get();
+			if(available <= 0) {
+				return false;
+			}
+			if(availableRetries.compareAndSet(available, available - 1)) {
+				return true;
+			}
+		}
+	}
+
+	@Override
+	public void operationSucceeded() {
+		for(;;) {
+			final int available = availableRetries.get();
+			if(available >= retryBudget || availableRetries.compareAndSet(available, available + 1)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Set the smallest delay before a retry. Defaults to 100 ms.
+	 *
+	 * @param baseDelayMillis
+	 */
+	public void setBaseDelayMillis(long baseDelayMillis) {
+		this.baseDelayMillis = baseDelayMillis;
+	}
+
+	public long getBaseDelayMillis() {
+		return baseDelayMillis;
+	}
+
+	/**
+	 * Set the largest delay before a retry. Defaults to 20 s.
+	 *
+	 * @param maxDelayMillis
+	 */
+	public void setMaxDelayMillis(long maxDelayMillis) {
+		this.maxDelayMillis = maxDelayMillis;
+	}
+
+	public long getMaxDelayMillis() {
+		return maxDelayMillis;
+	}
+
+	/**
+	 * Set the time an operation may spend including its retries. Defaults to 60 s; 0 means, operations are retried
+	 * until they run out of attempts.
+	 *
+	 * @param operationTimeoutMillis
+	 */
+	public void setOperationTimeoutMillis(long operationTimeoutMillis) {
+		this.operationTimeoutMillis = operationTimeoutMillis;
+	}
+
+	/**
+	 * Set the number of retries operations may take before successful operations refill the budget. Defaults to
+	 * 100.
+	 *
+	 * @param retryBudget
+	 */
+	public void setRetryBudget(int retryBudget) {
+		this.retryBudget = retryBudget;
+		this.availableRetries.set(retryBudget);
+	}
+
+	public int getRetryBudget() {
+		return retryBudget;
+	}
+
+	/**
+	 * @return the retries left in the budget
+	 */
+	public int getAvailableRetries() {
+		return availableRetries.get();
+	}
+}
@@ -0,0 +1,139 @@
+package org.springframework.data.simpledb.core;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.data.simpledb.util.ExpiringLruCache;
+
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.Item;
+
+/**
+ * Remembers the attributes of the entities of a domain read by id, keyed by item name, so that reading them again
+ * does not leave the JVM. Each hit builds a new entity from the cached attributes, so that readers never share an
+ * instance. Entities saved through the template replace the cached attributes, partial updates and deletes drop them.
+ * Each change moves the cache to a new generation, and a read which started before it does not cache what it read.
+ * <p>
+ * Enabled by {@link SimpleDb#setEntityCacheSize(int)} or {@link org.springframework.data.simpledb.annotation.CachedEntity}.
+ */
+public final class EntityCache {
+
+	private final ExpiringLruCache<String, Entry> entries;
+	private long generation;
+
+	public EntityCache(int maxSize, long timeToLive, TimeUnit unit) {
+		this.entries = new ExpiringLruCache<String, Entry>(maxSize, timeToLive, unit);
+	}
+
+	/**
+	 * @return the current generation, to be read before reading the entity which is put
+	 */
+	synchronized long getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * @return a new item with the cached attributes, null if they are not cached or not of the entity class
+	 */
+	Item get(String itemName, Class<?> entityClass) {
+		final Entry entry;
+		synchronized(this) {
+			entry = entries.get(itemName);
+		}
+		if(entry == null || !entityClass.equals(entry.entityClass)) {
+			return null;
+		}
+
+		final List<Attribute> attributes = new ArrayList<Attribute>();
+		for(Map.Entry<String, List<String>> attribute : entry.attributes.entrySet()) {
+			for(String value : attribute.getValue()) {
+				attributes.add(new Attribute(attribute.getKey(), value));
+			}
+		}
+
+		return new Item(itemName, attributes);
+	}
+
+	/**
+	 * @return true if the attributes of the item are cached for the entity class
+	 */
+	synchronized boolean contains(String itemName, Class<?> entityClass) {
+		final Entry entry = entries.get(itemName);
+
+		return entry != null && entityClass.equals(entry.entityClass);
+	}
+
+	/**
+	 * Caches the attributes of a read entity, unless the cache changed since the read started.
+	 *
+	 * @param readGeneration
+	 *            the {@link #getGeneration() generation} when the read started
+	 */
+	void put(String itemName, Class<?> entityClass, Map<String, List<String>> attributes, long readGeneration) {
+		final Entry entry = new Entry(entityClass, attributes);
+		synchronized(this) {
+			if(readGeneration == generation) {
+				entries.put(itemName, entry);
+			}
+		}
+	}
+
+	/**
+	 * Caches the attributes of a written entity in place of the cached ones.
+	 */
+	void put(String itemName, Class<?> entityClass, Map<String, List<String>> attributes) {
+		final Entry entry = new Entry(entityClass, attributes);
+		synchronized(this) {
+			generation++;
+			entries.put(itemName, entry);
+		}
+	}
+
+	synchronized void invalidate(String itemName) {
+		generation++;
+		entries.remove(itemName);
+	}
+
+	public synchronized void clear() {
+		generation++;
+		entries.clear();
+	}
+
+	public int getMaxSize() {
+		return entries.getMaxSize();
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public long getHitCount() {
+		return entries.getHitCount();
+	}
+
+	public long getMissCount() {
+		return entries.getMissCount();
+	}
+
+	public long getEvictionCount() {
+		return entries.getEvictionCount();
+	}
+
+	public long getExpirationCount() {
+		return entries.getExpirationCount();
+	}
+
+	private static final class Entry {
+
+		private final Class<?> entityClass;
+		private final Map<String, List<String>> attributes;
+
+		private Entry(Class<?> entityClass, Map<String, List<String>> attributes) {
+			this.entityClass = entityClass;
+			this.attributes = new LinkedHashMap<String, List<String>>(attributes);
+		}
+	}
+}
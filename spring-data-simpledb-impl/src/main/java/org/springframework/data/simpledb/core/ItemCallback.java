@@ -0,0 +1,13 @@
+package org.springframework.data.simpledb.core;
+
+/**
+ * Receives the entities read by {@link SimpleDbOperations#parallelScan(Class, String, int, ItemCallback)}. The scan
+ * calls it from several threads at the same time, so implementations must be thread safe.
+ */
+public interface ItemCallback<T> {
+
+	/**
+	 * Processes one entity of the scanned domain. A runtime exception stops the scan and is rethrown to its caller.
+	 */
+	void doWithItem(T item);
+}
@@ -0,0 +1,175 @@
+package org.springframework.data.simpledb.core;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import net.sf.cglib.proxy.Callback;
+import net.sf.cglib.proxy.CallbackFilter;
+import net.sf.cglib.proxy.Enhancer;
+import net.sf.cglib.proxy.Factory;
+import net.sf.cglib.proxy.LazyLoader;
+import net.sf.cglib.proxy.NoOp;
+
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.data.mapping.model.MappingException;
+import org.springframework.data.simpledb.reflection.MetadataParser;
+import org.springframework.util.StringUtils;
+
+/**
+ * Creates and inspects the lazy loading proxies installed on {@link org.springframework.data.annotation.Reference}
+ * fields when {@link SimpleDb#setLazyReferences(boolean)} is enabled.
+ * <p>
+ * A proxy is a cglib subclass of the referenced entity which only holds the item name. The referenced entity is
+ * read through {@link SimpleDbOperations#read(java.io.Serializable, Class, boolean)} on the first method call other
+ * than the id getter, after which all calls are delegated to it.
+ */
+public final class LazyReferences {
+
+	private LazyReferences() {
+		// utility class
+	}
+
+	/**
+	 * @return true if a lazy proxy can be created for the class: it must not be final and must have a non private
+	 *         no-arg constructor
+	 */
+	public static boolean isProxyable(Class<?> clazz) {
+		if(Modifier.isFinal(clazz.getModifiers()) || clazz.isPrimitive() || clazz.isArray()) {
+			return false;
+		}
+
+		if(clazz.getName().startsWith("java.") || MetadataParser.getIdField(clazz) == null) {
+			return false;
+		}
+
+		try {
+			final Constructor<?> constructor = clazz.getDeclaredConstructor();
+			return !Modifier.isPrivate(constructor.getModifiers());
+		} catch(NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	public static <T> T createProxy(Class<T> clazz, String itemName, SimpleDbOperations operations,
+			boolean consistentRead) {
+		final Field idField = MetadataParser.getIdField(clazz);
+
+		final Enhancer enhancer = new Enhancer();
+		enhancer.setSuperclass(clazz);
+		enhancer.setCallbackFilter(new IdGetterCallbackFilter("get" + StringUtils.capitalize(idField.getName())));
+		enhancer.setCallbacks(new Callback[] { NoOp.INSTANCE,
+				new ReferenceLoader(clazz, itemName, operations, consistentRead) });
+
+		final T proxy = clazz.cast(enhancer.create());
+
+		try {
+			idField.setAccessible(true);
+			idField.set(proxy, itemName);
+		} catch(IllegalAccessException e) {
+			throw new MappingException("Could not set the id of the reference proxy", e);
+		}
+
+		return proxy;
+	}
+
+	public static boolean isProxy(Object object) {
+		return getLoader(object) != null;
+	}
+
+	/**
+	 * @return false for a proxy whose referenced entity has not been read yet, true otherwise
+	 */
+	public static boolean isLoaded(Object object) {
+		final ReferenceLoader loader = getLoader(object);
+		return loader == null || loader.isLoaded();
+	}
+
+	/**
+	 * @return the referenced entity for a proxy, reading it if needed; the object itself otherwise
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T getTarget(T object) {
+		final ReferenceLoader loader = getLoader(object);
+		return loader == null ? object : (T) loader.loadObject();
+	}
+
+	private static ReferenceLoader getLoader(Object object) {
+		if(object instanceof Factory) {
+			for(Callback callback : ((Factory) object).getCallbacks()) {
+				if(callback instanceof ReferenceLoader) {
+					return (ReferenceLoader) callback;
+				}
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Routes the id getter and the finalizer to the proxy itself, all other methods to the referenced entity.
+	 */
+	private static final class IdGetterCallbackFilter implements CallbackFilter {
+
+		private final String idGetterName;
+
+		private IdGetterCallbackFilter(String idGetterName) {
+			this.idGetterName = idGetterName;
+		}
+
+		@Override
+		public int accept(Method method) {
+			final boolean noArgs = method.getParameterTypes().length == 0;
+			final boolean ownMethod = method.getName().equals(idGetterName) || method.getName().equals("finalize");
+
+			return noArgs && ownMethod ? 0 : 1;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof IdGetterCallbackFilter
+					&& idGetterName.equals(((IdGetterCallbackFilter) other).idGetterName);
+		}
+
+		@Override
+		public int hashCode() {
+			return idGetterName.hashCode();
+		}
+	}
+
+	private static final class ReferenceLoader implements LazyLoader {
+
+		private final Class<?> clazz;
+		private final String itemName;
+		private final SimpleDbOperations operations;
+		private final boolean consistentRead;
+
+		private Object target;
+
+		private ReferenceLoader(Class<?> clazz, String itemName, SimpleDbOperations operations, boolean consistentRead) {
+			this.clazz = clazz;
+			this.itemName = itemName;
+			this.operations = operations;
+			this.consistentRead = consistentRead;
+		}
+
+		@Override
+		public synchronized Object loadObject() {
+			if(target == null) {
+				target = operations.read(itemName, clazz, consistentRead);
+
+				if(target == null) {
+					throw new DataRetrievalFailureException("Referenced item " + itemName + " of "
+							+ clazz.getName() + " does not exist");
+				}
+			}
+
+			return target;
+		}
+
+		private synchronized boolean isLoaded() {
+			return target != null;
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package org.springframework.data.simpledb.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.data.simpledb.util.ExpiringLruCache;
+
+/**
+ * Remembers the SimpleDB next tokens at which the pages of paged queries start, so that a request for a deep page
+ * does not have to count through the result from its beginning again. Tokens are captured while
+ * {@link SimpleDbOperations#executePagedQuery(Class, String, org.springframework.data.domain.Pageable)} runs and
+ * keyed by query, consistent read flag, page size and page number.
+ * <p>
+ * Enabled by {@link SimpleDb#setPageTokenCacheSize(int)}.
+ */
+public final class PageTokenCache {
+
+	private final ExpiringLruCache<Key, String> tokens;
+
+	public PageTokenCache(int maxSize, long timeToLive, TimeUnit unit) {
+		this.tokens = new ExpiringLruCache<Key, String>(maxSize, timeToLive, unit);
+	}
+
+	/**
+	 * @param query
+	 *            the page query, with its sort and limit
+	 * @return the token at which the page starts, null if it is not cached
+	 */
+	public String get(String query, boolean consistentRead, int pageSize, int pageNumber) {
+		return tokens.get(new Key(query, consistentRead, pageSize, pageNumber));
+	}
+
+	/**
+	 * Same as {@link #get(String, boolean, int, int)}, without counting a hit or a miss.
+	 */
+	String peek(String query, boolean consistentRead, int pageSize, int pageNumber) {
+		return tokens.peek(new Key(query, consistentRead, pageSize, pageNumber));
+	}
+
+	public void put(String query, boolean consistentRead, int pageSize, int pageNumber, String token) {
+		tokens.put(new Key(query, consistentRead, pageSize, pageNumber), token);
+	}
+
+	public void clear() {
+		tokens.clear();
+	}
+
+	public int size() {
+		return tokens.size();
+	}
+
+	public long getHitCount() {
+		return tokens.getHitCount();
+	}
+
+	public long getMissCount() {
+		return tokens.getMissCount();
+	}
+
+	private static final class Key {
+
+		private final String query;
+		private final boolean consistentRead;
+		private final int pageSize;
+		private final int pageNumber;
+
+		private Key(String query, boolean consistentRead, int pageSize, int pageNumber) {
+			this.query = query;
+			this.consistentRead = consistentRead;
+			this.pageSize = pageSize;
+			this.pageNumber = pageNumber;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj) {
+				return true;
+			}
+			if(!(obj instanceof Key)) {
+				return false;
+			}
+
+			final Key other = (Key) obj;
+			return pageNumber == other.pageNumber && pageSize == other.pageSize
+					&& consistentRead == other.consistentRead && query.equals(other.query);
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = query.hashCode();
+			result = prime * result + (consistentRead ? 1 : 0);
+			result = prime * result + pageSize;
+			return prime * result + pageNumber;
+		}
+	}
+}
@@ -1,6 +1,9 @@
 package org.springframework.data.simpledb.core;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,6 +13,16 @@ import org.springframework.data.simpledb.repository.support.entityinformation.Si
 
 public class QueryBuilder {
 
+	/**
+	 * Maximum number of values SimpleDB accepts in an <tt>in</tt> predicate.
+	 */
+	public static final int MAX_IN_VALUES = 20;
+
+	/**
+	 * Maximum number of items SimpleDB returns in a page of a select.
+	 */
+	public static final int MAX_LIMIT = 2500;
+
 	private static final Logger LOGGER = LoggerFactory.getLogger(QueryBuilder.class);
 
 	private StringBuilder query;
@@ -31,6 +44,13 @@ public class QueryBuilder {
 		query.append("from ").append(quote(entityInformation.getDomain()));
 	}
 
+	/**
+	 * @return a <tt>select itemName()</tt> over the domain of the entity, reading the item names only
+	 */
+	public static QueryBuilder itemNamesOf(SimpleDbEntityInformation<?, ?> entityInformation) {
+		return new QueryBuilder("select itemName() from " + quote(entityInformation.getDomain()));
+	}
+
 	public QueryBuilder(String customQuery) {
 		this(customQuery, false);
 	}
@@ -51,21 +71,72 @@ public class QueryBuilder {
 		return this;
 	}
 
+	/**
+	 * Restricts the query to the given ids with a single <tt>itemName() in (...)</tt> predicate, see
+	 * {@link #withItemNamesIn(Collection)}. Longer id lists are read in chunks by
+	 * {@link SimpleDbOperations#readAll(Iterable, Class, boolean)}.
+	 * 
+	 * @param iterable
+	 *            at most {@link #MAX_IN_VALUES} ids
+	 */
 	public QueryBuilder withIds(Iterable<?> iterable) {
-		Iterator<?> iterator = iterable.iterator();
+		final List<Object> ids = new ArrayList<Object>();
+		for(Object id : iterable) {
+			ids.add(id);
+		}
+
+		return withItemNamesIn(ids);
+	}
+
+	/**
+	 * Restricts the query to the given item names with a single <tt>itemName() in (...)</tt> predicate.
+	 * 
+	 * @param itemNames
+	 *            at most {@link #MAX_IN_VALUES} values
+	 */
+	public QueryBuilder withItemNamesIn(Collection<?> itemNames) {
+		if(itemNames.isEmpty() || itemNames.size() > MAX_IN_VALUES) {
+			throw new IllegalArgumentException("The in predicate takes between 1 and " + MAX_IN_VALUES
+					+ " values, got " + itemNames.size());
+		}
+
 		appendWhereOrEndClause(query);
 
-		query.append("(");
+		query.append("itemName() in (");
+		Iterator<?> iterator = itemNames.iterator();
 		while(iterator.hasNext()) {
-			query.append("itemName()='").append(iterator.next().toString()).append("'");
+			query.append("'").append(iterator.next().toString().replace("'", "''")).append("'");
 			if(iterator.hasNext()) {
-				query.append(" or ");
+				query.append(",");
 			}
 		}
 		query.append(")");
 		return this;
 	}
 
+	/**
+	 * Restricts the query to the item names between <tt>lowerBound</tt>, inclusive, and <tt>upperBound</tt>,
+	 * exclusive, in lexicographic order.
+	 *
+	 * @param lowerBound
+	 *            {@code null} for no lower bound
+	 * @param upperBound
+	 *            {@code null} for no upper bound
+	 */
+	public QueryBuilder withItemNameRange(String lowerBound, String upperBound) {
+		if(lowerBound != null) {
+			appendWhereOrEndClause(query);
+			query.append("itemName() >= '").append(lowerBound.replace("'", "''")).append("'");
+		}
+
+		if(upperBound != null) {
+			appendWhereOrEndClause(query);
+			query.append("itemName() < '").append(upperBound.replace("'", "''")).append("'");
+		}
+
+		return this;
+	}
+
 	public QueryBuilder with(Sort sort) {
 		if(sort != null) {
 			Iterator<Sort.Order> sortIt = sort.iterator();
@@ -112,7 +183,7 @@ public class QueryBuilder {
 		}
 	}
 
-	private String quote(String simpleDbName) {
+	private static String quote(String simpleDbName) {
 		return "`" + simpleDbName + "`";
 	}
 
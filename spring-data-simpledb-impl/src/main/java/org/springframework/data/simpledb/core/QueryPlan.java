@@ -0,0 +1,99 @@
+package org.springframework.data.simpledb.core;
+
+import java.util.List;
+
+import org.springframework.data.simpledb.exception.InvalidSimpleDBQueryException;
+import org.springframework.data.simpledb.parser.SimpleDBParser;
+import org.springframework.data.simpledb.query.QueryUtils;
+
+/**
+ * The template of a select validated by {@link SimpleDBParser}, with the id field escaped to <tt>itemName()</tt> and
+ * its count variant, so that running the same query again, with the same or other values, only binds the values into
+ * the escaped segments.
+ */
+final class QueryPlan {
+
+	private static final String FROM = "from";
+
+	private final String escapedText;
+	private final String[] escapedSegments;
+	private volatile CountTemplate countTemplate;
+
+	private QueryPlan(String escapedText) {
+		this.escapedText = escapedText;
+		this.escapedSegments = split(escapedText);
+	}
+
+	/**
+	 * @param query
+	 *            a query of the template, validated in place of the template
+	 * @throws InvalidSimpleDBQueryException
+	 *             if the query is not a valid select
+	 */
+	static QueryPlan compile(String query, SelectTemplate template, String idFieldName) {
+		validate(query);
+
+		return new QueryPlan(QueryUtils.escapeQueryAttributes(template.getText(), idFieldName));
+	}
+
+	/**
+	 * Validate a custom query before sending the request to the DB.
+	 */
+	static void validate(String query) {
+		final SimpleDBParser parser = new SimpleDBParser(query);
+		try {
+			parser.selectQuery();
+		} catch(Exception e) {
+			throw new InvalidSimpleDBQueryException("The following query is an invalid SimpleDB query: " + query, e);
+		}
+	}
+
+	/**
+	 * @return the escaped query with the values of the template
+	 */
+	String getEscapedQuery(SelectTemplate template) {
+		return bind(escapedSegments, template.getValues(), 0);
+	}
+
+	/**
+	 * @return the escaped <tt>select count(*)</tt> over the items of the query, validated on first use
+	 */
+	String getCountQuery(SelectTemplate template) {
+		CountTemplate result = countTemplate;
+		if(result == null) {
+			final String countText = new QueryBuilder(escapedText, true).toString();
+			final String textBeforeFrom = escapedText.substring(0, Math.max(escapedText.indexOf(FROM), 0));
+
+			result = new CountTemplate(countText, split(textBeforeFrom).length - 1);
+			validate(bind(result.segments, template.getValues(), result.firstValue));
+			countTemplate = result;
+		}
+
+		return bind(result.segments, template.getValues(), result.firstValue);
+	}
+
+	private static String bind(String[] segments, List<String> values, int firstValue) {
+		final StringBuilder query = new StringBuilder(segments[0]);
+		for(int i = 1; i < segments.length; i++) {
+			query.append(values.get(firstValue + i - 1)).append(segments[i]);
+		}
+
+		return query.toString();
+	}
+
+	private static String[] split(String text) {
+		return text.split(String.valueOf(SelectTemplate.SLOT), -1);
+	}
+
+	/* the count variant keeps the values from the from clause on */
+	private static final class CountTemplate {
+
+		private final String[] segments;
+		private final int firstValue;
+
+		private CountTemplate(String text, int firstValue) {
+			this.segments = split(text);
+			this.firstValue = firstValue;
+		}
+	}
+}
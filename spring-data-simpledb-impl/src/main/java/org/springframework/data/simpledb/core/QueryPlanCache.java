@@ -0,0 +1,131 @@
+package org.springframework.data.simpledb.core;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the {@link QueryPlan plans} of the selects run by the template, keyed by the {@link SelectTemplate} of
+ * the query and the entity class, so that a query seen before, with the same or other values, skips its validation
+ * by the SimpleDB grammar and the rewrites of its attributes. Selects built by the template itself are valid by
+ * construction and do not go through the cache.
+ * <p>
+ * Lookups do not lock, since every query of the application goes through the cache. When it is full, the plan used
+ * least recently is evicted; the time of the last use is tracked per plan, so that eviction is approximate under
+ * concurrent use.
+ * <p>
+ * Sized by {@link SimpleDb#setQueryPlanCacheSize(int)}.
+ */
+public final class QueryPlanCache {
+
+	private final int maxSize;
+	private final ConcurrentMap<Key, Entry> plans = new ConcurrentHashMap<Key, Entry>();
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	public QueryPlanCache(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * @return the plan of the template, null if it is not cached
+	 */
+	QueryPlan get(SelectTemplate template, Class<?> entityClass) {
+		final Entry entry = plans.get(new Key(template.getKey(), entityClass));
+		if(entry == null) {
+			missCount.incrementAndGet();
+			return null;
+		}
+
+		hitCount.incrementAndGet();
+		entry.lastUse = System.nanoTime();
+		return entry.plan;
+	}
+
+	void put(SelectTemplate template, Class<?> entityClass, QueryPlan plan) {
+		final Key key = new Key(template.getKey(), entityClass);
+		if(!plans.containsKey(key) && plans.size() >= maxSize) {
+			evictLeastRecentlyUsed();
+		}
+		plans.put(key, new Entry(plan));
+	}
+
+	private void evictLeastRecentlyUsed() {
+		Map.Entry<Key, Entry> eldest = null;
+		for(Map.Entry<Key, Entry> entry : plans.entrySet()) {
+			if(eldest == null || entry.getValue().lastUse < eldest.getValue().lastUse) {
+				eldest = entry;
+			}
+		}
+
+		if(eldest != null && plans.remove(eldest.getKey(), eldest.getValue())) {
+			evictionCount.incrementAndGet();
+		}
+	}
+
+	public void clear() {
+		plans.clear();
+	}
+
+	public int size() {
+		return plans.size();
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	private static final class Key {
+
+		private final String template;
+		private final Class<?> entityClass;
+
+		private Key(String template, Class<?> entityClass) {
+			this.template = template;
+			this.entityClass = entityClass;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj) {
+				return true;
+			}
+			if(!(obj instanceof Key)) {
+				return false;
+			}
+
+			final Key other = (Key) obj;
+			return entityClass.equals(other.entityClass) && template.equals(other.template);
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			return prime * template.hashCode() + entityClass.hashCode();
+		}
+	}
+
+	private static final class Entry {
+
+		private final QueryPlan plan;
+		private volatile long lastUse = System.nanoTime();
+
+		private Entry(QueryPlan plan) {
+			this.plan = plan;
+		}
+	}
+}
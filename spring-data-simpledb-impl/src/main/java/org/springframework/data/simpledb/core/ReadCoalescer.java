@@ -0,0 +1,216 @@
+package org.springframework.data.simpledb.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.amazonaws.services.simpledb.model.Item;
+
+/**
+ * Groups the reads by id of concurrent threads into one <tt>itemName() in (...)</tt> select per entity class and
+ * consistency. The first read of a batch waits for the window or for the batch to be full, then reads all ids of the
+ * batch for the threads which joined it. A read of an id already in a batch not yet sent waits for that batch instead
+ * of adding the id again; once a batch is sent, reads of its ids start another one, so that a read never gets the
+ * result of a select sent before it started.
+ * <p>
+ * A batch keeps the selected items, every read builds its own entity from them, so that threads reading the same id
+ * never share an instance.
+ * <p>
+ * Enabled by {@link SimpleDb#setReadBatchWindowMillis(long)}.
+ */
+abstract class ReadCoalescer {
+
+	private final long windowNanos;
+	private final int maxBatchSize;
+
+	private final Map<Key, Batch> openBatches = new HashMap<Key, Batch>();
+	/* the batches not yet sent, by the item names they read */
+	private final Map<Key, Map<String, Batch>> batchesByItemName = new HashMap<Key, Map<String, Batch>>();
+
+	/**
+	 * @param maxBatchSize
+	 *            at most {@link QueryBuilder#MAX_IN_VALUES}
+	 */
+	ReadCoalescer(long window, TimeUnit unit, int maxBatchSize) {
+		if(maxBatchSize <= 0 || maxBatchSize > QueryBuilder.MAX_IN_VALUES) {
+			throw new IllegalArgumentException("The read batch size must be between 1 and "
+					+ QueryBuilder.MAX_IN_VALUES + ", got " + maxBatchSize);
+		}
+
+		this.windowNanos = unit.toNanos(window);
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * Reads the items of the item names with a single select.
+	 *
+	 * @return the read items by item name, without the missing ones
+	 */
+	abstract Map<String, Item> readItems(Class<?> entityClass, List<String> itemNames, boolean consistentRead);
+
+	/**
+	 * Builds a new entity of a read item, called once for every read.
+	 */
+	abstract <T> T toEntity(Class<T> entityClass, Item item, boolean consistentRead);
+
+	/**
+	 * @return the entity of the item, null if it does not exist
+	 */
+	<T> T read(Class<T> entityClass, String itemName, boolean consistentRead) {
+		final Key key = new Key(entityClass, consistentRead);
+		final Batch batch;
+		boolean leader = false;
+
+		synchronized(this) {
+			final Map<String, Batch> pending = getPendingBatches(key);
+			final Batch pendingBatch = pending.get(itemName);
+
+			if(pendingBatch != null) {
+				batch = pendingBatch;
+			} else {
+				Batch openBatch = openBatches.get(key);
+				if(openBatch == null) {
+					openBatch = new Batch();
+					openBatches.put(key, openBatch);
+					leader = true;
+				}
+
+				batch = openBatch;
+				batch.itemNames.add(itemName);
+				pending.put(itemName, batch);
+
+				if(batch.itemNames.size() >= maxBatchSize) {
+					openBatches.remove(key);
+					batch.full.countDown();
+				}
+			}
+		}
+
+		if(leader) {
+			execute(key, batch, entityClass);
+		} else {
+			batch.awaitDone();
+		}
+
+		final Item item = batch.getItem(itemName);
+		return item != null ? toEntity(entityClass, item, consistentRead) : null;
+	}
+
+	private void execute(Key key, Batch batch, Class<?> entityClass) {
+		batch.awaitFull(windowNanos);
+
+		final List<String> itemNames;
+		synchronized(this) {
+			if(openBatches.get(key) == batch) {
+				openBatches.remove(key);
+			}
+			itemNames = new ArrayList<String>(batch.itemNames);
+			getPendingBatches(key).keySet().removeAll(itemNames);
+		}
+
+		try {
+			batch.items = readItems(entityClass, itemNames, key.consistentRead);
+		} catch(RuntimeException e) {
+			batch.failure = e;
+			throw e;
+		} finally {
+			batch.done.countDown();
+		}
+	}
+
+	private Map<String, Batch> getPendingBatches(Key key) {
+		Map<String, Batch> pending = batchesByItemName.get(key);
+		if(pending == null) {
+			pending = new HashMap<String, Batch>();
+			batchesByItemName.put(key, pending);
+		}
+
+		return pending;
+	}
+
+	private static final class Batch {
+
+		private final List<String> itemNames = new ArrayList<String>();
+		private final CountDownLatch full = new CountDownLatch(1);
+		private final CountDownLatch done = new CountDownLatch(1);
+
+		private volatile Map<String, Item> items;
+		private volatile RuntimeException failure;
+
+		private void awaitFull(long windowNanos) {
+			boolean interrupted = false;
+			final long deadline = System.nanoTime() + windowNanos;
+
+			for(long remaining = windowNanos; remaining > 0; remaining = deadline - System.nanoTime()) {
+				try {
+					full.await(remaining, TimeUnit.NANOSECONDS);
+					break;
+				} catch(InterruptedException e) {
+					interrupted = true;
+				}
+			}
+
+			if(interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		private void awaitDone() {
+			boolean interrupted = false;
+
+			while(done.getCount() > 0) {
+				try {
+					done.await();
+				} catch(InterruptedException e) {
+					interrupted = true;
+				}
+			}
+
+			if(interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		private Item getItem(String itemName) {
+			if(items == null) {
+				throw failure != null ? failure : new IllegalStateException("The batch reading item " + itemName
+						+ " failed");
+			}
+
+			return items.get(itemName);
+		}
+	}
+
+	private static final class Key {
+
+		private final Class<?> entityClass;
+		private final boolean consistentRead;
+
+		private Key(Class<?> entityClass, boolean consistentRead) {
+			this.entityClass = entityClass;
+			this.consistentRead = consistentRead;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj) {
+				return true;
+			}
+			if(!(obj instanceof Key)) {
+				return false;
+			}
+
+			final Key other = (Key) obj;
+			return consistentRead == other.consistentRead && entityClass.equals(other.entityClass);
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			return prime * entityClass.hashCode() + (consistentRead ? 1 : 0);
+		}
+	}
+}
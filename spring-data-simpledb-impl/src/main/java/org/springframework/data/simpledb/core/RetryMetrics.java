@@ -0,0 +1,68 @@
+package org.springframework.data.simpledb.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the retries of the operations of a {@link SimpleDb} and the reasons operations stopped retrying, see
+ * {@link SimpleDb#getRetryMetrics()}.
+ */
+public final class RetryMetrics {
+
+	private final AtomicLong retryCount = new AtomicLong();
+	private final AtomicLong retryDelayMillis = new AtomicLong();
+	private final AtomicLong exhaustedCount = new AtomicLong();
+	private final AtomicLong deadlineExceededCount = new AtomicLong();
+	private final AtomicLong budgetRejectedCount = new AtomicLong();
+
+	void retried(long delayMillis) {
+		retryCount.incrementAndGet();
+		retryDelayMillis.addAndGet(delayMillis);
+	}
+
+	void exhausted() {
+		exhaustedCount.incrementAndGet();
+	}
+
+	void deadlineExceeded() {
+		deadlineExceededCount.incrementAndGet();
+	}
+
+	void budgetRejected() {
+		budgetRejectedCount.incrementAndGet();
+	}
+
+	/**
+	 * @return the number of requests sent again
+	 */
+	public long getRetryCount() {
+		return retryCount.get();
+	}
+
+	/**
+	 * @return the total time waited before retries
+	 */
+	public long getRetryDelayMillis() {
+		return retryDelayMillis.get();
+	}
+
+	/**
+	 * @return the number of operations which failed on their last attempt
+	 */
+	public long getExhaustedCount() {
+		return exhaustedCount.get();
+	}
+
+	/**
+	 * @return the number of operations which failed because their next retry would have started past their timeout
+	 */
+	public long getDeadlineExceededCount() {
+		return deadlineExceededCount.get();
+	}
+
+	/**
+	 * @return the number of operations which failed because the retry budget was exhausted
+	 */
+	public long getBudgetRejectedCount() {
+		return budgetRejectedCount.get();
+	}
+}
@@ -0,0 +1,53 @@
+package org.springframework.data.simpledb.core;
+
+import com.amazonaws.AmazonClientException;
+
+/**
+ * Decides which failed SimpleDB requests are retried and how long to wait before each retry, see
+ * {@link SimpleDb#setRetryPolicy(RetryPolicy)}. The number of attempts is set by
+ * {@link SimpleDb#setUnavailableServiceRetries(int)}.
+ * <p>
+ * A policy is shared by all operations of a {@link SimpleDb} and must be thread safe.
+ */
+public interface RetryPolicy {
+
+	/**
+	 * @return true if the request failed for a transient reason and may be sent again
+	 */
+	boolean isRetryable(AmazonClientException exception);
+
+	/**
+	 * Decides the retries of requests which must not be applied twice, such as a put conditional on the version it
+	 * replaces: sent again after it was applied, it fails its own condition.
+	 *
+	 * @return true if the request failed before SimpleDB could apply it and may be sent again
+	 */
+	boolean isRetryableIfNotApplied(AmazonClientException exception);
+
+	/**
+	 * @param retry
+	 *            number of the upcoming retry, starting at 1
+	 * @param previousDelayMillis
+	 *            delay before the previous retry of the operation, 0 before the first retry
+	 * @return milliseconds to wait before the retry
+	 */
+	long getRetryDelayMillis(int retry, long previousDelayMillis);
+
+	/**
+	 * @return milliseconds an operation may spend including its retries, a retry which would start later is not
+	 *         attempted; 0 for no limit
+	 */
+	long getOperationTimeoutMillis();
+
+	/**
+	 * Takes a retry from the budget shared by all operations.
+	 *
+	 * @return false if the budget is exhausted and the operation should fail instead of retrying
+	 */
+	boolean tryAcquireRetry();
+
+	/**
+	 * Called after each operation which succeeded, with or without retries.
+	 */
+	void operationSucceeded();
+}
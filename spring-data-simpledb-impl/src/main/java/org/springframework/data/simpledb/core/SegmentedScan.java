@@ -0,0 +1,183 @@
+package org.springframework.data.simpledb.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+
+/**
+ * Splits the item names of a domain into lexicographic ranges and runs one scan per range. The range bounds are
+ * evenly spaced hex prefixes, which balances the segments for the random UUID item names generated for new entities;
+ * the first and last ranges are open ended, so that item names of any form are scanned exactly once.
+ * <p>
+ * With an executor the segments are scanned concurrently and the first failure cancels the others; otherwise they
+ * are scanned one after another on the caller thread. A scan started by a segment, for example from a scan callback,
+ * also runs on the caller thread: its segments would otherwise queue behind the busy workers waiting for them.
+ */
+final class SegmentedScan {
+
+	/**
+	 * Maximum number of segments, each bounded by a two character hex prefix.
+	 */
+	static final int MAX_SEGMENTS = 256;
+
+	private static final int HEX_RADIX = 16;
+
+	private static final ThreadLocal<Boolean> SCANNING_SEGMENT = new ThreadLocal<Boolean>();
+
+	private final ExecutorService executor;
+
+	/**
+	 * @param executor
+	 *            executor scanning the segments, may be {@code null} to scan them on the caller thread
+	 */
+	SegmentedScan(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * @return <tt>segments</tt> contiguous item name ranges covering all item names, in ascending order
+	 */
+	static List<ItemNameRange> itemNameRanges(int segments) {
+		if(segments < 1 || segments > MAX_SEGMENTS) {
+			throw new IllegalArgumentException("The number of segments must be between 1 and " + MAX_SEGMENTS
+					+ ", got " + segments);
+		}
+
+		int prefixLength = 1;
+		int prefixCount = HEX_RADIX;
+		while(prefixCount < segments) {
+			prefixLength++;
+			prefixCount *= HEX_RADIX;
+		}
+
+		final List<ItemNameRange> ranges = new ArrayList<ItemNameRange>(segments);
+		String lowerBound = null;
+		for(int i = 1; i < segments; i++) {
+			final String upperBound = hexPrefix(i * prefixCount / segments, prefixLength);
+			ranges.add(new ItemNameRange(lowerBound, upperBound));
+			lowerBound = upperBound;
+		}
+		ranges.add(new ItemNameRange(lowerBound, null));
+
+		return ranges;
+	}
+
+	/**
+	 * @return the total number of items scanned by the segments
+	 */
+	long scan(List<? extends Callable<Long>> segmentScans) {
+		if(executor == null || segmentScans.size() <= 1 || Boolean.TRUE.equals(SCANNING_SEGMENT.get())) {
+			long total = 0;
+			for(Callable<Long> segmentScan : segmentScans) {
+				total += call(segmentScan);
+			}
+			return total;
+		}
+
+		final CompletionService<Long> completionService = new ExecutorCompletionService<Long>(executor);
+		final List<Future<Long>> futures = new ArrayList<Future<Long>>(segmentScans.size());
+
+		try {
+			for(Callable<Long> segmentScan : segmentScans) {
+				futures.add(completionService.submit(new WorkerScan(segmentScan)));
+			}
+
+			long total = 0;
+			for(int i = 0; i < futures.size(); i++) {
+				total += completionService.take().get();
+			}
+			return total;
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DataAccessResourceFailureException("Interrupted while scanning domain segments", e);
+		} catch(ExecutionException e) {
+			throw segmentFailure(e);
+		} finally {
+			for(Future<Long> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	private static long call(Callable<Long> segmentScan) {
+		try {
+			return segmentScan.call();
+		} catch(Exception e) {
+			if(e instanceof RuntimeException) {
+				throw (RuntimeException) e;
+			}
+			throw new DataAccessResourceFailureException("Domain segment scan failed", e);
+		}
+	}
+
+	private static RuntimeException segmentFailure(ExecutionException e) {
+		if(e.getCause() instanceof RuntimeException) {
+			return (RuntimeException) e.getCause();
+		}
+		if(e.getCause() instanceof Error) {
+			throw (Error) e.getCause();
+		}
+
+		return new DataAccessResourceFailureException("Domain segment scan failed", e);
+	}
+
+	private static String hexPrefix(int value, int length) {
+		final StringBuilder prefix = new StringBuilder(Integer.toHexString(value));
+		while(prefix.length() < length) {
+			prefix.insert(0, '0');
+		}
+
+		return prefix.toString();
+	}
+
+	/**
+	 * Marks the worker thread while it scans a segment.
+	 */
+	private static final class WorkerScan implements Callable<Long> {
+
+		private final Callable<Long> segmentScan;
+
+		private WorkerScan(Callable<Long> segmentScan) {
+			this.segmentScan = segmentScan;
+		}
+
+		@Override
+		public Long call() {
+			SCANNING_SEGMENT.set(Boolean.TRUE);
+			try {
+				return SegmentedScan.call(segmentScan);
+			} finally {
+				SCANNING_SEGMENT.remove();
+			}
+		}
+	}
+
+	/**
+	 * Item names from the lower bound, inclusive, to the upper bound, exclusive; a {@code null} bound is open.
+	 */
+	static final class ItemNameRange {
+
+		private final String lowerBound;
+		private final String upperBound;
+
+		ItemNameRange(String lowerBound, String upperBound) {
+			this.lowerBound = lowerBound;
+			this.upperBound = upperBound;
+		}
+
+		String getLowerBound() {
+			return lowerBound;
+		}
+
+		String getUpperBound() {
+			return upperBound;
+		}
+	}
+}
@@ -0,0 +1,268 @@
+package org.springframework.data.simpledb.core;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.amazonaws.services.simpledb.model.Item;
+import com.amazonaws.services.simpledb.model.SelectResult;
+
+/**
+ * Iterates over the items of a select query page by page, following the SimpleDB next token. Only the current page
+ * is held in memory and each item is converted when it is consumed.
+ * <p>
+ * When created with a prefetch executor, the pages are fetched by a background producer which stays at most
+ * <tt>prefetchDepth</tt> pages ahead of the consumer, so that network latency overlaps with item conversion. If the
+ * executor has no free thread the iterator silently falls back to fetching pages on the caller thread.
+ * <p>
+ * A producer which can not hand over a page for {@link #PRODUCER_OFFER_TIMEOUT_SECONDS}, because its stream was
+ * dropped without being closed or is consumed very slowly, gives up so that its thread returns to the pool; the
+ * consumer then fetches the remaining pages itself. A producer which is interrupted, for example when the
+ * {@link SimpleDb} is destroyed, makes the consumer fail instead of waiting for a page that will never come.
+ */
+abstract class SelectResultIterator<T> implements CloseableIterator<T> {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SelectResultIterator.class);
+
+	private static final long PRODUCER_OFFER_TIMEOUT_SECONDS = 60;
+	private static final long CONSUMER_POLL_MILLIS = 500;
+
+	private final ExecutorService prefetchExecutor;
+	private final int prefetchDepth;
+
+	private Iterator<Item> currentPage = Collections.<Item> emptyList().iterator();
+	private String nextToken;
+	private boolean firstPageFetched;
+	private boolean closed;
+
+	private BlockingQueue<PrefetchedPage> prefetchedPages;
+	private Future<?> producer;
+	/* written by the producer when it gives up on a consumer which does not take its pages */
+	private volatile boolean producerGaveUp;
+
+	protected SelectResultIterator() {
+		this(null, 0);
+	}
+
+	/**
+	 * @param prefetchExecutor
+	 *            executor running the background page producer, may be {@code null} to disable prefetching
+	 * @param prefetchDepth
+	 *            maximum number of pages fetched ahead of the consumer, 0 to disable prefetching
+	 */
+	protected SelectResultIterator(ExecutorService prefetchExecutor, int prefetchDepth) {
+		this.prefetchExecutor = prefetchExecutor;
+		this.prefetchDepth = prefetchDepth;
+	}
+
+	/**
+	 * Fetch the page starting at the given token. Called from the producer thread when prefetching is enabled.
+	 *
+	 * @param token
+	 *            {@code null} for the first page
+	 */
+	protected abstract SelectResult fetchPage(String token);
+
+	protected abstract T convert(Item item);
+
+	/**
+	 * Called on the consuming thread once a page is fetched, before any of its items is converted.
+	 */
+	protected void pageFetched(List<Item> items) {
+		// no page level processing by default
+	}
+
+	@Override
+	public boolean hasNext() {
+		while(!closed && !currentPage.hasNext() && hasMorePages()) {
+			final SelectResult selectResult = nextPage();
+
+			firstPageFetched = true;
+			nextToken = selectResult.getNextToken();
+			pageFetched(selectResult.getItems());
+			currentPage = selectResult.getItems().iterator();
+		}
+
+		if(!closed && !currentPage.hasNext()) {
+			close();
+		}
+
+		return !closed;
+	}
+
+	@Override
+	public T next() {
+		if(!hasNext()) {
+			throw new NoSuchElementException();
+		}
+
+		return convert(currentPage.next());
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException("Items can not be removed through a select result iterator");
+	}
+
+	@Override
+	public void close() {
+		closed = true;
+		nextToken = null;
+		currentPage = Collections.<Item> emptyList().iterator();
+
+		if(producer != null) {
+			producer.cancel(true);
+			producer = null;
+		}
+		prefetchedPages = null;
+	}
+
+	private boolean hasMorePages() {
+		return !firstPageFetched || (nextToken != null && !nextToken.isEmpty());
+	}
+
+	private SelectResult nextPage() {
+		if(!firstPageFetched && prefetchExecutor != null && prefetchDepth > 0) {
+			startProducer();
+		}
+
+		if(prefetchedPages == null) {
+			return fetchPage(nextToken);
+		}
+
+		final PrefetchedPage page;
+		try {
+			page = takePrefetchedPage();
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			close();
+			throw new IllegalStateException("Interrupted while waiting for the next select page", e);
+		}
+
+		if(page == null) {
+			/* the producer gave up on this consumer, continue on the caller thread */
+			producer = null;
+			prefetchedPages = null;
+			return fetchPage(nextToken);
+		}
+
+		if(page.failure instanceof Error) {
+			close();
+			throw (Error) page.failure;
+		}
+		if(page.failure != null) {
+			close();
+			throw (RuntimeException) page.failure;
+		}
+
+		return page.result;
+	}
+
+	/**
+	 * @return the next prefetched page, {@code null} if the producer gave up and the remaining pages must be fetched
+	 *         on the caller thread
+	 */
+	private PrefetchedPage takePrefetchedPage() throws InterruptedException {
+		while(true) {
+			PrefetchedPage page = prefetchedPages.poll(CONSUMER_POLL_MILLIS, TimeUnit.MILLISECONDS);
+			if(page != null) {
+				return page;
+			}
+
+			if(producer.isDone()) {
+				/* a page may have been handed over right before the producer finished */
+				page = prefetchedPages.poll();
+				if(page != null) {
+					return page;
+				}
+				if(producerGaveUp) {
+					return null;
+				}
+
+				return new PrefetchedPage(null, new IllegalStateException(
+						"Select page producer stopped before the last page was fetched"));
+			}
+		}
+	}
+
+	private void startProducer() {
+		final BlockingQueue<PrefetchedPage> queue = new ArrayBlockingQueue<PrefetchedPage>(prefetchDepth);
+
+		try {
+			producer = prefetchExecutor.submit(new Runnable() {
+
+				@Override
+				public void run() {
+					produce(queue);
+				}
+			});
+			prefetchedPages = queue;
+		} catch(RejectedExecutionException e) {
+			LOGGER.debug("No prefetch thread available, fetching select pages on the caller thread");
+		}
+	}
+
+	private void produce(BlockingQueue<PrefetchedPage> queue) {
+		String token = null;
+		try {
+			do {
+				PrefetchedPage page;
+				try {
+					page = new PrefetchedPage(fetchPage(token), null);
+				} catch(RuntimeException e) {
+					page = new PrefetchedPage(null, e);
+				} catch(Error e) {
+					/* the consumer waits for a page, it must learn that none will come */
+					page = new PrefetchedPage(null, e);
+				}
+
+				if(!queue.offer(page, PRODUCER_OFFER_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+					LOGGER.debug("Select page consumer took no page for {} seconds, stopped prefetching",
+							PRODUCER_OFFER_TIMEOUT_SECONDS);
+					producerGaveUp = true;
+					return;
+				}
+				token = page.result != null ? page.result.getNextToken() : null;
+			} while(token != null && !token.isEmpty() && !Thread.currentThread().isInterrupted());
+
+			if(token != null && !token.isEmpty()) {
+				offerInterrupted(queue);
+			}
+		} catch(InterruptedException e) {
+			// iterator closed by the consumer or executor shut down
+			Thread.currentThread().interrupt();
+			offerInterrupted(queue);
+		}
+	}
+
+	/**
+	 * Tell a consumer still waiting for pages that none will come. If the queue is full the consumer finds out once
+	 * it has drained it and sees the producer is done.
+	 */
+	private void offerInterrupted(BlockingQueue<PrefetchedPage> queue) {
+		queue.offer(new PrefetchedPage(null, new IllegalStateException(
+				"Interrupted while prefetching the next select page")));
+	}
+
+	private static final class PrefetchedPage {
+
+		private final SelectResult result;
+		/* a RuntimeException or an Error */
+		private final Throwable failure;
+
+		private PrefetchedPage(SelectResult result, Throwable failure) {
+			this.result = result;
+			this.failure = failure;
+		}
+	}
+}
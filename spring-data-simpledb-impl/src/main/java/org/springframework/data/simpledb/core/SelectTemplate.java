@@ -0,0 +1,135 @@
+package org.springframework.data.simpledb.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A select split into its template and the quoted values bound into it, so that the binds of the same query share
+ * one {@link QueryPlan}. Each value becomes a slot of the template. The key of the template keeps the shape of each
+ * value, a leading, trailing or inner <tt>%</tt>, because the SimpleDB grammar tells <tt>like</tt> patterns apart by
+ * it; values of the same shape do not change whether a query is valid.
+ */
+final class SelectTemplate {
+
+	/* the slots of the text, it can not be part of a valid select */
+	static final char SLOT = '\0';
+
+	private static final char QUOTE = '\'';
+	private static final char BACKTICK = '`';
+	private static final char WILDCARD = '%';
+
+	private static final int LEADING_WILDCARD = 1;
+	private static final int TRAILING_WILDCARD = 2;
+	private static final int INNER_WILDCARD = 4;
+
+	private final String text;
+	private final String key;
+	private final List<String> values;
+
+	private SelectTemplate(String text, String key, List<String> values) {
+		this.text = text;
+		this.key = key;
+		this.values = values;
+	}
+
+	/**
+	 * @return the template of the query, null if the query has an unterminated quote or contains a slot character
+	 */
+	static SelectTemplate of(String query) {
+		if(query.indexOf(SLOT) >= 0) {
+			return null;
+		}
+
+		final StringBuilder text = new StringBuilder(query.length());
+		final StringBuilder key = new StringBuilder(query.length());
+		final List<String> values = new ArrayList<String>();
+
+		int position = 0;
+		while(position < query.length()) {
+			final char character = query.charAt(position);
+			if(character != QUOTE && character != BACKTICK) {
+				text.append(character);
+				key.append(character);
+				position++;
+				continue;
+			}
+
+			final int end = closingQuote(query, position);
+			if(end < 0) {
+				return null;
+			}
+
+			if(character == BACKTICK) {
+				text.append(query, position, end + 1);
+				key.append(query, position, end + 1);
+			} else {
+				values.add(query.substring(position, end + 1));
+				text.append(SLOT);
+				key.append(SLOT).append((char) ('0' + shapeOf(query, position + 1, end)));
+			}
+			position = end + 1;
+		}
+
+		return new SelectTemplate(text.toString(), key.toString(), Collections.unmodifiableList(values));
+	}
+
+	/**
+	 * @return the query with a {@link #SLOT} for each quoted value
+	 */
+	String getText() {
+		return text;
+	}
+
+	/**
+	 * @return the text with the shape of each value, equal for the binds of the same query
+	 */
+	String getKey() {
+		return key;
+	}
+
+	/**
+	 * @return the quoted values of the slots, in the order of the query
+	 */
+	List<String> getValues() {
+		return values;
+	}
+
+	/* the position of the quote closing the one at start, doubled quotes are part of the value */
+	private static int closingQuote(String query, int start) {
+		final char quote = query.charAt(start);
+		int position = start + 1;
+		while(position < query.length()) {
+			if(query.charAt(position) == quote) {
+				if(position + 1 < query.length() && query.charAt(position + 1) == quote) {
+					position += 2;
+					continue;
+				}
+				return position;
+			}
+			position++;
+		}
+
+		return -1;
+	}
+
+	private static int shapeOf(String query, int start, int end) {
+		int shape = 0;
+		int innerStart = start;
+		int innerEnd = end;
+
+		if(innerStart < innerEnd && query.charAt(innerStart) == WILDCARD) {
+			shape |= LEADING_WILDCARD;
+			innerStart++;
+		}
+		if(innerStart < innerEnd && query.charAt(innerEnd - 1) == WILDCARD) {
+			shape |= TRAILING_WILDCARD;
+			innerEnd--;
+		}
+		if(query.substring(innerStart, innerEnd).indexOf(WILDCARD) >= 0) {
+			shape |= INNER_WILDCARD;
+		}
+
+		return shape;
+	}
+}
@@ -1,7 +1,19 @@
 package org.springframework.data.simpledb.core;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.simpledb.annotation.CachedEntity;
 import org.springframework.data.simpledb.core.domain.DomainManagementPolicy;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
 
 import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.services.simpledb.AmazonSimpleDB;
@@ -12,7 +24,16 @@ import com.amazonaws.services.simpledb.AmazonSimpleDBClient;
  * configuration options: {@link DomainManagementPolicy},
  * {@link org.springframework.data.simpledb.annotation.DomainPrefix}, consistentRead and dev
  */
-public class SimpleDb implements InitializingBean {
+public class SimpleDb implements InitializingBean, DisposableBean {
+
+	private static final int DEFAULT_PREFETCH_POOL_SIZE = 4;
+	private static final long THREAD_KEEP_ALIVE_SECONDS = 60L;
+	private static final int DEFAULT_MAX_IN_FLIGHT_BATCHES = 8;
+	private static final int DEFAULT_SCAN_POOL_SIZE = 4;
+	private static final long DEFAULT_PAGE_TOKEN_CACHE_TTL_SECONDS = 300L;
+	private static final long DEFAULT_COUNT_CACHE_TTL_SECONDS = 30L;
+	private static final int DEFAULT_QUERY_PLAN_CACHE_SIZE = 256;
+	private static final long DEFAULT_ENTITY_CACHE_TTL_SECONDS = 60L;
 
 	private AmazonSimpleDB simpleDbClient;
 
@@ -23,11 +44,48 @@ public class SimpleDb implements InitializingBean {
 	private boolean consistentRead = false;
 
 	private int unavailableServiceRetries = 1;
+	private RetryPolicy retryPolicy = new DefaultRetryPolicy();
+	private final RetryMetrics retryMetrics = new RetryMetrics();
 
 	private String domainPrefix;
 
 	private SimpleDbDomain simpleDbDomain = new SimpleDbDomain();
 
+	private boolean lazyReferences = false;
+
+	private volatile int prefetchDepth = 0;
+	private volatile int prefetchPoolSize = DEFAULT_PREFETCH_POOL_SIZE;
+	private volatile ExecutorService prefetchExecutor;
+
+	private volatile int batchPoolSize = 1;
+	private int maxInFlightBatches = DEFAULT_MAX_IN_FLIGHT_BATCHES;
+	private volatile ExecutorService batchExecutor;
+
+	private volatile int scanPoolSize = DEFAULT_SCAN_POOL_SIZE;
+	private volatile ExecutorService scanExecutor;
+
+	private int pageTokenCacheSize = 0;
+	private long pageTokenCacheTtlSeconds = DEFAULT_PAGE_TOKEN_CACHE_TTL_SECONDS;
+	private volatile PageTokenCache pageTokenCache;
+
+	private int countCacheSize = 0;
+	private long countCacheTtlSeconds = DEFAULT_COUNT_CACHE_TTL_SECONDS;
+	private volatile CountCache countCache;
+
+	private int queryPlanCacheSize = DEFAULT_QUERY_PLAN_CACHE_SIZE;
+	private volatile QueryPlanCache queryPlanCache = new QueryPlanCache(DEFAULT_QUERY_PLAN_CACHE_SIZE);
+
+	/* marks classes whose entities are not cached, the lookup of a class is resolved once */
+	private static final EntityCache NOT_CACHED = new EntityCache(1, 0, TimeUnit.SECONDS);
+
+	private volatile int entityCacheSize = 0;
+	private volatile long entityCacheTtlSeconds = DEFAULT_ENTITY_CACHE_TTL_SECONDS;
+	private final ConcurrentMap<String, EntityCache> entityCaches = new ConcurrentHashMap<String, EntityCache>();
+	private final ConcurrentMap<Class<?>, EntityCache> entityCachesByClass = new ConcurrentHashMap<Class<?>, EntityCache>();
+
+	private long readBatchWindowMillis = 0;
+	private int readBatchMaxSize = QueryBuilder.MAX_IN_VALUES;
+
 	public SimpleDb() {
 		// for spring bean injection
 	}
@@ -42,6 +100,16 @@ public class SimpleDb implements InitializingBean {
 		return simpleDbClient;
 	}
 
+	/**
+	 * Set the client sending the SimpleDB requests, such as an in-memory stand-in for tests and benchmarks. Defaults
+	 * to none, which means, an AmazonSimpleDBClient is created from the access key and secret key.
+	 * 
+	 * @param simpleDbClient
+	 */
+	public void setSimpleDbClient(AmazonSimpleDB simpleDbClient) {
+		this.simpleDbClient = simpleDbClient;
+	}
+
 	/**
 	 * Set the Amazon AWS access key ID
 	 * 
@@ -115,9 +183,10 @@ public class SimpleDb implements InitializingBean {
 	}
 
 	/**
-	 * Set the number of attempts to retry ALL SimpleDB operations in case of
-	 * service unavailability. Defaults to 1, which means, operations are NOT
-	 * retried by default.
+	 * Set the number of attempts of ALL SimpleDB operations in case of
+	 * service unavailability, throttling or network failures, see
+	 * {@link #setRetryPolicy(RetryPolicy)}. Defaults to 1, which means,
+	 * operations are NOT retried by default.
 	 * 
 	 * @param unavailableServiceRetries
 	 */
@@ -129,6 +198,425 @@ public class SimpleDb implements InitializingBean {
 		return unavailableServiceRetries;
 	}
 
+	/**
+	 * Set the policy deciding which failures are retried, the delays between attempts, the timeout of operations and
+	 * the retry budget shared by all operations. Defaults to a {@link DefaultRetryPolicy}, which means, exponential
+	 * backoff with jitter from 100 ms up to 20 s.
+	 * 
+	 * @param retryPolicy
+	 */
+	public void setRetryPolicy(RetryPolicy retryPolicy) {
+		Assert.notNull(retryPolicy);
+		this.retryPolicy = retryPolicy;
+	}
+
+	public RetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+
+	/**
+	 * @return the retry counts and delays of all operations
+	 */
+	public RetryMetrics getRetryMetrics() {
+		return retryMetrics;
+	}
+
+	/**
+	 * When enabled, {@link org.springframework.data.annotation.Reference} fields of read entities are populated with
+	 * proxies which read the referenced entity on first access, instead of reading all referenced entities with the
+	 * query. Referenced classes which can not be proxied are still read eagerly; defaults to <b>false</b>.
+	 * 
+	 * @param lazyReferences
+	 */
+	public void setLazyReferences(boolean lazyReferences) {
+		this.lazyReferences = lazyReferences;
+	}
+
+	public boolean isLazyReferences() {
+		return lazyReferences;
+	}
+
+	/**
+	 * Set the number of select pages fetched in background ahead of the consumer of a
+	 * {@link SimpleDbOperations#stream(Class, String)} iterator. Defaults to 0, which means, pages are fetched
+	 * on the caller thread when needed.
+	 * 
+	 * @param prefetchDepth
+	 */
+	public void setPrefetchDepth(int prefetchDepth) {
+		this.prefetchDepth = prefetchDepth;
+	}
+
+	public int getPrefetchDepth() {
+		return prefetchDepth;
+	}
+
+	/**
+	 * Set the maximum number of background threads used to prefetch select pages, which is also the maximum
+	 * number of streams prefetching at the same time; further streams fetch on the caller thread. Defaults to 4.
+	 * 
+	 * @param prefetchPoolSize
+	 */
+	public void setPrefetchPoolSize(int prefetchPoolSize) {
+		this.prefetchPoolSize = prefetchPoolSize;
+	}
+
+	public int getPrefetchPoolSize() {
+		return prefetchPoolSize;
+	}
+
+	/**
+	 * @return the executor running the page producers, {@code null} if prefetching is disabled
+	 */
+	public ExecutorService getPrefetchExecutor() {
+		if(prefetchDepth <= 0 || prefetchPoolSize <= 0) {
+			return null;
+		}
+
+		final ExecutorService executor = prefetchExecutor;
+		return executor != null ? executor : createPrefetchExecutor();
+	}
+
+	private synchronized ExecutorService createPrefetchExecutor() {
+		if(prefetchExecutor == null) {
+			final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("simpledb-prefetch-");
+			threadFactory.setDaemon(true);
+
+			prefetchExecutor = new ThreadPoolExecutor(0, prefetchPoolSize, THREAD_KEEP_ALIVE_SECONDS,
+					TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), threadFactory);
+		}
+
+		return prefetchExecutor;
+	}
+
+	/**
+	 * Set the number of threads sending the batch requests of bulk operations, such as
+	 * {@link SimpleDbOperations#delete(Class, Iterable)}, concurrently. Defaults to 1, which means, batch requests are
+	 * sent one after another on the caller thread.
+	 * 
+	 * @param batchPoolSize
+	 */
+	public void setBatchPoolSize(int batchPoolSize) {
+		this.batchPoolSize = batchPoolSize;
+	}
+
+	public int getBatchPoolSize() {
+		return batchPoolSize;
+	}
+
+	/**
+	 * Set the maximum number of batch requests of a single bulk operation being sent or waiting for a batch thread at
+	 * the same time. Defaults to 8.
+	 * 
+	 * @param maxInFlightBatches
+	 */
+	public void setMaxInFlightBatches(int maxInFlightBatches) {
+		this.maxInFlightBatches = maxInFlightBatches;
+	}
+
+	public int getMaxInFlightBatches() {
+		return maxInFlightBatches;
+	}
+
+	/**
+	 * @return the executor sending batch requests, {@code null} if they are sent on the caller thread
+	 */
+	public ExecutorService getBatchExecutor() {
+		if(batchPoolSize <= 1) {
+			return null;
+		}
+
+		final ExecutorService executor = batchExecutor;
+		return executor != null ? executor : createBatchExecutor();
+	}
+
+	private synchronized ExecutorService createBatchExecutor() {
+		if(batchExecutor == null) {
+			final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("simpledb-batch-");
+			threadFactory.setDaemon(true);
+
+			final ThreadPoolExecutor executor = new ThreadPoolExecutor(batchPoolSize, batchPoolSize,
+					THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+					threadFactory);
+			executor.allowCoreThreadTimeOut(true);
+			batchExecutor = executor;
+		}
+
+		return batchExecutor;
+	}
+
+	/**
+	 * Set the number of threads scanning the segments of a
+	 * {@link SimpleDbOperations#parallelScan(Class, String, int, ItemCallback)} or the id chunks of a
+	 * {@link SimpleDbOperations#readAll(Iterable, Class, boolean)} concurrently, shared by all running scans. Defaults
+	 * to 4; 1 or less means, segments are scanned one after another on the caller thread.
+	 * 
+	 * @param scanPoolSize
+	 */
+	public void setScanPoolSize(int scanPoolSize) {
+		this.scanPoolSize = scanPoolSize;
+	}
+
+	public int getScanPoolSize() {
+		return scanPoolSize;
+	}
+
+	/**
+	 * @return the executor scanning domain segments, {@code null} if they are scanned on the caller thread
+	 */
+	public ExecutorService getScanExecutor() {
+		if(scanPoolSize <= 1) {
+			return null;
+		}
+
+		final ExecutorService executor = scanExecutor;
+		return executor != null ? executor : createScanExecutor();
+	}
+
+	private synchronized ExecutorService createScanExecutor() {
+		if(scanExecutor == null) {
+			final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("simpledb-scan-");
+			threadFactory.setDaemon(true);
+
+			final ThreadPoolExecutor executor = new ThreadPoolExecutor(scanPoolSize, scanPoolSize,
+					THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), threadFactory);
+			executor.allowCoreThreadTimeOut(true);
+			scanExecutor = executor;
+		}
+
+		return scanExecutor;
+	}
+
+	/**
+	 * Set the maximum number of page start tokens remembered for
+	 * {@link SimpleDbOperations#executePagedQuery(Class, String, org.springframework.data.domain.Pageable)}, so that
+	 * requests for deep pages of the same query skip the count of the preceding items. Defaults to 0, which means,
+	 * page tokens are not cached.
+	 * 
+	 * @param pageTokenCacheSize
+	 */
+	public synchronized void setPageTokenCacheSize(int pageTokenCacheSize) {
+		this.pageTokenCacheSize = pageTokenCacheSize;
+		this.pageTokenCache = createPageTokenCache();
+	}
+
+	public int getPageTokenCacheSize() {
+		return pageTokenCacheSize;
+	}
+
+	/**
+	 * Set the time in seconds after which a cached page token is dropped, 0 to keep tokens until they are evicted.
+	 * Defaults to 300.
+	 * 
+	 * @param pageTokenCacheTtlSeconds
+	 */
+	public synchronized void setPageTokenCacheTtlSeconds(long pageTokenCacheTtlSeconds) {
+		this.pageTokenCacheTtlSeconds = pageTokenCacheTtlSeconds;
+		this.pageTokenCache = createPageTokenCache();
+	}
+
+	public long getPageTokenCacheTtlSeconds() {
+		return pageTokenCacheTtlSeconds;
+	}
+
+	/**
+	 * @return the page token cache, with its hit and miss counts, {@code null} if page tokens are not cached
+	 */
+	public PageTokenCache getPageTokenCache() {
+		return pageTokenCache;
+	}
+
+	private PageTokenCache createPageTokenCache() {
+		if(pageTokenCacheSize <= 0) {
+			return null;
+		}
+
+		return new PageTokenCache(pageTokenCacheSize, pageTokenCacheTtlSeconds, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Set the maximum number of eventually consistent count results remembered by domain and count query, such as the
+	 * totals of {@link SimpleDbOperations#executePagedQuery(Class, String, org.springframework.data.domain.Pageable)}.
+	 * Writes through the template drop the counts of the written domain; consistent reads are never cached. Defaults
+	 * to 0, which means, counts are not cached.
+	 * 
+	 * @param countCacheSize
+	 */
+	public synchronized void setCountCacheSize(int countCacheSize) {
+		this.countCacheSize = countCacheSize;
+		this.countCache = createCountCache();
+	}
+
+	public int getCountCacheSize() {
+		return countCacheSize;
+	}
+
+	/**
+	 * Set the time in seconds after which a cached count is dropped, 0 to keep counts until the domain is written or
+	 * they are evicted. Defaults to 30.
+	 * 
+	 * @param countCacheTtlSeconds
+	 */
+	public synchronized void setCountCacheTtlSeconds(long countCacheTtlSeconds) {
+		this.countCacheTtlSeconds = countCacheTtlSeconds;
+		this.countCache = createCountCache();
+	}
+
+	public long getCountCacheTtlSeconds() {
+		return countCacheTtlSeconds;
+	}
+
+	/**
+	 * @return the count cache, with its hit and miss counts, {@code null} if counts are not cached
+	 */
+	public CountCache getCountCache() {
+		return countCache;
+	}
+
+	private CountCache createCountCache() {
+		if(countCacheSize <= 0) {
+			return null;
+		}
+
+		return new CountCache(countCacheSize, countCacheTtlSeconds, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Set the maximum number of select queries whose validation and attribute escaping are remembered, so that running
+	 * a query again only binds its values. Queries are remembered without their quoted values, so the calls of a query
+	 * method share one entry whatever their parameters; the selects built by the template are not cached. When the
+	 * cache is full, the query used least recently is forgotten. Defaults to 256; 0 means, every query is validated
+	 * and escaped on each call.
+	 * 
+	 * @param queryPlanCacheSize
+	 */
+	public synchronized void setQueryPlanCacheSize(int queryPlanCacheSize) {
+		this.queryPlanCacheSize = queryPlanCacheSize;
+		this.queryPlanCache = queryPlanCacheSize > 0 ? new QueryPlanCache(queryPlanCacheSize) : null;
+	}
+
+	public int getQueryPlanCacheSize() {
+		return queryPlanCacheSize;
+	}
+
+	/**
+	 * @return the query plan cache, with its hit and miss counts, {@code null} if query plans are not cached
+	 */
+	public QueryPlanCache getQueryPlanCache() {
+		return queryPlanCache;
+	}
+
+	/**
+	 * Set the maximum number of entities of each domain remembered by
+	 * {@link SimpleDbOperations#read(java.io.Serializable, Class)}, so that reading them again does not send a request.
+	 * Entities saved through the template replace the cached ones, partial updates and deletes drop them; consistent
+	 * reads skip the cache but refresh it. Classes annotated with {@link CachedEntity} use their own settings.
+	 * Defaults to 0, which means, entities are not cached.
+	 * 
+	 * @param entityCacheSize
+	 */
+	public synchronized void setEntityCacheSize(int entityCacheSize) {
+		this.entityCacheSize = entityCacheSize;
+		clearEntityCaches();
+	}
+
+	public int getEntityCacheSize() {
+		return entityCacheSize;
+	}
+
+	/**
+	 * Set the time in seconds after which a cached entity is read again, 0 to keep entities until they are written or
+	 * evicted. Defaults to 60.
+	 * 
+	 * @param entityCacheTtlSeconds
+	 */
+	public synchronized void setEntityCacheTtlSeconds(long entityCacheTtlSeconds) {
+		this.entityCacheTtlSeconds = entityCacheTtlSeconds;
+		clearEntityCaches();
+	}
+
+	public long getEntityCacheTtlSeconds() {
+		return entityCacheTtlSeconds;
+	}
+
+	/**
+	 * @return the entity cache of the domain of the class, with its hit, miss and eviction counts, {@code null} if the
+	 *         entities of the class are not cached
+	 */
+	public EntityCache getEntityCache(Class<?> entityClass) {
+		EntityCache entityCache = entityCachesByClass.get(entityClass);
+
+		if(entityCache == null) {
+			entityCache = createEntityCache(entityClass);
+			final EntityCache resolvedCache = entityCachesByClass.putIfAbsent(entityClass, entityCache);
+			if(resolvedCache != null) {
+				entityCache = resolvedCache;
+			}
+		}
+
+		return NOT_CACHED.equals(entityCache) ? null : entityCache;
+	}
+
+	/**
+	 * @return the entity cache of the domain, {@code null} if no entity of the domain was cached
+	 */
+	EntityCache getEntityCache(String domain) {
+		return entityCaches.get(domain);
+	}
+
+	/*
+	 * Classes stored in the same domain share its cache.
+	 */
+	private EntityCache createEntityCache(Class<?> entityClass) {
+		final CachedEntity cachedEntity = entityClass.getAnnotation(CachedEntity.class);
+		final int maxSize = cachedEntity != null ? cachedEntity.maxSize() : entityCacheSize;
+		if(maxSize <= 0) {
+			return NOT_CACHED;
+		}
+
+		final String domain = getDomain(entityClass);
+		final long timeToLive = cachedEntity != null ? cachedEntity.timeToLiveSeconds() : entityCacheTtlSeconds;
+		final EntityCache entityCache = new EntityCache(maxSize, timeToLive, TimeUnit.SECONDS);
+		final EntityCache domainCache = entityCaches.putIfAbsent(domain, entityCache);
+
+		return domainCache != null ? domainCache : entityCache;
+	}
+
+	private void clearEntityCaches() {
+		entityCachesByClass.clear();
+		entityCaches.clear();
+	}
+
+	/**
+	 * Set the time in milliseconds a {@link SimpleDbOperations#read(java.io.Serializable, Class)} waits for concurrent
+	 * reads of the same entity class, so that they are sent together as one <tt>itemName() in (...)</tt> select;
+	 * concurrent reads of the same id share a single lookup. Applies to templates created afterwards. Defaults to 0,
+	 * which means, each read sends its own request.
+	 * 
+	 * @param readBatchWindowMillis
+	 */
+	public void setReadBatchWindowMillis(long readBatchWindowMillis) {
+		this.readBatchWindowMillis = readBatchWindowMillis;
+	}
+
+	public long getReadBatchWindowMillis() {
+		return readBatchWindowMillis;
+	}
+
+	/**
+	 * Set the number of ids after which a batch of concurrent reads is sent without waiting for the rest of the
+	 * window, at most 20. Defaults to 20.
+	 * 
+	 * @param readBatchMaxSize
+	 */
+	public void setReadBatchMaxSize(int readBatchMaxSize) {
+		this.readBatchMaxSize = readBatchMaxSize;
+	}
+
+	public int getReadBatchMaxSize() {
+		return readBatchMaxSize;
+	}
+
 	@Override
 	public final void afterPropertiesSet() {
 		final AWSCredentials awsCredentials = new AWSCredentials() {
@@ -144,11 +632,31 @@ public class SimpleDb implements InitializingBean {
 			}
 		};
 
-		this.simpleDbClient = new AmazonSimpleDBClient(awsCredentials);
+		if(simpleDbClient == null) {
+			this.simpleDbClient = new AmazonSimpleDBClient(awsCredentials);
+		}
 
 		simpleDbDomain = new SimpleDbDomain(domainPrefix);
 	}
 
+	@Override
+	public synchronized void destroy() {
+		if(prefetchExecutor != null) {
+			prefetchExecutor.shutdownNow();
+			prefetchExecutor = null;
+		}
+
+		if(batchExecutor != null) {
+			batchExecutor.shutdownNow();
+			batchExecutor = null;
+		}
+
+		if(scanExecutor != null) {
+			scanExecutor.shutdownNow();
+			scanExecutor = null;
+		}
+	}
+
 	public String getDomain(Class<?> clazz) {
 		return simpleDbDomain.getDomain(clazz);
 	}
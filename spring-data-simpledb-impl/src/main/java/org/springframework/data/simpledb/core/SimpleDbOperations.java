@@ -40,16 +40,35 @@ public interface SimpleDbOperations {
 	 * Creates or updates an entity. The decision to create or update depends
 	 * on the enitity Id, if null, the entity is created, updated otherwise.
 	 * <p>
-	 * For updates this is an expensive process, since the implementation may
-	 * delete attributes and then update the attributes since there is no track
+	 * Updates overwrite all attributes of the item with replacing puts and then
+	 * remove the attributes of the fields which are null, since there is no track
 	 * of state changes in the entity. For more efficient way to update, see
 	 * {@link #update(Object, Class, Map)}.
+	 * <p>
+	 * If the entity has a {@link org.springframework.data.simpledb.annotation.Version}
+	 * field, the write only succeeds if the stored item still has the version of
+	 * the entity, otherwise an
+	 * {@link org.springframework.dao.OptimisticLockingFailureException} is thrown.
 	 * 
 	 * @param entity
 	 * @return T
 	 */
 	<T> T createOrUpdate(T entity);
 
+	/**
+	 * Creates or updates several entities, with the same semantics as {@link #createOrUpdate(Object)}. The items
+	 * are grouped by domain and written with batch put requests of up to 25 items; items with too many attributes
+	 * for a batch and versioned entities are written one by one.
+	 * <p>
+	 * The batch requests are not atomic and are sent concurrently when {@link SimpleDb#setBatchPoolSize(int)} is set;
+	 * if some of them fail, the others are still written and a
+	 * {@link org.springframework.data.simpledb.exception.BatchOperationException} listing the failed batches is thrown.
+	 * 
+	 * @param entities
+	 * @return List of T, the saved entities
+	 */
+	<T> List<T> createOrUpdate(Iterable<T> entities);
+
 	/**
 	 * Deletes an item based on domainName and itemName (id). 
 	 * 
@@ -83,24 +102,44 @@ public interface SimpleDbOperations {
 	
 	/**
 	 * Delete more than one item, where each item is identified by the entity class
-	 * and id.
+	 * and id. The items are deleted with batch requests of 25 items, sent concurrently
+	 * when {@link SimpleDb#setBatchPoolSize(int)} is set.
+	 * <p>
+	 * A failed batch does not stop the others; once all batches are sent, a
+	 * {@link org.springframework.data.simpledb.exception.BatchOperationException} listing
+	 * the failed batches is thrown if any.
 	 * 
 	 * @param entityClass
 	 * @param id
+	 * @return the number of batches and items deleted
 	 */
-	<T, ID> void delete(Class<T> entityClass, Iterable<? extends ID> id);
+	<T, ID> BatchOperationResult delete(Class<T> entityClass, Iterable<? extends ID> id);
 	
 	/**
-	 * Deletes all entities.
+	 * Deletes all entities, see {@link #deleteByQuery(Class, String)}.
 	 * <p>
 	 * <b>Warning: This will delete all items in the entity domain!</b>
 	 * 
 	 * @param entityClass
 	 */
 	<T> void deleteAll(Class<T> entityClass);
+
+	/**
+	 * Deletes the entities matching a where clause without reading them: the item names are selected page by page
+	 * with a consistent <tt>select itemName()</tt> and each page is deleted with batch requests of 25 items, like
+	 * {@link #delete(Class, Iterable)}. Unlike {@link #delete(Object)}, referenced entities are not deleted.
+	 * 
+	 * @param entityClass
+	 * @param whereClause
+	 *            conditions on the entity attributes, without the <tt>where</tt> keyword, <tt>order by</tt> or
+	 *            <tt>limit</tt>; {@code null} to delete all entities
+	 * @return the number of items deleted
+	 */
+	<T> long deleteByQuery(Class<T> entityClass, String whereClause);
 	
 	/**
-	 * Find an entity by id.
+	 * Find an entity by id. Served from the entity cache when the class is cached, see
+	 * {@link SimpleDb#setEntityCacheSize(int)}.
 	 * 
 	 * @param id
 	 * @param entityClass
@@ -118,6 +157,53 @@ public interface SimpleDbOperations {
 	 */
 	<T, ID extends Serializable> T read(ID id, Class<T> entityClass, boolean consistentRead);
 
+	/**
+	 * Find the entities of several ids. The ids are read in chunks of {@link QueryBuilder#MAX_IN_VALUES} with one
+	 * <tt>itemName() in (...)</tt> select each, following its pages; the chunks are read concurrently on the scan
+	 * executor, see {@link SimpleDb#setScanPoolSize(int)}. The first failure of a chunk is rethrown.
+	 *
+	 * @param ids
+	 * @param entityClass
+	 * @param preserveOrder
+	 *            true to return the entities in the order of their ids, otherwise they are returned in the order
+	 *            SimpleDB selected them
+	 * @return the entities of the existing items, each at most once
+	 */
+	<T> List<T> readAll(Iterable<?> ids, Class<T> entityClass, boolean preserveOrder);
+
+	/**
+	 * Overloaded form of {@link #readAll(Iterable, Class, boolean)} with option to reverse the default
+	 * consistentRead setting.
+	 *
+	 * @param ids
+	 * @param entityClass
+	 * @param preserveOrder
+	 * @param consistentRead
+	 * @return the entities of the existing items, each at most once
+	 */
+	<T> List<T> readAll(Iterable<?> ids, Class<T> entityClass, boolean preserveOrder, boolean consistentRead);
+
+	/**
+	 * Check whether an entity exists, without reading its attributes. When the class has a version or a primitive
+	 * field, only its attribute is requested; items written before that field was added to the class are not found.
+	 * 
+	 * @param id
+	 * @param entityClass
+	 * @return true if the item of the id exists
+	 */
+	<T, ID extends Serializable> boolean exists(ID id, Class<T> entityClass);
+
+	/**
+	 * Check whether an entity exists, without reading its attributes. When the class has a version or a primitive
+	 * field, only its attribute is requested; items written before that field was added to the class are not found.
+	 * 
+	 * @param id
+	 * @param entityClass
+	 * @param consistentRead
+	 * @return true if the item of the id exists
+	 */
+	<T, ID extends Serializable> boolean exists(ID id, Class<T> entityClass, boolean consistentRead);
+
 	/**
 	 * @param entityClass
 	 * @return count of items in the domain for entityClass
@@ -187,6 +273,65 @@ public interface SimpleDbOperations {
 	 */
 	<T> List<T> find(Class<T> entityClass, String query, boolean consistentRead);
 
+	/**
+	 * Lazily iterates over all entities matching the query. Unlike {@link #find(Class, String)}, the returned
+	 * iterator follows the SimpleDB next tokens, so the whole result is traversed. Only one page of items is held in
+	 * memory at a time and each item is converted when it is consumed; a {@code limit} clause in the query sets the
+	 * page size.
+	 * <p>
+	 * Callers that stop iterating before the end of the result should close the iterator.
+	 *
+	 * @param entityClass
+	 * @param query needs to be a full query with select, from and where clauses.
+	 * @return a lazy iterator of T
+	 */
+	<T> CloseableIterator<T> stream(Class<T> entityClass, String query);
+
+	/**
+	 * Overloaded form of {@link #stream(Class, String)} with option to reverse the default consistentRead setting.
+	 *
+	 * @param entityClass
+	 * @param query
+	 * @param consistentRead
+	 * @return a lazy iterator of T
+	 */
+	<T> CloseableIterator<T> stream(Class<T> entityClass, String query, boolean consistentRead);
+
+	/**
+	 * Reads all entities of a domain, or those matching a where clause, by splitting the item names into
+	 * <tt>segments</tt> lexicographic ranges and following the select pages of each range on its own thread, see
+	 * {@link SimpleDb#setScanPoolSize(int)}. The ranges are balanced for the random UUID item names generated for new
+	 * entities; any other item names are still read exactly once.
+	 * <p>
+	 * The entities are passed to the callback concurrently and in no particular order. The first failure, of a select
+	 * or of the callback, stops the scan and is rethrown.
+	 * 
+	 * @param entityClass
+	 * @param whereClause
+	 *            conditions on the entity attributes, without the <tt>where</tt> keyword, <tt>order by</tt> or
+	 *            <tt>limit</tt>; {@code null} to read all entities
+	 * @param segments
+	 *            between 1 and 256
+	 * @param callback
+	 *            a thread safe callback receiving the entities
+	 * @return the number of entities read
+	 */
+	<T> long parallelScan(Class<T> entityClass, String whereClause, int segments, ItemCallback<? super T> callback);
+
+	/**
+	 * Overloaded form of {@link #parallelScan(Class, String, int, ItemCallback)} with option to reverse the default
+	 * consistentRead setting.
+	 * 
+	 * @param entityClass
+	 * @param whereClause
+	 * @param segments
+	 * @param callback
+	 * @param consistentRead
+	 * @return the number of entities read
+	 */
+	<T> long parallelScan(Class<T> entityClass, String whereClause, int segments, ItemCallback<? super T> callback,
+			boolean consistentRead);
+
 	/**
 	 * Paginated finder method.
 	 * 
@@ -210,6 +355,62 @@ public interface SimpleDbOperations {
 	 */
 	<T> Page<T> executePagedQuery(Class<T> entityClass, String query, Pageable pageable, boolean consistentRead);
 
+	/**
+	 * Paginated finder method which does not count the items of the query: same as
+	 * {@link #executePagedQuery(Class, String, Pageable)} without the total number of items, which is an expensive
+	 * count select on large domains. The {@link SimpleDbSlice#getNextToken() next token} of the slice can be passed to
+	 * {@link #executeSlicedQuery(Class, String, Pageable, String)} to read the following items.
+	 * 
+	 * @param entityClass
+	 * @param query
+	 * @param pageable
+	 * @return Slice of T
+	 */
+	<T> SimpleDbSlice<T> executeSlicedQuery(Class<T> entityClass, String query, Pageable pageable);
+
+	/**
+	 * Overloaded form of {@link #executeSlicedQuery(Class, String, Pageable)} with option to reverse the default
+	 * consistentRead setting.
+	 * 
+	 * @param entityClass
+	 * @param query
+	 * @param pageable
+	 * @param consistentRead
+	 * @return Slice of T
+	 */
+	<T> SimpleDbSlice<T> executeSlicedQuery(Class<T> entityClass, String query, Pageable pageable,
+			boolean consistentRead);
+
+	/**
+	 * Cursor based finder method: reads the slice of at most {@code pageable.getPageSize()} items following the given
+	 * continuation token, in a single select request and without counting the items of the query. The page number of
+	 * the {@link Pageable} is ignored, its sort is applied.
+	 * 
+	 * @param entityClass
+	 * @param query
+	 *            needs to be a full query with select, from and where clauses, without limit.
+	 * @param pageable
+	 * @param continuationToken
+	 *            {@link SimpleDbSlice#getNextToken()} of the previous slice of the same query, null for the first one
+	 * @return Slice of T
+	 */
+	<T> SimpleDbSlice<T> executeSlicedQuery(Class<T> entityClass, String query, Pageable pageable,
+			String continuationToken);
+
+	/**
+	 * Overloaded form of {@link #executeSlicedQuery(Class, String, Pageable, String)} with option to reverse the
+	 * default consistentRead setting.
+	 * 
+	 * @param entityClass
+	 * @param query
+	 * @param pageable
+	 * @param continuationToken
+	 * @param consistentRead
+	 * @return Slice of T
+	 */
+	<T> SimpleDbSlice<T> executeSlicedQuery(Class<T> entityClass, String query, Pageable pageable,
+			String continuationToken, boolean consistentRead);
+
 	/**
 	 * Updates an entity with the property map provided. The keys for the 
 	 * property map would be the attribute names to be updated with corresponding
@@ -1,14 +1,22 @@
 package org.springframework.data.simpledb.core;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.data.simpledb.util.MapUtils;
 
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.BatchDeleteAttributesRequest;
+import com.amazonaws.services.simpledb.model.BatchPutAttributesRequest;
+import com.amazonaws.services.simpledb.model.DeletableItem;
+import com.amazonaws.services.simpledb.model.DeleteAttributesRequest;
 import com.amazonaws.services.simpledb.model.PutAttributesRequest;
 import com.amazonaws.services.simpledb.model.ReplaceableAttribute;
+import com.amazonaws.services.simpledb.model.ReplaceableItem;
+import com.amazonaws.services.simpledb.model.UpdateCondition;
 
 /**
  * Taking into account SimpleDb limitations, constructs requests that comply.
@@ -19,10 +27,28 @@ public final class SimpleDbRequestBuilder {
 		// utility class
 	}
 
-	private static final int MAX_NUMBER_OF_ATTRIBUTES_PER_SIMPLE_DB_REQUEST = 256;
+	static final int MAX_NUMBER_OF_ATTRIBUTES_PER_SIMPLE_DB_REQUEST = 256;
+
+	static final int MAX_NUMBER_OF_ITEMS_PER_BATCH_REQUEST = 25;
+
+	/* SimpleDB rejects batch requests over 1MB, keep a margin for the request envelope */
+	static final int MAX_BATCH_REQUEST_SIZE = 1000000;
+
+	private static final int MAX_ONE_BYTE_UTF8_CHAR = 0x7F;
+	private static final int MAX_TWO_BYTES_UTF8_CHAR = 0x7FF;
+	private static final int MAX_UTF8_CHAR_LENGTH = 3;
 
 	public static List<PutAttributesRequest> createPutAttributesRequests(String domain, String itemName,
 			Map<String, List<String>> rawAttributes) {
+		return createPutAttributesRequests(domain, itemName, rawAttributes, null);
+	}
+
+	/**
+	 * Creates the put requests for an item, with the expected condition set on the first request only. Attributes
+	 * are sent in the iteration order of the map, so an attribute checked by the condition should come first.
+	 */
+	public static List<PutAttributesRequest> createPutAttributesRequests(String domain, String itemName,
+			Map<String, List<String>> rawAttributes, UpdateCondition expected) {
 		List<PutAttributesRequest> putAttributesRequests = new LinkedList<PutAttributesRequest>();
 
 		List<Map<String, List<String>>> attributeChunks = MapUtils.splitToChunksOfSize(rawAttributes,
@@ -33,9 +59,145 @@ public final class SimpleDbRequestBuilder {
 			putAttributesRequests.add(request);
 		}
 
+		if(expected != null && !putAttributesRequests.isEmpty()) {
+			putAttributesRequests.get(0).setExpected(expected);
+		}
+
 		return putAttributesRequests;
 	}
 
+	/**
+	 * Creates the requests removing all values of the named attributes from an item.
+	 */
+	public static List<DeleteAttributesRequest> createDeleteAttributesRequests(String domain, String itemName,
+			Collection<String> attributeNames, UpdateCondition expected) {
+		List<DeleteAttributesRequest> deleteAttributesRequests = new LinkedList<DeleteAttributesRequest>();
+
+		List<Attribute> chunk = new ArrayList<Attribute>();
+		for(String attributeName : attributeNames) {
+			chunk.add(new Attribute().withName(attributeName));
+
+			if(chunk.size() == MAX_NUMBER_OF_ATTRIBUTES_PER_SIMPLE_DB_REQUEST) {
+				deleteAttributesRequests.add(new DeleteAttributesRequest(domain, itemName, chunk, expected));
+				chunk = new ArrayList<Attribute>();
+			}
+		}
+
+		if(!chunk.isEmpty()) {
+			deleteAttributesRequests.add(new DeleteAttributesRequest(domain, itemName, chunk, expected));
+		}
+
+		return deleteAttributesRequests;
+	}
+
+	/**
+	 * @return true if the item attributes fit in a single item of a batch put request
+	 */
+	public static boolean isBatchable(Map<String, List<String>> rawAttributes) {
+		int numberOfValues = 0;
+		for(List<String> values : rawAttributes.values()) {
+			numberOfValues += values.size();
+		}
+
+		return numberOfValues <= MAX_NUMBER_OF_ATTRIBUTES_PER_SIMPLE_DB_REQUEST
+				&& getSize(rawAttributes) <= MAX_BATCH_REQUEST_SIZE;
+	}
+
+	/**
+	 * Packs the items of a domain into batch put requests of at most 25 items and 1MB each. All items must be
+	 * {@link #isBatchable(Map) batchable}.
+	 * 
+	 * @param items
+	 *            the attributes of each item, by item name
+	 */
+	public static List<BatchPutAttributesRequest> createBatchPutAttributesRequests(String domain,
+			Map<String, Map<String, List<String>>> items) {
+		List<BatchPutAttributesRequest> batchRequests = new LinkedList<BatchPutAttributesRequest>();
+
+		List<ReplaceableItem> batch = new ArrayList<ReplaceableItem>();
+		int batchSize = 0;
+		for(Map.Entry<String, Map<String, List<String>>> item : items.entrySet()) {
+			final int itemSize = getUtf8Length(item.getKey()) + getSize(item.getValue());
+
+			if(batch.size() == MAX_NUMBER_OF_ITEMS_PER_BATCH_REQUEST || batchSize + itemSize > MAX_BATCH_REQUEST_SIZE) {
+				batchRequests.add(new BatchPutAttributesRequest(domain, batch));
+				batch = new ArrayList<ReplaceableItem>();
+				batchSize = 0;
+			}
+
+			batch.add(new ReplaceableItem(item.getKey(), toReplaceableAttributeList(item.getValue())));
+			batchSize += itemSize;
+		}
+
+		if(!batch.isEmpty()) {
+			batchRequests.add(new BatchPutAttributesRequest(domain, batch));
+		}
+
+		return batchRequests;
+	}
+
+	/**
+	 * Packs the removal of the named attributes of the items of a domain into batch delete requests of at most 25
+	 * items each. No item may have more than 256 attribute names.
+	 * 
+	 * @param items
+	 *            the names of the attributes to remove from each item, by item name
+	 */
+	public static List<BatchDeleteAttributesRequest> createBatchDeleteAttributesRequests(String domain,
+			Map<String, ? extends Collection<String>> items) {
+		List<BatchDeleteAttributesRequest> batchRequests = new LinkedList<BatchDeleteAttributesRequest>();
+
+		List<DeletableItem> batch = new ArrayList<DeletableItem>();
+		for(Map.Entry<String, ? extends Collection<String>> item : items.entrySet()) {
+			List<Attribute> attributes = new ArrayList<Attribute>();
+			for(String attributeName : item.getValue()) {
+				attributes.add(new Attribute().withName(attributeName));
+			}
+			batch.add(new DeletableItem(item.getKey(), attributes));
+
+			if(batch.size() == MAX_NUMBER_OF_ITEMS_PER_BATCH_REQUEST) {
+				batchRequests.add(new BatchDeleteAttributesRequest(domain, batch));
+				batch = new ArrayList<DeletableItem>();
+			}
+		}
+
+		if(!batch.isEmpty()) {
+			batchRequests.add(new BatchDeleteAttributesRequest(domain, batch));
+		}
+
+		return batchRequests;
+	}
+
+	/*
+	 * Approximate size in bytes of the attributes in a request, characters are counted as UTF-8 encoded.
+	 */
+	private static int getSize(Map<String, List<String>> rawAttributes) {
+		int size = 0;
+		for(Map.Entry<String, List<String>> entry : rawAttributes.entrySet()) {
+			for(String value : entry.getValue()) {
+				size += getUtf8Length(entry.getKey()) + getUtf8Length(value);
+			}
+		}
+
+		return size;
+	}
+
+	private static int getUtf8Length(String value) {
+		int length = 0;
+		for(int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			if(c <= MAX_ONE_BYTE_UTF8_CHAR) {
+				length += 1;
+			} else if(c <= MAX_TWO_BYTES_UTF8_CHAR || Character.isHighSurrogate(c) || Character.isLowSurrogate(c)) {
+				length += 2;
+			} else {
+				length += MAX_UTF8_CHAR_LENGTH;
+			}
+		}
+
+		return length;
+	}
+
 	private static PutAttributesRequest createPutAttributesRequest(String domain, String itemName,
 			Map<String, List<String>> chunk) {
 		final PutAttributesRequest putRequest = new PutAttributesRequest();
@@ -0,0 +1,77 @@
+package org.springframework.data.simpledb.core;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * One page of a query result read with a SimpleDB next token, without computing the total number of items. The
+ * {@link #getNextToken() continuation token} resumes the query right after this slice in a single select request, see
+ * {@link SimpleDbOperations#executeSlicedQuery(Class, String, org.springframework.data.domain.Pageable, String)}.
+ * <p>
+ * SimpleDB may end a select before the requested size is reached (response size or execution time limits), so a
+ * slice can hold fewer items than its size and still have a next slice. Conversely, a slice ending exactly at the
+ * end of the result may report a next slice which turns out to be empty.
+ */
+public class SimpleDbSlice<T> implements Iterable<T>, Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final List<T> content;
+	private final int size;
+	private final String nextToken;
+
+	public SimpleDbSlice(List<T> content, int size, String nextToken) {
+		this.content = Collections.unmodifiableList(new ArrayList<T>(content));
+		this.size = size;
+		this.nextToken = nextToken;
+	}
+
+	/**
+	 * @return the items of this slice
+	 */
+	public List<T> getContent() {
+		return content;
+	}
+
+	/**
+	 * @return the requested number of items
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	public int getNumberOfElements() {
+		return content.size();
+	}
+
+	public boolean hasContent() {
+		return !content.isEmpty();
+	}
+
+	/**
+	 * @return true if the query may have more items after this slice
+	 */
+	public boolean hasNext() {
+		return nextToken != null && !nextToken.isEmpty();
+	}
+
+	/**
+	 * @return the opaque token resuming the query after this slice, null on the last slice
+	 */
+	public String getNextToken() {
+		return hasNext() ? nextToken : null;
+	}
+
+	@Override
+	public Iterator<T> iterator() {
+		return content.iterator();
+	}
+
+	@Override
+	public String toString() {
+		return "Slice of " + content.size() + " items, " + (hasNext() ? "has next" : "last");
+	}
+}
@@ -4,12 +4,19 @@ import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -17,9 +24,9 @@ import org.springframework.data.simpledb.attributeutil.SimpleDBAttributeConverte
 import org.springframework.data.simpledb.attributeutil.SimpleDbAttributeValueSplitter;
 import org.springframework.data.simpledb.core.entity.EntityWrapper;
 import org.springframework.data.simpledb.core.entity.json.JsonMarshaller;
-import org.springframework.data.simpledb.exception.InvalidSimpleDBQueryException;
-import org.springframework.data.simpledb.parser.SimpleDBParser;
+import org.springframework.data.simpledb.exception.BatchOperationException;
 import org.springframework.data.simpledb.query.QueryUtils;
+import org.springframework.data.simpledb.reflection.EntityMapping;
 import org.springframework.data.simpledb.reflection.FieldType;
 import org.springframework.data.simpledb.reflection.FieldTypeIdentifier;
 import org.springframework.data.simpledb.reflection.MetadataParser;
@@ -27,22 +34,28 @@ import org.springframework.data.simpledb.reflection.ReflectionUtils;
 import org.springframework.data.simpledb.repository.support.entityinformation.SimpleDbEntityInformation;
 import org.springframework.data.simpledb.repository.support.entityinformation.SimpleDbEntityInformationSupport;
 import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 
+import com.amazonaws.AmazonServiceException;
 import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.AttributeDoesNotExistException;
 import com.amazonaws.services.simpledb.model.BatchDeleteAttributesRequest;
-import com.amazonaws.services.simpledb.model.DeletableItem;
+import com.amazonaws.services.simpledb.model.BatchPutAttributesRequest;
 import com.amazonaws.services.simpledb.model.DeleteAttributesRequest;
+import com.amazonaws.services.simpledb.model.GetAttributesRequest;
+import com.amazonaws.services.simpledb.model.GetAttributesResult;
 import com.amazonaws.services.simpledb.model.Item;
 import com.amazonaws.services.simpledb.model.PutAttributesRequest;
 import com.amazonaws.services.simpledb.model.SelectRequest;
 import com.amazonaws.services.simpledb.model.SelectResult;
+import com.amazonaws.services.simpledb.model.UpdateCondition;
 
 /**
  * Primary implementation of {@link SimpleDbOperations}
  */
 public class SimpleDbTemplate extends AbstractSimpleDbTemplate {
 
-    private static final int MAX_BATCH_SIZE = 25;
+    private static final String CONDITIONAL_CHECK_FAILED = "ConditionalCheckFailed";
 	private static final Logger LOGGER = LoggerFactory.getLogger(SimpleDbTemplate.class);
 
     public SimpleDbTemplate(SimpleDb simpleDb) {
@@ -58,26 +71,250 @@ public class SimpleDbTemplate extends AbstractSimpleDbTemplate {
         for (final Field field : ReflectionUtils.getFirstLevelOfReferenceAttributes(domainItem.getClass())) {
             final Object referenceEntity = ReflectionUtils.callGetter(domainItem, field.getName());
 
-			/* recursive call */
-            if (referenceEntity != null) {
+			/* recursive call, lazy references never read can not have changed */
+            if (referenceEntity != null && LazyReferences.isLoaded(referenceEntity)) {
                 createOrUpdate(referenceEntity);
             }
         }
 
-        if (entity.getItemName() != null) {
-        	delete(entity.getDomain(), entity.getItemName());
-        }
+        final boolean isNewItem = entity.getItemName() == null;
         entity.generateIdIfNotSet();
 
+        writeVersionedAttributes(entity, isNewItem, MetadataParser.getVersionField(domainItem.getClass()));
+
+        return entity.getItem();
+    }
+
+    /*
+     * Writes the attributes, conditional on the version read before the write when the entity has a version field.
+     */
+    private <T> void writeVersionedAttributes(EntityWrapper<T, ?> entity, boolean isNewItem, Field versionField) {
+        final T domainItem = entity.getItem();
+        final Object previousVersion = versionField != null ? ReflectionUtils.callGetter(domainItem,
+                versionField.getName()) : null;
+
+        boolean written = false;
+        try {
+            writeAttributes(entity, isNewItem, versionField, previousVersion);
+            written = true;
+        } finally {
+            if (versionField != null && !written) {
+                /* the entity may be saved again */
+                ReflectionUtils.callSetter(domainItem, versionField.getName(), previousVersion);
+            }
+        }
+    }
+
+    @Override
+    public <T> void createOrUpdateImpl(List<T> domainItems, List<EntityWrapper<T, ?>> entities) {
+        LOGGER.debug("Create or update {} items", domainItems.size());
+
+        createOrUpdateReferences(domainItems);
+
+        final Map<String, Map<String, Map<String, List<String>>>> putsByDomain =
+                new LinkedHashMap<String, Map<String, Map<String, List<String>>>>();
+        final Map<String, Map<String, Set<String>>> deletesByDomain = new LinkedHashMap<String, Map<String, Set<String>>>();
+
+        for (int i = 0; i < domainItems.size(); i++) {
+            final T domainItem = domainItems.get(i);
+            final EntityWrapper<T, ?> entity = entities.get(i);
+
+            final boolean isNewItem = entity.getItemName() == null;
+            entity.generateIdIfNotSet();
+
+            final Field versionField = MetadataParser.getVersionField(domainItem.getClass());
+            if (versionField != null) {
+                /* batch puts can not be conditional, the references are already saved */
+                writeVersionedAttributes(entity, isNewItem, versionField);
+                continue;
+            }
+
+            final Map<String, List<String>> rawAttributes = entity.toMultiValueAttributes();
+            final Set<String> nullAttributeNames = isNewItem ? Collections.<String>emptySet() : entity
+                    .getNullAttributeNames();
+
+            /* a batch put without attributes is rejected, the single write sends no put for them */
+            if (rawAttributes.isEmpty() || !SimpleDbRequestBuilder.isBatchable(rawAttributes)
+                    || nullAttributeNames.size() > SimpleDbRequestBuilder.MAX_NUMBER_OF_ATTRIBUTES_PER_SIMPLE_DB_REQUEST) {
+                writeVersionedAttributes(entity, isNewItem, null);
+                continue;
+            }
+
+            getDomainMap(putsByDomain, entity.getDomain()).put(entity.getItemName(), rawAttributes);
+            if (!nullAttributeNames.isEmpty()) {
+                getDomainMap(deletesByDomain, entity.getDomain()).put(entity.getItemName(), nullAttributeNames);
+            }
+        }
+
+        batchPutAttributes(putsByDomain);
+        batchDeleteAttributes(deletesByDomain);
+    }
+
+    private <T> void createOrUpdateReferences(List<T> domainItems) {
+        final List<Object> referenceEntities = new ArrayList<Object>();
+        for (T domainItem : domainItems) {
+            for (final Field field : ReflectionUtils.getFirstLevelOfReferenceAttributes(domainItem.getClass())) {
+                final Object referenceEntity = ReflectionUtils.callGetter(domainItem, field.getName());
+
+                if (referenceEntity != null && LazyReferences.isLoaded(referenceEntity)) {
+                    referenceEntities.add(referenceEntity);
+                }
+            }
+        }
+
+        /* recursive call */
+        if (!referenceEntities.isEmpty()) {
+            createOrUpdate(referenceEntities);
+        }
+    }
+
+    private void batchPutAttributes(Map<String, Map<String, Map<String, List<String>>>> putsByDomain) {
+        final List<BatchPutAttributesRequest> requests = new ArrayList<BatchPutAttributesRequest>();
+        for (Map.Entry<String, Map<String, Map<String, List<String>>>> domainPuts : putsByDomain.entrySet()) {
+            requests.addAll(SimpleDbRequestBuilder.createBatchPutAttributesRequests(domainPuts.getKey(),
+                    domainPuts.getValue()));
+        }
+
+        try {
+            checkResult(createBatchDispatcher().batchPutAttributes(requests));
+        } finally {
+            for (String domain : putsByDomain.keySet()) {
+                invalidateCounts(domain);
+            }
+        }
+    }
+
+    private void batchDeleteAttributes(Map<String, Map<String, Set<String>>> deletesByDomain) {
+        final List<BatchDeleteAttributesRequest> requests = new ArrayList<BatchDeleteAttributesRequest>();
+        for (Map.Entry<String, Map<String, Set<String>>> domainDeletes : deletesByDomain.entrySet()) {
+            requests.addAll(SimpleDbRequestBuilder.createBatchDeleteAttributesRequests(domainDeletes.getKey(),
+                    domainDeletes.getValue()));
+        }
+
+        try {
+            checkResult(createBatchDispatcher().batchDeleteAttributes(requests));
+        } finally {
+            for (String domain : deletesByDomain.keySet()) {
+                invalidateCounts(domain);
+            }
+        }
+    }
+
+    private static <V> Map<String, V> getDomainMap(Map<String, Map<String, V>> byDomain, String domain) {
+        Map<String, V> domainMap = byDomain.get(domain);
+        if (domainMap == null) {
+            domainMap = new LinkedHashMap<String, V>();
+            byDomain.put(domain, domainMap);
+        }
+
+        return domainMap;
+    }
+
+    /*
+     * Overwrites the item attributes with replacing puts, then removes the attributes of null fields. For a versioned
+     * entity the first put is conditional on the previously read version and the delete on the new version.
+     *
+     * Each request is retried on its own: retrying the whole sequence would send the first put again after it
+     * succeeded, and its condition on the previous version would then fail.
+     */
+    private <T> void writeAttributes(final EntityWrapper<T, ?> entity, boolean isNewItem, Field versionField,
+                                     final Object previousVersion) {
+        UpdateCondition putCondition = null;
+        UpdateCondition deleteCondition = null;
+
         Map<String, List<String>> rawAttributes = entity.toMultiValueAttributes();
+
+        if (versionField != null) {
+            final String versionAttribute = versionField.getName();
+            final Object nextVersion = nextVersion(previousVersion, versionField.getType());
+            ReflectionUtils.callSetter(entity.getItem(), versionAttribute, nextVersion);
+
+            if (previousVersion == null || ((Number) previousVersion).longValue() == 0) {
+                putCondition = new UpdateCondition().withName(versionAttribute).withExists(false);
+            } else {
+                putCondition = new UpdateCondition(versionAttribute, SimpleDBAttributeConverter.encode(previousVersion),
+                        true);
+            }
+            deleteCondition = new UpdateCondition(versionAttribute, SimpleDBAttributeConverter.encode(nextVersion),
+                    true);
+
+            /* the conditional put must carry the new version */
+            final Map<String, List<String>> versionFirst = new LinkedHashMap<String, List<String>>();
+            versionFirst.put(versionAttribute, Collections.singletonList(SimpleDBAttributeConverter.encode(nextVersion)));
+            rawAttributes.remove(versionAttribute);
+            versionFirst.putAll(rawAttributes);
+            rawAttributes = versionFirst;
+        }
+
         List<PutAttributesRequest> putAttributesRequests = SimpleDbRequestBuilder.createPutAttributesRequests(
-                entity.getDomain(), entity.getItemName(), rawAttributes);
+                entity.getDomain(), entity.getItemName(), rawAttributes, putCondition);
 
-        for (PutAttributesRequest request : putAttributesRequests) {
-            getDB().putAttributes(request);
+        try {
+            for (final PutAttributesRequest request : putAttributesRequests) {
+                /* a conditional put applied before its response was lost would fail its condition when sent again */
+                new AbstractServiceUnavailableOperationRetrier(getServiceUnavailableMaxRetries(), getRetryPolicy(),
+                        getRetryMetrics(), request.getExpected() == null) {
+
+                    @Override
+                    public void execute() {
+                        try {
+                            getDB().putAttributes(request);
+                        } catch (AmazonServiceException e) {
+                            throw checkVersion(e, request.getExpected(), entity, previousVersion);
+                        }
+                    }
+                }.executeWithRetries();
+            }
+
+            if (!isNewItem) {
+                List<DeleteAttributesRequest> deleteAttributesRequests = SimpleDbRequestBuilder
+                        .createDeleteAttributesRequests(entity.getDomain(), entity.getItemName(),
+                                entity.getNullAttributeNames(), deleteCondition);
+
+                for (final DeleteAttributesRequest request : deleteAttributesRequests) {
+                    new AbstractServiceUnavailableOperationRetrier(getServiceUnavailableMaxRetries(),
+                            getRetryPolicy(), getRetryMetrics()) {
+
+                        @Override
+                        public void execute() {
+                            try {
+                                getDB().deleteAttributes(request);
+                            } catch (AmazonServiceException e) {
+                                throw checkVersion(e, request.getExpected(), entity, previousVersion);
+                            }
+                        }
+                    }.executeWithRetries();
+                }
+            }
+        } finally {
+            invalidateCounts(entity.getDomain());
         }
-        
-        return entity.getItem();
+    }
+
+    /*
+     * Thrown within the retried request, before the retrier translates the service exception.
+     */
+    private RuntimeException checkVersion(AmazonServiceException e, UpdateCondition expected,
+                                          EntityWrapper<?, ?> entity, Object previousVersion) {
+        if (expected != null && isConditionalCheckFailure(e)) {
+            return new OptimisticLockingFailureException("Item " + entity.getItemName() + " of domain "
+                    + entity.getDomain() + " was modified since version " + previousVersion + " was read", e);
+        }
+
+        return e;
+    }
+
+    private Object nextVersion(Object version, Class<?> versionType) {
+        final long next = version == null ? 1 : ((Number) version).longValue() + 1;
+
+        if (versionType == int.class || versionType == Integer.class) {
+            return Integer.valueOf((int) next);
+        }
+        return Long.valueOf(next);
+    }
+
+    private boolean isConditionalCheckFailure(AmazonServiceException e) {
+        return CONDITIONAL_CHECK_FAILED.equals(e.getErrorCode()) || e instanceof AttributeDoesNotExistException;
     }
 
     @Override
@@ -87,7 +324,11 @@ public class SimpleDbTemplate extends AbstractSimpleDbTemplate {
         Assert.notNull(domainName, "Domain name should not be null");
         Assert.notNull(itemName, "Item name should not be null");
 
-        getDB().deleteAttributes(new DeleteAttributesRequest(domainName, itemName));
+        try {
+            getDB().deleteAttributes(new DeleteAttributesRequest(domainName, itemName));
+        } finally {
+            invalidateCounts(domainName);
+        }
     }
 
     @Override
@@ -107,35 +348,92 @@ public class SimpleDbTemplate extends AbstractSimpleDbTemplate {
     }
 
     @Override
-	public <T, ID> void delete(Class<T> entityClass, Iterable<? extends ID> ids) {
+    public <T, ID> BatchOperationResult delete(Class<T> entityClass, Iterable<? extends ID> ids) {
+        final Map<String, List<String>> itemNames = new LinkedHashMap<String, List<String>>();
+        for (ID id : ids) {
+            /* no attribute names: the whole item is deleted */
+            itemNames.put((String) id, Collections.<String>emptyList());
+        }
 
-    	if (ids.iterator().hasNext()) {
-    		String domainName = getDomainName(entityClass);
-    		
-			List<DeletableItem> deleteList = new ArrayList<DeletableItem>();
-			for (ID id : ids) {
-				deleteList.add(new DeletableItem().withName((String) id));
-			}
-			// max allowed batch size is 25
-			List<DeletableItem> batch = new ArrayList<DeletableItem>(MAX_BATCH_SIZE);
-			for (int i = 0; i < deleteList.size(); i += MAX_BATCH_SIZE) {
-				int batchIndex = ((i + MAX_BATCH_SIZE) < deleteList.size()) ? (i + MAX_BATCH_SIZE)
-						: deleteList.size();
-				for (int j = i; j < batchIndex; j++) {
-					batch.add(deleteList.get(j));
-				}
-				LOGGER.debug(String.format("Batch size: %d", batch.size()));
-				getDB().batchDeleteAttributes(new BatchDeleteAttributesRequest(
-						domainName, batch));
-				batch.clear();
-			}
-		}
-	}
+        final List<BatchDeleteAttributesRequest> requests = SimpleDbRequestBuilder.createBatchDeleteAttributesRequests(
+                getDomainName(entityClass), itemNames);
+        LOGGER.debug("Delete {} items with {} batch requests", itemNames.size(), requests.size());
+
+        try {
+            return checkResult(createBatchDispatcher().batchDeleteAttributes(requests));
+        } finally {
+            invalidateCounts(getDomainName(entityClass));
+            for (String itemName : itemNames.keySet()) {
+                evictCachedEntity(entityClass, itemName);
+            }
+        }
+    }
+
+    /*
+     * SimpleDB does not promise that a next token stays valid once the items before it are deleted, so after each
+     * deleted page the select starts over without a token until it finds no more items. A token is only followed
+     * past an empty page, where nothing was deleted.
+     */
+    @Override
+    public <T> long deleteByQueryImpl(Class<T> entityClass, String whereClause,
+                                      SimpleDbEntityInformation<T, ?> entityInformation) {
+
+        String query = QueryBuilder.itemNamesOf(entityInformation).toString();
+        if (StringUtils.hasText(whereClause)) {
+            query += " where (" + whereClause + ")";
+        }
+        final String escapedQuery = new QueryBuilder(getEscapedQuery(query, entityInformation)).withLimit(
+                QueryBuilder.MAX_LIMIT).toString();
+
+        long deletedCount = 0;
+        String nextToken = null;
+        boolean deletedPage;
+        do {
+            final SelectResult page = select(escapedQuery, nextToken, true);
+
+            final List<String> itemNames = new ArrayList<String>(page.getItems().size());
+            for (Item item : page.getItems()) {
+                itemNames.add(item.getName());
+            }
+
+            deletedPage = !itemNames.isEmpty();
+            if (deletedPage) {
+                deletedCount += delete(entityClass, itemNames).getItemCount();
+                nextToken = null;
+            } else {
+                nextToken = page.getNextToken();
+            }
+        } while (deletedPage || nextToken != null);
+
+        LOGGER.debug("Deleted {} items of Domain \"{}\"", deletedCount, entityInformation.getDomain());
+        return deletedCount;
+    }
+
+    private BatchDispatcher createBatchDispatcher() {
+        return new BatchDispatcher(getDB(), getSimpleDb().getBatchExecutor(), getSimpleDb().getMaxInFlightBatches(),
+                getServiceUnavailableMaxRetries(), getRetryPolicy(), getRetryMetrics());
+    }
+
+    private static BatchOperationResult checkResult(BatchOperationResult result) {
+        if (result.hasFailures()) {
+            throw new BatchOperationException(result);
+        }
+
+        return result;
+    }
 
 	@Override
     public SelectResult invokeFindImpl(boolean consistentRead, String escapedQuery) {
+        return invokeFindImpl(consistentRead, escapedQuery, null);
+    }
+
+    @Override
+    public SelectResult invokeFindImpl(boolean consistentRead, String escapedQuery, String nextToken) {
     	LOGGER.debug("Query: {}", escapedQuery);
-        return getDB().select(new SelectRequest(escapedQuery, consistentRead));
+        final SelectRequest selectRequest = new SelectRequest(escapedQuery, consistentRead);
+        selectRequest.setNextToken(nextToken);
+
+        return getDB().select(selectRequest);
     }
 
     @Override
@@ -143,17 +441,85 @@ public class SimpleDbTemplate extends AbstractSimpleDbTemplate {
                                                    SimpleDbEntityInformation<T, ?> entityInformation) {
         LOGGER.debug("Read ItemName \"{}\"", id);
 
-        List<ID> ids = new ArrayList<ID>();
-        {
-            ids.add(id);
+        final String itemName = id.toString();
+        final GetAttributesResult result = getDB().getAttributes(
+                new GetAttributesRequest(entityInformation.getDomain(), itemName).withConsistentRead(consistentRead));
+
+        /* an item without attributes does not exist */
+        if (result.getAttributes().isEmpty()) {
+            return null;
+        }
+
+        final SelectResult item = new SelectResult().withItems(new Item(itemName, result.getAttributes()));
+        return populateDomainItems(entityClass, entityInformation, item, consistentRead).get(0);
+    }
+
+    @Override
+    public <T> T populateCachedItemImpl(Item item, Class<T> entityClass, boolean consistentRead,
+                                        SimpleDbEntityInformation<T, ?> entityInformation) {
+        return populateDomainItems(entityClass, entityInformation, new SelectResult().withItems(item), consistentRead)
+                .get(0);
+    }
+
+    /*
+     * Reads all items with one select, the item names are at most QueryBuilder.MAX_IN_VALUES.
+     */
+    @Override
+    public <T> Map<String, T> readImpl(List<String> itemNames, Class<T> entityClass, boolean consistentRead,
+                                       SimpleDbEntityInformation<T, ?> entityInformation) {
+        LOGGER.debug("Read ItemNames \"{}\"", itemNames);
+
+        final String query = new QueryBuilder(entityInformation).withItemNamesIn(itemNames).toString();
+        final SelectResult selectResult = invokeFindImpl(consistentRead, query);
+        final Map<String, T> entities = new HashMap<String, T>();
+        for (T entity : populateDomainItems(entityClass, entityInformation, selectResult, consistentRead)) {
+            entities.put(entityInformation.getItemName(entity), entity);
+        }
+
+        return entities;
+    }
+
+    /*
+     * Asks for a single attribute written with every entity when the class has one, so an existing item transfers
+     * one value and a missing one costs no more than a full read.
+     */
+    @Override
+    public <T, ID extends Serializable> boolean existsImpl(ID id, boolean consistentRead,
+                                                           SimpleDbEntityInformation<T, ?> entityInformation) {
+        LOGGER.debug("Exists ItemName \"{}\"", id);
+
+        final GetAttributesRequest request = new GetAttributesRequest(entityInformation.getDomain(), id.toString())
+                .withConsistentRead(consistentRead);
+        final String attributeName = getAlwaysWrittenAttributeName(entityInformation.getJavaType());
+        if (attributeName != null) {
+            request.withAttributeNames(attributeName);
+        }
+
+        return !getDB().getAttributes(request).getAttributes().isEmpty();
+    }
+
+    /*
+     * The version and primitive fields are never null, their attributes are written with every entity. Items written
+     * before such a field was added to the class are not found.
+     */
+    private static String getAlwaysWrittenAttributeName(Class<?> entityClass) {
+        final EntityMapping mapping = EntityMapping.forClass(entityClass);
+        if (mapping.getVersionField() != null) {
+            return mapping.getVersionField().getName();
+        }
+
+        for (Field field : mapping.getSupportedFields()) {
+            if (field.getType().isPrimitive() && !FieldTypeIdentifier.isOfType(field, FieldType.ID)) {
+                return field.getName();
+            }
         }
-        List<T> results = find(entityClass, new QueryBuilder(entityInformation).withIds(ids).toString(), consistentRead);
-        return results.size() == 1 ? results.get(0) : null;
+
+        return null;
     }
 
     @Override
     public <T> long countImpl(String query, boolean consistentRead, SimpleDbEntityInformation<T, ?> entityInformation) {
-    	final String countQuery = new QueryBuilder(query, true).toString();
+    	final String countQuery = getCountQuery(query, entityInformation);
     	return invokeCountImpl(consistentRead, entityInformation, countQuery);
     }
 
@@ -165,14 +531,46 @@ public class SimpleDbTemplate extends AbstractSimpleDbTemplate {
 
 	private <T> long invokeCountImpl(boolean consistentRead,
 			SimpleDbEntityInformation<T, ?> entityInformation,
-			final String countQuery) {
+			final String escapedQuery) {
 		
-		LOGGER.debug("Count items for query " + countQuery);
-        validateSelectQuery(countQuery);
+		LOGGER.debug("Count items for query " + escapedQuery);
 
-        final String escapedQuery = getEscapedQuery(countQuery, entityInformation);
+        final String domain = entityInformation.getDomain();
+        final CountCache countCache = consistentRead ? null : getSimpleDb().getCountCache();
 
-        final SelectResult selectResult = invokeFindImpl(consistentRead, escapedQuery);
+        if (countCache == null) {
+            return selectCount(escapedQuery, consistentRead);
+        }
+
+        final Long cachedCount = countCache.get(domain, escapedQuery);
+        if (cachedCount != null) {
+            return cachedCount;
+        }
+
+        final long generation = countCache.getGeneration(domain);
+        final long count = selectCount(escapedQuery, consistentRead);
+        countCache.put(domain, generation, escapedQuery, count);
+
+        return count;
+	}
+
+    /*
+     * SimpleDB returns a partial count with a next token when counting takes too long: sums the partial counts.
+     */
+    private long selectCount(String escapedCountQuery, boolean consistentRead) {
+        long count = 0;
+        String nextToken = null;
+
+        do {
+            final SelectResult selectResult = invokeFindImpl(consistentRead, escapedCountQuery, nextToken);
+            count += readCount(selectResult);
+            nextToken = selectResult.getNextToken();
+        } while (nextToken != null && !nextToken.isEmpty());
+
+        return count;
+    }
+
+    private static long readCount(SelectResult selectResult) {
         for (Item item : selectResult.getItems()) {
             if (item.getName().equals("Domain")) {
                 for (Attribute attribute : item.getAttributes()) {
@@ -184,7 +582,17 @@ public class SimpleDbTemplate extends AbstractSimpleDbTemplate {
         }
 
         return 0;
-	}
+    }
+
+    /*
+     * Drops the cached counts of a domain after its items are written.
+     */
+    private void invalidateCounts(String domain) {
+        final CountCache countCache = getSimpleDb().getCountCache();
+        if (countCache != null) {
+            countCache.invalidate(domain);
+        }
+    }
 
     @Override
     public <T> List<T> findAllQueryImpl(Class<T> entityClass, SimpleDbEntityInformation<T, ?> entityInformation) {
@@ -196,33 +604,51 @@ public class SimpleDbTemplate extends AbstractSimpleDbTemplate {
     @Override
     public <T> Page<T> executePagedQueryImpl(Class<T> entityClass, String query, Pageable pageable,
                                              boolean consistentRead, SimpleDbEntityInformation<T, ?> entityInformation) {
+        final SimpleDbSlice<T> slice = executeSlicedQueryImpl(entityClass, query, pageable, consistentRead,
+                entityInformation);
+
+        final String countQuery = getCountQuery(query, entityInformation);
+
+        Long totalCount = count(countQuery, entityClass, consistentRead);
+
+        return new PageImpl<T>(slice.getContent(), pageable, totalCount);
+    }
+
+    @Override
+    public <T> SimpleDbSlice<T> executeSlicedQueryImpl(Class<T> entityClass, String query, Pageable pageable,
+                                                       boolean consistentRead,
+                                                       SimpleDbEntityInformation<T, ?> entityInformation) {
         Assert.notNull(pageable);
         Assert.isTrue(pageable.getPageNumber() >= 0);
         Assert.isTrue(pageable.getPageSize() > 0);
 
-        final String escapedQuery = getEscapedQuery(query, entityInformation);
+        final String queryWithPageSizeLimit = new QueryBuilder(getEscapedQuery(query, entityInformation)).with(
+                pageable).toString();
+        final PageTokenCache pageTokenCache = getSimpleDb().getPageTokenCache();
 
-        List<T> resultsList;
-        String queryWithPageSizeLimit = new QueryBuilder(escapedQuery).with(pageable).toString();
+        String pageOffsetToken = null;
 
         if (pageable.getPageNumber() > 0) {
-            String pageOffsetToken = getPageOffsetToken(pageable, entityInformation, escapedQuery, consistentRead);
+            pageOffsetToken = getPageOffsetToken(pageable, getCountQuery(query, entityInformation),
+                    queryWithPageSizeLimit, consistentRead, pageTokenCache);
 
-            if (pageOffsetToken != null && !pageOffsetToken.isEmpty()) {
-                resultsList = find(entityInformation, queryWithPageSizeLimit, pageOffsetToken, consistentRead);
-            } else {
-                resultsList = Collections.emptyList();
+            if (pageOffsetToken == null || pageOffsetToken.isEmpty()) {
+                return new SimpleDbSlice<T>(Collections.<T>emptyList(), pageable.getPageSize(), null);
             }
-
-        } else {
-            resultsList = find(entityClass, queryWithPageSizeLimit, consistentRead);
         }
 
-        final String countQuery = new QueryBuilder(escapedQuery, true).toString();
+        final SelectResult selectResult = invokeFindImpl(consistentRead, queryWithPageSizeLimit, pageOffsetToken);
+        final List<T> resultsList = populateDomainItems(entityClass, entityInformation, selectResult, consistentRead);
 
-        Long totalCount = count(countQuery, entityClass, consistentRead);
+        /* the token ending a full page starts the next one, unless SimpleDB cut the page short */
+        final String nextToken = selectResult.getNextToken();
+        if (pageTokenCache != null && resultsList.size() == pageable.getPageSize() && nextToken != null
+                && !nextToken.isEmpty()) {
+            pageTokenCache.put(queryWithPageSizeLimit, consistentRead, pageable.getPageSize(),
+                    pageable.getPageNumber() + 1, nextToken);
+        }
 
-        return new PageImpl<T>(resultsList, pageable, totalCount);
+        return new SimpleDbSlice<T>(resultsList, pageable.getPageSize(), nextToken);
     }
 
     @Override
@@ -231,41 +657,117 @@ public class SimpleDbTemplate extends AbstractSimpleDbTemplate {
 
         LOGGER.debug("Find All Domain \"{}\" isConsistent=\"{}\"", entityInformation.getDomain(), consistentRead);
 
-        validateSelectQuery(query);
+        final String escapedQuery = getEscapedQuery(query, entityInformation);
+
+        final SelectResult selectResult = invokeFindImpl(consistentRead, escapedQuery);
+
+        return populateDomainItems(entityClass, entityInformation, selectResult, consistentRead);
+    }
+
+    @Override
+    public <T> SimpleDbSlice<T> executeSlicedQueryImpl(Class<T> entityClass, String query, Pageable pageable,
+                                                       String continuationToken, boolean consistentRead,
+                                                       SimpleDbEntityInformation<T, ?> entityInformation) {
+        Assert.notNull(pageable);
+        Assert.isTrue(pageable.getPageSize() > 0);
 
         final String escapedQuery = getEscapedQuery(query, entityInformation);
+        final String queryWithPageSizeLimit = new QueryBuilder(escapedQuery).with(pageable).toString();
 
-        List<T> result = new ArrayList<T>();
+        final SelectResult selectResult = invokeFindImpl(consistentRead, queryWithPageSizeLimit, continuationToken);
 
-        List<String> referenceFieldsNames = ReflectionUtils.getReferencedAttributeNames(entityClass);
+        return new SimpleDbSlice<T>(populateDomainItems(entityClass, entityInformation, selectResult, consistentRead),
+                pageable.getPageSize(), selectResult.getNextToken());
+    }
 
+    private <T> List<T> populateDomainItems(Class<T> entityClass, SimpleDbEntityInformation<T, ?> entityInformation,
+                                            SelectResult selectResult, boolean consistentRead) {
+        final List<String> referenceFieldsNames = ReflectionUtils.getReferencedAttributeNames(entityClass);
         final DomainItemBuilder<T> domainItemBuilder = new DomainItemBuilder<T>();
 
-        final SelectResult selectResult = invokeFindImpl(consistentRead, escapedQuery);
-
         if (referenceFieldsNames.isEmpty()) {
             return domainItemBuilder.populateDomainItems(entityInformation, selectResult);
         }
 
+        final Map<Class<?>, Map<String, Object>> references = readReferences(entityClass, selectResult.getItems(),
+                referenceFieldsNames, consistentRead);
+
+        final List<T> result = new ArrayList<T>();
         for (Item item : selectResult.getItems()) {
+            result.add(populateDomainItem(entityClass, entityInformation, item, referenceFieldsNames, references,
+                    consistentRead, domainItemBuilder));
+        }
 
-            T populatedItem = domainItemBuilder.populateDomainItem(entityInformation, item);
+        return result;
+    }
 
-            result.add(populatedItem);
-            for (Attribute attribute : item.getAttributes()) {
-                if (!referenceFieldsNames.contains(attribute.getName())) {
-                    continue;
-                }
+    @Override
+    public <T> CloseableIterator<T> streamImpl(Class<T> entityClass, String query, boolean consistentRead,
+                                               SimpleDbEntityInformation<T, ?> entityInformation) {
 
-                Class<?> referenceEntityClazz = ReflectionUtils.getFieldClass(entityClass, attribute.getName());
-                Object referenceEntity = read(attribute.getValue(), referenceEntityClazz);
+        LOGGER.debug("Stream Domain \"{}\" isConsistent=\"{}\"", entityInformation.getDomain(), consistentRead);
 
-                ReflectionUtils.callSetter(populatedItem, attribute.getName(), referenceEntity);
+        final String escapedQuery = getEscapedQuery(query, entityInformation);
 
-            }
+        return new EntityIterator<T>(entityClass, entityInformation, escapedQuery, consistentRead);
+    }
+
+    @Override
+    public <T> long parallelScanImpl(Class<T> entityClass, String whereClause, int segments,
+                                     ItemCallback<? super T> callback, boolean consistentRead,
+                                     SimpleDbEntityInformation<T, ?> entityInformation) {
+
+        LOGGER.debug("Scan Domain \"{}\" in {} segments isConsistent=\"{}\"", new Object[] {
+                entityInformation.getDomain(), segments, consistentRead });
+
+        /* the where clause is planned once, the item name ranges added to it are valid by construction */
+        String domainQuery = new QueryBuilder(entityInformation).toString();
+        if (StringUtils.hasText(whereClause)) {
+            domainQuery = getEscapedQuery(domainQuery + " where (" + whereClause + ")", entityInformation);
         }
 
-        return result;
+        final List<SegmentScan<T>> segmentScans = new ArrayList<SegmentScan<T>>(segments);
+        for (SegmentedScan.ItemNameRange range : SegmentedScan.itemNameRanges(segments)) {
+            final String query = new QueryBuilder(domainQuery).withItemNameRange(range.getLowerBound(),
+                    range.getUpperBound()).toString();
+            segmentScans.add(new SegmentScan<T>(new EntityIterator<T>(entityClass, entityInformation, query,
+                    consistentRead), callback));
+        }
+
+        return new SegmentedScan(getSimpleDb().getScanExecutor()).scan(segmentScans);
+    }
+
+    /*
+     * Reads each chunk of ids like a scan segment, so that the chunks share the scan executor and its cancellation.
+     */
+    @Override
+    public <T> List<T> readAllImpl(List<String> itemNames, Class<T> entityClass, boolean consistentRead,
+                                   SimpleDbEntityInformation<T, ?> entityInformation) {
+
+        LOGGER.debug("Read {} ItemNames of Domain \"{}\" isConsistent=\"{}\"", new Object[] { itemNames.size(),
+                entityInformation.getDomain(), consistentRead });
+
+        final List<EntityCollector<T>> chunks = new ArrayList<EntityCollector<T>>();
+        final List<SegmentScan<T>> chunkReads = new ArrayList<SegmentScan<T>>();
+        for (int from = 0; from < itemNames.size(); from += QueryBuilder.MAX_IN_VALUES) {
+            final List<String> chunk = itemNames.subList(from,
+                    Math.min(from + QueryBuilder.MAX_IN_VALUES, itemNames.size()));
+            final String query = new QueryBuilder(entityInformation).withIds(chunk).toString();
+            final EntityCollector<T> collector = new EntityCollector<T>();
+
+            chunks.add(collector);
+            chunkReads.add(new SegmentScan<T>(new EntityIterator<T>(entityClass, entityInformation, query,
+                    consistentRead), collector));
+        }
+
+        new SegmentedScan(getSimpleDb().getScanExecutor()).scan(chunkReads);
+
+        final List<T> entities = new ArrayList<T>();
+        for (EntityCollector<T> chunk : chunks) {
+            entities.addAll(chunk.entities);
+        }
+
+        return entities;
     }
 
     @Override
@@ -277,8 +779,6 @@ public class SimpleDbTemplate extends AbstractSimpleDbTemplate {
 
         final DomainItemBuilder<T> domainItemBuilder = new DomainItemBuilder<T>();
 
-        validateSelectQuery(query);
-
         final String escapedQuery = getEscapedQuery(query, entityInformation);
         SelectRequest selectRequest = new SelectRequest(escapedQuery, consistentRead);
 
@@ -332,52 +832,323 @@ public class SimpleDbTemplate extends AbstractSimpleDbTemplate {
 		List<PutAttributesRequest> putAttributesRequests = SimpleDbRequestBuilder.createPutAttributesRequests(
 				domainName, (String) id, rawAttributes);
 
-        for (PutAttributesRequest request : putAttributesRequests) {
-            getDB().putAttributes(request);
+        try {
+            for (PutAttributesRequest request : putAttributesRequests) {
+                getDB().putAttributes(request);
+            }
+        } finally {
+            invalidateCounts(domainName);
         }
 	}
 
+    /*
+     * Builds the entity for an item and sets its reference attributes from the already read references, or to lazy
+     * proxies.
+     */
+    private <T> T populateDomainItem(Class<T> entityClass, SimpleDbEntityInformation<T, ?> entityInformation, Item item,
+                                     List<String> referenceFieldsNames, Map<Class<?>, Map<String, Object>> references,
+                                     boolean consistentRead, DomainItemBuilder<T> domainItemBuilder) {
+
+        final T populatedItem = domainItemBuilder.populateDomainItem(entityInformation, item);
+
+        if (referenceFieldsNames.isEmpty()) {
+            return populatedItem;
+        }
+
+        for (Attribute attribute : item.getAttributes()) {
+            if (!referenceFieldsNames.contains(attribute.getName())) {
+                continue;
+            }
+
+            Class<?> referenceEntityClazz = ReflectionUtils.getFieldClass(entityClass, attribute.getName());
+            Map<String, Object> referenceEntities = references.get(referenceEntityClazz);
+            Object referenceEntity;
+            if (referenceEntities != null) {
+                referenceEntity = referenceEntities.get(attribute.getValue());
+            } else if (isLazyReference(referenceEntityClazz)) {
+                referenceEntity = LazyReferences.createProxy(referenceEntityClazz, attribute.getValue(), this,
+                        consistentRead);
+            } else {
+                referenceEntity = null;
+            }
+
+            ReflectionUtils.callSetter(populatedItem, attribute.getName(), referenceEntity);
+        }
+
+        return populatedItem;
+    }
+
+    /*
+     * Reads all entities referenced by a page of items, with one select per referenced class and chunk of
+     * QueryBuilder.MAX_IN_VALUES ids instead of one read per item and reference.
+     */
+    private <T> Map<Class<?>, Map<String, Object>> readReferences(Class<T> entityClass, List<Item> items,
+                                                                 List<String> referenceFieldsNames,
+                                                                 boolean consistentRead) {
+
+        final Map<Class<?>, Set<String>> referencedItemNames = new LinkedHashMap<Class<?>, Set<String>>();
+
+        for (Item item : items) {
+            for (Attribute attribute : item.getAttributes()) {
+                if (!referenceFieldsNames.contains(attribute.getName())) {
+                    continue;
+                }
+
+                Class<?> referenceEntityClazz = ReflectionUtils.getFieldClass(entityClass, attribute.getName());
+                if (isLazyReference(referenceEntityClazz)) {
+                    continue;
+                }
+
+                Set<String> itemNames = referencedItemNames.get(referenceEntityClazz);
+                if (itemNames == null) {
+                    itemNames = new LinkedHashSet<String>();
+                    referencedItemNames.put(referenceEntityClazz, itemNames);
+                }
+                itemNames.add(attribute.getValue());
+            }
+        }
+
+        final Map<Class<?>, Map<String, Object>> references = new HashMap<Class<?>, Map<String, Object>>();
+        for (Map.Entry<Class<?>, Set<String>> entry : referencedItemNames.entrySet()) {
+            references.put(entry.getKey(), readByItemNames(entry.getKey(), entry.getValue(), consistentRead));
+        }
+
+        return references;
+    }
+
+    private boolean isLazyReference(Class<?> referenceEntityClazz) {
+        return getSimpleDb().isLazyReferences() && LazyReferences.isProxyable(referenceEntityClazz);
+    }
+
+    private <T> Map<String, Object> readByItemNames(Class<T> entityClass, Set<String> itemNames,
+                                                    boolean consistentRead) {
+
+        final SimpleDbEntityInformation<T, ?> entityInformation = getEntityInformation(entityClass);
+        manageSimpleDbDomain(entityInformation.getDomain());
+        final Map<String, Object> entities = new HashMap<String, Object>();
+
+        final List<String> chunk = new ArrayList<String>(QueryBuilder.MAX_IN_VALUES);
+        final Iterator<String> iterator = itemNames.iterator();
+        while (iterator.hasNext()) {
+            chunk.add(iterator.next());
+
+            if (chunk.size() == QueryBuilder.MAX_IN_VALUES || !iterator.hasNext()) {
+                entities.putAll(readChunkWithRetries(entityClass, new ArrayList<String>(chunk), consistentRead,
+                        entityInformation));
+                chunk.clear();
+            }
+        }
+
+        return entities;
+    }
+
+    /*
+     * The select of the chunk is built by the template, so it is sent as it is, without being planned.
+     */
+    private <T> Map<String, T> readChunkWithRetries(final Class<T> entityClass, final List<String> chunk,
+                                                    final boolean consistentRead,
+                                                    final SimpleDbEntityInformation<T, ?> entityInformation) {
+        final Map<String, T> entities = new HashMap<String, T>();
+
+        new AbstractServiceUnavailableOperationRetrier(getServiceUnavailableMaxRetries(), getRetryPolicy(),
+                getRetryMetrics()) {
+
+            @Override
+            public void execute() {
+                entities.putAll(readImpl(chunk, entityClass, consistentRead, entityInformation));
+            }
+        }.executeWithRetries();
+
+        return entities;
+    }
+
+    /*
+     * Validates the query and escapes its id field, or binds its values into the plan cached for its template.
+     */
     private <T> String getEscapedQuery(String query, SimpleDbEntityInformation<T, ?> entityInformation) {
-        return QueryUtils.escapeQueryAttributes(query, MetadataParser.getIdField(entityInformation.getJavaType())
-                .getName());
+        final SelectTemplate selectTemplate = SelectTemplate.of(query);
+        if (selectTemplate == null) {
+            QueryPlan.validate(query);
+            return QueryUtils.escapeQueryAttributes(query, getIdFieldName(entityInformation));
+        }
+
+        return getQueryPlan(query, selectTemplate, entityInformation).getEscapedQuery(selectTemplate);
     }
 
     /*
-     * Validate a custom query before sending the request to the DB.
+     * The escaped count variant of the query, validated with the plan of its template.
      */
-    private void validateSelectQuery(final String selectQuery) {
-        final SimpleDBParser parser = new SimpleDBParser(selectQuery);
-        try {
-            parser.selectQuery();
-        } catch (Exception e) {
-            throw new InvalidSimpleDBQueryException("The following query is an invalid SimpleDB query: " + selectQuery,
-                    e);
+    private <T> String getCountQuery(String query, SimpleDbEntityInformation<T, ?> entityInformation) {
+        final SelectTemplate selectTemplate = SelectTemplate.of(query);
+        if (selectTemplate == null) {
+            final String countQuery = new QueryBuilder(getEscapedQuery(query, entityInformation), true).toString();
+            QueryPlan.validate(countQuery);
+            return countQuery;
+        }
+
+        return getQueryPlan(query, selectTemplate, entityInformation).getCountQuery(selectTemplate);
+    }
+
+    private <T> QueryPlan getQueryPlan(String query, SelectTemplate selectTemplate,
+                                       SimpleDbEntityInformation<T, ?> entityInformation) {
+        final Class<T> entityClass = entityInformation.getJavaType();
+        final QueryPlanCache queryPlanCache = getSimpleDb().getQueryPlanCache();
+
+        QueryPlan queryPlan = queryPlanCache == null ? null : queryPlanCache.get(selectTemplate, entityClass);
+        if (queryPlan == null) {
+            queryPlan = QueryPlan.compile(query, selectTemplate, getIdFieldName(entityInformation));
+            if (queryPlanCache != null) {
+                queryPlanCache.put(selectTemplate, entityClass, queryPlan);
+            }
         }
+
+        return queryPlan;
+    }
+
+    private static String getIdFieldName(SimpleDbEntityInformation<?, ?> entityInformation) {
+        return MetadataParser.getIdField(entityInformation.getJavaType()).getName();
     }
 
-    private String getNextToken(String query, boolean consistentRead) {
+    private String getNextToken(String query, String startToken, boolean consistentRead) {
         LOGGER.debug("Get next token for query: " + query);
 
         Assert.isTrue(query.contains("limit"), "Only queries with limit have a next token!");
 
-        final SelectResult selectResult = getDB().select(new SelectRequest(query, consistentRead));
+        final SelectRequest selectRequest = new SelectRequest(query, consistentRead);
+        selectRequest.setNextToken(startToken);
 
-        return selectResult.getNextToken();
+        return getDB().select(selectRequest).getNextToken();
     }
 
-    private <T> String getPageOffsetToken(final Pageable pageable, SimpleDbEntityInformation<T, ?> entityInformation,
-                                          String query, boolean consistentRead) {
+    /*
+     * Counts through the items preceding the page, starting from the closest preceding page with a cached token.
+     */
+    private String getPageOffsetToken(final Pageable pageable, String escapedCountQuery, String pageQuery,
+                                      boolean consistentRead, PageTokenCache pageTokenCache) {
+        final int pageNumber = pageable.getPageNumber();
+        final int pageSize = pageable.getPageSize();
+
+        int startPage = 0;
+        String startToken = null;
+
+        if (pageTokenCache != null) {
+            final String cachedToken = pageTokenCache.get(pageQuery, consistentRead, pageSize, pageNumber);
+            if (cachedToken != null) {
+                return cachedToken;
+            }
 
-    	int endOfPreviousPageLimit = pageable.getPageNumber() * pageable.getPageSize();
+            for (int page = pageNumber - 1; page > 0 && startToken == null; page--) {
+                startToken = pageTokenCache.peek(pageQuery, consistentRead, pageSize, page);
+                startPage = page;
+            }
+            if (startToken == null) {
+                startPage = 0;
+            }
+        }
 
-        final String escapedQuery = getEscapedQuery(query, entityInformation);
-        final String countQuery = new QueryBuilder(escapedQuery, true).withLimit(endOfPreviousPageLimit).toString();
+        final int skippedItems = (pageNumber - startPage) * pageSize;
+        final String countQuery = new QueryBuilder(escapedCountQuery).withLimit(skippedItems).toString();
+        final String pageOffsetToken = getNextToken(countQuery, startToken, consistentRead);
 
-        return getNextToken(countQuery, consistentRead);
+        if (pageTokenCache != null && pageOffsetToken != null && !pageOffsetToken.isEmpty()) {
+            pageTokenCache.put(pageQuery, consistentRead, pageSize, pageNumber, pageOffsetToken);
+        }
+
+        return pageOffsetToken;
     }
 
     private void logOperation(String operation, EntityWrapper<?, ?> entity) {
         LOGGER.debug(operation + " \"{}\" ItemName \"{}\"", entity.getDomain(), entity.getItemName());
     }
 
+    /*
+     * Passes the entities of one item name range to the scan callback, until the scan is cancelled.
+     */
+    private static final class SegmentScan<T> implements Callable<Long> {
+
+        private final CloseableIterator<T> entities;
+        private final ItemCallback<? super T> callback;
+
+        private SegmentScan(CloseableIterator<T> entities, ItemCallback<? super T> callback) {
+            this.entities = entities;
+            this.callback = callback;
+        }
+
+        @Override
+        public Long call() {
+            long count = 0;
+            try {
+                while (entities.hasNext()) {
+                    /* an interrupted segment is not complete, the interrupt flag stays set */
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new DataAccessResourceFailureException("Interrupted after scanning " + count
+                                + " items of a domain segment");
+                    }
+                    callback.doWithItem(entities.next());
+                    count++;
+                }
+            } finally {
+                entities.close();
+            }
+
+            return count;
+        }
+    }
+
+    /*
+     * Collects the entities of one chunk, on the thread reading the chunk.
+     */
+    private static final class EntityCollector<T> implements ItemCallback<T> {
+
+        private final List<T> entities = new ArrayList<T>();
+
+        @Override
+        public void doWithItem(T item) {
+            entities.add(item);
+        }
+    }
+
+    /*
+     * Streams the entities of a query, reading the references of each page when it is fetched.
+     */
+    private final class EntityIterator<T> extends SelectResultIterator<T> {
+
+        private final Class<T> entityClass;
+        private final SimpleDbEntityInformation<T, ?> entityInformation;
+        private final String escapedQuery;
+        private final boolean consistentRead;
+        private final List<String> referenceFieldsNames;
+        private final DomainItemBuilder<T> domainItemBuilder = new DomainItemBuilder<T>();
+
+        private Map<Class<?>, Map<String, Object>> references = Collections.emptyMap();
+
+        private EntityIterator(Class<T> entityClass, SimpleDbEntityInformation<T, ?> entityInformation,
+                               String escapedQuery, boolean consistentRead) {
+            super(getSimpleDb().getPrefetchExecutor(), getSimpleDb().getPrefetchDepth());
+            this.entityClass = entityClass;
+            this.entityInformation = entityInformation;
+            this.escapedQuery = escapedQuery;
+            this.consistentRead = consistentRead;
+            this.referenceFieldsNames = ReflectionUtils.getReferencedAttributeNames(entityClass);
+        }
+
+        @Override
+        protected SelectResult fetchPage(String token) {
+            return select(escapedQuery, token, consistentRead);
+        }
+
+        @Override
+        protected void pageFetched(List<Item> items) {
+            if (!referenceFieldsNames.isEmpty()) {
+                references = readReferences(entityClass, items, referenceFieldsNames, consistentRead);
+            }
+        }
+
+        @Override
+        protected T convert(Item item) {
+            return populateDomainItem(entityClass, entityInformation, item, referenceFieldsNames, references,
+                    consistentRead, domainItemBuilder);
+        }
+    }
+
 }
@@ -2,7 +2,9 @@ package org.springframework.data.simpledb.core.entity;
 
 import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 
 import org.springframework.data.simpledb.reflection.ReflectionUtils;
 import org.springframework.util.Assert;
@@ -35,6 +37,17 @@ public abstract class AbstractFieldWrapper<T, ID extends Serializable> {
 
 	public abstract Object deserialize(final Map<String, String> attributes);
 
+	/**
+	 * @return the names of the attributes this field is stored in, if its value is null
+	 */
+	public Set<String> getNullAttributeNames(String prefix) {
+		if(getFieldValue() != null) {
+			return Collections.emptySet();
+		}
+
+		return Collections.singleton(prefix.isEmpty() ? getFieldName() : prefix + "." + getFieldName());
+	}
+
 	/**
 	 * Template method.
 	 * 
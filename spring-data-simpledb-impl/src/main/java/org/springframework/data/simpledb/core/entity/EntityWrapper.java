@@ -2,20 +2,23 @@ package org.springframework.data.simpledb.core.entity;
 
 import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
 
 import org.springframework.data.mapping.model.MappingException;
 import org.springframework.data.simpledb.attributeutil.AttributesKeySplitter;
 import org.springframework.data.simpledb.attributeutil.SimpleDbAttributeValueSplitter;
+import org.springframework.data.simpledb.reflection.EntityMapping;
 import org.springframework.data.simpledb.reflection.FieldType;
 import org.springframework.data.simpledb.reflection.FieldTypeIdentifier;
-import org.springframework.data.simpledb.reflection.MetadataParser;
-import org.springframework.data.simpledb.reflection.ReflectionUtils;
+import org.springframework.data.simpledb.reflection.PropertyAccessor;
 import org.springframework.data.simpledb.repository.support.entityinformation.SimpleDbEntityInformation;
 
 public class EntityWrapper<T, ID extends Serializable> {
@@ -57,10 +60,11 @@ public class EntityWrapper<T, ID extends Serializable> {
 	
 	private void createFieldWrappers(final boolean isNew, final boolean isNested) {
 
-		List<Field> supportedFields = MetadataParser.getSupportedFields(entityInformation.getJavaType());
-		for(final Field field : supportedFields) {
+		final EntityMapping mapping = EntityMapping.forClass(entityInformation.getJavaType());
+		for(final Field field : mapping.getSupportedFields()) {
 			if (! (!isNested && FieldTypeIdentifier.isOfType(field, FieldType.ID)) ) {
-				wrappedFields.put(field.getName(), FieldWrapperFactory.createFieldWrapper(field, this, isNew));	
+				wrappedFields.put(field.getName(),
+						FieldWrapperFactory.createFieldWrapper(field, mapping.getValueType(field), this, isNew));
 			}
 		}
 	}
@@ -88,17 +92,17 @@ public class EntityWrapper<T, ID extends Serializable> {
 	}
 
 	public void setId(String itemName) {
-		final Field idField;
+		final PropertyAccessor idAccessor = EntityMapping.forClass(item.getClass()).getIdAccessor();
+		if(idAccessor == null) {
+			throw new MappingException("Could not set id field, " + item.getClass() + " has none");
+		}
+
 		try {
-			idField = ReflectionUtils.getDeclaredFieldInHierarchy(
-					item.getClass(), 
-					entityInformation.getItemNameFieldName(item)); 
-			idField.setAccessible(Boolean.TRUE);
-			idField.set(item, itemName);
-		} catch(NoSuchFieldException e) {
-			throw new MappingException("Could not set id field", e);
+			idAccessor.set(item, itemName);
 		} catch(IllegalAccessException e) {
 			throw new MappingException("Could not set id field", e);
+		} catch(InvocationTargetException e) {
+			throw new MappingException("Could not set id field", e);
 		}
 	}
 
@@ -118,6 +122,24 @@ public class EntityWrapper<T, ID extends Serializable> {
 		return result;
 	}
 
+	/**
+	 * @return the names of the attributes of all null fields, nested ones included; these are the attributes to
+	 *         remove when the entity overwrites an existing item
+	 */
+	public Set<String> getNullAttributeNames() {
+		return getNullAttributeNames("");
+	}
+
+	Set<String> getNullAttributeNames(final String fieldNamePrefix) {
+		final Set<String> result = new TreeSet<String>();
+
+		for(final AbstractFieldWrapper<T, ID> wrappedField : wrappedFields.values()) {
+			result.addAll(wrappedField.getNullAttributeNames(fieldNamePrefix));
+		}
+
+		return result;
+	}
+
 	public Object deserialize(final Map<String, String> attributes) {
 		final Map<String, Map<String, String>> nestedFields = AttributesKeySplitter
 				.splitNestedAttributeKeys(attributes);
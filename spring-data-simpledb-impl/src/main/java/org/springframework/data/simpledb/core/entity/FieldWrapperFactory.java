@@ -14,23 +14,32 @@ public final class FieldWrapperFactory {
 
 	public static <T, ID extends Serializable> AbstractFieldWrapper<T, ID> createFieldWrapper(final Field field,
 			final EntityWrapper<T, ID> parent, final boolean isNewParent) {
-		if(FieldTypeIdentifier.isOfType(field, FieldType.PRIMITIVE)) {
-			return createSimpleFieldWrapper(field, parent, isNewParent);
-		} else if(FieldTypeIdentifier.isOfType(field, FieldType.CORE_TYPE)) {
+		return createFieldWrapper(field, FieldTypeIdentifier.getValueType(field), parent, isNewParent);
+	}
+
+	/**
+	 * @param valueType
+	 *            the value type of the field, as resolved by {@link FieldTypeIdentifier#getValueType(Field)}
+	 */
+	public static <T, ID extends Serializable> AbstractFieldWrapper<T, ID> createFieldWrapper(final Field field,
+			final FieldType valueType, final EntityWrapper<T, ID> parent, final boolean isNewParent) {
+		switch(valueType) {
+		case PRIMITIVE:
+		case CORE_TYPE:
 			return createSimpleFieldWrapper(field, parent, isNewParent);
-		} else if(FieldTypeIdentifier.isOfType(field, FieldType.COLLECTION)) {
+		case COLLECTION:
 			return createCollectionFieldWrapper(field, parent, isNewParent);
-		} else if(FieldTypeIdentifier.isOfType(field, FieldType.ARRAY)) {
+		case ARRAY:
 			return createArrayFieldWrapper(field, parent, isNewParent);
-		} else if(FieldTypeIdentifier.isOfType(field, FieldType.NESTED_ENTITY)) {
+		case NESTED_ENTITY:
 			return createNestedEntityFieldWrapper(field, parent, isNewParent);
-		} else if(FieldTypeIdentifier.isOfType(field, FieldType.REFERENCE_ENTITY)) {
+		case REFERENCE_ENTITY:
 			return createReferenceEntityFieldWrapper(field, parent, isNewParent);
-		} else if(FieldTypeIdentifier.isOfType(field, FieldType.MAP)) {
+		case MAP:
 			return createMapFieldWrapper(field, parent, isNewParent);
+		default:
+			return createObjectFieldWrapper(field, parent, isNewParent);
 		}
-
-		return createObjectFieldWrapper(field, parent, isNewParent);
 	}
 
 	private static <T, ID extends Serializable> AbstractFieldWrapper<T, ID> createSimpleFieldWrapper(
@@ -2,8 +2,10 @@ package org.springframework.data.simpledb.core.entity;
 
 import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 import org.springframework.data.mapping.model.MappingException;
 import org.springframework.data.simpledb.repository.support.entityinformation.SimpleDbEntityInformation;
@@ -31,18 +33,27 @@ public class NestedEntityFieldWrapper<T, ID extends Serializable> extends Abstra
 	public Map<String, String> serialize(String prefix) {
 		final Map<String, String> result = new HashMap<String, String>();
 
-		final String nestedEntityFieldName = getFieldName();
-		final String nestedEntityAttributePrefix = prefix.isEmpty() ? nestedEntityFieldName : prefix + "."
-				+ nestedEntityFieldName;
-
 		/* recursive call */
-		final Map<String, String> serializedNestedEntity = wrappedNestedEntity.serialize(nestedEntityAttributePrefix);
+		final Map<String, String> serializedNestedEntity = wrappedNestedEntity.serialize(getAttributePrefix(prefix));
 
 		result.putAll(serializedNestedEntity);
 
 		return result;
 	}
 
+	/**
+	 * The nested attributes which are null, all of them if the nested entity itself is null.
+	 */
+	@Override
+	public Set<String> getNullAttributeNames(String prefix) {
+		if(wrappedNestedEntity == null) {
+			return Collections.emptySet();
+		}
+
+		/* recursive call */
+		return wrappedNestedEntity.getNullAttributeNames(getAttributePrefix(prefix));
+	}
+
 	@Override
 	public Object deserialize(Map<String, String> values) {
 		/* recursive call */
@@ -68,4 +79,9 @@ public class NestedEntityFieldWrapper<T, ID extends Serializable> extends Abstra
 		}
 	}
 
+	private String getAttributePrefix(String prefix) {
+		final String nestedEntityFieldName = getFieldName();
+		return prefix.isEmpty() ? nestedEntityFieldName : prefix + "." + nestedEntityFieldName;
+	}
+
 }
@@ -25,7 +25,7 @@ public class ReferenceEntityFieldWrapper<T, ID extends Serializable> extends Abs
 	}
 
 	/**
-	 * Deserialization for nested reference fields is handled by {@link SimpleDbTemplate}
+	 * Deserialization for nested reference fields, eager or through lazy proxies, is handled by {@link SimpleDbTemplate}
 	 */
 	@Override
 	public Object deserializeValue(String value) {
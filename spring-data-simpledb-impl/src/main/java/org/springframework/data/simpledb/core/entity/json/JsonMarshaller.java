@@ -1,34 +1,50 @@
 package org.springframework.data.simpledb.core.entity.json;
 
 import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.codehaus.jackson.JsonFactory;
 import org.codehaus.jackson.annotate.JsonAutoDetect;
 import org.codehaus.jackson.annotate.JsonMethod;
 import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.ObjectReader;
+import org.codehaus.jackson.map.ObjectWriter;
 import org.codehaus.jackson.mrbean.MrBeanModule;
 import org.springframework.data.mapping.model.MappingException;
 import org.springframework.util.Assert;
 
 /**
  * Marshall and unmarshall objects, collections and map field wrappers
+ * <p>
+ * The mappers are configured once, only the thread safe {@link ObjectReader} and {@link ObjectWriter} instances
+ * created from them are used afterwards, so a single instance can be shared by concurrent callers.
  */
 public final class JsonMarshaller {
 
+	private static final String TYPE_PROPERTY = "@class";
+
 	static class JsonMarshallerHolder {
 
 		private static JsonMarshaller instance = new JsonMarshaller();
 	}
 
-	private ObjectMapper jsonMapper;
+	private final ObjectMapper readerMapper;
+	private final ObjectWriter jsonWriter;
+
+	private final ConcurrentMap<Class<?>, ObjectReader> jsonReaders = new ConcurrentHashMap<Class<?>, ObjectReader>();
 
 	private JsonMarshaller() {
-		JsonFactory factory = new JsonFactory();
-		jsonMapper = new ObjectMapper(factory);
-        jsonMapper.enableDefaultTypingAsProperty(ObjectMapper.DefaultTyping.NON_FINAL, "@class");
-        JsonUnknownPropertyHandler jsonUnknownPropertyHandler = new JsonUnknownPropertyHandler();
-		jsonMapper.getDeserializationConfig().addHandler(jsonUnknownPropertyHandler);
-		jsonMapper.registerModule(new MrBeanModule());
+		readerMapper = new ObjectMapper(new JsonFactory());
+		readerMapper.setVisibility(JsonMethod.FIELD, JsonAutoDetect.Visibility.ANY);
+		readerMapper.enableDefaultTypingAsProperty(ObjectMapper.DefaultTyping.NON_FINAL, TYPE_PROPERTY);
+		readerMapper.getDeserializationConfig().addHandler(new JsonUnknownPropertyHandler());
+		readerMapper.registerModule(new MrBeanModule());
+
+		final ObjectMapper writerMapper = new ObjectMapper().setVisibility(JsonMethod.FIELD,
+				JsonAutoDetect.Visibility.ANY);
+		writerMapper.enableDefaultTypingAsProperty(ObjectMapper.DefaultTyping.NON_FINAL, TYPE_PROPERTY);
+		jsonWriter = writerMapper.writer();
 	}
 
 	public static JsonMarshaller getInstance() {
@@ -42,7 +58,7 @@ public final class JsonMarshaller {
 	public <T> T unmarshall(String jsonString, Class<?> objectType) {
 		Assert.notNull(jsonString);
 		try {
-			return (T) jsonMapper.readValue(jsonString, objectType);
+			return getReader(objectType).<T> readValue(jsonString);
 		} catch(IOException e) {
 			throw new MappingException("Could not unmarshall object : " + jsonString, e);
 		}
@@ -50,13 +66,21 @@ public final class JsonMarshaller {
 
 	public <T> String marshall(T input) {
 		Assert.notNull(input);
-		jsonMapper = new ObjectMapper().setVisibility(JsonMethod.FIELD, JsonAutoDetect.Visibility.ANY);
-		jsonMapper.enableDefaultTypingAsProperty(ObjectMapper.DefaultTyping.NON_FINAL, "@class");
 		try {
-			return jsonMapper.writeValueAsString(input);
+			return jsonWriter.writeValueAsString(input);
 		} catch(Exception e) {
 			throw new MappingException(e.getMessage(), e);
 		}
 	}
 
+	private ObjectReader getReader(Class<?> objectType) {
+		ObjectReader reader = jsonReaders.get(objectType);
+		if(reader == null) {
+			reader = readerMapper.reader(objectType);
+			jsonReaders.putIfAbsent(objectType, reader);
+		}
+
+		return reader;
+	}
+
 }
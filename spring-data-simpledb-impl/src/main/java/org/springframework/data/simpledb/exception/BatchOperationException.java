@@ -0,0 +1,25 @@
+package org.springframework.data.simpledb.exception;
+
+import org.springframework.dao.UncategorizedDataAccessException;
+import org.springframework.data.simpledb.core.BatchOperationResult;
+
+/**
+ * Thrown when some batch requests of a bulk operation failed. The other batches have been executed, the result
+ * lists the failed ones; the cause is the failure of the first one.
+ */
+public class BatchOperationException extends UncategorizedDataAccessException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final BatchOperationResult result;
+
+	public BatchOperationException(BatchOperationResult result) {
+		super(result.getFailures().size() + " of " + result.getBatchCount() + " batch requests failed", result
+				.getFailures().get(0).getCause());
+		this.result = result;
+	}
+
+	public BatchOperationResult getResult() {
+		return result;
+	}
+}
@@ -0,0 +1,184 @@
+package org.springframework.data.simpledb.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.Parameter;
+import org.springframework.data.repository.query.Parameters;
+import org.springframework.data.simpledb.attributeutil.SimpleDBAttributeConverter;
+
+/**
+ * An annotated query compiled into its literal segments and the parameter slots between them, so that binding the
+ * values of a call is a single pass over the segments. Binds the same way as
+ * {@link QueryUtils#buildQuery(String, Parameters, Object...)}: each value is encoded and quoted, keeping the
+ * <tt>%</tt> wildcards written around its placeholder inside the quotes, and array values of a placeholder following
+ * <tt>in</tt> become a list of quoted values.
+ */
+final class QueryTemplate {
+
+	private static final Pattern IN_OPERATOR = Pattern.compile("\\sin\\s*$", Pattern.CASE_INSENSITIVE);
+	private static final char POSITIONAL_PLACEHOLDER = '?';
+	private static final char WILDCARD = '%';
+	private static final char SINGLE_QUOTE = '\'';
+
+	private final String query;
+	private final List<Object> parts;
+	private final String missingPlaceholder;
+
+	private QueryTemplate(String query, List<Object> parts, String missingPlaceholder) {
+		this.query = query;
+		this.parts = parts;
+		this.missingPlaceholder = missingPlaceholder;
+	}
+
+	/**
+	 * @param rawQuery
+	 *            the annotated query, with <tt>?</tt> or <tt>:name</tt> placeholders
+	 * @param parameters
+	 *            the parameters of the query method, the {@link Pageable} and {@link Sort} ones are not bound
+	 */
+	static QueryTemplate compile(String rawQuery, Parameters parameters, boolean hasPlaceholders) {
+		final List<Object> parts = new ArrayList<Object>();
+		parts.add(hasPlaceholders ? rawQuery.trim() : rawQuery);
+
+		if(!hasPlaceholders) {
+			return new QueryTemplate(rawQuery, parts, null);
+		}
+
+		for(Parameter parameter : parameters) {
+			if(Pageable.class.isAssignableFrom(parameter.getType())
+					|| Sort.class.isAssignableFrom(parameter.getType())) {
+				continue;
+			}
+
+			final boolean bound = parameter.isNamedParameter() ? addNamedSlots(parts, parameter) : addPositionalSlot(
+					parts, parameter);
+			if(!bound) {
+				return new QueryTemplate(rawQuery, parts, parameter.getPlaceholder());
+			}
+		}
+
+		return new QueryTemplate(rawQuery, parts, null);
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if a placeholder of a bound parameter is missing from the query
+	 */
+	String bind(Object... parameterValues) {
+		if(missingPlaceholder != null) {
+			throw new IllegalArgumentException("No placeholder " + missingPlaceholder + " for the parameter in query "
+					+ query);
+		}
+
+		final StringBuilder boundQuery = new StringBuilder();
+		for(Object part : parts) {
+			if(part instanceof Slot) {
+				((Slot) part).bind(boundQuery, parameterValues);
+			} else {
+				boundQuery.append((String) part);
+			}
+		}
+
+		return boundQuery.toString();
+	}
+
+	/* the first ? left in the literal segments */
+	private static boolean addPositionalSlot(List<Object> parts, Parameter parameter) {
+		for(int i = 0; i < parts.size(); i++) {
+			if(parts.get(i) instanceof String) {
+				final String literal = (String) parts.get(i);
+				final int position = literal.indexOf(POSITIONAL_PLACEHOLDER);
+				if(position >= 0) {
+					split(parts, i, position, position + 1, parameter.getIndex());
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/* every :name not followed by a word character left in the literal segments */
+	private static boolean addNamedSlots(List<Object> parts, Parameter parameter) {
+		final Pattern placeholder = Pattern.compile(Pattern.quote(parameter.getPlaceholder()) + "\\b");
+		boolean bound = false;
+
+		for(int i = 0; i < parts.size(); i++) {
+			if(parts.get(i) instanceof String) {
+				final Matcher matcher = placeholder.matcher((String) parts.get(i));
+				if(matcher.find()) {
+					split(parts, i, matcher.start(), matcher.end(), parameter.getIndex());
+					bound = true;
+				}
+			}
+		}
+
+		return bound;
+	}
+
+	/*
+	 * Replaces the literal at partIndex by the literal before the placeholder, the slot and the literal after it,
+	 * taking the wildcards next to the placeholder into the slot.
+	 */
+	private static void split(List<Object> parts, int partIndex, int start, int end, int parameterIndex) {
+		final String literal = (String) parts.get(partIndex);
+		final boolean leadingWildcard = start > 0 && literal.charAt(start - 1) == WILDCARD;
+		final boolean trailingWildcard = end < literal.length() && literal.charAt(end) == WILDCARD;
+
+		final String before = literal.substring(0, leadingWildcard ? start - 1 : start);
+		final String after = literal.substring(trailingWildcard ? end + 1 : end);
+		final boolean inOperator = IN_OPERATOR.matcher(literal.substring(0, start)).find();
+
+		parts.set(partIndex, before);
+		parts.add(partIndex + 1, new Slot(parameterIndex, leadingWildcard, trailingWildcard, inOperator));
+		parts.add(partIndex + 2, after);
+	}
+
+	private static final class Slot {
+
+		private final int parameterIndex;
+		private final boolean leadingWildcard;
+		private final boolean trailingWildcard;
+		private final boolean inOperator;
+
+		private Slot(int parameterIndex, boolean leadingWildcard, boolean trailingWildcard, boolean inOperator) {
+			this.parameterIndex = parameterIndex;
+			this.leadingWildcard = leadingWildcard;
+			this.trailingWildcard = trailingWildcard;
+			this.inOperator = inOperator;
+		}
+
+		private void bind(StringBuilder query, Object[] parameterValues) {
+			final Object value = parameterValues[parameterIndex];
+
+			if(inOperator && value.getClass().isArray()) {
+				appendWildcard(query, leadingWildcard);
+				query.append('(');
+				final List<String> encodedValues = SimpleDBAttributeConverter.encodeArray(value);
+				for(int i = 0; i < encodedValues.size(); i++) {
+					query.append(i == 0 ? "" : ",").append(SINGLE_QUOTE).append(encodedValues.get(i))
+							.append(SINGLE_QUOTE);
+				}
+				query.append(')');
+				appendWildcard(query, trailingWildcard);
+			} else {
+				query.append(SINGLE_QUOTE);
+				appendWildcard(query, leadingWildcard);
+				query.append(SimpleDBAttributeConverter.encode(value));
+				appendWildcard(query, trailingWildcard);
+				query.append(SINGLE_QUOTE);
+			}
+		}
+
+		private static void appendWildcard(StringBuilder query, boolean wildcard) {
+			if(wildcard) {
+				query.append(WILDCARD);
+			}
+		}
+	}
+}
@@ -24,23 +24,19 @@ import org.springframework.util.Assert;
 
 public final class QueryUtils {
 
-	private static final String BIND_PARAMETER_REGEX = "(\\?)";
+	private static final Pattern BIND_PARAMETER = Pattern.compile("(\\?)");
 	private static final String SINGLE_QUOTE = "'";
 
 	private QueryUtils() {
 	}
 
+	/**
+	 * Binds the values through the {@link QueryTemplate} the query method compiles once, instead of matching the
+	 * placeholders of the annotated query on each call as {@link #buildQuery(String, Parameters, Object...)} does.
+	 */
 	public static String bindQueryParameters(SimpleDbQueryMethod queryMethod,
 			Object... parameterValues) {
-		final String rawQuery = queryMethod.getAnnotatedQuery();
-
-		if (hasNamedParameter(queryMethod) || hasBindParameter(rawQuery)) {
-			final Parameters parameters = queryMethod.getParameters();
-			return buildQuery(rawQuery, parameters, parameterValues);
-
-		}
-
-		return rawQuery;
+		return queryMethod.getQueryTemplate().bind(parameterValues);
 	}
 
 	public static boolean hasNamedParameter(SimpleDbQueryMethod queryMethod) {
@@ -53,9 +49,7 @@ public final class QueryUtils {
 	}
 
 	public static boolean hasBindParameter(String query) {
-		final Pattern regexPattern = Pattern.compile(BIND_PARAMETER_REGEX);
-		final Matcher matcher = regexPattern.matcher(query);
-		return matcher.find();
+		return BIND_PARAMETER.matcher(query).find();
 	}
 
 	public static void validateBindParametersCount(Parameters parameters,
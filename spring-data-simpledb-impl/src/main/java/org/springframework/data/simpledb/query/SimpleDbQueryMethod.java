@@ -29,6 +29,9 @@ public class SimpleDbQueryMethod extends QueryMethod {
 	private final Method method;
 	private final SimpleDbDomain simpleDbDomain;
 
+	private volatile String annotatedQuery;
+	private volatile QueryTemplate queryTemplate;
+
 	/**
 	 * Creates a new {@link org.springframework.data.simpledb.query.SimpleDbQueryMethod}
 	 * 
@@ -75,6 +78,31 @@ public class SimpleDbQueryMethod extends QueryMethod {
 	 * @return a Query String
 	 */
 	public final String getAnnotatedQuery() {
+		String result = annotatedQuery;
+		if(result == null) {
+			result = buildAnnotatedQuery();
+			annotatedQuery = result;
+		}
+
+		return result;
+	}
+
+	/**
+	 * @return the annotated query compiled for binding the parameter values of each call, compiled on first use
+	 */
+	QueryTemplate getQueryTemplate() {
+		QueryTemplate result = queryTemplate;
+		if(result == null) {
+			final String rawQuery = getAnnotatedQuery();
+			result = QueryTemplate.compile(rawQuery, getParameters(), QueryUtils.hasNamedParameter(this)
+					|| QueryUtils.hasBindParameter(rawQuery));
+			queryTemplate = result;
+		}
+
+		return result;
+	}
+
+	private String buildAnnotatedQuery() {
 		String valueParameter = getValueParameters();
 		String whereParameters = getWhereParameters();
 		String[] selectParameters = getSelectParameters();
@@ -52,8 +52,14 @@ public class SimpleDbRepositoryQuery implements RepositoryQuery {
 	public static RepositoryQuery fromQueryAnnotation(SimpleDbQueryMethod queryMethod,
 			SimpleDbOperations simpleDbOperations) {
 		LOGGER.debug("Looking up query for method {}", queryMethod.getName());
-		return queryMethod.getAnnotatedQuery() == null ? null : new SimpleDbRepositoryQuery(queryMethod,
-				simpleDbOperations);
+		if(queryMethod.getAnnotatedQuery() == null) {
+			return null;
+		}
+
+		/* compile the bind template along with the repository rather than on the first call */
+		queryMethod.getQueryTemplate();
+
+		return new SimpleDbRepositoryQuery(queryMethod, simpleDbOperations);
 	}
 
 	protected AbstractSimpleDbQueryExecution getExecution() {
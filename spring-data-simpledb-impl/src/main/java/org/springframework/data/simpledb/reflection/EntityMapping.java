@@ -0,0 +1,231 @@
+package org.springframework.data.simpledb.reflection;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.data.mapping.model.MappingException;
+
+/**
+ * Mapping metadata of a class, computed once and shared: the supported fields in declaration order, the id, version
+ * and reference fields, the nested entity fields, the value type of each supported field and the getter and setter of
+ * each field, and the {@link PropertyAccessor}s resolved from them.
+ * <p>
+ * Instances are thread safe and obtained through {@link #forClass(Class)}, which builds them at most once per class.
+ */
+public final class EntityMapping {
+
+	private static final ConcurrentMap<Class<?>, EntityMapping> REGISTRY = new ConcurrentHashMap<Class<?>, EntityMapping>();
+
+	private final Class<?> javaType;
+
+	private final Map<String, Field> fieldsByName = new HashMap<String, Field>();
+	private final Map<String, Method> getters = new HashMap<String, Method>();
+	private final Map<String, Method> setters = new HashMap<String, Method>();
+
+	private final List<Field> supportedFields;
+	private final Map<Field, FieldType> valueTypes = new HashMap<Field, FieldType>();
+
+	private final Field idField;
+	private final MappingException idFieldError;
+	private final Field versionField;
+	private final MappingException versionFieldError;
+
+	private final PropertyAccessors accessorFactory;
+	private final ConcurrentMap<String, PropertyAccessor> accessors = new ConcurrentHashMap<String, PropertyAccessor>();
+	private volatile PropertyAccessor idAccessor;
+
+	private final List<String> referencedAttributeNames;
+	private final List<Field> referenceFields;
+	private final List<Field> nestedEntityFields;
+
+	private EntityMapping(Class<?> javaType) {
+		this.javaType = javaType;
+		this.accessorFactory = new PropertyAccessors(javaType);
+
+		final List<Field> supported = new ArrayList<Field>();
+		for(Field field : ReflectionUtils.getDeclaredFieldsInHierarchy(javaType)) {
+			final String fieldName = field.getName();
+			if(!fieldsByName.containsKey(fieldName)) {
+				/* the most specific field hides the ones of the super classes */
+				fieldsByName.put(fieldName, field);
+				getters.put(fieldName, ReflectionUtils.findGetter(javaType, fieldName));
+				setters.put(fieldName, ReflectionUtils.findSetter(javaType, fieldName));
+			}
+
+			final boolean hasGetterAndSetter = getters.get(fieldName) != null && setters.get(fieldName) != null;
+			if(MetadataParser.isSupportedField(field, hasGetterAndSetter)) {
+				supported.add(field);
+				valueTypes.put(field, FieldTypeIdentifier.getValueType(field));
+			}
+		}
+		supportedFields = Collections.unmodifiableList(supported);
+
+		Field resolvedIdField = null;
+		MappingException idError = null;
+		try {
+			resolvedIdField = MetadataParser.findIdField(javaType);
+		} catch(MappingException e) {
+			idError = e;
+		}
+		idField = resolvedIdField;
+		idFieldError = idError;
+
+		Field resolvedVersionField = null;
+		MappingException versionError = null;
+		try {
+			resolvedVersionField = MetadataParser.findVersionField(javaType);
+		} catch(MappingException e) {
+			versionError = e;
+		}
+		versionField = resolvedVersionField;
+		versionFieldError = versionError;
+
+		final List<String> referencedNames = new ArrayList<String>();
+		final List<Field> references = new ArrayList<Field>();
+		final List<Field> nested = new ArrayList<Field>();
+		for(Field field : javaType.getDeclaredFields()) {
+			if(ReflectionUtils.isReference(field)) {
+				referencedNames.add(field.getName());
+				references.add(fieldsByName.get(field.getName()));
+			}
+			if(MetadataParser.isNestedDomainField(field)) {
+				nested.add(field);
+			}
+		}
+		referencedAttributeNames = Collections.unmodifiableList(referencedNames);
+		referenceFields = Collections.unmodifiableList(references);
+		nestedEntityFields = Collections.unmodifiableList(nested);
+	}
+
+	public static EntityMapping forClass(Class<?> javaType) {
+		EntityMapping mapping = REGISTRY.get(javaType);
+		if(mapping == null) {
+			mapping = new EntityMapping(javaType);
+			final EntityMapping existing = REGISTRY.putIfAbsent(javaType, mapping);
+			if(existing != null) {
+				mapping = existing;
+			}
+		}
+
+		return mapping;
+	}
+
+	public Class<?> getJavaType() {
+		return javaType;
+	}
+
+	/**
+	 * @return the fields stored as attributes, in declaration order from the class up to its super classes
+	 */
+	public List<Field> getSupportedFields() {
+		return supportedFields;
+	}
+
+	/**
+	 * @return how the value of a supported field is stored, see {@link FieldTypeIdentifier#getValueType(Field)}
+	 */
+	public FieldType getValueType(Field field) {
+		final FieldType valueType = valueTypes.get(field);
+		return valueType != null ? valueType : FieldTypeIdentifier.getValueType(field);
+	}
+
+	public Field getIdField() {
+		if(idFieldError != null) {
+			throw idFieldError;
+		}
+
+		return idField;
+	}
+
+	public Field getVersionField() {
+		if(versionFieldError != null) {
+			throw versionFieldError;
+		}
+
+		return versionField;
+	}
+
+	/**
+	 * @return the names of the {@link org.springframework.data.annotation.Reference} fields declared by the class
+	 */
+	public List<String> getReferencedAttributeNames() {
+		return referencedAttributeNames;
+	}
+
+	/**
+	 * @return the {@link org.springframework.data.annotation.Reference} fields declared by the class
+	 */
+	public List<Field> getReferenceFields() {
+		return referenceFields;
+	}
+
+	/**
+	 * @return the nested entity fields declared by the class
+	 */
+	public List<Field> getNestedEntityFields() {
+		return nestedEntityFields;
+	}
+
+	/**
+	 * @return the field with this name in the class or its super classes, null if there is none
+	 */
+	public Field getField(String fieldName) {
+		return fieldsByName.get(fieldName);
+	}
+
+	/**
+	 * @return the getter of the field, null if the field has none
+	 */
+	public Method getGetter(String fieldName) {
+		return getters.get(fieldName);
+	}
+
+	/**
+	 * @return the setter of the field, null if the field has none
+	 */
+	public Method getSetter(String fieldName) {
+		return setters.get(fieldName);
+	}
+
+	/**
+	 * @return the accessor of the field through its getter and setter, or the field itself if it is
+	 *         {@link org.springframework.data.annotation.Persistent}; null if the class has no such field
+	 */
+	public PropertyAccessor getAccessor(String fieldName) {
+		PropertyAccessor accessor = accessors.get(fieldName);
+		if(accessor == null) {
+			final Field field = fieldsByName.get(fieldName);
+			if(field == null) {
+				return null;
+			}
+
+			accessor = accessorFactory.createAccessor(field, getters.get(fieldName), setters.get(fieldName));
+			accessors.putIfAbsent(fieldName, accessor);
+		}
+
+		return accessor;
+	}
+
+	/**
+	 * @return direct accessor of the id field, null if the class has no id field
+	 */
+	public PropertyAccessor getIdAccessor() {
+		if(idAccessor == null) {
+			final Field field = getIdField();
+			if(field == null) {
+				return null;
+			}
+
+			idAccessor = PropertyAccessors.createFieldAccessor(field);
+		}
+
+		return idAccessor;
+	}
+}
@@ -42,4 +42,21 @@ public class FieldTypeIdentifier {
 		return FieldType.OBJECT;
 	}
 
+	/**
+	 * @return the type deciding how the value of the field is stored, regardless of it being an id: one of PRIMITIVE,
+	 *         CORE_TYPE, COLLECTION, ARRAY, NESTED_ENTITY, REFERENCE_ENTITY, MAP or OBJECT
+	 */
+	public static FieldType getValueType(final Field field) {
+		final FieldType[] valueTypes = { FieldType.PRIMITIVE, FieldType.CORE_TYPE, FieldType.COLLECTION,
+				FieldType.ARRAY, FieldType.NESTED_ENTITY, FieldType.REFERENCE_ENTITY, FieldType.MAP };
+
+		for(FieldType valueType : valueTypes) {
+			if(valueType.isOfType(field)) {
+				return valueType;
+			}
+		}
+
+		return FieldType.OBJECT;
+	}
+
 }
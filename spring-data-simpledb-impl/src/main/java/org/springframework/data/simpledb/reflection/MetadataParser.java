@@ -1,8 +1,8 @@
 package org.springframework.data.simpledb.reflection;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -12,6 +12,7 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Transient;
 import org.springframework.data.mapping.model.MappingException;
 import org.springframework.data.simpledb.annotation.Attributes;
+import org.springframework.data.simpledb.annotation.Version;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -25,14 +26,15 @@ public final class MetadataParser {
 	}
 
 	public static String getItemName(Object object) {
-		Field idField = getIdField(object);
+		final PropertyAccessor idAccessor = EntityMapping.forClass(object.getClass()).getIdAccessor();
 
-		if(idField != null) {
+		if(idAccessor != null) {
 			try {
-				idField.setAccessible(true);
-				return (String) idField.get(object);
+				return (String) idAccessor.get(object);
 			} catch(IllegalAccessException e) {
 				throw new MappingException("Could not read simpleDb id field", e);
+			} catch(InvocationTargetException e) {
+				throw new MappingException("Could not read simpleDb id field", e);
 			}
 		}
 
@@ -44,6 +46,10 @@ public final class MetadataParser {
 	}
 
 	public static Field getIdField(Class<?> clazz) {
+		return EntityMapping.forClass(clazz).getIdField();
+	}
+
+	static Field findIdField(Class<?> clazz) {
 		Field idField = null;
 
 		for(Field f : ReflectionUtils.getDeclaredFieldsInHierarchy(clazz)) {
@@ -60,6 +66,35 @@ public final class MetadataParser {
 		return idField;
 	}
 
+	/**
+	 * @return the field annotated with {@link Version}, or null if the class is not versioned
+	 */
+	public static Field getVersionField(Class<?> clazz) {
+		return EntityMapping.forClass(clazz).getVersionField();
+	}
+
+	static Field findVersionField(Class<?> clazz) {
+		Field versionField = null;
+
+		for(Field f : ReflectionUtils.getDeclaredFieldsInHierarchy(clazz)) {
+			if(f.getAnnotation(Version.class) != null) {
+				if(versionField != null) {
+					throw new MappingException("Multiple version fields detected for class " + clazz.getName());
+				}
+				if(!isVersionType(f.getType())) {
+					throw new MappingException("Version field " + f.getName() + " must be an int, long, Integer or Long");
+				}
+				versionField = f;
+			}
+		}
+
+		return versionField;
+	}
+
+	private static boolean isVersionType(Class<?> type) {
+		return type == int.class || type == long.class || type == Integer.class || type == Long.class;
+	}
+
 	@SuppressWarnings("unchecked")
 	public static Map<String, String> getAttributes(Object object) {
 		Class<?> clazz = object.getClass();
@@ -91,26 +126,20 @@ public final class MetadataParser {
 		return null;
 	}
 
+	/**
+	 * @return the fields stored as attributes, the returned list is shared and must not be modified
+	 */
 	public static List<Field> getSupportedFields(Class<?> clazz) {
-		List<Field> supportedFields = new ArrayList<Field>();
-
-		for(Field field : ReflectionUtils.getDeclaredFieldsInHierarchy(clazz)) {
-			if(isSerializableFieldForObject(clazz, field)) {
-				supportedFields.add(field);
-			}
-		}
-
-		return supportedFields;
+		return EntityMapping.forClass(clazz).getSupportedFields();
 	}
 
-	private static boolean isSerializableFieldForObject(Class<?> clazz, Field field) {
+	static boolean isSupportedField(Field field, boolean hasGetterAndSetter) {
 		
 		boolean isSerializable = !hasUnsupportedAnnotations(field);
 		isSerializable = isSerializable && !isTransientField(field);
 		isSerializable = isSerializable && !(Modifier.isStatic(field.getModifiers()) ||
 				Modifier.isFinal(field.getModifiers()));
-		isSerializable = isSerializable && (ReflectionUtils.isPersistentField(field) || 
-					ReflectionUtils.hasDeclaredGetterAndSetter(field, clazz));
+		isSerializable = isSerializable && (ReflectionUtils.isPersistentField(field) || hasGetterAndSetter);
 		
 		return isSerializable;
 	}
@@ -124,14 +153,7 @@ public final class MetadataParser {
 	}
 
 	public static List<Field> getNestedDomainFields(Object object) {
-		final List<Field> fieldList = new ArrayList<Field>();
-
-		for(Field field : object.getClass().getDeclaredFields()) {
-			if(isNestedDomainField(field)) {
-				fieldList.add(field);
-			}
-		}
-		return fieldList;
+		return EntityMapping.forClass(object.getClass()).getNestedEntityFields();
 	}
 
 	public static boolean isNestedDomainField(Field field) {
@@ -0,0 +1,18 @@
+package org.springframework.data.simpledb.reflection;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Reads and writes one property of the instances of a class. Accessors are resolved once per class and field by
+ * {@link EntityMapping#getAccessor(String)} and are thread safe.
+ */
+public interface PropertyAccessor {
+
+	boolean isReadable();
+
+	boolean isWritable();
+
+	Object get(Object target) throws IllegalAccessException, InvocationTargetException;
+
+	void set(Object target, Object value) throws IllegalAccessException, InvocationTargetException;
+}
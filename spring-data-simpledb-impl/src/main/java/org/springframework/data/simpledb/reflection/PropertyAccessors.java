@@ -0,0 +1,178 @@
+package org.springframework.data.simpledb.reflection;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import net.sf.cglib.core.CodeGenerationException;
+import net.sf.cglib.reflect.FastClass;
+import net.sf.cglib.reflect.FastMethod;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the {@link PropertyAccessor}s of a class: direct field access made accessible once for
+ * {@link org.springframework.data.annotation.Persistent} fields, generated {@link FastClass} invocation of the getter
+ * and setter otherwise. Classes which can not be enhanced fall back to {@link Method#invoke(Object, Object...)}.
+ */
+final class PropertyAccessors {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(PropertyAccessors.class);
+
+	private static final Object[] NO_ARGS = new Object[0];
+
+	private final Class<?> javaType;
+
+	private volatile FastClass fastClass;
+	private volatile boolean fastClassUnavailable;
+
+	PropertyAccessors(Class<?> javaType) {
+		this.javaType = javaType;
+	}
+
+	PropertyAccessor createAccessor(Field field, Method getter, Method setter) {
+		if(ReflectionUtils.isPersistentField(field)) {
+			return createFieldAccessor(field);
+		}
+
+		return new MethodAccessor(toInvoker(getter), toInvoker(setter));
+	}
+
+	static PropertyAccessor createFieldAccessor(Field field) {
+		field.setAccessible(true);
+		return new FieldAccessor(field);
+	}
+
+	private MethodInvoker toInvoker(Method method) {
+		if(method == null) {
+			return null;
+		}
+
+		final FastClass methodFastClass = isPublic(method) ? getFastClass() : null;
+		if(methodFastClass != null) {
+			final FastMethod fastMethod = methodFastClass.getMethod(method);
+			if(fastMethod.getIndex() >= 0) {
+				return new FastMethodInvoker(fastMethod);
+			}
+		}
+
+		try {
+			method.setAccessible(true);
+		} catch(RuntimeException e) {
+			LOGGER.debug("Could not make {} accessible", method, e);
+		}
+		return new ReflectiveMethodInvoker(method);
+	}
+
+	private static boolean isPublic(Method method) {
+		return Modifier.isPublic(method.getModifiers()) && Modifier.isPublic(method.getDeclaringClass().getModifiers());
+	}
+
+	private FastClass getFastClass() {
+		if(fastClass == null && !fastClassUnavailable) {
+			try {
+				fastClass = FastClass.create(javaType);
+			} catch(CodeGenerationException e) {
+				LOGGER.debug("Could not generate the accessors of {}, using reflection", javaType.getName(), e);
+				fastClassUnavailable = true;
+			}
+		}
+
+		return fastClass;
+	}
+
+	private interface MethodInvoker {
+
+		Object invoke(Object target, Object[] args) throws IllegalAccessException, InvocationTargetException;
+	}
+
+	private static final class FastMethodInvoker implements MethodInvoker {
+
+		private final FastMethod method;
+
+		private FastMethodInvoker(FastMethod method) {
+			this.method = method;
+		}
+
+		@Override
+		public Object invoke(Object target, Object[] args) throws InvocationTargetException {
+			return method.invoke(target, args);
+		}
+	}
+
+	private static final class ReflectiveMethodInvoker implements MethodInvoker {
+
+		private final Method method;
+
+		private ReflectiveMethodInvoker(Method method) {
+			this.method = method;
+		}
+
+		@Override
+		public Object invoke(Object target, Object[] args) throws IllegalAccessException, InvocationTargetException {
+			return method.invoke(target, args);
+		}
+	}
+
+	private static final class MethodAccessor implements PropertyAccessor {
+
+		private final MethodInvoker getter;
+		private final MethodInvoker setter;
+
+		private MethodAccessor(MethodInvoker getter, MethodInvoker setter) {
+			this.getter = getter;
+			this.setter = setter;
+		}
+
+		@Override
+		public boolean isReadable() {
+			return getter != null;
+		}
+
+		@Override
+		public boolean isWritable() {
+			return setter != null;
+		}
+
+		@Override
+		public Object get(Object target) throws IllegalAccessException, InvocationTargetException {
+			return getter.invoke(target, NO_ARGS);
+		}
+
+		@Override
+		public void set(Object target, Object value) throws IllegalAccessException, InvocationTargetException {
+			setter.invoke(target, new Object[] { value });
+		}
+	}
+
+	private static final class FieldAccessor implements PropertyAccessor {
+
+		private final Field field;
+
+		private FieldAccessor(Field field) {
+			this.field = field;
+		}
+
+		@Override
+		public boolean isReadable() {
+			return true;
+		}
+
+		@Override
+		public boolean isWritable() {
+			return true;
+		}
+
+		@Override
+		public Object get(Object target) throws IllegalAccessException {
+			return field.get(target);
+		}
+
+		@Override
+		public void set(Object target, Object value) throws IllegalAccessException {
+			field.set(target, value);
+		}
+	}
+}
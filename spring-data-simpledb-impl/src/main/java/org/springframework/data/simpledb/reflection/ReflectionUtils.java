@@ -33,15 +33,10 @@ public final class ReflectionUtils {
 		Object object = null;
 		try {
 			if (obj != null) {
-				Field field = getField(obj.getClass(), fieldName);
-				if (isPersistentField(field)) {
-					 object = getPersistentFieldValue(field, obj);
-				} else {
-					Method getterMethod = retrieveGetterFrom(obj.getClass(), fieldName);
-					Assert.notNull(getterMethod, "No getter found for: " + fieldName);
-
-					object = getterMethod.invoke(obj);
-				}
+				final PropertyAccessor accessor = getAccessor(obj, fieldName);
+				Assert.isTrue(accessor.isReadable(), "No getter found for: " + fieldName);
+
+				object = accessor.get(obj);
 			}
 			return object;
 
@@ -54,29 +49,12 @@ public final class ReflectionUtils {
 		}
 	}
 
-	private static Object getPersistentFieldValue(Field field, Object obj) throws IllegalAccessException {
-		boolean fieldAccessible = field.isAccessible();
-		try {
-			if (!fieldAccessible) {
-				field.setAccessible(true);
-			}
-			return field.get(obj);
-			
-		} finally {
-			field.setAccessible(fieldAccessible);
-		}
-	}
-
 	public static void callSetter(Object obj, String fieldName, Object fieldValue) {
 		try {
-			Field field = getField(obj.getClass(), fieldName);
-			if (isPersistentField(field)) {
-				setPersistentFieldValue(field, obj, fieldValue);
-			} else {
-				Method setterMethod = retrieveSetterFrom(obj.getClass(), fieldName);
-				Assert.notNull(setterMethod, "No setter found for: " + fieldName);
-				setterMethod.invoke(obj, fieldValue);
-			}
+			final PropertyAccessor accessor = getAccessor(obj, fieldName);
+			Assert.isTrue(accessor.isWritable(), "No setter found for: " + fieldName);
+
+			accessor.set(obj, fieldValue);
 
 		} catch(IllegalAccessException e) {
 			throw toMappingException(e, METHOD_SETTER, fieldName, obj);
@@ -87,17 +65,13 @@ public final class ReflectionUtils {
 		}
 	}
 
-	private static void setPersistentFieldValue(Field field, Object obj, Object fieldValue) throws IllegalAccessException {
-		boolean fieldAccessible = field.isAccessible();
-		try {
-			if (!fieldAccessible) {
-				field.setAccessible(true);
-			}
-			field.set(obj, fieldValue);
-			
-		} finally {
-			field.setAccessible(fieldAccessible);
+	private static PropertyAccessor getAccessor(Object obj, String fieldName) {
+		final PropertyAccessor accessor = EntityMapping.forClass(obj.getClass()).getAccessor(fieldName);
+		if(accessor == null) {
+			throw new IllegalArgumentException("Field doesn't exist in entity :" + fieldName);
 		}
+
+		return accessor;
 	}
 
 	/**
@@ -107,8 +81,9 @@ public final class ReflectionUtils {
 	public static <T> boolean hasDeclaredGetterAndSetter(final Field field, Class<T> entityClazz) {
 		boolean hasDeclaredAccessorsMutators = true;
 
-		Method getter = retrieveGetterFrom(entityClazz, field.getName());
-		Method setter = retrieveSetterFrom(entityClazz, field.getName());
+		final EntityMapping mapping = EntityMapping.forClass(entityClazz);
+		Method getter = mapping.getGetter(field.getName());
+		Method setter = mapping.getSetter(field.getName());
 
 		if(getter == null || setter == null) {
 			hasDeclaredAccessorsMutators = false;
@@ -158,16 +133,12 @@ public final class ReflectionUtils {
 		return false;
 	}
 
+	/**
+	 * @return the names of the reference fields declared by the class, the returned list is shared and must not be
+	 *         modified
+	 */
 	public static List<String> getReferencedAttributeNames(Class<?> clazz) {
-		List<String> referenceFields = new ArrayList<String>();
-
-		for(Field eachField : clazz.getDeclaredFields()) {
-
-			if(eachField.getAnnotation(Reference.class) != null) {
-				referenceFields.add(eachField.getName());
-			}
-		}
-		return referenceFields;
+		return EntityMapping.forClass(clazz).getReferencedAttributeNames();
 	}
 
 
@@ -191,15 +162,7 @@ public final class ReflectionUtils {
      * @return List<Field> of referenced fields
      */
     public static List<Field> getFirstLevelOfReferenceAttributes(Class<?> clazz) {
-        List<Field> references = new ArrayList<Field>();
-        List<String> referencedFields = ReflectionUtils.getReferencedAttributeNames(clazz);
-
-        for(String eachReference : referencedFields) {
-            Field referenceField = ReflectionUtils.getField(clazz, eachReference);
-            references.add(referenceField);
-        }
-
-        return references;
+        return EntityMapping.forClass(clazz).getReferenceFields();
     }
 
 	private static MappingException toMappingException(Exception cause, String accessMethod, String fieldName,
@@ -208,7 +171,7 @@ public final class ReflectionUtils {
 				+ fieldObject.getClass(), cause);
 	}
 
-	private static <T> Method retrieveGetterFrom(final Class<T> entityClazz, final String fieldName) {
+	static <T> Method findGetter(final Class<T> entityClazz, final String fieldName) {
 		Method getterMethod;
 		try {
 			final PropertyDescriptor descriptor = new PropertyDescriptor(fieldName, entityClazz);
@@ -220,7 +183,7 @@ public final class ReflectionUtils {
 		return getterMethod;
 	}
 
-	private static <T> Method retrieveSetterFrom(final Class<T> entityClazz, final String fieldName) {
+	static <T> Method findSetter(final Class<T> entityClazz, final String fieldName) {
 		Method setterMethod;
 
 		try {
@@ -4,6 +4,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.repository.Repository;
+import org.springframework.data.simpledb.core.SimpleDbSlice;
 
 import java.io.Serializable;
 import java.util.List;
@@ -55,6 +56,19 @@ public interface SimpleDbPagingAndSortingRepository<T, ID extends Serializable>
 	 */
 	Iterable<T> findAll(Iterable<ID> ids, boolean consistentRead);
 
+	/**
+	 * Returns all instances of the type with the given IDs, reading the IDs in concurrent chunks of
+	 * <tt>itemName() in (...)</tt> selects.
+	 * 
+	 * @param ids
+	 * @param consistentRead
+	 *            true for consistent read from master node
+	 * @param preserveOrder
+	 *            true to return the entities in the order of the given IDs
+	 * @return the entities of the existing IDs
+	 */
+	Iterable<T> findAll(Iterable<ID> ids, boolean consistentRead, boolean preserveOrder);
+
 	/**
 	 * Returns the number of entities available.
 	 * 
@@ -85,6 +99,48 @@ public interface SimpleDbPagingAndSortingRepository<T, ID extends Serializable>
 	 */
 	Page<T> findAll(Pageable pageable, boolean consistentRead);
 
+	/**
+	 * Returns the entities of the page of the {@code Pageable}, like {@code findAll(Pageable)}, without counting all
+	 * entities of the domain.
+	 * 
+	 * @param pageable
+	 * @return a slice of entities
+	 */
+	SimpleDbSlice<T> findSlice(Pageable pageable);
+
+	/**
+	 * Overloaded form of {@link #findSlice(Pageable)} with option to reverse the default consistentRead setting.
+	 * 
+	 * @param pageable
+	 * @param consistentRead
+	 *            true for consistent read from master node
+	 * @return a slice of entities
+	 */
+	SimpleDbSlice<T> findSlice(Pageable pageable, boolean consistentRead);
+
+	/**
+	 * Returns the slice of entities following the continuation token, of at most {@code pageable.getPageSize()}
+	 * entities sorted by the {@code Pageable} sort. The page number is ignored and no count query is issued.
+	 * 
+	 * @param pageable
+	 * @param continuationToken
+	 *            {@link SimpleDbSlice#getNextToken()} of the previous slice, null for the first one
+	 * @return a slice of entities
+	 */
+	SimpleDbSlice<T> findSlice(Pageable pageable, String continuationToken);
+
+	/**
+	 * Overloaded form of {@link #findSlice(Pageable, String)} with option to reverse the default consistentRead
+	 * setting.
+	 * 
+	 * @param pageable
+	 * @param continuationToken
+	 * @param consistentRead
+	 *            true for consistent read from master node
+	 * @return a slice of entities
+	 */
+	SimpleDbSlice<T> findSlice(Pageable pageable, String continuationToken, boolean consistentRead);
+
 	/**
 	 * Saves a given entity. Use the returned instance for further operations as the save operation might have changed
 	 * the entity instance completely.
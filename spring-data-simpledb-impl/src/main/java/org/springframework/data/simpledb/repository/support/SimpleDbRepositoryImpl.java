@@ -25,6 +25,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.simpledb.core.QueryBuilder;
 import org.springframework.data.simpledb.core.SimpleDbOperations;
+import org.springframework.data.simpledb.core.SimpleDbSlice;
 import org.springframework.data.simpledb.repository.SimpleDbPagingAndSortingRepository;
 import org.springframework.data.simpledb.repository.support.entityinformation.SimpleDbEntityInformation;
 import org.springframework.util.Assert;
@@ -119,14 +120,10 @@ public class SimpleDbRepositoryImpl<T, ID extends Serializable> implements Pagin
 
 	@Override
 	public <S extends T> List<S> save(Iterable<S> entities, boolean consistentRead) {
-		List<S> result = new ArrayList<S>();
 		if(entities == null) {
-			return result;
+			return new ArrayList<S>();
 		}
-		for(S entity : entities) {
-			result.add(save(entity, consistentRead));
-		}
-		return result;
+		return operations.createOrUpdate(entities);
 	}
 
 	@Override
@@ -138,7 +135,7 @@ public class SimpleDbRepositoryImpl<T, ID extends Serializable> implements Pagin
 	@Override
 	public boolean exists(ID id, boolean consistentRead) {
 		Assert.notNull(id, "The given id must not be null!");
-		return findOne(id, consistentRead) != null;
+		return operations.exists(id, entityInformation.getJavaType(), consistentRead);
 	}
 
 	@Override
@@ -149,8 +146,13 @@ public class SimpleDbRepositoryImpl<T, ID extends Serializable> implements Pagin
 
 	@Override
 	public List<T> findAll(Iterable<ID> ids, boolean consistentRead) {
-		return operations.find(entityInformation.getJavaType(), new QueryBuilder(entityInformation).withIds(ids)
-				.toString(), consistentRead);
+		return findAll(ids, consistentRead, false);
+	}
+
+	@Override
+	public List<T> findAll(Iterable<ID> ids, boolean consistentRead, boolean preserveOrder) {
+		Assert.notNull(ids, "The given ids must not be null!");
+		return operations.readAll(ids, entityInformation.getJavaType(), preserveOrder, consistentRead);
 	}
 
 	@Override
@@ -165,6 +167,28 @@ public class SimpleDbRepositoryImpl<T, ID extends Serializable> implements Pagin
 				new QueryBuilder(entityInformation).toString(), pageable, consistentRead);
 	}
 
+	@Override
+	public SimpleDbSlice<T> findSlice(Pageable pageable) {
+		return findSlice(pageable, consistentRead);
+	}
+
+	@Override
+	public SimpleDbSlice<T> findSlice(Pageable pageable, boolean consistentRead) {
+		return operations.executeSlicedQuery(entityInformation.getJavaType(),
+				new QueryBuilder(entityInformation).toString(), pageable, consistentRead);
+	}
+
+	@Override
+	public SimpleDbSlice<T> findSlice(Pageable pageable, String continuationToken) {
+		return findSlice(pageable, continuationToken, consistentRead);
+	}
+
+	@Override
+	public SimpleDbSlice<T> findSlice(Pageable pageable, String continuationToken, boolean consistentRead) {
+		return operations.executeSlicedQuery(entityInformation.getJavaType(),
+				new QueryBuilder(entityInformation).toString(), pageable, continuationToken, consistentRead);
+	}
+
 	@Override
 	public long count(boolean consistentRead) {
 		return operations.count(entityInformation.getJavaType(), consistentRead);
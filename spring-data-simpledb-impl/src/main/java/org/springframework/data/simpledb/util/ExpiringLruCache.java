@@ -0,0 +1,169 @@
+package org.springframework.data.simpledb.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A thread safe cache holding at most <tt>maxSize</tt> entries, evicting the least recently used one when full, and
+ * dropping entries older than the time to live. Counts the hits and misses of {@link #get(Object)}, and the entries
+ * evicted to bound the size or dropped once expired.
+ */
+public class ExpiringLruCache<K, V> {
+
+	private static final int INITIAL_CAPACITY = 16;
+	private static final float LOAD_FACTOR = 0.75f;
+
+	private final int maxSize;
+	private final long timeToLiveNanos;
+
+	private final Map<K, Entry<V>> entries;
+
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+	private long expirationCount;
+
+	/**
+	 * @param maxSize
+	 *            maximum number of entries, must be positive
+	 * @param timeToLive
+	 *            time to live of an entry, 0 or less for entries which never expire
+	 * @param unit
+	 *            unit of timeToLive
+	 */
+	public ExpiringLruCache(int maxSize, long timeToLive, TimeUnit unit) {
+		if(maxSize <= 0) {
+			throw new IllegalArgumentException("The cache size must be positive, got " + maxSize);
+		}
+
+		this.maxSize = maxSize;
+		this.timeToLiveNanos = unit.toNanos(timeToLive);
+		this.entries = new LinkedHashMap<K, Entry<V>>(INITIAL_CAPACITY, LOAD_FACTOR, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+				final boolean evict = size() > ExpiringLruCache.this.maxSize;
+				if(evict) {
+					evictionCount++;
+				}
+				return evict;
+			}
+		};
+	}
+
+	/**
+	 * @return the value of the key, null if it is not cached or has expired
+	 */
+	public synchronized V get(K key) {
+		final V value = peek(key);
+		if(value != null) {
+			hitCount++;
+		} else {
+			missCount++;
+		}
+
+		return value;
+	}
+
+	/**
+	 * Same as {@link #get(Object)}, without counting a hit or a miss.
+	 */
+	public synchronized V peek(K key) {
+		final Entry<V> entry = entries.get(key);
+		if(entry == null) {
+			return null;
+		}
+
+		if(isExpired(entry, currentTimeNanos())) {
+			entries.remove(key);
+			expirationCount++;
+			return null;
+		}
+
+		return entry.value;
+	}
+
+	public synchronized void put(K key, V value) {
+		entries.put(key, new Entry<V>(value, currentTimeNanos()));
+	}
+
+	public synchronized void remove(K key) {
+		entries.remove(key);
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * @return the number of entries, expired entries included until they are looked up or purged
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Removes the expired entries.
+	 */
+	public synchronized void purge() {
+		final long now = currentTimeNanos();
+		for(Iterator<Entry<V>> iterator = entries.values().iterator(); iterator.hasNext();) {
+			if(isExpired(iterator.next(), now)) {
+				iterator.remove();
+				expirationCount++;
+			}
+		}
+	}
+
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * @return the number of least recently used entries removed to make room for new ones
+	 */
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * @return the number of expired entries removed by lookups or {@link #purge()}
+	 */
+	public synchronized long getExpirationCount() {
+		return expirationCount;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * @return the current time in nanoseconds, from an arbitrary origin
+	 */
+	protected long currentTimeNanos() {
+		return System.nanoTime();
+	}
+
+	private boolean isExpired(Entry<V> entry, long now) {
+		return timeToLiveNanos > 0 && now - entry.createdNanos >= timeToLiveNanos;
+	}
+
+	private static final class Entry<V> {
+
+		private final V value;
+		private final long createdNanos;
+
+		private Entry(V value, long createdNanos) {
+			this.value = value;
+			this.createdNanos = createdNanos;
+		}
+	}
+}
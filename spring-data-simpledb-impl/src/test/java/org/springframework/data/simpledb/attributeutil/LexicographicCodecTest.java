@@ -0,0 +1,150 @@
+package org.springframework.data.simpledb.attributeutil;
+
+import static org.junit.Assert.*;
+
+import java.text.ParseException;
+import java.util.Date;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LexicographicCodecTest {
+
+	private static final int SAMPLES = 5000;
+
+	private final Random random = new Random(42);
+
+	@Test
+	public void integers_should_be_encoded_as_legacy_encoding() throws ParseException {
+		final long[] edges = { 0, 1, -1, Long.MAX_VALUE, Long.MIN_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE };
+		for(long value : edges) {
+			assertIntegerEncoding(value);
+		}
+
+		for(int i = 0; i < SAMPLES; i++) {
+			assertIntegerEncoding(random.nextLong());
+			assertIntegerEncoding(random.nextInt());
+		}
+	}
+
+	@Test
+	public void doubles_should_be_encoded_as_legacy_encoding() throws ParseException {
+		final double[] edges = { 0.0, -0.0, 1.0, -1.0, 0.5, -0.5, 0.1, -0.1, 1e-3, 1e-20, -1e-20, 1e-21, 1.5e-25,
+				1e7, 1.0e18, -9.2e18, 9.3e18, -9.3e18, Double.MAX_VALUE, -Double.MAX_VALUE, Double.MIN_VALUE,
+				Long.MAX_VALUE, (double) Long.MIN_VALUE };
+		for(double value : edges) {
+			assertDoubleEncoding(value);
+		}
+
+		for(int i = 0; i < SAMPLES; i++) {
+			assertDoubleEncoding(random.nextDouble());
+			assertDoubleEncoding((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(40) - 20));
+			final double bits = Double.longBitsToDouble(random.nextLong());
+			if(!Double.isNaN(bits) && !Double.isInfinite(bits)) {
+				assertDoubleEncoding(bits);
+			}
+		}
+	}
+
+	@Test
+	public void floats_should_be_encoded_as_legacy_encoding() throws ParseException {
+		final float[] edges = { 0f, -0f, 0.1f, -0.1f, 3.4e-5f, Float.MAX_VALUE, -Float.MAX_VALUE, Float.MIN_VALUE };
+		for(float value : edges) {
+			assertFloatEncoding(value);
+		}
+
+		for(int i = 0; i < SAMPLES; i++) {
+			assertFloatEncoding((random.nextFloat() - 0.5f) * (float) Math.pow(10, random.nextInt(30) - 15));
+			final float bits = Float.intBitsToFloat(random.nextInt());
+			if(!Float.isNaN(bits) && !Float.isInfinite(bits)) {
+				assertFloatEncoding(bits);
+			}
+		}
+	}
+
+	@Test
+	public void dates_should_be_encoded_as_legacy_encoding() throws ParseException {
+		final long[] edges = { 0, -1, 1, -12219292800000L, -12212553600000L, -11676096000000L, 253402300799999L,
+				253402300800000L };
+		for(long millis : edges) {
+			assertDateEncoding(new Date(millis));
+		}
+
+		for(int i = 0; i < SAMPLES; i++) {
+			assertDateEncoding(new Date(random.nextLong() % 300000000000000L));
+			assertDateEncoding(new Date(System.currentTimeMillis() + random.nextInt()));
+		}
+	}
+
+	@Test
+	public void common_values_should_be_handled_by_codec() {
+		assertNotNull(LexicographicCodec.encodeReal(Double.toString(-0.1)));
+		assertNotNull(LexicographicCodec.encodeReal(Double.toString(123456.789)));
+		assertNotNull(LexicographicCodec.encodeReal(Float.toString(1.5e-10f)));
+		assertNull(LexicographicCodec.encodeReal(Double.toString(1.5e-25)));
+		assertNotNull(LexicographicCodec.encodeDate(new Date()));
+	}
+
+	@Test
+	public void malformed_values_should_not_be_handled_by_codec() {
+		assertFalse(LexicographicCodec.isEncodedInteger("42"));
+		assertFalse(LexicographicCodec.isEncodedInteger("18446744073709551616"));
+		assertFalse(LexicographicCodec.isEncodedInteger("1844674407370955161a"));
+		assertTrue(LexicographicCodec.isEncodedInteger("18446744073709551615"));
+		assertFalse(LexicographicCodec.isEncodedReal("0.5"));
+		assertFalse(LexicographicCodec.isEncodedReal("0000000000000000000000000000000000000001"));
+		assertNull(LexicographicCodec.decodeDate("2013-1-02T03:04:05.67:8Z"));
+		assertNull(LexicographicCodec.decodeDate("2013-02-30T03:04:05.67:8Z"));
+	}
+
+	@Test
+	public void converter_should_fall_back_to_legacy_decoding() throws ParseException {
+		assertEquals(Long.valueOf(-5), SimpleDBAttributeConverter.decodeToFieldOfType("9223372036854775803",
+				long.class));
+		assertNull(LexicographicCodec.decodeDate("1500-01-01T00:00:00.00:0Z"));
+		assertEquals(AmazonSimpleDBUtil.decodeDate("1500-01-01T00:00:00.00:0Z"),
+				SimpleDBAttributeConverter.decodeToFieldOfType("1500-01-01T00:00:00.00:0Z", Date.class));
+	}
+
+	private void assertIntegerEncoding(long value) throws ParseException {
+		final String expected = AmazonSimpleDBUtil.encodeAsIntegerNumber(value);
+
+		assertEquals(expected, LexicographicCodec.encodeInteger(value));
+		assertTrue(LexicographicCodec.isEncodedInteger(expected));
+		assertEquals(value, LexicographicCodec.decodeInteger(expected));
+		assertEquals(Integer.valueOf((int) value), SimpleDBAttributeConverter.decodeToFieldOfType(expected, int.class));
+	}
+
+	private void assertDoubleEncoding(double value) throws ParseException {
+		final String expected = AmazonSimpleDBUtil.encodeAsRealNumber(value);
+
+		assertEquals(expected, SimpleDBAttributeConverter.encode(value));
+		if(isDecodable(expected)) {
+			assertEquals(AmazonSimpleDBUtil.decodeRealNumber(expected).doubleValue(),
+					SimpleDBAttributeConverter.decodeToFieldOfType(expected, double.class));
+		}
+	}
+
+	private void assertFloatEncoding(float value) throws ParseException {
+		final String expected = AmazonSimpleDBUtil.encodeAsRealNumber(value);
+
+		assertEquals(expected, SimpleDBAttributeConverter.encode(value));
+		if(isDecodable(expected)) {
+			assertEquals(AmazonSimpleDBUtil.decodeRealNumber(expected).floatValue(),
+					SimpleDBAttributeConverter.decodeToFieldOfType(expected, float.class));
+		}
+	}
+
+	/* values below -2^63 are zero padded negative numbers, which can not be decoded */
+	private static boolean isDecodable(String encoded) {
+		return encoded.indexOf('-') < 0;
+	}
+
+	private void assertDateEncoding(Date date) throws ParseException {
+		final String expected = AmazonSimpleDBUtil.encodeDate(date);
+
+		assertEquals(expected, SimpleDBAttributeConverter.encode(date));
+		assertEquals(AmazonSimpleDBUtil.decodeDate(expected),
+				SimpleDBAttributeConverter.decodeToFieldOfType(expected, Date.class));
+	}
+}
@@ -0,0 +1,45 @@
+package org.springframework.data.simpledb.core;
+
+import static org.mockito.Mockito.mock;
+
+import org.junit.After;
+import org.junit.Before;
+import org.springframework.data.simpledb.core.domain.DomainManagementPolicy;
+
+import com.amazonaws.services.simpledb.AmazonSimpleDB;
+
+/**
+ * Runs a {@link SimpleDbTemplate} against a mocked client, without managing domains. Settings which the template
+ * reads when it is created, such as the retries, need a new template.
+ */
+public abstract class AbstractSimpleDbTemplateTest {
+
+	protected AmazonSimpleDB sdb;
+	protected SimpleDb simpleDb;
+	protected SimpleDbTemplate template;
+
+	@Before
+	public void setUpSimpleDb() {
+		sdb = mock(AmazonSimpleDB.class);
+		simpleDb = createSimpleDb(sdb);
+		template = new SimpleDbTemplate(simpleDb);
+	}
+
+	@After
+	public void destroySimpleDb() {
+		simpleDb.destroy();
+	}
+
+	static SimpleDb createSimpleDb(final AmazonSimpleDB sdb) {
+		final SimpleDb simpleDb = new SimpleDb() {
+
+			@Override
+			public AmazonSimpleDB getSimpleDbClient() {
+				return sdb;
+			}
+		};
+		simpleDb.setDomainManagementPolicy(DomainManagementPolicy.NONE);
+
+		return simpleDb;
+	}
+}
@@ -0,0 +1,187 @@
+package org.springframework.data.simpledb.core;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.argThat;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatcher;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.simpledb.exception.BatchOperationException;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.simpledb.AmazonSimpleDB;
+import com.amazonaws.services.simpledb.model.BatchDeleteAttributesRequest;
+import com.amazonaws.services.simpledb.model.DeletableItem;
+
+public class BatchDispatcherTest {
+
+	private static final int BATCH_COUNT = 20;
+
+	private AmazonSimpleDB sdb;
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() {
+		sdb = mock(AmazonSimpleDB.class);
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void failed_batch_should_not_stop_the_others() {
+		AmazonServiceException failure = new AmazonServiceException("Invalid batch");
+		failure.setStatusCode(400);
+		doThrow(failure).when(sdb).batchDeleteAttributes(argThat(new FirstItemMatcher("item1")));
+
+		BatchOperationResult result = new BatchDispatcher(sdb, null, 1, 1, new DefaultRetryPolicy(), new RetryMetrics())
+				.batchDeleteAttributes(createRequests(3));
+
+		verify(sdb, times(3)).batchDeleteAttributes(any(BatchDeleteAttributesRequest.class));
+		assertEquals(3, result.getBatchCount());
+		assertEquals(3, result.getItemCount());
+		assertEquals(1, result.getFailures().size());
+		assertEquals(Arrays.asList("item1"), result.getFailures().get(0).getItemNames());
+		assertEquals("domain", result.getFailures().get(0).getDomain());
+	}
+
+	@Test
+	public void concurrent_dispatch_should_bound_in_flight_batches() {
+		final AtomicInteger inFlight = new AtomicInteger();
+		final AtomicInteger maxInFlight = new AtomicInteger();
+
+		doAnswer(new Answer<Void>() {
+
+			@Override
+			public Void answer(InvocationOnMock invocation) throws InterruptedException {
+				int current = inFlight.incrementAndGet();
+				maxInFlight.set(Math.max(maxInFlight.get(), current));
+				Thread.sleep(5);
+				inFlight.decrementAndGet();
+				return null;
+			}
+		}).when(sdb).batchDeleteAttributes(any(BatchDeleteAttributesRequest.class));
+
+		BatchOperationResult result = new BatchDispatcher(sdb, executor, 2, 1, new DefaultRetryPolicy(), new RetryMetrics())
+				.batchDeleteAttributes(createRequests(BATCH_COUNT));
+
+		assertFalse(result.hasFailures());
+		assertEquals(BATCH_COUNT, result.getBatchCount());
+		verify(sdb, times(BATCH_COUNT)).batchDeleteAttributes(any(BatchDeleteAttributesRequest.class));
+		assertTrue(maxInFlight.get() <= 2);
+	}
+
+	@Test(timeout = 10000)
+	public void interrupted_dispatch_should_cancel_the_submitted_batches() throws InterruptedException {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch cancelled = new CountDownLatch(1);
+		final AtomicBoolean batchInterrupted = new AtomicBoolean();
+
+		doAnswer(new Answer<Void>() {
+
+			@Override
+			public Void answer(InvocationOnMock invocation) {
+				started.countDown();
+				try {
+					new CountDownLatch(1).await();
+				} catch(InterruptedException e) {
+					batchInterrupted.set(true);
+					cancelled.countDown();
+				}
+				return null;
+			}
+		}).when(sdb).batchDeleteAttributes(any(BatchDeleteAttributesRequest.class));
+
+		final AtomicReference<RuntimeException> callerFailure = new AtomicReference<RuntimeException>();
+		Thread caller = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					new BatchDispatcher(sdb, executor, 1, 1, new DefaultRetryPolicy(), new RetryMetrics())
+							.batchDeleteAttributes(createRequests(3));
+				} catch(RuntimeException e) {
+					callerFailure.set(e);
+				}
+			}
+		});
+		caller.start();
+		started.await();
+		caller.interrupt();
+		caller.join();
+
+		assertTrue(callerFailure.get() instanceof DataAccessResourceFailureException);
+		cancelled.await();
+		assertTrue(batchInterrupted.get());
+		verify(sdb, times(1)).batchDeleteAttributes(any(BatchDeleteAttributesRequest.class));
+	}
+
+	@Test
+	public void template_delete_should_report_failed_batches() {
+		SimpleDb simpleDb = AbstractSimpleDbTemplateTest.createSimpleDb(sdb);
+		simpleDb.setBatchPoolSize(4);
+
+		AmazonServiceException failure = new AmazonServiceException("Invalid batch");
+		failure.setStatusCode(400);
+		doThrow(failure).when(sdb).batchDeleteAttributes(argThat(new FirstItemMatcher("id25")));
+
+		List<String> ids = new ArrayList<String>();
+		for(int i = 0; i < 60; i++) {
+			ids.add("id" + i);
+		}
+
+		try {
+			new SimpleDbTemplate(simpleDb).delete(SimpleDbTemplateWriteTest.Person.class, ids);
+			fail("Expected a batch operation failure");
+		} catch(BatchOperationException e) {
+			assertEquals(3, e.getResult().getBatchCount());
+			assertEquals(25, e.getResult().getFailedItemCount());
+		} finally {
+			simpleDb.destroy();
+		}
+		verify(sdb, times(3)).batchDeleteAttributes(any(BatchDeleteAttributesRequest.class));
+	}
+
+	private static List<BatchDeleteAttributesRequest> createRequests(int count) {
+		List<BatchDeleteAttributesRequest> requests = new ArrayList<BatchDeleteAttributesRequest>();
+		for(int i = 0; i < count; i++) {
+			requests.add(new BatchDeleteAttributesRequest("domain", Arrays.asList(new DeletableItem().withName("item"
+					+ i))));
+		}
+		return requests;
+	}
+
+	private static final class FirstItemMatcher extends ArgumentMatcher<BatchDeleteAttributesRequest> {
+
+		private final String itemName;
+
+		private FirstItemMatcher(String itemName) {
+			this.itemName = itemName;
+		}
+
+		@Override
+		public boolean matches(Object argument) {
+			return argument != null
+					&& itemName.equals(((BatchDeleteAttributesRequest) argument).getItems().get(0).getName());
+		}
+	}
+}
@@ -54,8 +54,27 @@ public class QueryBuilderTest {
 
 		String returnedQuery = builder.toString();
 
-		assertThat(returnedQuery, containsString("where (itemName()='id1' or itemName()='id2')"));
+		assertThat(returnedQuery, containsString("where itemName() in ('id1','id2')"));
 
 	}
 
+	@Test
+	public void should_include_in_predicate_for_item_names() throws Exception {
+
+		QueryBuilder builder = new QueryBuilder(SimpleDbSampleEntity.entityInformation());
+		builder.withItemNamesIn(Arrays.asList(new String[] { "id1", "o'id" }));
+
+		String returnedQuery = builder.toString();
+
+		assertEquals("select * from `simpleDbSampleEntity` where itemName() in ('id1','o''id')", returnedQuery);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void should_reject_in_predicate_over_the_simpledb_limit() throws Exception {
+		String[] itemNames = new String[QueryBuilder.MAX_IN_VALUES + 1];
+		Arrays.fill(itemNames, "id");
+
+		new QueryBuilder(SimpleDbSampleEntity.entityInformation()).withItemNamesIn(Arrays.asList(itemNames));
+	}
+
 }
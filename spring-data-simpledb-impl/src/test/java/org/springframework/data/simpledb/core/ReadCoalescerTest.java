@@ -0,0 +1,202 @@
+package org.springframework.data.simpledb.core;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.Item;
+
+public class ReadCoalescerTest {
+
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void concurrent_reads_should_share_one_batch() throws Exception {
+		RecordingCoalescer coalescer = new RecordingCoalescer(500, QueryBuilder.MAX_IN_VALUES);
+
+		List<Future<String>> reads = readConcurrently(coalescer, false, "a", "b", "c", "a", "a");
+
+		assertEquals(Arrays.asList("entity a", "entity b", "entity c", "entity a", "entity a"), values(reads));
+		assertEquals(1, coalescer.batches.size());
+		assertEquals(new HashSet<String>(Arrays.asList("a", "b", "c")), new HashSet<String>(coalescer.batches.get(0)));
+		assertEquals(3, coalescer.batches.get(0).size());
+	}
+
+	@Test
+	public void coalesced_reads_of_one_id_should_return_distinct_instances() throws Exception {
+		RecordingCoalescer coalescer = new RecordingCoalescer(500, QueryBuilder.MAX_IN_VALUES);
+
+		List<Future<String>> reads = readConcurrently(coalescer, false, "a", "a");
+
+		assertEquals(1, coalescer.batches.size());
+		assertEquals(reads.get(0).get(), reads.get(1).get());
+		assertNotSame(reads.get(0).get(), reads.get(1).get());
+	}
+
+	@Test
+	public void full_batch_should_be_sent_before_the_window_ends() throws Exception {
+		RecordingCoalescer coalescer = new RecordingCoalescer(TimeUnit.MINUTES.toMillis(1), 2);
+
+		List<Future<String>> reads = readConcurrently(coalescer, false, "a", "b");
+
+		for(Future<String> read : reads) {
+			read.get(10, TimeUnit.SECONDS);
+		}
+		assertEquals(1, coalescer.batches.size());
+	}
+
+	@Test
+	public void consistent_and_eventual_reads_should_not_share_a_batch() throws Exception {
+		RecordingCoalescer coalescer = new RecordingCoalescer(0, QueryBuilder.MAX_IN_VALUES);
+
+		assertEquals("entity a", coalescer.read(String.class, "a", false));
+		assertEquals("entity a", coalescer.read(String.class, "a", true));
+
+		assertEquals(Arrays.asList(false, true), coalescer.consistentReads);
+	}
+
+	@Test
+	public void read_started_while_its_batch_is_sent_should_send_another_select() throws Exception {
+		RecordingCoalescer coalescer = new RecordingCoalescer(0, QueryBuilder.MAX_IN_VALUES);
+		coalescer.sent = new CountDownLatch(1);
+		coalescer.release = new CountDownLatch(1);
+
+		List<Future<String>> reads = readConcurrently(coalescer, true, "a");
+		assertTrue(coalescer.sent.await(10, TimeUnit.SECONDS));
+		reads.addAll(readConcurrently(coalescer, true, "a"));
+
+		while(coalescer.batches.size() < 2) {
+			assertFalse(reads.get(1).isDone());
+			Thread.sleep(1);
+		}
+		coalescer.release.countDown();
+
+		assertEquals(Arrays.asList("entity a", "entity a"), values(reads));
+		assertEquals(Arrays.asList(true, true), coalescer.consistentReads);
+	}
+
+	@Test
+	public void missing_item_should_be_read_as_null() {
+		RecordingCoalescer coalescer = new RecordingCoalescer(0, QueryBuilder.MAX_IN_VALUES);
+
+		assertNull(coalescer.read(String.class, "missing", false));
+	}
+
+	@Test
+	public void failure_should_be_thrown_to_every_reader() throws Exception {
+		RecordingCoalescer coalescer = new RecordingCoalescer(500, QueryBuilder.MAX_IN_VALUES);
+		coalescer.failure = new IllegalStateException("unavailable");
+
+		List<Future<String>> reads = readConcurrently(coalescer, false, "a", "b", "a");
+
+		for(Future<String> read : reads) {
+			try {
+				read.get();
+				fail("read should fail");
+			} catch(ExecutionException e) {
+				assertSame(coalescer.failure, e.getCause());
+			}
+		}
+		assertEquals(1, coalescer.batches.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void batch_size_should_fit_an_in_predicate() {
+		new RecordingCoalescer(1, QueryBuilder.MAX_IN_VALUES + 1);
+	}
+
+	private List<Future<String>> readConcurrently(final ReadCoalescer coalescer, final boolean consistentRead,
+			String... itemNames) {
+		final List<Future<String>> reads = new ArrayList<Future<String>>();
+		for(final String itemName : itemNames) {
+			reads.add(executor.submit(new Callable<String>() {
+
+				@Override
+				public String call() {
+					return coalescer.read(String.class, itemName, consistentRead);
+				}
+			}));
+		}
+
+		return reads;
+	}
+
+	private static List<String> values(List<Future<String>> reads) throws Exception {
+		final List<String> values = new ArrayList<String>();
+		for(Future<String> read : reads) {
+			values.add(read.get());
+		}
+
+		return values;
+	}
+
+	private static final class RecordingCoalescer extends ReadCoalescer {
+
+		private final List<List<String>> batches = Collections.synchronizedList(new ArrayList<List<String>>());
+		private final List<Boolean> consistentReads = Collections.synchronizedList(new ArrayList<Boolean>());
+		private volatile RuntimeException failure;
+		private volatile CountDownLatch sent;
+		private volatile CountDownLatch release;
+
+		private RecordingCoalescer(long windowMillis, int maxBatchSize) {
+			super(windowMillis, TimeUnit.MILLISECONDS, maxBatchSize);
+		}
+
+		@Override
+		Map<String, Item> readItems(Class<?> entityClass, List<String> itemNames, boolean consistentRead) {
+			batches.add(itemNames);
+			consistentReads.add(consistentRead);
+			if(sent != null) {
+				sent.countDown();
+				awaitRelease();
+			}
+			if(failure != null) {
+				throw failure;
+			}
+
+			final Map<String, Item> items = new HashMap<String, Item>();
+			for(String itemName : itemNames) {
+				if(!"missing".equals(itemName)) {
+					items.put(itemName, new Item(itemName, Collections.<Attribute> emptyList()));
+				}
+			}
+
+			return items;
+		}
+
+		@Override
+		<T> T toEntity(Class<T> entityClass, Item item, boolean consistentRead) {
+			return entityClass.cast(new String("entity " + item.getName()));
+		}
+
+		private void awaitRelease() {
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package org.springframework.data.simpledb.core;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+public class SegmentedScanTest {
+
+	@Test
+	public void single_segment_should_be_unbounded() {
+		List<SegmentedScan.ItemNameRange> ranges = SegmentedScan.itemNameRanges(1);
+
+		assertEquals(1, ranges.size());
+		assertNull(ranges.get(0).getLowerBound());
+		assertNull(ranges.get(0).getUpperBound());
+	}
+
+	@Test
+	public void ranges_should_be_contiguous_hex_prefixes() {
+		List<SegmentedScan.ItemNameRange> ranges = SegmentedScan.itemNameRanges(3);
+
+		assertEquals(3, ranges.size());
+		assertNull(ranges.get(0).getLowerBound());
+		assertEquals("5", ranges.get(0).getUpperBound());
+		assertEquals("5", ranges.get(1).getLowerBound());
+		assertEquals("a", ranges.get(1).getUpperBound());
+		assertEquals("a", ranges.get(2).getLowerBound());
+		assertNull(ranges.get(2).getUpperBound());
+	}
+
+	@Test
+	public void more_than_sixteen_segments_should_use_two_character_prefixes() {
+		List<SegmentedScan.ItemNameRange> ranges = SegmentedScan.itemNameRanges(SegmentedScan.MAX_SEGMENTS);
+
+		assertEquals("01", ranges.get(0).getUpperBound());
+		assertEquals("ff", ranges.get(SegmentedScan.MAX_SEGMENTS - 1).getLowerBound());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void too_many_segments_should_be_rejected() {
+		SegmentedScan.itemNameRanges(SegmentedScan.MAX_SEGMENTS + 1);
+	}
+
+	@Test(timeout = 10000)
+	public void scan_started_by_a_segment_should_run_on_the_worker_thread() {
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			final SegmentedScan scan = new SegmentedScan(executor);
+			final List<Callable<Long>> outerSegments = new ArrayList<Callable<Long>>();
+			for(int i = 0; i < 2; i++) {
+				outerSegments.add(new Callable<Long>() {
+
+					@Override
+					public Long call() {
+						return scan.scan(Arrays.asList(new CountedSegment(), new CountedSegment()));
+					}
+				});
+			}
+
+			assertEquals(4, scan.scan(outerSegments));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static final class CountedSegment implements Callable<Long> {
+
+		@Override
+		public Long call() {
+			return 1L;
+		}
+	}
+}
@@ -1,21 +1,39 @@
 package org.springframework.data.simpledb.core;
 
+import com.amazonaws.AmazonClientException;
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.services.cloudwatch.model.ResourceNotFoundException;
 import org.hamcrest.core.StringContains;
 import org.junit.Assert;
+import org.junit.Before;
 import org.junit.Test;
 import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.dao.DataRetrievalFailureException;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.net.SocketTimeoutException;
+
 public class SimpleDbOperationRetrierTest {
 
     private static final int SERVICE_UNAVAILABLE_RETRIES = 3;
 
+    private DefaultRetryPolicy retryPolicy;
+    private RetryMetrics retryMetrics;
+
+    @Before
+    public void setUp() {
+        retryPolicy = new DefaultRetryPolicy();
+        retryPolicy.setBaseDelayMillis(1);
+        retryPolicy.setMaxDelayMillis(5);
+        retryMetrics = new RetryMetrics();
+    }
+
     @Test
 	public void executeWithRetries_should_fail_for_exceeded_retries() throws Exception {
 
@@ -64,4 +82,167 @@ public class SimpleDbOperationRetrierTest {
 		};
 		retrier.executeWithRetries();
 	}
+
+	@Test
+	public void executeWithRetries_should_retry_network_failures() {
+		FailingRetrier retrier = new FailingRetrier(new AmazonClientException("Unable to execute HTTP request",
+				new SocketTimeoutException("Read timed out")), 1);
+
+		retrier.executeWithRetries();
+
+		assertEquals(2, retrier.attempts);
+		assertEquals(1, retrier.getCurrentRetry());
+		assertEquals(1, retryMetrics.getRetryCount());
+	}
+
+	@Test
+	public void not_idempotent_operation_should_not_be_retried_after_failures_it_may_have_been_applied_before() {
+		FailingRetrier networkFailure = new FailingRetrier(new AmazonClientException("Unable to execute HTTP request",
+				new SocketTimeoutException("Read timed out")), 1, false);
+		AmazonServiceException internalError = new AmazonServiceException("Internal error");
+		internalError.setStatusCode(500);
+		internalError.setErrorType(AmazonServiceException.ErrorType.Service);
+
+		for(FailingRetrier retrier : new FailingRetrier[] { networkFailure, new FailingRetrier(internalError, 1, false) }) {
+			try {
+				retrier.executeWithRetries();
+				fail("A possibly applied operation should not be retried");
+			} catch(RuntimeException e) {
+				assertEquals(1, retrier.attempts);
+			}
+		}
+
+		FailingRetrier unavailable = new FailingRetrier(serviceUnavailable(), 1, false);
+		unavailable.executeWithRetries();
+		assertEquals(2, unavailable.attempts);
+	}
+
+	@Test
+	public void executeWithRetries_should_retry_throttling() {
+		AmazonServiceException throttling = new AmazonServiceException("Rate exceeded");
+		throttling.setStatusCode(400);
+		throttling.setErrorCode("Throttling");
+		throttling.setErrorType(AmazonServiceException.ErrorType.Client);
+		FailingRetrier retrier = new FailingRetrier(throttling, SERVICE_UNAVAILABLE_RETRIES - 1);
+
+		retrier.executeWithRetries();
+
+		assertEquals(SERVICE_UNAVAILABLE_RETRIES, retrier.attempts);
+		assertEquals(0, retryMetrics.getExhaustedCount());
+	}
+
+	@Test
+	public void executeWithRetries_should_not_retry_client_errors() {
+		AmazonServiceException invalidQuery = new AmazonServiceException("Invalid query");
+		invalidQuery.setStatusCode(400);
+		invalidQuery.setErrorType(AmazonServiceException.ErrorType.Client);
+		FailingRetrier retrier = new FailingRetrier(invalidQuery, 1);
+
+		try {
+			retrier.executeWithRetries();
+			fail("Client errors should not be retried");
+		} catch(RuntimeException e) {
+			assertEquals(1, retrier.attempts);
+			assertEquals(0, retryMetrics.getRetryCount());
+		}
+	}
+
+	@Test
+	public void executeWithRetries_should_fail_when_the_retry_budget_is_exhausted() {
+		retryPolicy.setRetryBudget(1);
+		FailingRetrier retrier = new FailingRetrier(serviceUnavailable(), SERVICE_UNAVAILABLE_RETRIES);
+
+		try {
+			retrier.executeWithRetries();
+			fail("The retry budget should be exhausted");
+		} catch(DataAccessResourceFailureException e) {
+			assertEquals(2, retrier.attempts);
+			assertEquals(1, retryMetrics.getBudgetRejectedCount());
+			assertEquals(0, retryPolicy.getAvailableRetries());
+		}
+	}
+
+	@Test
+	public void successful_operations_should_refill_the_retry_budget() {
+		retryPolicy.setRetryBudget(2);
+		try {
+			new FailingRetrier(serviceUnavailable(), SERVICE_UNAVAILABLE_RETRIES).executeWithRetries();
+			fail("Number of retries should be exceeded");
+		} catch(DataAccessResourceFailureException e) {
+			assertEquals(0, retryPolicy.getAvailableRetries());
+		}
+
+		for(int i = 0; i < 3; i++) {
+			new FailingRetrier(serviceUnavailable(), 0).executeWithRetries();
+		}
+
+		assertEquals(2, retryPolicy.getAvailableRetries());
+		assertEquals(1, retryMetrics.getExhaustedCount());
+	}
+
+	@Test
+	public void executeWithRetries_should_not_retry_past_the_operation_timeout() {
+		retryPolicy.setBaseDelayMillis(1000);
+		retryPolicy.setMaxDelayMillis(1000);
+		retryPolicy.setOperationTimeoutMillis(500);
+		FailingRetrier retrier = new FailingRetrier(serviceUnavailable(), 1);
+
+		try {
+			retrier.executeWithRetries();
+			fail("The retry should not start after the timeout");
+		} catch(DataAccessResourceFailureException e) {
+			assertEquals(1, retrier.attempts);
+			assertEquals(1, retryMetrics.getDeadlineExceededCount());
+		}
+	}
+
+	@Test
+	public void retry_delays_should_grow_with_jitter_between_bounds() {
+		retryPolicy.setBaseDelayMillis(100);
+		retryPolicy.setMaxDelayMillis(1000);
+
+		long delay = 0;
+		for(int retry = 1; retry <= 10; retry++) {
+			long nextDelay = retryPolicy.getRetryDelayMillis(retry, delay);
+			assertTrue(nextDelay >= 100);
+			assertTrue(nextDelay <= Math.min(1000, Math.max(100, delay) * 3));
+			delay = nextDelay;
+		}
+		assertFalse(retryPolicy.isRetryable(new AmazonClientException("Unable to unmarshall response")));
+	}
+
+	private static AmazonServiceException serviceUnavailable() {
+		AmazonServiceException serviceException = new AmazonServiceException("Service unavailable");
+		serviceException.setStatusCode(AbstractServiceUnavailableOperationRetrier.SERVICE_UNAVAILABLE_STATUS_CODE);
+		serviceException.setErrorType(AmazonServiceException.ErrorType.Service);
+		return serviceException;
+	}
+
+	/*
+	 * Throws the failure on the first attempts, then succeeds.
+	 */
+	private final class FailingRetrier extends AbstractServiceUnavailableOperationRetrier {
+
+		private final AmazonClientException failure;
+		private final int failedAttempts;
+		private int attempts;
+
+		private FailingRetrier(AmazonClientException failure, int failedAttempts) {
+			this(failure, failedAttempts, true);
+		}
+
+		private FailingRetrier(AmazonClientException failure, int failedAttempts, boolean idempotent) {
+			super(SERVICE_UNAVAILABLE_RETRIES, retryPolicy, retryMetrics, idempotent);
+			this.failure = failure;
+			this.failedAttempts = failedAttempts;
+		}
+
+		@Override
+		public void execute() {
+			attempts++;
+			if(attempts <= failedAttempts) {
+				throw failure;
+			}
+		}
+	}
 }
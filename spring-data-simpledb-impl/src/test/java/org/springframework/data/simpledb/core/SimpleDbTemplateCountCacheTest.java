@@ -0,0 +1,74 @@
+package org.springframework.data.simpledb.core;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.simpledb.core.domain.SimpleDbSampleEntity;
+
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.Item;
+import com.amazonaws.services.simpledb.model.SelectRequest;
+import com.amazonaws.services.simpledb.model.SelectResult;
+
+public class SimpleDbTemplateCountCacheTest extends AbstractSimpleDbTemplateTest {
+
+	private static final String QUERY = "select * from `simpleDbSampleEntity` where age > '1'";
+
+	@Before
+	public void setUp() {
+		simpleDb.setCountCacheSize(10);
+	}
+
+	@Test
+	public void repeated_count_should_be_read_from_cache() {
+		when(sdb.select(any(SelectRequest.class))).thenReturn(count(42, null));
+
+		assertEquals(42, template.count(QUERY, SimpleDbSampleEntity.class));
+		assertEquals(42, template.count(QUERY, SimpleDbSampleEntity.class));
+
+		verify(sdb, times(1)).select(any(SelectRequest.class));
+		assertEquals(1, simpleDb.getCountCache().getHitCount());
+	}
+
+	@Test
+	public void write_should_invalidate_counts_of_domain() {
+		when(sdb.select(any(SelectRequest.class))).thenReturn(count(42, null), count(43, null));
+		assertEquals(42, template.count(QUERY, SimpleDbSampleEntity.class));
+
+		SimpleDbSampleEntity entity = new SimpleDbSampleEntity();
+		entity.setItemName("item");
+		template.createOrUpdate(entity);
+
+		assertEquals(43, template.count(QUERY, SimpleDbSampleEntity.class));
+		verify(sdb, times(2)).select(any(SelectRequest.class));
+	}
+
+	@Test
+	public void consistent_count_should_not_be_cached() {
+		when(sdb.select(any(SelectRequest.class))).thenReturn(count(42, null));
+
+		template.count(QUERY, SimpleDbSampleEntity.class, true);
+		template.count(QUERY, SimpleDbSampleEntity.class, true);
+
+		verify(sdb, times(2)).select(any(SelectRequest.class));
+	}
+
+	@Test
+	public void partial_counts_should_be_summed() {
+		simpleDb.setCountCacheSize(0);
+		when(sdb.select(any(SelectRequest.class))).thenReturn(count(40, "token"), count(2, null));
+
+		assertEquals(42, template.count(QUERY, SimpleDbSampleEntity.class));
+		verify(sdb, times(2)).select(any(SelectRequest.class));
+	}
+
+	private static SelectResult count(long count, String nextToken) {
+		Item item = new Item("Domain", Arrays.asList(new Attribute("Count", String.valueOf(count))));
+		return new SelectResult().withItems(item).withNextToken(nextToken);
+	}
+}
@@ -0,0 +1,183 @@
+package org.springframework.data.simpledb.core;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.simpledb.annotation.CachedEntity;
+
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.GetAttributesRequest;
+import com.amazonaws.services.simpledb.model.GetAttributesResult;
+
+public class SimpleDbTemplateEntityCacheTest extends AbstractSimpleDbTemplateTest {
+
+	@Before
+	public void setUp() {
+		simpleDb.setEntityCacheSize(10);
+	}
+
+	@Test
+	public void repeated_read_should_be_served_from_the_cache() {
+		when(sdb.getAttributes(any(GetAttributesRequest.class))).thenReturn(attributes("first"));
+
+		Product product = template.read("p1", Product.class);
+		Product cachedProduct = template.read("p1", Product.class);
+
+		assertNotSame(product, cachedProduct);
+		assertEquals("first", cachedProduct.getName());
+		verify(sdb, times(1)).getAttributes(any(GetAttributesRequest.class));
+		assertEquals(1, simpleDb.getEntityCache(Product.class).getHitCount());
+	}
+
+	@Test
+	public void consistent_read_should_skip_and_refresh_the_cache() {
+		when(sdb.getAttributes(any(GetAttributesRequest.class))).thenReturn(attributes("first"), attributes("second"));
+
+		template.read("p1", Product.class);
+		assertEquals("second", template.read("p1", Product.class, true).getName());
+
+		assertEquals("second", template.read("p1", Product.class).getName());
+		verify(sdb, times(2)).getAttributes(any(GetAttributesRequest.class));
+	}
+
+	@Test
+	public void saved_entity_should_be_written_through() {
+		Product product = new Product();
+		product.setId("p1");
+		product.setName("saved");
+
+		template.createOrUpdate(product);
+		Product cachedProduct = template.read("p1", Product.class);
+
+		assertNotSame(product, cachedProduct);
+		assertEquals("saved", cachedProduct.getName());
+		verify(sdb, never()).getAttributes(any(GetAttributesRequest.class));
+	}
+
+	@Test
+	public void changes_of_read_and_saved_instances_should_not_reach_the_cache() {
+		Product product = new Product();
+		product.setId("p1");
+		product.setName("saved");
+		template.createOrUpdate(product);
+
+		product.setName("changed after save");
+		template.read("p1", Product.class).setName("changed after read");
+
+		assertEquals("saved", template.read("p1", Product.class).getName());
+	}
+
+	@Test
+	public void updated_and_deleted_entities_should_be_read_again() {
+		when(sdb.getAttributes(any(GetAttributesRequest.class))).thenReturn(attributes("first"));
+
+		template.read("p1", Product.class);
+		template.update("p1", Product.class, Collections.singletonMap("name", "updated"));
+		template.read("p1", Product.class);
+		template.delete(Product.class, "p1");
+		template.read("p1", Product.class);
+		template.delete(Product.class, Arrays.asList("p1"));
+		template.read("p1", Product.class);
+
+		verify(sdb, times(4)).getAttributes(any(GetAttributesRequest.class));
+	}
+
+	@Test
+	public void read_overlapping_a_write_should_not_be_cached() {
+		EntityCache entityCache = simpleDb.getEntityCache(Product.class);
+		long generation = entityCache.getGeneration();
+
+		entityCache.invalidate("p1");
+		entityCache.put("p1", Product.class, Collections.singletonMap("name", Arrays.asList("first")), generation);
+
+		assertNull(entityCache.get("p1", Product.class));
+	}
+
+	@Test
+	public void annotation_should_override_the_entity_cache_settings() {
+		simpleDb.setEntityCacheSize(0);
+		when(sdb.getAttributes(any(GetAttributesRequest.class))).thenReturn(attributes("first"), attributes("first"),
+				attributes("category"));
+
+		template.read("p1", Product.class);
+		template.read("p1", Product.class);
+		template.read("c1", Category.class);
+		template.read("c1", Category.class);
+
+		verify(sdb, times(3)).getAttributes(any(GetAttributesRequest.class));
+		assertNull(simpleDb.getEntityCache(Product.class));
+		assertEquals(1, simpleDb.getEntityCache(Category.class).getMaxSize());
+	}
+
+	@Test
+	public void entity_cache_of_a_class_should_be_resolved_again_after_a_settings_change() {
+		EntityCache entityCache = simpleDb.getEntityCache(Product.class);
+		assertSame(entityCache, simpleDb.getEntityCache(Product.class));
+
+		simpleDb.setEntityCacheSize(0);
+		assertNull(simpleDb.getEntityCache(Product.class));
+		assertNull(simpleDb.getEntityCache(Product.class));
+
+		simpleDb.setEntityCacheSize(5);
+		assertEquals(5, simpleDb.getEntityCache(Product.class).getMaxSize());
+		assertNotSame(entityCache, simpleDb.getEntityCache(Product.class));
+	}
+
+	private static GetAttributesResult attributes(String name) {
+		return new GetAttributesResult().withAttributes(new Attribute("name", name));
+	}
+
+	public static class Product {
+
+		@Id
+		private String id;
+		private String name;
+
+		public String getId() {
+			return id;
+		}
+
+		public void setId(String id) {
+			this.id = id;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+
+	@CachedEntity(maxSize = 1)
+	public static class Category {
+
+		@Id
+		private String id;
+		private String name;
+
+		public String getId() {
+			return id;
+		}
+
+		public void setId(String id) {
+			this.id = id;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+}
@@ -0,0 +1,124 @@
+package org.springframework.data.simpledb.core;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.simpledb.core.domain.SimpleDbSampleEntity;
+
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.Item;
+import com.amazonaws.services.simpledb.model.SelectRequest;
+import com.amazonaws.services.simpledb.model.SelectResult;
+
+public class SimpleDbTemplatePageTokenCacheTest extends AbstractSimpleDbTemplateTest {
+
+	private static final String QUERY = "select * from `simpleDbSampleEntity`";
+	private static final int PAGE_SIZE = 2;
+	private static final Pattern LIMIT = Pattern.compile(" limit (\\d+)$");
+
+	private final List<SelectRequest> countRequests = new ArrayList<SelectRequest>();
+	private final List<SelectRequest> pageRequests = new ArrayList<SelectRequest>();
+
+	@Before
+	public void setUp() {
+		simpleDb.setPageTokenCacheSize(10);
+
+		when(sdb.select(any(SelectRequest.class))).thenAnswer(new PagedDomain());
+	}
+
+	@Test
+	public void adjacent_page_should_start_at_cached_token_without_offset_count() {
+		template.executePagedQuery(SimpleDbSampleEntity.class, QUERY, new PageRequest(2, PAGE_SIZE));
+		assertEquals(1, offsetCountRequests().size());
+
+		Page<SimpleDbSampleEntity> page = template.executePagedQuery(SimpleDbSampleEntity.class, QUERY,
+				new PageRequest(3, PAGE_SIZE));
+
+		assertEquals("6", page.getContent().get(0).getItemName());
+		assertEquals(1, offsetCountRequests().size());
+		assertEquals("6", pageRequests.get(1).getNextToken());
+		assertEquals(1, simpleDb.getPageTokenCache().getHitCount());
+	}
+
+	@Test
+	public void deep_page_should_count_from_closest_cached_page() {
+		template.executePagedQuery(SimpleDbSampleEntity.class, QUERY, new PageRequest(1, PAGE_SIZE));
+
+		Page<SimpleDbSampleEntity> page = template.executePagedQuery(SimpleDbSampleEntity.class, QUERY,
+				new PageRequest(4, PAGE_SIZE));
+
+		assertEquals("8", page.getContent().get(0).getItemName());
+
+		SelectRequest offsetCount = offsetCountRequests().get(1);
+		assertTrue(offsetCount.getSelectExpression().endsWith("limit 4"));
+		assertEquals("4", offsetCount.getNextToken());
+	}
+
+	@Test
+	public void pages_should_not_be_cached_when_disabled() {
+		simpleDb.setPageTokenCacheSize(0);
+
+		template.executePagedQuery(SimpleDbSampleEntity.class, QUERY, new PageRequest(2, PAGE_SIZE));
+		template.executePagedQuery(SimpleDbSampleEntity.class, QUERY, new PageRequest(3, PAGE_SIZE));
+
+		assertNull(simpleDb.getPageTokenCache());
+		assertEquals(2, offsetCountRequests().size());
+		assertNull(offsetCountRequests().get(1).getNextToken());
+	}
+
+	private List<SelectRequest> offsetCountRequests() {
+		List<SelectRequest> offsetCounts = new ArrayList<SelectRequest>();
+		for(SelectRequest request : countRequests) {
+			if(request.getSelectExpression().contains("limit")) {
+				offsetCounts.add(request);
+			}
+		}
+
+		return offsetCounts;
+	}
+
+	/*
+	 * A domain of 20 items named after their position; tokens are the position of the next item.
+	 */
+	private final class PagedDomain implements Answer<SelectResult> {
+
+		private static final int ITEMS = 20;
+
+		@Override
+		public SelectResult answer(InvocationOnMock invocation) {
+			SelectRequest request = (SelectRequest) invocation.getArguments()[0];
+			String expression = request.getSelectExpression();
+			int start = request.getNextToken() == null ? 0 : Integer.parseInt(request.getNextToken());
+
+			Matcher limit = LIMIT.matcher(expression);
+			int end = Math.min(start + (limit.find() ? Integer.parseInt(limit.group(1)) : ITEMS), ITEMS);
+			String nextToken = end < ITEMS ? String.valueOf(end) : null;
+
+			if(expression.contains("count(*)")) {
+				countRequests.add(request);
+				Item count = new Item("Domain", Arrays.asList(new Attribute("Count", String.valueOf(end - start))));
+				return new SelectResult().withItems(count).withNextToken(nextToken);
+			}
+
+			pageRequests.add(request);
+			List<Item> items = new ArrayList<Item>();
+			for(int i = start; i < end; i++) {
+				items.add(new Item(String.valueOf(i), Arrays.asList(new Attribute("age", "5"))));
+			}
+			return new SelectResult().withItems(items).withNextToken(nextToken);
+		}
+	}
+}
@@ -0,0 +1,177 @@
+package org.springframework.data.simpledb.core;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.simpledb.core.domain.SimpleDbSampleEntity;
+
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.Item;
+import com.amazonaws.services.simpledb.model.SelectRequest;
+import com.amazonaws.services.simpledb.model.SelectResult;
+
+public class SimpleDbTemplateParallelScanTest extends AbstractSimpleDbTemplateTest {
+
+	private static final Pattern LOWER_BOUND = Pattern.compile("itemName\\(\\) >= '([^']*)'");
+	private static final Pattern UPPER_BOUND = Pattern.compile("itemName\\(\\) < '([^']*)'");
+	private static final int ITEMS = 50;
+	private static final int PAGE_SIZE = 3;
+
+	private final List<String> itemNames = new ArrayList<String>();
+	private final List<String> expressions = Collections.synchronizedList(new ArrayList<String>());
+
+	@Before
+	public void setUp() {
+		for(int i = 0; i < ITEMS; i++) {
+			itemNames.add(UUID.randomUUID().toString());
+		}
+		itemNames.add("Legacy-name");
+		itemNames.add("zz-last");
+		Collections.sort(itemNames);
+
+		when(sdb.select(any(SelectRequest.class))).thenAnswer(new RangedDomain());
+	}
+
+	@Test
+	public void every_item_should_be_scanned_once_across_segments() {
+		final Set<String> scanned = Collections.synchronizedSet(new HashSet<String>());
+		final List<String> duplicates = Collections.synchronizedList(new ArrayList<String>());
+
+		long count = template.parallelScan(SimpleDbSampleEntity.class, null, 16,
+				new ItemCallback<SimpleDbSampleEntity>() {
+
+					@Override
+					public void doWithItem(SimpleDbSampleEntity item) {
+						if(!scanned.add(item.getItemName())) {
+							duplicates.add(item.getItemName());
+						}
+					}
+				});
+
+		assertEquals(itemNames.size(), count);
+		assertEquals(new HashSet<String>(itemNames), scanned);
+		assertTrue(duplicates.isEmpty());
+	}
+
+	@Test
+	public void where_clause_should_be_kept_in_each_segment() {
+		template.parallelScan(SimpleDbSampleEntity.class, "age > '5' or age < '2'", 4,
+				new ItemCallback<Object>() {
+
+					@Override
+					public void doWithItem(Object item) {
+						// counted only
+					}
+				});
+
+		assertTrue(expressions.contains("select * from `simpleDbSampleEntity` where (age > '5' or age < '2')"
+				+ " and itemName() >= '4' and itemName() < '8'"));
+		assertTrue(expressions.contains("select * from `simpleDbSampleEntity` where (age > '5' or age < '2')"
+				+ " and itemName() < '4'"));
+	}
+
+	@Test
+	public void callback_failure_should_stop_scan() {
+		try {
+			template.parallelScan(SimpleDbSampleEntity.class, null, 8, new ItemCallback<SimpleDbSampleEntity>() {
+
+				@Override
+				public void doWithItem(SimpleDbSampleEntity item) {
+					throw new IllegalStateException("reindexing failed");
+				}
+			});
+			fail("Callback failure should be rethrown");
+		} catch(IllegalStateException e) {
+			assertEquals("reindexing failed", e.getMessage());
+		}
+	}
+
+	@Test
+	public void interrupted_scan_should_fail_instead_of_returning_a_partial_count() {
+		simpleDb.setScanPoolSize(1);
+
+		try {
+			template.parallelScan(SimpleDbSampleEntity.class, null, 4, new ItemCallback<Object>() {
+
+				@Override
+				public void doWithItem(Object item) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			fail("Interrupted scan should fail");
+		} catch(DataAccessResourceFailureException e) {
+			assertTrue(Thread.interrupted());
+		}
+	}
+
+	@Test
+	public void segments_should_be_scanned_on_caller_thread_without_pool() {
+		simpleDb.setScanPoolSize(1);
+		final Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+
+		long count = template.parallelScan(SimpleDbSampleEntity.class, null, 4, new ItemCallback<Object>() {
+
+			@Override
+			public void doWithItem(Object item) {
+				threads.add(Thread.currentThread());
+			}
+		});
+
+		assertEquals(itemNames.size(), count);
+		assertEquals(Collections.singleton(Thread.currentThread()), threads);
+	}
+
+	/*
+	 * Answers the item names within the range of the select, in pages of 3 items; tokens are the position of the
+	 * next item within the range.
+	 */
+	private final class RangedDomain implements Answer<SelectResult> {
+
+		@Override
+		public SelectResult answer(InvocationOnMock invocation) {
+			SelectRequest request = (SelectRequest) invocation.getArguments()[0];
+			String expression = request.getSelectExpression();
+			if(request.getNextToken() == null) {
+				expressions.add(expression);
+			}
+
+			Matcher lower = LOWER_BOUND.matcher(expression);
+			Matcher upper = UPPER_BOUND.matcher(expression);
+			String lowerBound = lower.find() ? lower.group(1) : null;
+			String upperBound = upper.find() ? upper.group(1) : null;
+
+			List<String> range = new ArrayList<String>();
+			for(String itemName : itemNames) {
+				if((lowerBound == null || itemName.compareTo(lowerBound) >= 0)
+						&& (upperBound == null || itemName.compareTo(upperBound) < 0)) {
+					range.add(itemName);
+				}
+			}
+
+			int start = request.getNextToken() == null ? 0 : Integer.parseInt(request.getNextToken());
+			int end = Math.min(start + PAGE_SIZE, range.size());
+
+			List<Item> items = new ArrayList<Item>();
+			for(String itemName : range.subList(start, end)) {
+				items.add(new Item(itemName, Arrays.asList(new Attribute("age", "5"))));
+			}
+			return new SelectResult().withItems(items).withNextToken(end < range.size() ? String.valueOf(end) : null);
+		}
+	}
+}
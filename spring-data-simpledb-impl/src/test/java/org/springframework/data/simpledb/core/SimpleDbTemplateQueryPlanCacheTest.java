@@ -0,0 +1,144 @@
+package org.springframework.data.simpledb.core;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.simpledb.core.domain.SimpleDbSampleEntity;
+import org.springframework.data.simpledb.exception.InvalidSimpleDBQueryException;
+
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.Item;
+import com.amazonaws.services.simpledb.model.SelectRequest;
+import com.amazonaws.services.simpledb.model.SelectResult;
+
+public class SimpleDbTemplateQueryPlanCacheTest extends AbstractSimpleDbTemplateTest {
+
+	private static final String QUERY = "select * from `simpleDbSampleEntity` where itemName = 'a'";
+	private static final String ESCAPED_QUERY = "select * from `simpleDbSampleEntity` where itemName() = 'a'";
+
+	@Test
+	public void repeated_query_should_reuse_its_plan() {
+		when(sdb.select(any(SelectRequest.class))).thenReturn(new SelectResult());
+
+		template.find(SimpleDbSampleEntity.class, QUERY);
+		template.find(SimpleDbSampleEntity.class, QUERY);
+
+		assertEquals(1, simpleDb.getQueryPlanCache().size());
+		assertEquals(1, simpleDb.getQueryPlanCache().getHitCount());
+
+		ArgumentCaptor<SelectRequest> requests = ArgumentCaptor.forClass(SelectRequest.class);
+		verify(sdb, times(2)).select(requests.capture());
+		for(SelectRequest request : requests.getAllValues()) {
+			assertEquals(ESCAPED_QUERY, request.getSelectExpression());
+		}
+	}
+
+	@Test
+	public void count_should_reuse_the_plan_of_the_query() {
+		when(sdb.select(any(SelectRequest.class))).thenReturn(new SelectResult(), count(1));
+
+		template.find(SimpleDbSampleEntity.class, QUERY);
+		assertEquals(1, template.count(QUERY, SimpleDbSampleEntity.class));
+
+		assertEquals(1, simpleDb.getQueryPlanCache().getHitCount());
+
+		ArgumentCaptor<SelectRequest> requests = ArgumentCaptor.forClass(SelectRequest.class);
+		verify(sdb, times(2)).select(requests.capture());
+		assertEquals("select count(*) from  `simpleDbSampleEntity` where itemName() = 'a'", requests.getAllValues()
+				.get(1).getSelectExpression());
+	}
+
+	@Test
+	public void invalid_query_should_not_be_cached() {
+		for(int i = 0; i < 2; i++) {
+			try {
+				template.find(SimpleDbSampleEntity.class, "select * from");
+				fail("invalid query");
+			} catch(InvalidSimpleDBQueryException e) {
+				assertTrue(e.getMessage().contains("select * from"));
+			}
+		}
+
+		assertEquals(0, simpleDb.getQueryPlanCache().size());
+		verify(sdb, never()).select(any(SelectRequest.class));
+	}
+
+	@Test
+	public void queries_should_be_planned_on_each_call_without_cache() {
+		simpleDb.setQueryPlanCacheSize(0);
+		when(sdb.select(any(SelectRequest.class))).thenReturn(new SelectResult());
+
+		List<SimpleDbSampleEntity> result = template.find(SimpleDbSampleEntity.class, QUERY);
+
+		assertTrue(result.isEmpty());
+		assertNull(simpleDb.getQueryPlanCache());
+		verify(sdb).select(any(SelectRequest.class));
+	}
+
+	@Test
+	public void queries_with_other_values_should_share_a_plan() {
+		when(sdb.select(any(SelectRequest.class))).thenReturn(new SelectResult());
+
+		template.find(SimpleDbSampleEntity.class, QUERY);
+		template.find(SimpleDbSampleEntity.class, "select * from `simpleDbSampleEntity` where itemName = 'it''s'");
+
+		assertEquals(1, simpleDb.getQueryPlanCache().size());
+		assertEquals(1, simpleDb.getQueryPlanCache().getHitCount());
+
+		ArgumentCaptor<SelectRequest> requests = ArgumentCaptor.forClass(SelectRequest.class);
+		verify(sdb, times(2)).select(requests.capture());
+		assertEquals("select * from `simpleDbSampleEntity` where itemName() = 'it''s'", requests.getAllValues().get(1)
+				.getSelectExpression());
+	}
+
+	@Test
+	public void like_patterns_of_another_shape_should_be_planned_apart() {
+		when(sdb.select(any(SelectRequest.class))).thenReturn(new SelectResult());
+
+		template.find(SimpleDbSampleEntity.class, "select * from `simpleDbSampleEntity` where itemName like 'a%'");
+		template.find(SimpleDbSampleEntity.class, "select * from `simpleDbSampleEntity` where itemName like 'b%'");
+		template.find(SimpleDbSampleEntity.class, "select * from `simpleDbSampleEntity` where itemName like '%b'");
+
+		assertEquals(2, simpleDb.getQueryPlanCache().size());
+		assertEquals(1, simpleDb.getQueryPlanCache().getHitCount());
+	}
+
+	@Test
+	public void selects_built_by_the_template_should_not_be_cached() {
+		when(sdb.select(any(SelectRequest.class))).thenReturn(new SelectResult());
+
+		template.readAll(Arrays.asList("a", "b"), SimpleDbSampleEntity.class, false);
+		template.count(SimpleDbSampleEntity.class);
+
+		assertEquals(0, simpleDb.getQueryPlanCache().size());
+		assertEquals(0, simpleDb.getQueryPlanCache().getMissCount());
+	}
+
+	@Test
+	public void full_cache_should_evict_the_least_recently_used_plan() {
+		simpleDb.setQueryPlanCacheSize(2);
+		when(sdb.select(any(SelectRequest.class))).thenReturn(new SelectResult());
+
+		template.find(SimpleDbSampleEntity.class, QUERY);
+		template.find(SimpleDbSampleEntity.class, QUERY + " and age > '1'");
+		template.find(SimpleDbSampleEntity.class, QUERY);
+		template.find(SimpleDbSampleEntity.class, QUERY + " and age < '1'");
+		template.find(SimpleDbSampleEntity.class, QUERY);
+
+		assertEquals(2, simpleDb.getQueryPlanCache().size());
+		assertEquals(1, simpleDb.getQueryPlanCache().getEvictionCount());
+		assertEquals(2, simpleDb.getQueryPlanCache().getHitCount());
+		assertSame(simpleDb.getQueryPlanCache(), simpleDb.getQueryPlanCache());
+	}
+
+	private static SelectResult count(long count) {
+		Item item = new Item("Domain", Arrays.asList(new Attribute("Count", String.valueOf(count))));
+		return new SelectResult().withItems(item);
+	}
+}
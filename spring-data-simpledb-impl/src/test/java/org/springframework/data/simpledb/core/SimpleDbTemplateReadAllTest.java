@@ -0,0 +1,141 @@
+package org.springframework.data.simpledb.core;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.data.simpledb.core.domain.SimpleDbSampleEntity;
+
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.Item;
+import com.amazonaws.services.simpledb.model.SelectRequest;
+import com.amazonaws.services.simpledb.model.SelectResult;
+
+public class SimpleDbTemplateReadAllTest extends AbstractSimpleDbTemplateTest {
+
+	private static final Pattern IN_VALUES = Pattern.compile("itemName\\(\\) in \\(([^)]*)\\)");
+	private static final int ITEMS = 45;
+	private static final int PAGE_SIZE = 3;
+
+	private final List<String> itemNames = new ArrayList<String>();
+	private final List<String> expressions = Collections.synchronizedList(new ArrayList<String>());
+
+	@Before
+	public void setUp() {
+		for(int i = 0; i < ITEMS; i++) {
+			itemNames.add(UUID.randomUUID().toString());
+		}
+
+		when(sdb.select(any(SelectRequest.class))).thenAnswer(new InListDomain());
+	}
+
+	@Test
+	public void ids_should_be_read_in_chunks_of_in_predicates() {
+		List<String> ids = new ArrayList<String>(itemNames);
+		ids.add("missing");
+
+		List<SimpleDbSampleEntity> entities = template.readAll(ids, SimpleDbSampleEntity.class, false);
+
+		assertEquals(new HashSet<String>(itemNames), itemNamesOf(entities));
+		assertEquals(ITEMS, entities.size());
+		assertEquals(3, expressions.size());
+		for(String expression : expressions) {
+			assertTrue(expression.startsWith("select * from `simpleDbSampleEntity` where itemName() in ("));
+		}
+	}
+
+	@Test
+	public void entities_should_follow_the_ids_on_request() {
+		List<String> ids = new ArrayList<String>(itemNames);
+		Collections.shuffle(ids);
+		ids.add(7, "missing");
+
+		List<SimpleDbSampleEntity> entities = template.readAll(ids, SimpleDbSampleEntity.class, true);
+
+		ids.remove("missing");
+		List<String> readItemNames = new ArrayList<String>();
+		for(SimpleDbSampleEntity entity : entities) {
+			readItemNames.add(entity.getItemName());
+		}
+		assertEquals(ids, readItemNames);
+	}
+
+	@Test
+	public void duplicate_ids_should_be_read_once() {
+		String itemName = itemNames.get(0);
+
+		List<SimpleDbSampleEntity> entities = template.readAll(Arrays.asList(itemName, itemName),
+				SimpleDbSampleEntity.class, true);
+
+		assertEquals(1, entities.size());
+		assertEquals(Arrays.asList("select * from `simpleDbSampleEntity` where itemName() in ('" + itemName + "')"),
+				expressions);
+	}
+
+	@Test
+	public void no_ids_should_not_select() {
+		assertTrue(template.readAll(Collections.emptyList(), SimpleDbSampleEntity.class, false).isEmpty());
+
+		verify(sdb, never()).select(any(SelectRequest.class));
+	}
+
+	private static HashSet<String> itemNamesOf(List<SimpleDbSampleEntity> entities) {
+		HashSet<String> names = new HashSet<String>();
+		for(SimpleDbSampleEntity entity : entities) {
+			names.add(entity.getItemName());
+		}
+		return names;
+	}
+
+	/*
+	 * Answers the stored item names of the in predicate in reverse order, in pages of 3 items; tokens are the
+	 * position of the next item.
+	 */
+	private final class InListDomain implements Answer<SelectResult> {
+
+		@Override
+		public SelectResult answer(InvocationOnMock invocation) {
+			SelectRequest request = (SelectRequest) invocation.getArguments()[0];
+			String expression = request.getSelectExpression();
+			if(request.getNextToken() == null) {
+				expressions.add(expression);
+			}
+
+			Matcher values = IN_VALUES.matcher(expression);
+			assertTrue(values.find());
+
+			List<String> selected = new ArrayList<String>();
+			String[] quotedNames = values.group(1).split(",");
+			assertTrue(quotedNames.length <= QueryBuilder.MAX_IN_VALUES);
+			for(String quotedName : quotedNames) {
+				String itemName = quotedName.substring(1, quotedName.length() - 1);
+				if(itemNames.contains(itemName)) {
+					selected.add(0, itemName);
+				}
+			}
+
+			int start = request.getNextToken() == null ? 0 : Integer.parseInt(request.getNextToken());
+			int end = Math.min(start + PAGE_SIZE, selected.size());
+
+			List<Item> items = new ArrayList<Item>();
+			for(String itemName : selected.subList(start, end)) {
+				items.add(new Item(itemName, Arrays.asList(new Attribute("age", "5"))));
+			}
+			return new SelectResult().withItems(items)
+					.withNextToken(end < selected.size() ? String.valueOf(end) : null);
+		}
+	}
+}
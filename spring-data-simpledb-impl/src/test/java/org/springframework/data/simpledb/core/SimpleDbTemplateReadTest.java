@@ -0,0 +1,159 @@
+package org.springframework.data.simpledb.core;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.simpledb.attributeutil.SimpleDBAttributeConverter;
+
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.GetAttributesRequest;
+import com.amazonaws.services.simpledb.model.GetAttributesResult;
+import com.amazonaws.services.simpledb.model.Item;
+import com.amazonaws.services.simpledb.model.SelectRequest;
+import com.amazonaws.services.simpledb.model.SelectResult;
+
+public class SimpleDbTemplateReadTest extends AbstractSimpleDbTemplateTest {
+
+	@Test
+	public void read_should_get_the_attributes_of_the_item() {
+		when(sdb.getAttributes(any(GetAttributesRequest.class))).thenReturn(
+				new GetAttributesResult().withAttributes(new Attribute("name", "john"), new Attribute("age",
+						SimpleDBAttributeConverter.encode(42))));
+
+		Counter counter = template.read("c1", Counter.class, true);
+
+		assertEquals("c1", counter.getId());
+		assertEquals("john", counter.getName());
+		assertEquals(42, counter.getAge());
+
+		GetAttributesRequest request = captureRequests(1).get(0);
+		assertEquals("counter", request.getDomainName());
+		assertEquals("c1", request.getItemName());
+		assertTrue(request.getAttributeNames().isEmpty());
+		assertTrue(request.isConsistentRead());
+		verify(sdb, never()).select(any(SelectRequest.class));
+	}
+
+	@Test
+	public void read_of_missing_item_should_return_null() {
+		when(sdb.getAttributes(any(GetAttributesRequest.class))).thenReturn(new GetAttributesResult());
+
+		assertNull(template.read("c1", Counter.class));
+		assertFalse(captureRequests(1).get(0).isConsistentRead());
+	}
+
+	@Test
+	public void exists_should_only_get_an_attribute_written_with_every_entity() {
+		when(sdb.getAttributes(any(GetAttributesRequest.class))).thenReturn(
+				new GetAttributesResult().withAttributes(new Attribute("age", SimpleDBAttributeConverter.encode(1))));
+
+		assertTrue(template.exists("c1", Counter.class));
+
+		assertEquals(Arrays.asList("age"), captureRequests(1).get(0).getAttributeNames());
+		verify(sdb, never()).select(any(SelectRequest.class));
+	}
+
+	@Test
+	public void exists_of_missing_item_should_return_false_after_a_single_request() {
+		when(sdb.getAttributes(any(GetAttributesRequest.class))).thenReturn(new GetAttributesResult());
+
+		assertFalse(template.exists("c1", Counter.class));
+
+		assertEquals(Arrays.asList("age"), captureRequests(1).get(0).getAttributeNames());
+	}
+
+	@Test
+	public void exists_without_an_always_written_attribute_should_get_all_attributes() {
+		when(sdb.getAttributes(any(GetAttributesRequest.class))).thenReturn(new GetAttributesResult());
+
+		assertFalse(template.exists("n1", Note.class, true));
+
+		GetAttributesRequest request = captureRequests(1).get(0);
+		assertEquals(Collections.emptyList(), request.getAttributeNames());
+		assertTrue(request.isConsistentRead());
+	}
+
+	@Test
+	public void batched_read_should_select_the_item_names() {
+		simpleDb.setReadBatchWindowMillis(1);
+		template = new SimpleDbTemplate(simpleDb);
+		when(sdb.select(any(SelectRequest.class))).thenReturn(
+				new SelectResult().withItems(new Item("c1", Arrays.asList(new Attribute("name", "john")))));
+
+		assertEquals("john", template.read("c1", Counter.class).getName());
+
+		ArgumentCaptor<SelectRequest> select = ArgumentCaptor.forClass(SelectRequest.class);
+		verify(sdb).select(select.capture());
+		assertTrue(select.getValue().getSelectExpression().contains("itemName() in ('c1')"));
+		verify(sdb, never()).getAttributes(any(GetAttributesRequest.class));
+	}
+
+	private List<GetAttributesRequest> captureRequests(int count) {
+		ArgumentCaptor<GetAttributesRequest> requests = ArgumentCaptor.forClass(GetAttributesRequest.class);
+		verify(sdb, times(count)).getAttributes(requests.capture());
+		return requests.getAllValues();
+	}
+
+	public static class Counter {
+
+		@Id
+		private String id;
+		private String name;
+		private int age;
+
+		public String getId() {
+			return id;
+		}
+
+		public void setId(String id) {
+			this.id = id;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public int getAge() {
+			return age;
+		}
+
+		public void setAge(int age) {
+			this.age = age;
+		}
+	}
+
+	public static class Note {
+
+		@Id
+		private String id;
+		private String text;
+
+		public String getId() {
+			return id;
+		}
+
+		public void setId(String id) {
+			this.id = id;
+		}
+
+		public String getText() {
+			return text;
+		}
+
+		public void setText(String text) {
+			this.text = text;
+		}
+	}
+}
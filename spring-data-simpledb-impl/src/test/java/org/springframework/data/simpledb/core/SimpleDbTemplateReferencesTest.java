@@ -0,0 +1,202 @@
+package org.springframework.data.simpledb.core;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Reference;
+
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.GetAttributesRequest;
+import com.amazonaws.services.simpledb.model.GetAttributesResult;
+import com.amazonaws.services.simpledb.model.Item;
+import com.amazonaws.services.simpledb.model.PutAttributesRequest;
+import com.amazonaws.services.simpledb.model.SelectRequest;
+import com.amazonaws.services.simpledb.model.SelectResult;
+
+public class SimpleDbTemplateReferencesTest extends AbstractSimpleDbTemplateTest {
+
+	private static final String BOOKS_QUERY = "select * from `book`";
+	private static final Pattern ITEM_NAME = Pattern.compile("'([^']*)'");
+
+	private List<Item> books;
+
+	@Before
+	public void setUp() {
+		books = new ArrayList<Item>();
+
+		when(sdb.select(any(SelectRequest.class))).thenAnswer(new Answer<SelectResult>() {
+
+			@Override
+			public SelectResult answer(InvocationOnMock invocation) {
+				String query = ((SelectRequest) invocation.getArguments()[0]).getSelectExpression();
+				if(query.startsWith(BOOKS_QUERY)) {
+					return new SelectResult().withItems(books);
+				}
+
+				List<Item> authors = new ArrayList<Item>();
+				Matcher matcher = ITEM_NAME.matcher(query);
+				while(matcher.find()) {
+					authors.add(new Item(matcher.group(1), Arrays.asList(new Attribute("name", "name of "
+							+ matcher.group(1)))));
+				}
+				return new SelectResult().withItems(authors);
+			}
+		});
+		when(sdb.getAttributes(any(GetAttributesRequest.class))).thenAnswer(new Answer<GetAttributesResult>() {
+
+			@Override
+			public GetAttributesResult answer(InvocationOnMock invocation) {
+				String itemName = ((GetAttributesRequest) invocation.getArguments()[0]).getItemName();
+				return new GetAttributesResult().withAttributes(new Attribute("name", "name of " + itemName));
+			}
+		});
+	}
+
+	@Test
+	public void find_should_read_references_of_a_page_with_a_single_select() {
+		addBook("b1", "a1");
+		addBook("b2", "a2");
+		addBook("b3", "a1");
+
+		List<Book> result = template.find(Book.class, BOOKS_QUERY);
+
+		assertEquals(3, result.size());
+		assertEquals("name of a1", result.get(0).getAuthor().getName());
+		assertEquals("name of a2", result.get(1).getAuthor().getName());
+		assertSame(result.get(0).getAuthor(), result.get(2).getAuthor());
+
+		ArgumentCaptor<SelectRequest> requests = ArgumentCaptor.forClass(SelectRequest.class);
+		verify(sdb, times(2)).select(requests.capture());
+		assertEquals("select * from `author` where itemName() in ('a1','a2')", requests.getAllValues().get(1)
+				.getSelectExpression());
+	}
+
+	@Test
+	public void find_should_chunk_referenced_item_names() {
+		for(int i = 0; i < QueryBuilder.MAX_IN_VALUES + 5; i++) {
+			addBook("b" + i, "a" + i);
+		}
+
+		List<Book> result = template.find(Book.class, BOOKS_QUERY);
+
+		assertEquals(QueryBuilder.MAX_IN_VALUES + 5, result.size());
+		for(Book book : result) {
+			assertNotNull(book.getAuthor());
+		}
+		verify(sdb, times(3)).select(any(SelectRequest.class));
+	}
+
+	@Test
+	public void stream_should_read_references_per_page() {
+		addBook("b1", "a1");
+		addBook("b2", "a2");
+
+		CloseableIterator<Book> iterator = template.stream(Book.class, BOOKS_QUERY);
+
+		assertEquals("name of a1", iterator.next().getAuthor().getName());
+		assertEquals("name of a2", iterator.next().getAuthor().getName());
+		assertFalse(iterator.hasNext());
+		verify(sdb, times(2)).select(any(SelectRequest.class));
+	}
+
+	@Test
+	public void lazy_references_should_be_read_on_first_access() {
+		simpleDb.setLazyReferences(true);
+		addBook("b1", "a1");
+
+		Book book = template.find(Book.class, BOOKS_QUERY).get(0);
+		verify(sdb, times(1)).select(any(SelectRequest.class));
+
+		assertTrue(LazyReferences.isProxy(book.getAuthor()));
+		assertFalse(LazyReferences.isLoaded(book.getAuthor()));
+		assertEquals("a1", book.getAuthor().getId());
+		verify(sdb, times(1)).select(any(SelectRequest.class));
+
+		assertEquals("name of a1", book.getAuthor().getName());
+		assertTrue(LazyReferences.isLoaded(book.getAuthor()));
+		assertEquals("name of a1", book.getAuthor().getName());
+		verify(sdb, times(1)).select(any(SelectRequest.class));
+		verify(sdb, times(1)).getAttributes(any(GetAttributesRequest.class));
+	}
+
+	@Test
+	public void saving_should_not_write_unread_lazy_references() {
+		simpleDb.setLazyReferences(true);
+		addBook("b1", "a1");
+
+		Book book = template.find(Book.class, BOOKS_QUERY).get(0);
+		template.createOrUpdate(book);
+
+		ArgumentCaptor<PutAttributesRequest> puts = ArgumentCaptor.forClass(PutAttributesRequest.class);
+		verify(sdb).putAttributes(puts.capture());
+		assertEquals("book", puts.getValue().getDomainName());
+		assertEquals("a1", puts.getValue().getAttributes().get(0).getValue());
+		assertFalse(LazyReferences.isLoaded(book.getAuthor()));
+	}
+
+	private void addBook(String itemName, String authorItemName) {
+		books.add(new Item(itemName, Arrays.asList(new Attribute("author", authorItemName))));
+	}
+
+	public static class Book {
+
+		@Id
+		private String id;
+
+		@Reference
+		private Author author;
+
+		public String getId() {
+			return id;
+		}
+
+		public void setId(String id) {
+			this.id = id;
+		}
+
+		public Author getAuthor() {
+			return author;
+		}
+
+		public void setAuthor(Author author) {
+			this.author = author;
+		}
+	}
+
+	public static class Author {
+
+		@Id
+		private String id;
+
+		private String name;
+
+		public String getId() {
+			return id;
+		}
+
+		public void setId(String id) {
+			this.id = id;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package org.springframework.data.simpledb.core;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.simpledb.core.domain.SimpleDbSampleEntity;
+
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.Item;
+import com.amazonaws.services.simpledb.model.SelectRequest;
+import com.amazonaws.services.simpledb.model.SelectResult;
+
+public class SimpleDbTemplateSliceTest extends AbstractSimpleDbTemplateTest {
+
+	private static final String QUERY = "select * from `simpleDbSampleEntity`";
+
+	@Test
+	public void first_slice_should_be_read_with_a_single_limited_select() {
+		when(sdb.select(any(SelectRequest.class))).thenReturn(page("token1", "a", "b"));
+
+		SimpleDbSlice<SimpleDbSampleEntity> slice = template.executeSlicedQuery(SimpleDbSampleEntity.class, QUERY,
+				new PageRequest(0, 2), null);
+
+		assertEquals(2, slice.getNumberOfElements());
+		assertEquals("a", slice.getContent().get(0).getItemName());
+		assertTrue(slice.hasNext());
+		assertEquals("token1", slice.getNextToken());
+
+		ArgumentCaptor<SelectRequest> request = ArgumentCaptor.forClass(SelectRequest.class);
+		verify(sdb, times(1)).select(request.capture());
+
+		assertEquals(QUERY + " limit 2", request.getValue().getSelectExpression());
+		assertNull(request.getValue().getNextToken());
+	}
+
+	@Test
+	public void slice_should_resume_from_continuation_token_in_one_request() {
+		when(sdb.select(any(SelectRequest.class))).thenReturn(page(null, "c"));
+
+		SimpleDbSlice<SimpleDbSampleEntity> slice = template.executeSlicedQuery(SimpleDbSampleEntity.class, QUERY,
+				new PageRequest(7, 2, new Sort("age")), "token1");
+
+		assertEquals(1, slice.getNumberOfElements());
+		assertFalse(slice.hasNext());
+		assertNull(slice.getNextToken());
+
+		ArgumentCaptor<SelectRequest> request = ArgumentCaptor.forClass(SelectRequest.class);
+		verify(sdb, times(1)).select(request.capture());
+
+		assertEquals(QUERY + " where age is not null order by age asc limit 2", request.getValue()
+				.getSelectExpression());
+		assertEquals("token1", request.getValue().getNextToken());
+	}
+
+	@Test
+	public void numbered_slice_should_not_count_items() {
+		when(sdb.select(any(SelectRequest.class))).thenReturn(page("token1", "a", "b"));
+
+		SimpleDbSlice<SimpleDbSampleEntity> slice = template.executeSlicedQuery(SimpleDbSampleEntity.class, QUERY,
+				new PageRequest(0, 2));
+
+		assertEquals(2, slice.getNumberOfElements());
+		assertEquals("token1", slice.getNextToken());
+		verify(sdb, times(1)).select(any(SelectRequest.class));
+	}
+
+	private static SelectResult page(String nextToken, String... itemNames) {
+		List<Item> items = new ArrayList<Item>();
+		for(String itemName : itemNames) {
+			items.add(new Item(itemName, Arrays.asList(new Attribute("age", "5"))));
+		}
+
+		return new SelectResult().withItems(items).withNextToken(nextToken);
+	}
+}
@@ -0,0 +1,179 @@
+package org.springframework.data.simpledb.core;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.data.simpledb.core.domain.SimpleDbSampleEntity;
+
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.Item;
+import com.amazonaws.services.simpledb.model.SelectRequest;
+import com.amazonaws.services.simpledb.model.SelectResult;
+
+public class SimpleDbTemplateStreamTest extends AbstractSimpleDbTemplateTest {
+
+	private static final String QUERY = "select * from `simpleDbSampleEntity` where age > '1'";
+
+	@Test
+	public void stream_should_follow_next_tokens_until_last_page() {
+		when(sdb.select(any(SelectRequest.class))).thenReturn(page("token1", "a", "b"), page("token2"),
+				page(null, "c"));
+
+		CloseableIterator<SimpleDbSampleEntity> iterator = template.stream(SimpleDbSampleEntity.class, QUERY);
+
+		List<String> itemNames = new ArrayList<String>();
+		while(iterator.hasNext()) {
+			itemNames.add(iterator.next().getItemName());
+		}
+
+		assertEquals(Arrays.asList("a", "b", "c"), itemNames);
+
+		ArgumentCaptor<SelectRequest> requests = ArgumentCaptor.forClass(SelectRequest.class);
+		verify(sdb, times(3)).select(requests.capture());
+
+		assertNull(requests.getAllValues().get(0).getNextToken());
+		assertEquals("token1", requests.getAllValues().get(1).getNextToken());
+		assertEquals("token2", requests.getAllValues().get(2).getNextToken());
+	}
+
+	@Test
+	public void stream_should_fetch_pages_lazily() {
+		when(sdb.select(any(SelectRequest.class))).thenReturn(page("token1", "a"), page(null, "b"));
+
+		CloseableIterator<SimpleDbSampleEntity> iterator = template.stream(SimpleDbSampleEntity.class, QUERY);
+		verify(sdb, never()).select(any(SelectRequest.class));
+
+		assertEquals("a", iterator.next().getItemName());
+		verify(sdb, times(1)).select(any(SelectRequest.class));
+	}
+
+	@Test
+	public void closed_stream_should_not_fetch_further_pages() {
+		when(sdb.select(any(SelectRequest.class))).thenReturn(page("token1", "a"), page(null, "b"));
+
+		CloseableIterator<SimpleDbSampleEntity> iterator = template.stream(SimpleDbSampleEntity.class, QUERY);
+		iterator.next();
+		iterator.close();
+
+		assertFalse(iterator.hasNext());
+		verify(sdb, times(1)).select(any(SelectRequest.class));
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void next_should_fail_on_exhausted_stream() {
+		when(sdb.select(any(SelectRequest.class))).thenReturn(page(null));
+
+		template.stream(SimpleDbSampleEntity.class, QUERY).next();
+	}
+
+	@Test
+	public void prefetching_stream_should_return_all_pages_in_order() {
+		simpleDb.setPrefetchDepth(2);
+		when(sdb.select(any(SelectRequest.class))).thenReturn(page("token1", "a", "b"), page("token2", "c"),
+				page(null, "d"));
+
+		CloseableIterator<SimpleDbSampleEntity> iterator = template.stream(SimpleDbSampleEntity.class, QUERY);
+
+		List<String> itemNames = new ArrayList<String>();
+		while(iterator.hasNext()) {
+			itemNames.add(iterator.next().getItemName());
+		}
+
+		assertEquals(Arrays.asList("a", "b", "c", "d"), itemNames);
+
+		ArgumentCaptor<SelectRequest> requests = ArgumentCaptor.forClass(SelectRequest.class);
+		verify(sdb, times(3)).select(requests.capture());
+
+		assertNull(requests.getAllValues().get(0).getNextToken());
+		assertEquals("token1", requests.getAllValues().get(1).getNextToken());
+		assertEquals("token2", requests.getAllValues().get(2).getNextToken());
+	}
+
+	@Test
+	public void prefetching_stream_should_rethrow_fetch_failures_on_the_caller_thread() {
+		simpleDb.setPrefetchDepth(2);
+		when(sdb.select(any(SelectRequest.class))).thenReturn(page("token1", "a")).thenThrow(
+				new IllegalArgumentException("select failed"));
+
+		CloseableIterator<SimpleDbSampleEntity> iterator = template.stream(SimpleDbSampleEntity.class, QUERY);
+		assertEquals("a", iterator.next().getItemName());
+
+		try {
+			iterator.hasNext();
+			fail("Expected the producer failure to be rethrown");
+		} catch(IllegalArgumentException e) {
+			assertEquals("select failed", e.getMessage());
+		}
+		assertFalse(iterator.hasNext());
+	}
+
+	@Test(timeout = 10000)
+	public void prefetching_stream_should_rethrow_fetch_errors_on_the_caller_thread() {
+		simpleDb.setPrefetchDepth(2);
+		when(sdb.select(any(SelectRequest.class))).thenReturn(page("token1", "a")).thenThrow(
+				new ExceptionInInitializerError("select failed"));
+
+		CloseableIterator<SimpleDbSampleEntity> iterator = template.stream(SimpleDbSampleEntity.class, QUERY);
+		assertEquals("a", iterator.next().getItemName());
+
+		try {
+			iterator.hasNext();
+			fail("Expected the producer error to be rethrown");
+		} catch(ExceptionInInitializerError e) {
+			assertEquals("select failed", e.getMessage());
+		}
+		assertFalse(iterator.hasNext());
+	}
+
+	@Test(timeout = 10000)
+	public void prefetching_stream_should_fail_when_the_producer_is_stopped_by_destroy() {
+		simpleDb.setPrefetchDepth(1);
+		final CountDownLatch never = new CountDownLatch(1);
+		when(sdb.select(any(SelectRequest.class))).thenReturn(page("token1", "a")).thenAnswer(
+				new Answer<SelectResult>() {
+
+					@Override
+					public SelectResult answer(InvocationOnMock invocation) {
+						try {
+							never.await();
+						} catch(InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+						throw new IllegalStateException("select aborted");
+					}
+				});
+
+		CloseableIterator<SimpleDbSampleEntity> iterator = template.stream(SimpleDbSampleEntity.class, QUERY);
+		assertEquals("a", iterator.next().getItemName());
+
+		simpleDb.destroy();
+
+		try {
+			iterator.hasNext();
+			fail("Expected the stopped producer to fail the stream");
+		} catch(IllegalStateException e) {
+			// the consumer does not wait for a page which will never come
+		}
+		assertFalse(iterator.hasNext());
+	}
+
+	private static SelectResult page(String nextToken, String... itemNames) {
+		List<Item> items = new ArrayList<Item>();
+		for(String itemName : itemNames) {
+			items.add(new Item(itemName, Arrays.asList(new Attribute("age", "5"))));
+		}
+
+		return new SelectResult().withItems(items).withNextToken(nextToken);
+	}
+}
@@ -0,0 +1,485 @@
+package org.springframework.data.simpledb.core;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.simpledb.annotation.Version;
+import org.springframework.data.simpledb.attributeutil.SimpleDBAttributeConverter;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.BatchDeleteAttributesRequest;
+import com.amazonaws.services.simpledb.model.BatchPutAttributesRequest;
+import com.amazonaws.services.simpledb.model.DeletableItem;
+import com.amazonaws.services.simpledb.model.DeleteAttributesRequest;
+import com.amazonaws.services.simpledb.model.Item;
+import com.amazonaws.services.simpledb.model.PutAttributesRequest;
+import com.amazonaws.services.simpledb.model.ReplaceableAttribute;
+import com.amazonaws.services.simpledb.model.SelectRequest;
+import com.amazonaws.services.simpledb.model.SelectResult;
+
+public class SimpleDbTemplateWriteTest extends AbstractSimpleDbTemplateTest {
+
+	@Test
+	public void update_should_replace_attributes_and_delete_only_null_ones() {
+		Person person = new Person();
+		person.setId("p1");
+		person.setName("john");
+		person.setAddress(new Address());
+		person.getAddress().setCity("paris");
+
+		template.createOrUpdate(person);
+
+		ArgumentCaptor<PutAttributesRequest> put = ArgumentCaptor.forClass(PutAttributesRequest.class);
+		verify(sdb).putAttributes(put.capture());
+		for(ReplaceableAttribute attribute : put.getValue().getAttributes()) {
+			assertTrue(attribute.isReplace());
+		}
+		assertNull(put.getValue().getExpected());
+
+		ArgumentCaptor<DeleteAttributesRequest> delete = ArgumentCaptor.forClass(DeleteAttributesRequest.class);
+		verify(sdb).deleteAttributes(delete.capture());
+		assertEquals("p1", delete.getValue().getItemName());
+		assertEquals(Arrays.asList("address.street", "nickname"), attributeNames(delete.getValue().getAttributes()));
+	}
+
+	@Test
+	public void null_nested_entity_should_delete_all_its_attributes() {
+		Person person = new Person();
+		person.setId("p1");
+		person.setName("john");
+		person.setNickname("jo");
+
+		template.createOrUpdate(person);
+
+		ArgumentCaptor<DeleteAttributesRequest> delete = ArgumentCaptor.forClass(DeleteAttributesRequest.class);
+		verify(sdb).deleteAttributes(delete.capture());
+		assertEquals(Arrays.asList("address.city", "address.street"), attributeNames(delete.getValue()
+				.getAttributes()));
+	}
+
+	@Test
+	public void create_should_only_put_attributes() {
+		Person person = new Person();
+		person.setName("john");
+
+		template.createOrUpdate(person);
+
+		assertNotNull(person.getId());
+		verify(sdb).putAttributes(any(PutAttributesRequest.class));
+		verify(sdb, never()).deleteAttributes(any(DeleteAttributesRequest.class));
+	}
+
+	@Test
+	public void first_save_of_versioned_entity_should_expect_no_stored_version() {
+		VersionedPerson person = new VersionedPerson();
+		person.setName("john");
+
+		template.createOrUpdate(person);
+
+		ArgumentCaptor<PutAttributesRequest> put = ArgumentCaptor.forClass(PutAttributesRequest.class);
+		verify(sdb).putAttributes(put.capture());
+		assertEquals("version", put.getValue().getExpected().getName());
+		assertFalse(put.getValue().getExpected().isExists());
+		assertEquals(Long.valueOf(1), person.getVersion());
+	}
+
+	@Test
+	public void update_of_versioned_entity_should_expect_previous_version() {
+		VersionedPerson person = new VersionedPerson();
+		person.setId("p1");
+		person.setVersion(Long.valueOf(3));
+
+		template.createOrUpdate(person);
+
+		ArgumentCaptor<PutAttributesRequest> put = ArgumentCaptor.forClass(PutAttributesRequest.class);
+		verify(sdb).putAttributes(put.capture());
+		assertEquals(SimpleDBAttributeConverter.encode(Long.valueOf(3)), put.getValue().getExpected().getValue());
+
+		ReplaceableAttribute versionAttribute = put.getValue().getAttributes().get(0);
+		assertEquals("version", versionAttribute.getName());
+		assertEquals(SimpleDBAttributeConverter.encode(Long.valueOf(4)), versionAttribute.getValue());
+		assertEquals(Long.valueOf(4), person.getVersion());
+
+		ArgumentCaptor<DeleteAttributesRequest> delete = ArgumentCaptor.forClass(DeleteAttributesRequest.class);
+		verify(sdb).deleteAttributes(delete.capture());
+		assertEquals(SimpleDBAttributeConverter.encode(Long.valueOf(4)), delete.getValue().getExpected().getValue());
+	}
+
+	@Test
+	public void unavailable_delete_of_versioned_entity_should_not_send_the_conditional_put_again() {
+		AmazonServiceException unavailable = new AmazonServiceException("Service unavailable");
+		unavailable.setStatusCode(AbstractServiceUnavailableOperationRetrier.SERVICE_UNAVAILABLE_STATUS_CODE);
+		unavailable.setErrorType(AmazonServiceException.ErrorType.Service);
+		doThrow(unavailable).doNothing().when(sdb).deleteAttributes(any(DeleteAttributesRequest.class));
+		simpleDb.setUnavailableServiceRetries(2);
+		template = new SimpleDbTemplate(simpleDb);
+
+		VersionedPerson person = new VersionedPerson();
+		person.setId("p1");
+		person.setVersion(Long.valueOf(3));
+
+		template.createOrUpdate(person);
+
+		verify(sdb, times(1)).putAttributes(any(PutAttributesRequest.class));
+		ArgumentCaptor<DeleteAttributesRequest> deletes = ArgumentCaptor.forClass(DeleteAttributesRequest.class);
+		verify(sdb, times(2)).deleteAttributes(deletes.capture());
+		for(DeleteAttributesRequest delete : deletes.getAllValues()) {
+			assertEquals(SimpleDBAttributeConverter.encode(Long.valueOf(4)), delete.getExpected().getValue());
+		}
+		assertEquals(Long.valueOf(4), person.getVersion());
+	}
+
+	@Test
+	public void conditional_put_should_not_be_retried_after_an_internal_error() {
+		AmazonServiceException internalError = new AmazonServiceException("Internal error");
+		internalError.setStatusCode(500);
+		internalError.setErrorType(AmazonServiceException.ErrorType.Service);
+		doThrow(internalError).doNothing().when(sdb).putAttributes(any(PutAttributesRequest.class));
+		simpleDb.setUnavailableServiceRetries(2);
+		template = new SimpleDbTemplate(simpleDb);
+
+		VersionedPerson person = new VersionedPerson();
+		person.setId("p1");
+		person.setVersion(Long.valueOf(3));
+
+		try {
+			template.createOrUpdate(person);
+			fail("Expected the internal error");
+		} catch(RuntimeException e) {
+			assertFalse(e instanceof OptimisticLockingFailureException);
+			assertEquals(Long.valueOf(3), person.getVersion());
+		}
+		verify(sdb, times(1)).putAttributes(any(PutAttributesRequest.class));
+	}
+
+	@Test
+	public void failed_version_check_should_throw_optimistic_locking_failure() {
+		AmazonServiceException conditionalCheckFailed = new AmazonServiceException("Conditional check failed");
+		conditionalCheckFailed.setErrorCode("ConditionalCheckFailed");
+		conditionalCheckFailed.setStatusCode(409);
+		doThrow(conditionalCheckFailed).when(sdb).putAttributes(any(PutAttributesRequest.class));
+
+		VersionedPerson person = new VersionedPerson();
+		person.setId("p1");
+		person.setVersion(Long.valueOf(3));
+
+		try {
+			template.createOrUpdate(person);
+			fail("Expected an optimistic locking failure");
+		} catch(OptimisticLockingFailureException e) {
+			assertEquals(Long.valueOf(3), person.getVersion());
+		}
+	}
+
+	@Test
+	public void bulk_save_should_pack_items_in_batch_puts() {
+		List<Person> persons = new ArrayList<Person>();
+		for(int i = 0; i < SimpleDbRequestBuilder.MAX_NUMBER_OF_ITEMS_PER_BATCH_REQUEST + 5; i++) {
+			Person person = new Person();
+			person.setName("john " + i);
+			persons.add(person);
+		}
+
+		List<Person> result = template.createOrUpdate(persons);
+
+		assertEquals(persons.size(), result.size());
+		ArgumentCaptor<BatchPutAttributesRequest> puts = ArgumentCaptor.forClass(BatchPutAttributesRequest.class);
+		verify(sdb, times(2)).batchPutAttributes(puts.capture());
+		assertEquals(SimpleDbRequestBuilder.MAX_NUMBER_OF_ITEMS_PER_BATCH_REQUEST, puts.getAllValues().get(0).getItems()
+				.size());
+		assertEquals(5, puts.getAllValues().get(1).getItems().size());
+		assertEquals("person", puts.getAllValues().get(0).getDomainName());
+		verify(sdb, never()).putAttributes(any(PutAttributesRequest.class));
+		verify(sdb, never()).batchDeleteAttributes(any(BatchDeleteAttributesRequest.class));
+	}
+
+	@Test
+	public void bulk_update_should_batch_delete_null_attributes() {
+		Person person = new Person();
+		person.setId("p1");
+		person.setName("john");
+		person.setNickname("jo");
+		person.setAddress(new Address());
+		person.getAddress().setCity("paris");
+
+		template.createOrUpdate(Arrays.asList(person));
+
+		ArgumentCaptor<BatchDeleteAttributesRequest> deletes = ArgumentCaptor
+				.forClass(BatchDeleteAttributesRequest.class);
+		verify(sdb).batchDeleteAttributes(deletes.capture());
+		DeletableItem item = deletes.getValue().getItems().get(0);
+		assertEquals("p1", item.getName());
+		assertEquals(Arrays.asList("address.street"), attributeNames(item.getAttributes()));
+	}
+
+	@Test
+	public void bulk_save_should_not_batch_entities_without_attributes() {
+		Person empty = new Person();
+		Person john = new Person();
+		john.setName("john");
+
+		List<Person> result = template.createOrUpdate(Arrays.asList(empty, john));
+
+		assertEquals(2, result.size());
+		assertNotNull(empty.getId());
+		ArgumentCaptor<BatchPutAttributesRequest> puts = ArgumentCaptor.forClass(BatchPutAttributesRequest.class);
+		verify(sdb).batchPutAttributes(puts.capture());
+		assertEquals(1, puts.getValue().getItems().size());
+		assertEquals(john.getId(), puts.getValue().getItems().get(0).getName());
+		verify(sdb, never()).putAttributes(any(PutAttributesRequest.class));
+	}
+
+	@Test
+	public void bulk_save_should_write_versioned_entities_one_by_one() {
+		VersionedPerson person = new VersionedPerson();
+		person.setName("john");
+
+		template.createOrUpdate(Arrays.asList(person));
+
+		verify(sdb).putAttributes(any(PutAttributesRequest.class));
+		verify(sdb, never()).batchPutAttributes(any(BatchPutAttributesRequest.class));
+	}
+
+	@Test
+	public void delete_all_should_select_again_without_token_after_each_deleted_page() {
+		when(sdb.select(any(SelectRequest.class))).thenReturn(
+				new SelectResult().withItems(items("p", SimpleDbRequestBuilder.MAX_NUMBER_OF_ITEMS_PER_BATCH_REQUEST + 5))
+						.withNextToken("page2"), new SelectResult().withItems(items("q", 3)), new SelectResult());
+
+		template.deleteAll(Person.class);
+
+		ArgumentCaptor<SelectRequest> selects = ArgumentCaptor.forClass(SelectRequest.class);
+		verify(sdb, times(3)).select(selects.capture());
+		for(SelectRequest select : selects.getAllValues()) {
+			assertEquals("select itemName() from `person` limit 2500", select.getSelectExpression());
+			assertTrue(select.isConsistentRead());
+			assertNull(select.getNextToken());
+		}
+
+		ArgumentCaptor<BatchDeleteAttributesRequest> deletes = ArgumentCaptor
+				.forClass(BatchDeleteAttributesRequest.class);
+		verify(sdb, times(3)).batchDeleteAttributes(deletes.capture());
+		assertEquals("p0", deletes.getAllValues().get(0).getItems().get(0).getName());
+		assertTrue(deletes.getAllValues().get(0).getItems().get(0).getAttributes().isEmpty());
+		verify(sdb, never()).deleteAttributes(any(DeleteAttributesRequest.class));
+	}
+
+	@Test
+	public void delete_all_should_follow_the_next_token_of_an_empty_page() {
+		when(sdb.select(any(SelectRequest.class))).thenReturn(new SelectResult().withNextToken("page2"),
+				new SelectResult().withItems(items("p", 2)), new SelectResult());
+
+		template.deleteAll(Person.class);
+
+		ArgumentCaptor<SelectRequest> selects = ArgumentCaptor.forClass(SelectRequest.class);
+		verify(sdb, times(3)).select(selects.capture());
+		assertEquals("page2", selects.getAllValues().get(1).getNextToken());
+		assertNull(selects.getAllValues().get(2).getNextToken());
+		verify(sdb).batchDeleteAttributes(any(BatchDeleteAttributesRequest.class));
+	}
+
+	@Test
+	public void delete_by_query_should_select_the_item_names_matching_the_where_clause() {
+		when(sdb.select(any(SelectRequest.class))).thenReturn(new SelectResult().withItems(items("p", 2)),
+				new SelectResult());
+
+		assertEquals(2, template.deleteByQuery(Person.class, "name = 'john'"));
+
+		ArgumentCaptor<SelectRequest> select = ArgumentCaptor.forClass(SelectRequest.class);
+		verify(sdb, times(2)).select(select.capture());
+		assertEquals("select itemName() from `person` where (name = 'john') limit 2500", select.getValue()
+				.getSelectExpression());
+		verify(sdb).batchDeleteAttributes(any(BatchDeleteAttributesRequest.class));
+	}
+
+	@Test
+	public void delete_by_query_without_matches_should_not_delete() {
+		when(sdb.select(any(SelectRequest.class))).thenReturn(new SelectResult());
+
+		assertEquals(0, template.deleteByQuery(Person.class, "name = 'nobody'"));
+
+		verify(sdb, never()).batchDeleteAttributes(any(BatchDeleteAttributesRequest.class));
+	}
+
+	@Test
+	public void bulk_save_of_versioned_entity_should_be_retried() {
+		AmazonServiceException unavailable = new AmazonServiceException("Service unavailable");
+		unavailable.setStatusCode(AbstractServiceUnavailableOperationRetrier.SERVICE_UNAVAILABLE_STATUS_CODE);
+		unavailable.setErrorType(AmazonServiceException.ErrorType.Service);
+		doThrow(unavailable).doNothing().when(sdb).putAttributes(any(PutAttributesRequest.class));
+		simpleDb.setUnavailableServiceRetries(2);
+		template = new SimpleDbTemplate(simpleDb);
+
+		VersionedPerson person = new VersionedPerson();
+		person.setId("p1");
+		person.setVersion(Long.valueOf(3));
+
+		template.createOrUpdate(Arrays.asList(person));
+
+		ArgumentCaptor<PutAttributesRequest> puts = ArgumentCaptor.forClass(PutAttributesRequest.class);
+		verify(sdb, times(2)).putAttributes(puts.capture());
+		for(PutAttributesRequest put : puts.getAllValues()) {
+			assertEquals(SimpleDBAttributeConverter.encode(Long.valueOf(3)), put.getExpected().getValue());
+		}
+		assertEquals(Long.valueOf(4), person.getVersion());
+	}
+
+	@Test
+	public void failed_version_check_in_bulk_save_should_throw_optimistic_locking_failure() {
+		AmazonServiceException conditionalCheckFailed = new AmazonServiceException("Conditional check failed");
+		conditionalCheckFailed.setErrorCode("ConditionalCheckFailed");
+		conditionalCheckFailed.setStatusCode(409);
+		doThrow(conditionalCheckFailed).when(sdb).putAttributes(any(PutAttributesRequest.class));
+
+		VersionedPerson person = new VersionedPerson();
+		person.setId("p1");
+		person.setVersion(Long.valueOf(3));
+
+		try {
+			template.createOrUpdate(Arrays.asList(person));
+			fail("Expected an optimistic locking failure");
+		} catch(OptimisticLockingFailureException e) {
+			assertEquals(Long.valueOf(3), person.getVersion());
+		}
+	}
+
+	@Test
+	public void request_builder_should_reject_items_too_large_for_a_batch() {
+		Map<String, List<String>> attributes = new HashMap<String, List<String>>();
+		List<String> values = new ArrayList<String>();
+		for(int i = 0; i <= SimpleDbRequestBuilder.MAX_NUMBER_OF_ATTRIBUTES_PER_SIMPLE_DB_REQUEST; i++) {
+			values.add("value" + i);
+		}
+		attributes.put("values", values);
+
+		assertFalse(SimpleDbRequestBuilder.isBatchable(attributes));
+
+		values.remove(0);
+		assertTrue(SimpleDbRequestBuilder.isBatchable(attributes));
+	}
+
+	private static List<Item> items(String prefix, int count) {
+		List<Item> items = new ArrayList<Item>();
+		for(int i = 0; i < count; i++) {
+			items.add(new Item(prefix + i, new ArrayList<Attribute>()));
+		}
+		return items;
+	}
+
+	private static List<String> attributeNames(List<Attribute> attributes) {
+		List<String> result = new ArrayList<String>();
+		for(Attribute attribute : attributes) {
+			result.add(attribute.getName());
+		}
+		return result;
+	}
+
+	public static class Person {
+
+		@Id
+		private String id;
+		private String name;
+		private String nickname;
+		private Address address;
+
+		public String getId() {
+			return id;
+		}
+
+		public void setId(String id) {
+			this.id = id;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public String getNickname() {
+			return nickname;
+		}
+
+		public void setNickname(String nickname) {
+			this.nickname = nickname;
+		}
+
+		public Address getAddress() {
+			return address;
+		}
+
+		public void setAddress(Address address) {
+			this.address = address;
+		}
+	}
+
+	public static class Address {
+
+		private String city;
+		private String street;
+
+		public String getCity() {
+			return city;
+		}
+
+		public void setCity(String city) {
+			this.city = city;
+		}
+
+		public String getStreet() {
+			return street;
+		}
+
+		public void setStreet(String street) {
+			this.street = street;
+		}
+	}
+
+	public static class VersionedPerson {
+
+		@Id
+		private String id;
+		private String name;
+
+		@Version
+		private Long version;
+
+		public String getId() {
+			return id;
+		}
+
+		public void setId(String id) {
+			this.id = id;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public Long getVersion() {
+			return version;
+		}
+
+		public void setVersion(Long version) {
+			this.version = version;
+		}
+	}
+}
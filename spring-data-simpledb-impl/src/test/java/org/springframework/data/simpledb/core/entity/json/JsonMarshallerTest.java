@@ -10,6 +10,7 @@ import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -117,6 +118,38 @@ public class JsonMarshallerTest {
         assertThat(result, is(new ArrayList<String>(Arrays.asList("one", "two", "three"))));
     }
 
+    @Test
+    public void should_marshal_unmarshal_from_concurrent_threads() throws Exception {
+        final JsonMarshaller sharedMarshaller = JsonMarshaller.createNew();
+        final List<String> strings = new ArrayList<String>(Arrays.asList("one", "two", "three"));
+        final AtomicInteger failures = new AtomicInteger();
+
+        List<Thread> threads = new ArrayList<Thread>();
+        for(int i = 0; i < 4; i++) {
+            threads.add(new Thread() {
+
+                @Override
+                public void run() {
+                    for(int j = 0; j < 200; j++) {
+                        List<String> unmarshalled = sharedMarshaller.unmarshall(sharedMarshaller.marshall(strings),
+                                ArrayList.class);
+                        if(!strings.equals(unmarshalled)) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                }
+            });
+        }
+        for(Thread thread : threads) {
+            thread.start();
+        }
+        for(Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, failures.get());
+    }
+
 	private User createSampleUser() {
 		User newUser = new User();
 		newUser.setName(new User.Name());
@@ -0,0 +1,117 @@
+package org.springframework.data.simpledb.query;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.Parameter;
+import org.springframework.data.repository.query.Parameters;
+import org.springframework.data.simpledb.attributeutil.SimpleDBAttributeConverter;
+
+public class QueryTemplateTest {
+
+	@Test
+	public void positional_parameters_should_bind_as_buildQuery() {
+		assertBindsAsBuildQuery(" select * from `a` where age > ? and name = ? and created < ? ",
+				new String[] { "?0", "?1", "?2" }, new Class[] { int.class, String.class, Date.class }, 42, "name",
+				new Date(0));
+	}
+
+	@Test
+	public void named_parameters_should_bind_as_buildQuery() {
+		assertBindsAsBuildQuery("select * from `a` where name = :name and age > :age", new String[] { ":age",
+				":name" }, new Class[] { int.class, String.class }, 42, "name");
+	}
+
+	@Test
+	public void like_wildcards_should_be_kept_inside_the_quotes() {
+		assertBindsAsBuildQuery("select * from `a` where name like %:name% and title like ?%", new String[] { ":name",
+				"?1" }, new Class[] { String.class, String.class }, "middle", "start");
+	}
+
+	@Test
+	public void array_after_in_should_bind_a_value_list() {
+		assertBindsAsBuildQuery("select * from `a` where age in ? and name = ?", new String[] { "?0", "?1" },
+				new Class[] { int[].class, String.class }, new int[] { 23, 25 }, "name");
+		assertBindsAsBuildQuery("select * from `a` where age in:age", new String[] { ":age" },
+				new Class[] { int[].class }, new int[] { 23, 25 });
+	}
+
+	@Test
+	public void pageable_and_sort_parameters_should_not_be_bound() {
+		assertBindsAsBuildQuery("select * from `a` where name = ?", new String[] { "?0", "?1" }, new Class[] {
+				String.class, Pageable.class }, "name", new PageRequest(0, 1));
+	}
+
+	@Test
+	public void query_without_placeholders_should_not_be_changed() {
+		final QueryTemplate template = QueryTemplate.compile(" select * from `a` ", parameters(new String[0],
+				new Class[0]), false);
+
+		assertThat(template.bind(), is(" select * from `a` "));
+	}
+
+	@Test
+	public void every_occurrence_of_a_named_placeholder_should_be_bound() {
+		final QueryTemplate template = QueryTemplate.compile("select * from `a` where first = :name or last = :name",
+				parameters(new String[] { ":name" }, new Class[] { String.class }), true);
+
+		assertThat(template.bind("x"), is("select * from `a` where first = 'x' or last = 'x'"));
+	}
+
+	@Test
+	public void named_placeholder_should_not_match_a_longer_name() {
+		final QueryTemplate template = QueryTemplate.compile("select * from `a` where a = :names and b = :name",
+				parameters(new String[] { ":name" }, new Class[] { int.class }), true);
+
+		assertThat(template.bind(1), is("select * from `a` where a = :names and b = '"
+				+ SimpleDBAttributeConverter.encode(1) + "'"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void missing_placeholder_should_fail_on_bind() {
+		final QueryTemplate template = QueryTemplate.compile("select * from `a` where a = :other", parameters(
+				new String[] { ":name" }, new Class[] { String.class }), true);
+
+		template.bind("x");
+	}
+
+	@SuppressWarnings("rawtypes")
+	private static void assertBindsAsBuildQuery(String rawQuery, String[] placeholders, Class[] types,
+			Object... values) {
+		final String expected = QueryUtils.buildQuery(rawQuery, parameters(placeholders, types), values);
+
+		assertThat(QueryTemplate.compile(rawQuery, parameters(placeholders, types), true).bind(values), is(expected));
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static Parameters parameters(String[] placeholders, Class[] types) {
+		final List<Class<?>> specialTypes = Arrays.<Class<?>> asList(Pageable.class, Sort.class);
+		final List<Parameter> parameters = new ArrayList<Parameter>();
+
+		for(int i = 0; i < placeholders.length; i++) {
+			Parameter parameter = mock(Parameter.class);
+			when(parameter.getPlaceholder()).thenReturn(placeholders[i]);
+			when(parameter.isNamedParameter()).thenReturn(placeholders[i].startsWith(":"));
+			when(parameter.getIndex()).thenReturn(i);
+			when(parameter.getType()).thenReturn(types[i]);
+			when(parameter.isSpecialParameter()).thenReturn(specialTypes.contains(types[i]));
+			parameters.add(parameter);
+		}
+
+		Parameters result = mock(Parameters.class);
+		when(result.iterator()).thenReturn(parameters.iterator());
+		when(result.getNumberOfParameters()).thenReturn(parameters.size());
+		return result;
+	}
+}
@@ -0,0 +1,165 @@
+package org.springframework.data.simpledb.util;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Persistent;
+import org.springframework.data.annotation.Reference;
+import org.springframework.data.mapping.model.MappingException;
+import org.springframework.data.simpledb.reflection.EntityMapping;
+import org.springframework.data.simpledb.reflection.FieldType;
+import org.springframework.data.simpledb.reflection.ReflectionUtils;
+
+public class EntityMappingTest {
+
+	@Test
+	public void mapping_should_be_built_once_per_class() {
+		assertSame(EntityMapping.forClass(SampleEntity.class), EntityMapping.forClass(SampleEntity.class));
+	}
+
+	@Test
+	public void mapping_should_hold_fields_and_accessors() {
+		EntityMapping mapping = EntityMapping.forClass(SampleEntity.class);
+
+		assertEquals("id", mapping.getIdField().getName());
+		assertEquals(3, mapping.getSupportedFields().size());
+		assertEquals(1, mapping.getReferenceFields().size());
+		assertEquals("reference", mapping.getReferencedAttributeNames().get(0));
+		assertEquals("getName", mapping.getGetter("name").getName());
+		assertEquals("setName", mapping.getSetter("name").getName());
+		assertNull(mapping.getGetter("ignored"));
+
+		Field values = mapping.getField("values");
+		assertEquals(FieldType.COLLECTION, mapping.getValueType(values));
+		assertEquals(FieldType.REFERENCE_ENTITY, mapping.getValueType(mapping.getField("reference")));
+	}
+
+	@Test
+	public void accessors_should_read_and_write_properties() throws Exception {
+		EntityMapping mapping = EntityMapping.forClass(SampleEntity.class);
+		SampleEntity entity = new SampleEntity();
+
+		mapping.getAccessor("name").set(entity, "john");
+		assertEquals("john", entity.getName());
+		assertEquals("john", mapping.getAccessor("name").get(entity));
+		assertFalse(mapping.getAccessor("reference").isWritable());
+		assertNull(mapping.getAccessor("missing"));
+
+		mapping.getIdAccessor().set(entity, "id1");
+		assertEquals("id1", ReflectionUtils.callGetter(entity, "id"));
+	}
+
+	@Test
+	public void persistent_fields_should_be_accessed_directly() {
+		SamplePersistent entity = new SamplePersistent();
+
+		ReflectionUtils.callSetter(entity, "hidden", "value");
+		assertEquals("value", ReflectionUtils.callGetter(entity, "hidden"));
+	}
+
+	@Test(expected = MappingException.class)
+	public void setting_a_value_of_wrong_type_should_fail_with_mapping_exception() {
+		ReflectionUtils.callSetter(new SampleEntity(), "values", "not a list");
+	}
+
+	@Test(expected = MappingException.class)
+	public void id_field_error_should_be_raised_on_access() {
+		EntityMapping mapping = EntityMapping.forClass(SampleWithTwoIds.class);
+
+		assertEquals(2, mapping.getSupportedFields().size());
+		mapping.getIdField();
+	}
+
+	public static class SampleEntity {
+
+		@Id
+		private String id;
+
+		private String name;
+
+		private List<String> values = new ArrayList<String>();
+
+		@Reference
+		private SampleReference reference;
+
+		@SuppressWarnings("unused")
+		private String ignored;
+
+		public String getId() {
+			return id;
+		}
+
+		public void setId(String id) {
+			this.id = id;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public List<String> getValues() {
+			return values;
+		}
+
+		public void setValues(List<String> values) {
+			this.values = values;
+		}
+
+		public SampleReference getReference() {
+			return reference;
+		}
+	}
+
+	public static class SampleReference {
+
+		@Id
+		private String id;
+
+		public String getId() {
+			return id;
+		}
+
+		public void setId(String id) {
+			this.id = id;
+		}
+	}
+
+	public static class SamplePersistent {
+
+		@Persistent
+		private String hidden;
+	}
+
+	public static class SampleWithTwoIds {
+
+		private String id;
+
+		@Id
+		private String key;
+
+		public String getId() {
+			return id;
+		}
+
+		public void setId(String id) {
+			this.id = id;
+		}
+
+		public String getKey() {
+			return key;
+		}
+
+		public void setKey(String key) {
+			this.key = key;
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package org.springframework.data.simpledb.util;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ExpiringLruCacheTest {
+
+	@Test
+	public void least_recently_used_entry_should_be_evicted() {
+		ExpiringLruCache<String, String> cache = new ExpiringLruCache<String, String>(2, 0, TimeUnit.SECONDS);
+		cache.put("a", "1");
+		cache.put("b", "2");
+		cache.get("a");
+		cache.put("c", "3");
+
+		assertEquals("1", cache.get("a"));
+		assertNull(cache.get("b"));
+		assertEquals("3", cache.get("c"));
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictionCount());
+	}
+
+	@Test
+	public void expired_entry_should_be_dropped() {
+		ManualClockCache cache = new ManualClockCache();
+		cache.put("a", "1");
+
+		cache.now = TimeUnit.SECONDS.toNanos(9);
+		assertEquals("1", cache.get("a"));
+
+		cache.now = TimeUnit.SECONDS.toNanos(10);
+		assertNull(cache.get("a"));
+		assertEquals(0, cache.size());
+		assertEquals(1, cache.getExpirationCount());
+		assertEquals(0, cache.getEvictionCount());
+	}
+
+	@Test
+	public void purge_should_remove_expired_entries_only() {
+		ManualClockCache cache = new ManualClockCache();
+		cache.put("a", "1");
+		cache.now = TimeUnit.SECONDS.toNanos(5);
+		cache.put("b", "2");
+
+		cache.now = TimeUnit.SECONDS.toNanos(12);
+		cache.purge();
+
+		assertEquals(1, cache.size());
+		assertEquals("2", cache.peek("b"));
+		assertEquals(1, cache.getExpirationCount());
+	}
+
+	@Test
+	public void hits_and_misses_should_be_counted_by_get_only() {
+		ExpiringLruCache<String, String> cache = new ExpiringLruCache<String, String>(2, 0, TimeUnit.SECONDS);
+		cache.put("a", "1");
+
+		cache.get("a");
+		cache.get("b");
+		cache.peek("b");
+
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+	}
+
+	private static final class ManualClockCache extends ExpiringLruCache<String, String> {
+
+		private long now;
+
+		private ManualClockCache() {
+			super(10, 10, TimeUnit.SECONDS);
+		}
+
+		@Override
+		protected long currentTimeNanos() {
+			return now;
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package org.springframework.data.simpledb.local;
+
+import static org.springframework.data.simpledb.parser.SimpleDBParserConstants.*;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A simple comparison of an attribute, or of the item name, with literal values. As in SimpleDB, a comparison of a
+ * multi valued attribute holds if any of its values satisfies it, or all of them for an <tt>every()</tt> attribute;
+ * values are compared lexicographically.
+ */
+final class Comparison implements ItemPredicate {
+
+	private static final char WILDCARD = '%';
+
+	private final String attributeName;
+	private final boolean every;
+	private final int operator;
+	private final List<String> values;
+
+	/**
+	 * @param attributeName
+	 *            {@code null} to compare the item name
+	 * @param operator
+	 *            the {@link org.springframework.data.simpledb.parser.SimpleDBParserConstants parser token} kind of
+	 *            the comparison operator
+	 * @param values
+	 *            the unquoted literals of the comparison
+	 */
+	Comparison(String attributeName, boolean every, int operator, List<String> values) {
+		this.attributeName = attributeName;
+		this.every = every;
+		this.operator = operator;
+		this.values = values;
+	}
+
+	String getAttributeName() {
+		return attributeName;
+	}
+
+	boolean isNullCheck() {
+		return operator == IS_NULL;
+	}
+
+	@Override
+	public boolean matches(LocalItem item) {
+		final Collection<String> candidates = attributeName == null ? Collections.singleton(item.getName()) : item
+				.getValues(attributeName);
+
+		if(operator == IS_NULL || operator == IS_NOT_NULL) {
+			return candidates.isEmpty() == (operator == IS_NULL);
+		}
+
+		for(String candidate : candidates) {
+			if(test(candidate) != every) {
+				return !every;
+			}
+		}
+
+		return every && !candidates.isEmpty();
+	}
+
+	private boolean test(String value) {
+		switch(operator) {
+		case EQUALS:
+			return value.equals(values.get(0));
+		case NOT_EQUALS:
+			return !value.equals(values.get(0));
+		case GT:
+			return value.compareTo(values.get(0)) > 0;
+		case GTEQ:
+			return value.compareTo(values.get(0)) >= 0;
+		case LT:
+			return value.compareTo(values.get(0)) < 0;
+		case LTEQ:
+			return value.compareTo(values.get(0)) <= 0;
+		case BETWEEN:
+			return value.compareTo(values.get(0)) >= 0 && value.compareTo(values.get(1)) <= 0;
+		case IN:
+			return values.contains(value);
+		case LIKE:
+			return isLike(value, values.get(0));
+		case NOT_LIKE:
+			return !isLike(value, values.get(0));
+		default:
+			throw new IllegalStateException("Unexpected comparison operator " + tokenImage[operator]);
+		}
+	}
+
+	private static boolean isLike(String value, String pattern) {
+		final boolean anyPrefix = pattern.charAt(0) == WILDCARD;
+		final boolean anySuffix = pattern.length() > 1 && pattern.charAt(pattern.length() - 1) == WILDCARD;
+		final String fixed = pattern.substring(anyPrefix ? 1 : 0, anySuffix ? pattern.length() - 1 : pattern.length());
+
+		if(anyPrefix && anySuffix) {
+			return value.contains(fixed);
+		}
+
+		return anyPrefix ? value.endsWith(fixed) : value.startsWith(fixed);
+	}
+}
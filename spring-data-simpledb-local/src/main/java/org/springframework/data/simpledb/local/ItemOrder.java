@@ -0,0 +1,155 @@
+package org.springframework.data.simpledb.local;
+
+import java.util.Comparator;
+
+/**
+ * The order of the items of a select. Sorted by an attribute, items are ordered by their smallest value of it, those
+ * without the attribute last in both directions, and by item name among equal values. Otherwise they are ordered by
+ * item name.
+ */
+final class ItemOrder implements Comparator<LocalItem> {
+
+	static final ItemOrder ITEM_NAME = new ItemOrder(null, false);
+
+	private final String attributeName;
+	private final int direction;
+
+	/**
+	 * @param attributeName
+	 *            the sort attribute, {@code null} to sort by item name
+	 */
+	ItemOrder(String attributeName, boolean descending) {
+		this.attributeName = attributeName;
+		this.direction = descending ? -1 : 1;
+	}
+
+	boolean isItemNameOrder() {
+		return attributeName == null;
+	}
+
+	boolean isDescending() {
+		return direction < 0;
+	}
+
+	/**
+	 * @return the position of the item in this order
+	 */
+	Position positionOf(LocalItem item) {
+		return new Position(sortKey(item), item.getName());
+	}
+
+	@Override
+	public int compare(LocalItem first, LocalItem second) {
+		return compare(sortKey(first), first.getName(), sortKey(second), second.getName());
+	}
+
+	/**
+	 * @return a positive number if the item comes after the position
+	 */
+	int compare(LocalItem item, Position position) {
+		return compare(sortKey(item), item.getName(), position.sortKey, position.itemName);
+	}
+
+	private int compare(String firstKey, String firstName, String secondKey, String secondName) {
+		if(attributeName == null) {
+			return direction * firstName.compareTo(secondName);
+		}
+
+		if(firstKey == null && secondKey != null) {
+			return 1;
+		}
+		if(firstKey != null && secondKey == null) {
+			return -1;
+		}
+		if(firstKey != null) {
+			final int keyOrder = firstKey.compareTo(secondKey);
+			if(keyOrder != 0) {
+				return direction * keyOrder;
+			}
+		}
+		return firstName.compareTo(secondName);
+	}
+
+	/**
+	 * @return the smallest value of the sort attribute, {@code null} if the item does not have it or the order is by
+	 *         item name
+	 */
+	private String sortKey(LocalItem item) {
+		if(attributeName == null) {
+			return null;
+		}
+
+		String smallest = null;
+		for(String value : item.getValues(attributeName)) {
+			if(smallest == null || value.compareTo(smallest) < 0) {
+				smallest = value;
+			}
+		}
+		return smallest;
+	}
+
+	/**
+	 * The place of an item in an order, which stays valid when items before or after it are written or deleted. A
+	 * next token is the position of the last item of a page.
+	 */
+	static final class Position {
+
+		private static final char NO_SORT_KEY = 'n';
+		private static final char SORT_KEY = 'k';
+		private static final char SORT_KEY_END = ':';
+
+		private final String sortKey;
+		private final String itemName;
+
+		private Position(String sortKey, String itemName) {
+			this.sortKey = sortKey;
+			this.itemName = itemName;
+		}
+
+		String getItemName() {
+			return itemName;
+		}
+
+		/**
+		 * @return the position encoded as <tt>n&lt;item name&gt;</tt> or
+		 *         <tt>k&lt;sort key length&gt;:&lt;sort key&gt;&lt;item name&gt;</tt>
+		 */
+		String toToken() {
+			if(sortKey == null) {
+				return NO_SORT_KEY + itemName;
+			}
+			return SORT_KEY + String.valueOf(sortKey.length()) + SORT_KEY_END + sortKey + itemName;
+		}
+
+		/**
+		 * @return the decoded position, {@code null} if the token is not one
+		 */
+		static Position fromToken(String token) {
+			if(token.length() < 2) {
+				return null;
+			}
+
+			if(token.charAt(0) == NO_SORT_KEY) {
+				return new Position(null, token.substring(1));
+			}
+			if(token.charAt(0) != SORT_KEY) {
+				return null;
+			}
+
+			final int sortKeyEnd = token.indexOf(SORT_KEY_END);
+			if(sortKeyEnd < 2) {
+				return null;
+			}
+			try {
+				final int sortKeyStart = sortKeyEnd + 1;
+				final int itemNameStart = sortKeyStart + Integer.parseInt(token.substring(1, sortKeyEnd));
+				if(itemNameStart < sortKeyStart || itemNameStart >= token.length()) {
+					return null;
+				}
+				return new Position(token.substring(sortKeyStart, itemNameStart), token.substring(itemNameStart));
+			} catch(NumberFormatException e) {
+				return null;
+			}
+		}
+	}
+}
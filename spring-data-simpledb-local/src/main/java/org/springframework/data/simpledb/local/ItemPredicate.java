@@ -0,0 +1,9 @@
+package org.springframework.data.simpledb.local;
+
+/**
+ * A condition of a select where clause, evaluated against one item.
+ */
+interface ItemPredicate {
+
+	boolean matches(LocalItem item);
+}
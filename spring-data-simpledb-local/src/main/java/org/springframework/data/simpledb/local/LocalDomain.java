@@ -0,0 +1,220 @@
+package org.springframework.data.simpledb.local;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.DeletableItem;
+import com.amazonaws.services.simpledb.model.DomainMetadataResult;
+import com.amazonaws.services.simpledb.model.ReplaceableAttribute;
+import com.amazonaws.services.simpledb.model.ReplaceableItem;
+import com.amazonaws.services.simpledb.model.UpdateCondition;
+
+/**
+ * The items of a local domain, sorted by item name. Every operation holds the domain lock, so that single and batch
+ * writes are atomic and selects read a consistent snapshot.
+ */
+final class LocalDomain {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final long MILLIS_PER_SECOND = 1000L;
+
+	private final NavigableMap<String, LocalItem> items = new TreeMap<String, LocalItem>();
+
+	synchronized void putAttributes(String itemName, List<ReplaceableAttribute> attributes, UpdateCondition expected) {
+		checkExpected(items.get(itemName), expected);
+		put(itemName, attributes);
+	}
+
+	synchronized void batchPutAttributes(List<ReplaceableItem> replaceableItems) {
+		for(ReplaceableItem item : replaceableItems) {
+			put(item.getName(), item.getAttributes());
+		}
+	}
+
+	/**
+	 * @param attributes
+	 *            the attributes to delete, with or without a value; {@code null} or empty to delete the item
+	 */
+	synchronized void deleteAttributes(String itemName, List<Attribute> attributes, UpdateCondition expected) {
+		checkExpected(items.get(itemName), expected);
+		delete(itemName, attributes);
+	}
+
+	synchronized void batchDeleteAttributes(List<DeletableItem> deletableItems) {
+		for(DeletableItem item : deletableItems) {
+			delete(item.getName(), item.getAttributes());
+		}
+	}
+
+	/**
+	 * @return the attributes of the item, empty if it does not exist
+	 */
+	synchronized List<Attribute> getAttributes(String itemName, Collection<String> attributeNames) {
+		final LocalItem item = items.get(itemName);
+		return item != null ? item.toAttributes(attributeNames) : new ArrayList<Attribute>();
+	}
+
+	/**
+	 * Only the returned items are copied. In item name order the select reads the items from the position on, in
+	 * attribute order it filters all items and keeps the first ones in a bounded heap.
+	 *
+	 * @param where
+	 *            {@code null} to select all items
+	 * @param after
+	 *            {@code null} to start with the first matching item, otherwise the select starts after this position
+	 * @param limit
+	 *            maximum number of items of the page
+	 * @return copies of at most <tt>limit + 1</tt> matching items in the given order, a last item beyond the limit
+	 *         tells that there are more
+	 */
+	synchronized List<LocalItem> select(ItemPredicate where, ItemOrder order, ItemOrder.Position after, int limit) {
+		final int wanted = limit < Integer.MAX_VALUE ? limit + 1 : limit;
+
+		if(order.isItemNameOrder()) {
+			NavigableMap<String, LocalItem> view = order.isDescending() ? items.descendingMap() : items;
+			if(after != null) {
+				view = view.tailMap(after.getItemName(), false);
+			}
+
+			final List<LocalItem> matches = new ArrayList<LocalItem>();
+			for(LocalItem item : view.values()) {
+				if(matches.size() == wanted) {
+					break;
+				}
+				if(where == null || where.matches(item)) {
+					matches.add(item.copy());
+				}
+			}
+			return matches;
+		}
+
+		/* the head of the heap is the last of the items kept so far */
+		final PriorityQueue<LocalItem> firstMatches = new PriorityQueue<LocalItem>(11,
+				Collections.reverseOrder(order));
+		for(LocalItem item : items.values()) {
+			if((where == null || where.matches(item)) && (after == null || order.compare(item, after) > 0)) {
+				firstMatches.add(item);
+				if(firstMatches.size() > wanted) {
+					firstMatches.poll();
+				}
+			}
+		}
+
+		final List<LocalItem> matches = new ArrayList<LocalItem>(firstMatches);
+		Collections.sort(matches, order);
+		for(int i = 0; i < matches.size(); i++) {
+			matches.set(i, matches.get(i).copy());
+		}
+		return matches;
+	}
+
+	synchronized DomainMetadataResult getMetadata() {
+		final Set<String> attributeNames = new HashSet<String>();
+		long itemNamesSize = 0;
+		long attributeValuesSize = 0;
+		int attributeValueCount = 0;
+
+		for(LocalItem item : items.values()) {
+			itemNamesSize += byteLength(item.getName());
+			for(String attributeName : item.getAttributeNames()) {
+				attributeNames.add(attributeName);
+				for(String value : item.getValues(attributeName)) {
+					attributeValueCount++;
+					attributeValuesSize += byteLength(value);
+				}
+			}
+		}
+
+		long attributeNamesSize = 0;
+		for(String attributeName : attributeNames) {
+			attributeNamesSize += byteLength(attributeName);
+		}
+
+		return new DomainMetadataResult().withItemCount(items.size()).withItemNamesSizeBytes(itemNamesSize)
+				.withAttributeNameCount(attributeNames.size()).withAttributeNamesSizeBytes(attributeNamesSize)
+				.withAttributeValueCount(attributeValueCount).withAttributeValuesSizeBytes(attributeValuesSize)
+				.withTimestamp((int) (System.currentTimeMillis() / MILLIS_PER_SECOND));
+	}
+
+	/*
+	 * Values of a replaced attribute are dropped once, before any of the values of the request is added.
+	 */
+	private void put(String itemName, List<ReplaceableAttribute> attributes) {
+		LocalItem item = items.get(itemName);
+		if(item == null) {
+			item = new LocalItem(itemName);
+		}
+
+		for(ReplaceableAttribute attribute : attributes) {
+			if(Boolean.TRUE.equals(attribute.getReplace())) {
+				item.removeAttribute(attribute.getName());
+			}
+		}
+		for(ReplaceableAttribute attribute : attributes) {
+			item.addValue(attribute.getName(), attribute.getValue());
+		}
+
+		if(!item.isEmpty()) {
+			items.put(itemName, item);
+		}
+	}
+
+	private void delete(String itemName, List<Attribute> attributes) {
+		final LocalItem item = items.get(itemName);
+		if(item == null) {
+			return;
+		}
+
+		if(attributes == null || attributes.isEmpty()) {
+			items.remove(itemName);
+			return;
+		}
+
+		for(Attribute attribute : attributes) {
+			if(attribute.getValue() == null) {
+				item.removeAttribute(attribute.getName());
+			} else {
+				item.removeValue(attribute.getName(), attribute.getValue());
+			}
+		}
+
+		if(item.isEmpty()) {
+			items.remove(itemName);
+		}
+	}
+
+	private static void checkExpected(LocalItem item, UpdateCondition expected) {
+		if(expected == null || expected.getName() == null) {
+			return;
+		}
+
+		final Set<String> values = item != null ? item.getValues(expected.getName()) : new HashSet<String>();
+
+		if(Boolean.FALSE.equals(expected.getExists())) {
+			if(!values.isEmpty()) {
+				throw ServiceErrors.conditionalCheckFailed(expected.getName());
+			}
+			return;
+		}
+
+		if(values.isEmpty()) {
+			throw ServiceErrors.attributeDoesNotExist(expected.getName());
+		}
+		if(values.size() > 1 || !values.contains(expected.getValue())) {
+			throw ServiceErrors.conditionalCheckFailed(expected.getName());
+		}
+	}
+
+	private static long byteLength(String value) {
+		return value.getBytes(UTF8).length;
+	}
+}
@@ -0,0 +1,98 @@
+package org.springframework.data.simpledb.local;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.Item;
+
+/**
+ * An item of a local domain: a name and a set of values for each attribute name. Not thread safe, the owning domain
+ * guards its items and hands out copies.
+ */
+final class LocalItem {
+
+	private final String name;
+	private final Map<String, Set<String>> attributes = new LinkedHashMap<String, Set<String>>();
+
+	LocalItem(String name) {
+		this.name = name;
+	}
+
+	String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the values of the attribute, empty if the item does not have it
+	 */
+	Set<String> getValues(String attributeName) {
+		final Set<String> values = attributes.get(attributeName);
+		return values != null ? values : Collections.<String> emptySet();
+	}
+
+	Set<String> getAttributeNames() {
+		return attributes.keySet();
+	}
+
+	boolean isEmpty() {
+		return attributes.isEmpty();
+	}
+
+	void addValue(String attributeName, String value) {
+		Set<String> values = attributes.get(attributeName);
+		if(values == null) {
+			values = new LinkedHashSet<String>();
+			attributes.put(attributeName, values);
+		}
+		values.add(value);
+	}
+
+	void removeAttribute(String attributeName) {
+		attributes.remove(attributeName);
+	}
+
+	void removeValue(String attributeName, String value) {
+		final Set<String> values = attributes.get(attributeName);
+		if(values != null) {
+			values.remove(value);
+			if(values.isEmpty()) {
+				attributes.remove(attributeName);
+			}
+		}
+	}
+
+	LocalItem copy() {
+		final LocalItem copy = new LocalItem(name);
+		for(Map.Entry<String, Set<String>> attribute : attributes.entrySet()) {
+			copy.attributes.put(attribute.getKey(), new LinkedHashSet<String>(attribute.getValue()));
+		}
+		return copy;
+	}
+
+	/**
+	 * @param attributeNames
+	 *            names of the attributes to return, {@code null} or empty for all attributes
+	 */
+	List<Attribute> toAttributes(Collection<String> attributeNames) {
+		final List<Attribute> result = new ArrayList<Attribute>();
+		for(Map.Entry<String, Set<String>> attribute : attributes.entrySet()) {
+			if(attributeNames == null || attributeNames.isEmpty() || attributeNames.contains(attribute.getKey())) {
+				for(String value : attribute.getValue()) {
+					result.add(new Attribute(attribute.getKey(), value));
+				}
+			}
+		}
+		return result;
+	}
+
+	Item toItem(Collection<String> attributeNames) {
+		return new Item(name, toAttributes(attributeNames));
+	}
+}
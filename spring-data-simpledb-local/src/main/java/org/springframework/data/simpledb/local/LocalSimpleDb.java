@@ -0,0 +1,369 @@
+package org.springframework.data.simpledb.local;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.simpledb.AmazonSimpleDB;
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.BatchDeleteAttributesRequest;
+import com.amazonaws.services.simpledb.model.BatchPutAttributesRequest;
+import com.amazonaws.services.simpledb.model.CreateDomainRequest;
+import com.amazonaws.services.simpledb.model.DeletableItem;
+import com.amazonaws.services.simpledb.model.DeleteAttributesRequest;
+import com.amazonaws.services.simpledb.model.DeleteDomainRequest;
+import com.amazonaws.services.simpledb.model.DomainMetadataRequest;
+import com.amazonaws.services.simpledb.model.DomainMetadataResult;
+import com.amazonaws.services.simpledb.model.GetAttributesRequest;
+import com.amazonaws.services.simpledb.model.GetAttributesResult;
+import com.amazonaws.services.simpledb.model.Item;
+import com.amazonaws.services.simpledb.model.ListDomainsRequest;
+import com.amazonaws.services.simpledb.model.ListDomainsResult;
+import com.amazonaws.services.simpledb.model.PutAttributesRequest;
+import com.amazonaws.services.simpledb.model.ReplaceableItem;
+import com.amazonaws.services.simpledb.model.SelectRequest;
+import com.amazonaws.services.simpledb.model.SelectResult;
+
+/**
+ * An in-process {@link AmazonSimpleDB} keeping its domains in memory, for tests and benchmarks which must run without
+ * AWS credentials. It supports multi valued attributes, conditional puts and deletes, batch requests and a select
+ * engine reading the grammar of the <tt>spring-data-simpledb-parser</tt> module, with where clauses, sort, limit,
+ * next tokens and <tt>count(*)</tt>. All reads are consistent.
+ * <p>
+ * Every request can be delayed by a fixed latency and fail with a <tt>503 ServiceUnavailable</tt> error at a given
+ * rate, to measure batching, prefetching and retries without a network. Pass it to
+ * <tt>SimpleDb.setSimpleDbClient</tt> to run the template against it.
+ */
+public class LocalSimpleDb implements AmazonSimpleDB {
+
+	/**
+	 * Number of items SimpleDB returns for a select without limit.
+	 */
+	public static final int DEFAULT_SELECT_LIMIT = 100;
+
+	/**
+	 * Maximum limit of a select.
+	 */
+	public static final int MAX_SELECT_LIMIT = 2500;
+
+	/**
+	 * Maximum number of items of a batch request.
+	 */
+	public static final int MAX_BATCH_ITEMS = 25;
+
+	private static final int DEFAULT_MAX_DOMAINS = 100;
+	private static final String DOMAIN_NAME_PARAMETER = "DomainName";
+	private static final String ITEM_NAME_PARAMETER = "ItemName";
+	private static final String COUNT_ITEM_NAME = "Domain";
+	private static final String COUNT_ATTRIBUTE_NAME = "Count";
+
+	private final ConcurrentMap<String, LocalDomain> domains = new ConcurrentHashMap<String, LocalDomain>();
+	private final Random random;
+
+	private volatile long latencyMillis;
+	private volatile double serviceUnavailableRate;
+
+	private final AtomicLong requestCount = new AtomicLong();
+	private final AtomicLong serviceUnavailableCount = new AtomicLong();
+
+	public LocalSimpleDb() {
+		this.random = new Random();
+	}
+
+	/**
+	 * @param seed
+	 *            seed of the random numbers deciding which requests fail, for repeatable failure sequences
+	 */
+	public LocalSimpleDb(long seed) {
+		this.random = new Random(seed);
+	}
+
+	/**
+	 * Set the time every request waits before it is served. Defaults to 0, which means, requests are served
+	 * immediately.
+	 *
+	 * @param latencyMillis
+	 */
+	public void setLatencyMillis(long latencyMillis) {
+		this.latencyMillis = latencyMillis;
+	}
+
+	public long getLatencyMillis() {
+		return latencyMillis;
+	}
+
+	/**
+	 * Set the share of requests, between 0 and 1, failing with a <tt>503 ServiceUnavailable</tt> error instead of
+	 * being served. Defaults to 0, which means, no request fails.
+	 *
+	 * @param serviceUnavailableRate
+	 */
+	public void setServiceUnavailableRate(double serviceUnavailableRate) {
+		this.serviceUnavailableRate = serviceUnavailableRate;
+	}
+
+	public double getServiceUnavailableRate() {
+		return serviceUnavailableRate;
+	}
+
+	/**
+	 * @return the number of requests received, including those which failed
+	 */
+	public long getRequestCount() {
+		return requestCount.get();
+	}
+
+	/**
+	 * @return the number of requests failed with a <tt>503 ServiceUnavailable</tt> error
+	 */
+	public long getServiceUnavailableCount() {
+		return serviceUnavailableCount.get();
+	}
+
+	/**
+	 * Drops all domains and resets the request counts.
+	 */
+	public void clear() {
+		domains.clear();
+		requestCount.set(0);
+		serviceUnavailableCount.set(0);
+	}
+
+	@Override
+	public void setEndpoint(String endpoint) {
+		// served in process
+	}
+
+	@Override
+	public void createDomain(CreateDomainRequest createDomainRequest) {
+		serve();
+		requireParameter(createDomainRequest.getDomainName(), DOMAIN_NAME_PARAMETER);
+		domains.putIfAbsent(createDomainRequest.getDomainName(), new LocalDomain());
+	}
+
+	@Override
+	public void deleteDomain(DeleteDomainRequest deleteDomainRequest) {
+		serve();
+		requireParameter(deleteDomainRequest.getDomainName(), DOMAIN_NAME_PARAMETER);
+		domains.remove(deleteDomainRequest.getDomainName());
+	}
+
+	@Override
+	public ListDomainsResult listDomains() {
+		return listDomains(new ListDomainsRequest());
+	}
+
+	@Override
+	public ListDomainsResult listDomains(ListDomainsRequest listDomainsRequest) {
+		serve();
+		final List<String> domainNames = new ArrayList<String>(domains.keySet());
+		Collections.sort(domainNames);
+
+		final Integer maxNumberOfDomains = listDomainsRequest.getMaxNumberOfDomains();
+		final int pageSize = maxNumberOfDomains != null ? maxNumberOfDomains : DEFAULT_MAX_DOMAINS;
+		/* the next token is the last listed domain name */
+		final String lastListed = listDomainsRequest.getNextToken();
+		int start = 0;
+		while(lastListed != null && start < domainNames.size() && domainNames.get(start).compareTo(lastListed) <= 0) {
+			start++;
+		}
+		final int end = Math.min(start + pageSize, domainNames.size());
+
+		return new ListDomainsResult().withDomainNames(domainNames.subList(start, end)).withNextToken(
+				end < domainNames.size() ? domainNames.get(end - 1) : null);
+	}
+
+	@Override
+	public DomainMetadataResult domainMetadata(DomainMetadataRequest domainMetadataRequest) {
+		serve();
+		return getDomain(domainMetadataRequest.getDomainName()).getMetadata();
+	}
+
+	@Override
+	public void putAttributes(PutAttributesRequest putAttributesRequest) {
+		serve();
+		requireParameter(putAttributesRequest.getItemName(), ITEM_NAME_PARAMETER);
+		getDomain(putAttributesRequest.getDomainName()).putAttributes(putAttributesRequest.getItemName(),
+				putAttributesRequest.getAttributes(), putAttributesRequest.getExpected());
+	}
+
+	@Override
+	public void batchPutAttributes(BatchPutAttributesRequest batchPutAttributesRequest) {
+		serve();
+		final List<ReplaceableItem> items = batchPutAttributesRequest.getItems();
+		final List<String> itemNames = new ArrayList<String>();
+		for(ReplaceableItem item : items) {
+			itemNames.add(item.getName());
+		}
+		checkBatch(itemNames);
+
+		getDomain(batchPutAttributesRequest.getDomainName()).batchPutAttributes(items);
+	}
+
+	@Override
+	public void deleteAttributes(DeleteAttributesRequest deleteAttributesRequest) {
+		serve();
+		requireParameter(deleteAttributesRequest.getItemName(), ITEM_NAME_PARAMETER);
+		getDomain(deleteAttributesRequest.getDomainName()).deleteAttributes(deleteAttributesRequest.getItemName(),
+				deleteAttributesRequest.getAttributes(), deleteAttributesRequest.getExpected());
+	}
+
+	@Override
+	public void batchDeleteAttributes(BatchDeleteAttributesRequest batchDeleteAttributesRequest) {
+		serve();
+		final List<DeletableItem> items = batchDeleteAttributesRequest.getItems();
+		final List<String> itemNames = new ArrayList<String>();
+		for(DeletableItem item : items) {
+			itemNames.add(item.getName());
+		}
+		checkBatch(itemNames);
+
+		getDomain(batchDeleteAttributesRequest.getDomainName()).batchDeleteAttributes(items);
+	}
+
+	@Override
+	public GetAttributesResult getAttributes(GetAttributesRequest getAttributesRequest) {
+		serve();
+		requireParameter(getAttributesRequest.getItemName(), ITEM_NAME_PARAMETER);
+		return new GetAttributesResult().withAttributes(getDomain(getAttributesRequest.getDomainName())
+				.getAttributes(getAttributesRequest.getItemName(), getAttributesRequest.getAttributeNames()));
+	}
+
+	/*
+	 * Next tokens are the position of the last returned item in the order of the select, the page after resumes
+	 * behind it, so writes between pages neither skip nor repeat items. They can be passed from a count to a select
+	 * of the same where clause as SimpleDB allows.
+	 */
+	@Override
+	public SelectResult select(SelectRequest selectRequest) {
+		serve();
+		requireParameter(selectRequest.getSelectExpression(), "SelectExpression");
+
+		final SelectExpression select = SelectExpression.parse(selectRequest.getSelectExpression());
+		final Integer limit = select.getLimit();
+		if(limit != null && (limit < 1 || limit > MAX_SELECT_LIMIT)) {
+			throw ServiceErrors.invalidQueryExpression("The limit must be between 1 and " + MAX_SELECT_LIMIT);
+		}
+
+		final ItemOrder order = select.isSorted() ? new ItemOrder(select.getSortAttributeName(),
+				select.isDescending()) : ItemOrder.ITEM_NAME;
+		final ItemOrder.Position after = readNextToken(selectRequest.getNextToken());
+
+		final boolean count = select.getOutput() == SelectExpression.Output.COUNT;
+		final int pageSize = limit != null ? limit : (count ? Integer.MAX_VALUE : DEFAULT_SELECT_LIMIT);
+
+		final List<LocalItem> matches = getDomain(select.getDomainName()).select(select.getWhere(), order, after,
+				pageSize);
+		final List<LocalItem> page = matches.size() > pageSize ? matches.subList(0, pageSize) : matches;
+		final String nextToken = matches.size() > pageSize ? order.positionOf(page.get(page.size() - 1)).toToken()
+				: null;
+
+		if(count) {
+			return countResult(page.size(), nextToken);
+		}
+
+		final List<Item> items = new ArrayList<Item>(page.size());
+		for(LocalItem item : page) {
+			items.add(project(item, select));
+		}
+
+		return new SelectResult().withItems(items).withNextToken(nextToken);
+	}
+
+	private void serve() {
+		requestCount.incrementAndGet();
+
+		final long latency = latencyMillis;
+		if(latency > 0) {
+			try {
+				Thread.sleep(latency);
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new AmazonClientException("Interrupted while waiting for the simulated latency", e);
+			}
+		}
+
+		final double rate = serviceUnavailableRate;
+		if(rate > 0 && nextRandom() < rate) {
+			serviceUnavailableCount.incrementAndGet();
+			throw ServiceErrors.serviceUnavailable();
+		}
+	}
+
+	private double nextRandom() {
+		synchronized(random) {
+			return random.nextDouble();
+		}
+	}
+
+	private LocalDomain getDomain(String domainName) {
+		requireParameter(domainName, DOMAIN_NAME_PARAMETER);
+
+		final LocalDomain domain = domains.get(domainName);
+		if(domain == null) {
+			throw ServiceErrors.noSuchDomain(domainName);
+		}
+
+		return domain;
+	}
+
+	private static void requireParameter(String value, String parameter) {
+		if(value == null || value.length() == 0) {
+			throw ServiceErrors.missingParameter(parameter);
+		}
+	}
+
+	private static void checkBatch(List<String> itemNames) {
+		if(itemNames.isEmpty()) {
+			throw ServiceErrors.missingParameter("Item.1.ItemName");
+		}
+		if(itemNames.size() > MAX_BATCH_ITEMS) {
+			throw ServiceErrors.numberSubmittedItemsExceeded(MAX_BATCH_ITEMS);
+		}
+
+		final Set<String> distinctNames = new HashSet<String>();
+		for(String itemName : itemNames) {
+			requireParameter(itemName, ITEM_NAME_PARAMETER);
+			if(!distinctNames.add(itemName)) {
+				throw ServiceErrors.duplicateItemName(itemName);
+			}
+		}
+	}
+
+	private static ItemOrder.Position readNextToken(String nextToken) {
+		if(nextToken == null) {
+			return null;
+		}
+
+		final ItemOrder.Position position = ItemOrder.Position.fromToken(nextToken);
+		if(position == null) {
+			throw ServiceErrors.invalidNextToken(nextToken);
+		}
+		return position;
+	}
+
+	private static SelectResult countResult(int count, String nextToken) {
+		final Attribute countAttribute = new Attribute(COUNT_ATTRIBUTE_NAME, String.valueOf(count));
+
+		return new SelectResult().withItems(new Item(COUNT_ITEM_NAME, Collections.singletonList(countAttribute)))
+				.withNextToken(nextToken);
+	}
+
+	private static Item project(LocalItem item, SelectExpression select) {
+		switch(select.getOutput()) {
+		case ITEM_NAME:
+			return new Item(item.getName(), Collections.<Attribute> emptyList());
+		case ATTRIBUTES:
+			return item.toItem(select.getAttributeNames());
+		default:
+			return item.toItem(null);
+		}
+	}
+}
@@ -0,0 +1,352 @@
+package org.springframework.data.simpledb.local;
+
+import static org.springframework.data.simpledb.parser.SimpleDBParserConstants.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.data.simpledb.parser.ParseException;
+import org.springframework.data.simpledb.parser.SimpleDBParser;
+import org.springframework.data.simpledb.parser.Token;
+import org.springframework.data.simpledb.parser.TokenMgrError;
+
+/**
+ * A select expression read into its output, domain, where predicate, sort and limit. The expression is validated by
+ * {@link SimpleDBParser}, the same grammar the template checks its queries with, and then read from the parser
+ * tokens; <tt>not</tt> binds tighter than <tt>and</tt> and <tt>intersection</tt>, which bind tighter than
+ * <tt>or</tt>.
+ */
+final class SelectExpression {
+
+	/**
+	 * The attributes returned by a select.
+	 */
+	enum Output {
+		ALL_ATTRIBUTES, ITEM_NAME, COUNT, ATTRIBUTES
+	}
+
+	private static final int EVERY_PREFIX_LENGTH = "every(".length();
+
+	private Output output;
+	private final List<String> attributeNames = new ArrayList<String>();
+	private String domainName;
+	private ItemPredicate where;
+	private final List<String> constrainedAttributes = new ArrayList<String>();
+	private boolean sorted;
+	private String sortAttributeName;
+	private boolean descending;
+	private Integer limit;
+
+	private SelectExpression() {
+		// read by parse
+	}
+
+	/**
+	 * @throws com.amazonaws.AmazonServiceException
+	 *             an <tt>InvalidQueryExpression</tt> error if the expression is not a valid select
+	 */
+	static SelectExpression parse(String expression) {
+		try {
+			new SimpleDBParser(expression).selectQuery();
+		} catch(ParseException e) {
+			throw ServiceErrors.invalidQueryExpression(expression, e);
+		} catch(TokenMgrError e) {
+			throw ServiceErrors.invalidQueryExpression(expression, e);
+		}
+
+		final SelectExpression select = new SelectExpression();
+		new Reader(select, tokens(expression)).read();
+
+		if(select.sortAttributeName != null && !select.constrainedAttributes.contains(select.sortAttributeName)) {
+			throw ServiceErrors.invalidQueryExpression("Invalid sort expression. The sort attribute must be present "
+					+ "in at least one of the predicates, and the predicate cannot use the is null comparison operator.");
+		}
+
+		return select;
+	}
+
+	Output getOutput() {
+		return output;
+	}
+
+	List<String> getAttributeNames() {
+		return attributeNames;
+	}
+
+	String getDomainName() {
+		return domainName;
+	}
+
+	/**
+	 * @return the where predicate, {@code null} to select all items
+	 */
+	ItemPredicate getWhere() {
+		return where;
+	}
+
+	boolean isSorted() {
+		return sorted;
+	}
+
+	/**
+	 * @return the sort attribute, {@code null} when sorted by item name
+	 */
+	String getSortAttributeName() {
+		return sortAttributeName;
+	}
+
+	boolean isDescending() {
+		return descending;
+	}
+
+	/**
+	 * @return the limit of the select, {@code null} if it has none
+	 */
+	Integer getLimit() {
+		return limit;
+	}
+
+	private static List<Token> tokens(String expression) {
+		final SimpleDBParser parser = new SimpleDBParser(expression);
+		final List<Token> tokens = new ArrayList<Token>();
+
+		Token token = parser.getNextToken();
+		while(token.kind != EOF) {
+			tokens.add(token);
+			token = parser.getNextToken();
+		}
+		tokens.add(token);
+
+		return tokens;
+	}
+
+	/*
+	 * Reads the tokens of an expression already validated by the parser.
+	 */
+	private static final class Reader {
+
+		private final SelectExpression select;
+		private final List<Token> tokens;
+		private int position;
+
+		private Reader(SelectExpression select, List<Token> tokens) {
+			this.select = select;
+			this.tokens = tokens;
+		}
+
+		private void read() {
+			next();
+			readOutput();
+			next();
+			select.domainName = readAttributeName();
+
+			if(accept(WHERE)) {
+				select.where = readOr();
+			}
+			if(accept(ORDER_BY)) {
+				readSort();
+			}
+			if(accept(LIMIT)) {
+				select.limit = Integer.valueOf(next().image);
+			}
+		}
+
+		private void readOutput() {
+			if(accept(ALL_ITEMS)) {
+				select.output = Output.ALL_ATTRIBUTES;
+			} else if(accept(ITEM_NAME)) {
+				select.output = Output.ITEM_NAME;
+			} else if(accept(COUNT)) {
+				select.output = Output.COUNT;
+			} else {
+				select.output = Output.ATTRIBUTES;
+				select.attributeNames.add(readAttributeName());
+				while(accept(COMMA)) {
+					select.attributeNames.add(readAttributeName());
+				}
+			}
+		}
+
+		private void readSort() {
+			select.sorted = true;
+			if(!accept(ITEM_NAME)) {
+				select.sortAttributeName = readAttributeName();
+			}
+
+			if(accept(DESC)) {
+				select.descending = true;
+			} else {
+				accept(ASC);
+			}
+		}
+
+		private ItemPredicate readOr() {
+			final List<ItemPredicate> operands = new ArrayList<ItemPredicate>();
+			operands.add(readAnd());
+			while(accept(OR)) {
+				operands.add(readAnd());
+			}
+
+			return operands.size() == 1 ? operands.get(0) : new Any(operands);
+		}
+
+		private ItemPredicate readAnd() {
+			final List<ItemPredicate> operands = new ArrayList<ItemPredicate>();
+			operands.add(readUnary());
+			while(accept(AND) || accept(INTERSECTION)) {
+				operands.add(readUnary());
+			}
+
+			return operands.size() == 1 ? operands.get(0) : new All(operands);
+		}
+
+		private ItemPredicate readUnary() {
+			if(accept(NOT)) {
+				return new Not(readUnary());
+			}
+
+			if(accept(LPAREN)) {
+				final ItemPredicate predicate = readOr();
+				next();
+				return predicate;
+			}
+
+			return readComparison();
+		}
+
+		private ItemPredicate readComparison() {
+			String attributeName = null;
+			boolean every = false;
+
+			if(peek().kind == EVERY) {
+				final String image = next().image;
+				attributeName = image.substring(EVERY_PREFIX_LENGTH, image.length() - 1).trim();
+				every = true;
+			} else if(!accept(ITEM_NAME)) {
+				attributeName = readAttributeName();
+			}
+
+			final int operator = next().kind;
+			final List<String> values = readValues(operator);
+
+			final Comparison comparison = new Comparison(attributeName, every, operator, values);
+			if(attributeName != null && !comparison.isNullCheck()) {
+				select.constrainedAttributes.add(attributeName);
+			}
+
+			return comparison;
+		}
+
+		private List<String> readValues(int operator) {
+			if(operator == IS_NULL || operator == IS_NOT_NULL) {
+				return Collections.emptyList();
+			}
+
+			final List<String> values = new ArrayList<String>();
+			if(operator == BETWEEN) {
+				values.add(unquote(next().image));
+				next();
+				values.add(unquote(next().image));
+			} else if(operator == IN) {
+				next();
+				values.add(unquote(next().image));
+				while(accept(COMMA)) {
+					values.add(unquote(next().image));
+				}
+				next();
+			} else {
+				values.add(unquote(next().image));
+			}
+
+			return values;
+		}
+
+		private String readAttributeName() {
+			if(!accept(BACKTICK)) {
+				return next().image;
+			}
+
+			final StringBuilder name = new StringBuilder(next().image);
+			while(accept(DOT)) {
+				name.append('.').append(next().image);
+			}
+			next();
+
+			return name.toString();
+		}
+
+		private static String unquote(String literal) {
+			return literal.substring(1, literal.length() - 1).replace("''", "'");
+		}
+
+		private Token peek() {
+			return tokens.get(position);
+		}
+
+		private Token next() {
+			return tokens.get(position++);
+		}
+
+		private boolean accept(int kind) {
+			if(peek().kind == kind) {
+				position++;
+				return true;
+			}
+
+			return false;
+		}
+	}
+
+	private static final class All implements ItemPredicate {
+
+		private final List<ItemPredicate> operands;
+
+		private All(List<ItemPredicate> operands) {
+			this.operands = operands;
+		}
+
+		@Override
+		public boolean matches(LocalItem item) {
+			for(ItemPredicate operand : operands) {
+				if(!operand.matches(item)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	private static final class Any implements ItemPredicate {
+
+		private final List<ItemPredicate> operands;
+
+		private Any(List<ItemPredicate> operands) {
+			this.operands = operands;
+		}
+
+		@Override
+		public boolean matches(LocalItem item) {
+			for(ItemPredicate operand : operands) {
+				if(operand.matches(item)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	private static final class Not implements ItemPredicate {
+
+		private final ItemPredicate operand;
+
+		private Not(ItemPredicate operand) {
+			this.operand = operand;
+		}
+
+		@Override
+		public boolean matches(LocalItem item) {
+			return !operand.matches(item);
+		}
+	}
+}
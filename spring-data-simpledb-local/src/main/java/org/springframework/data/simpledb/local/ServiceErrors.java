@@ -0,0 +1,90 @@
+package org.springframework.data.simpledb.local;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.AmazonServiceException.ErrorType;
+import com.amazonaws.services.simpledb.model.AttributeDoesNotExistException;
+import com.amazonaws.services.simpledb.model.DuplicateItemNameException;
+import com.amazonaws.services.simpledb.model.InvalidNextTokenException;
+import com.amazonaws.services.simpledb.model.InvalidQueryExpressionException;
+import com.amazonaws.services.simpledb.model.MissingParameterException;
+import com.amazonaws.services.simpledb.model.NoSuchDomainException;
+import com.amazonaws.services.simpledb.model.NumberSubmittedItemsExceededException;
+
+/**
+ * Builds the service exceptions SimpleDB answers with, carrying the same error codes and status codes as those
+ * unmarshalled by the AWS client.
+ */
+final class ServiceErrors {
+
+	private static final String SERVICE_NAME = "AmazonSimpleDB";
+
+	private static final int BAD_REQUEST = 400;
+	private static final int NOT_FOUND = 404;
+	private static final int CONFLICT = 409;
+	private static final int SERVICE_UNAVAILABLE = 503;
+
+	private ServiceErrors() {
+		// utility class
+	}
+
+	static AmazonServiceException noSuchDomain(String domainName) {
+		return fill(new NoSuchDomainException("The specified domain does not exist: " + domainName), "NoSuchDomain",
+				BAD_REQUEST, ErrorType.Client);
+	}
+
+	static AmazonServiceException invalidQueryExpression(String message) {
+		return fill(new InvalidQueryExpressionException(message), "InvalidQueryExpression", BAD_REQUEST,
+				ErrorType.Client);
+	}
+
+	static AmazonServiceException invalidQueryExpression(String expression, Throwable cause) {
+		final AmazonServiceException exception = invalidQueryExpression("The specified query expression syntax is "
+				+ "not valid: " + expression);
+		exception.initCause(cause);
+		return exception;
+	}
+
+	static AmazonServiceException invalidNextToken(String nextToken) {
+		return fill(new InvalidNextTokenException("The specified next token is not valid: " + nextToken),
+				"InvalidNextToken", BAD_REQUEST, ErrorType.Client);
+	}
+
+	static AmazonServiceException missingParameter(String parameter) {
+		return fill(new MissingParameterException("The request must contain the parameter " + parameter),
+				"MissingParameter", BAD_REQUEST, ErrorType.Client);
+	}
+
+	static AmazonServiceException duplicateItemName(String itemName) {
+		return fill(new DuplicateItemNameException("Item " + itemName + " was specified more than once"),
+				"DuplicateItemName", BAD_REQUEST, ErrorType.Client);
+	}
+
+	static AmazonServiceException numberSubmittedItemsExceeded(int maxItems) {
+		return fill(new NumberSubmittedItemsExceededException("Too many items in a single call. Up to " + maxItems
+				+ " items per call allowed"), "NumberSubmittedItemsExceeded", CONFLICT, ErrorType.Client);
+	}
+
+	static AmazonServiceException attributeDoesNotExist(String attributeName) {
+		return fill(new AttributeDoesNotExistException("Attribute (" + attributeName + ") does not exist"),
+				"AttributeDoesNotExist", NOT_FOUND, ErrorType.Client);
+	}
+
+	static AmazonServiceException conditionalCheckFailed(String attributeName) {
+		return fill(new AmazonServiceException("Conditional check failed. Attribute (" + attributeName
+				+ ") value did not match the expected value"), "ConditionalCheckFailed", CONFLICT, ErrorType.Client);
+	}
+
+	static AmazonServiceException serviceUnavailable() {
+		return fill(new AmazonServiceException("Service AmazonSimpleDB is currently unavailable"),
+				"ServiceUnavailable", SERVICE_UNAVAILABLE, ErrorType.Service);
+	}
+
+	private static AmazonServiceException fill(AmazonServiceException exception, String errorCode, int statusCode,
+			ErrorType errorType) {
+		exception.setServiceName(SERVICE_NAME);
+		exception.setErrorCode(errorCode);
+		exception.setStatusCode(statusCode);
+		exception.setErrorType(errorType);
+		return exception;
+	}
+}
@@ -0,0 +1,160 @@
+package org.springframework.data.simpledb.local;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.services.simpledb.model.CreateDomainRequest;
+import com.amazonaws.services.simpledb.model.DeleteAttributesRequest;
+import com.amazonaws.services.simpledb.model.InvalidNextTokenException;
+import com.amazonaws.services.simpledb.model.InvalidQueryExpressionException;
+import com.amazonaws.services.simpledb.model.Item;
+import com.amazonaws.services.simpledb.model.PutAttributesRequest;
+import com.amazonaws.services.simpledb.model.ReplaceableAttribute;
+import com.amazonaws.services.simpledb.model.SelectRequest;
+import com.amazonaws.services.simpledb.model.SelectResult;
+
+public class LocalSimpleDbSelectTest {
+
+	private LocalSimpleDb sdb;
+
+	@Before
+	public void setUp() {
+		sdb = new LocalSimpleDb();
+		sdb.createDomain(new CreateDomainRequest("people"));
+
+		person("ann", "07", "red", "blue");
+		person("bob", "12", "green");
+		person("cid", "03", "red");
+		person("dan", "25");
+		person("eve", "12", "blue");
+	}
+
+	@Test
+	public void where_should_combine_comparisons_with_precedence() {
+		assertEquals(Arrays.asList("ann", "bob", "eve"),
+				names("select * from `people` where age > '05' and age < '20' or not age is not null and age = '0'"));
+		assertEquals(Arrays.asList("cid", "dan"),
+				names("select * from `people` where not (age > '05' and age < '20')"));
+		assertEquals(Arrays.asList("ann", "eve"), names("select * from people where color = 'blue'"));
+	}
+
+	@Test
+	public void comparisons_should_follow_simpledb_semantics() {
+		assertEquals(Arrays.asList("ann"),
+				names("select * from people where color = 'red' intersection color = 'blue'"));
+		assertEquals(Arrays.asList("ann", "cid", "eve"),
+				names("select * from people where every(color) in ('red','blue')"));
+		assertEquals(Arrays.asList("bob", "dan", "eve"),
+				names("select * from people where age between '10' and '30'"));
+		assertEquals(Arrays.asList("ann", "bob"),
+				names("select * from people where itemName() like '%b%' or itemName() < 'b'"));
+		assertEquals(Arrays.asList("dan"), names("select * from people where color is null"));
+		assertEquals(Arrays.asList("ann", "bob", "eve"), names("select * from people where color not like 'r%'"));
+	}
+
+	@Test
+	public void sorted_select_should_page_with_next_tokens() {
+		String query = "select itemName() from people where age is not null order by age desc limit 2";
+
+		SelectResult first = sdb.select(new SelectRequest(query));
+		assertEquals(Arrays.asList("dan", "bob"), names(first));
+		assertTrue(first.getItems().get(0).getAttributes().isEmpty());
+
+		SelectResult second = sdb.select(new SelectRequest(query).withNextToken(first.getNextToken()));
+		assertEquals(Arrays.asList("eve", "ann"), names(second));
+
+		SelectResult third = sdb.select(new SelectRequest(query).withNextToken(second.getNextToken()));
+		assertEquals(Arrays.asList("cid"), names(third));
+		assertNull(third.getNextToken());
+	}
+
+	@Test
+	public void next_token_should_resume_after_the_last_item_when_items_change_between_pages() {
+		String query = "select itemName() from people limit 2";
+
+		SelectResult first = sdb.select(new SelectRequest(query));
+		assertEquals(Arrays.asList("ann", "bob"), names(first));
+
+		sdb.deleteAttributes(new DeleteAttributesRequest("people", "ann"));
+		person("abe", "40");
+		person("bud", "41");
+
+		SelectResult second = sdb.select(new SelectRequest(query).withNextToken(first.getNextToken()));
+		assertEquals(Arrays.asList("bud", "cid"), names(second));
+
+		String sorted = "select itemName() from people where age is not null order by age desc limit 2";
+		SelectResult firstSorted = sdb.select(new SelectRequest(sorted));
+		assertEquals(Arrays.asList("bud", "abe"), names(firstSorted));
+
+		sdb.deleteAttributes(new DeleteAttributesRequest("people", "bud"));
+		person("ann", "30");
+
+		SelectResult secondSorted = sdb.select(new SelectRequest(sorted).withNextToken(firstSorted.getNextToken()));
+		assertEquals(Arrays.asList("ann", "dan"), names(secondSorted));
+	}
+
+	@Test
+	public void count_token_should_skip_items_of_select() {
+		SelectResult count = sdb.select(new SelectRequest("select count(*) from people where age > '05' limit 2"));
+		assertEquals("2", count.getItems().get(0).getAttributes().get(0).getValue());
+
+		SelectResult rest = sdb.select(new SelectRequest("select * from people where age > '05' limit 10")
+				.withNextToken(count.getNextToken()));
+		assertEquals(Arrays.asList("dan", "eve"), names(rest));
+
+		SelectResult total = sdb.select(new SelectRequest("select count(*) from people"));
+		assertEquals("5", total.getItems().get(0).getAttributes().get(0).getValue());
+		assertNull(total.getNextToken());
+	}
+
+	@Test
+	public void selected_attributes_should_be_projected() {
+		SelectResult result = sdb.select(new SelectRequest("select age from people where itemName() = 'ann'"));
+
+		assertEquals(1, result.getItems().get(0).getAttributes().size());
+		assertEquals("age", result.getItems().get(0).getAttributes().get(0).getName());
+	}
+
+	@Test(expected = InvalidQueryExpressionException.class)
+	public void sort_attribute_should_be_constrained() {
+		sdb.select(new SelectRequest("select * from people order by age"));
+	}
+
+	@Test(expected = InvalidQueryExpressionException.class)
+	public void invalid_expression_should_be_rejected() {
+		sdb.select(new SelectRequest("select * people"));
+	}
+
+	@Test(expected = InvalidNextTokenException.class)
+	public void unknown_next_token_should_be_rejected() {
+		sdb.select(new SelectRequest("select * from people").withNextToken("token"));
+	}
+
+	private void person(String name, String age, String... colors) {
+		List<ReplaceableAttribute> attributes = new ArrayList<ReplaceableAttribute>();
+		attributes.add(new ReplaceableAttribute("age", age, true));
+		for(String color : colors) {
+			attributes.add(new ReplaceableAttribute("color", color, false));
+		}
+
+		sdb.putAttributes(new PutAttributesRequest("people", name, attributes));
+	}
+
+	private List<String> names(String query) {
+		return names(sdb.select(new SelectRequest(query)));
+	}
+
+	private static List<String> names(SelectResult result) {
+		List<String> names = new ArrayList<String>();
+		for(Item item : result.getItems()) {
+			names.add(item.getName());
+		}
+		return names;
+	}
+}
@@ -0,0 +1,123 @@
+package org.springframework.data.simpledb.local;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.simpledb.core.SimpleDb;
+import org.springframework.data.simpledb.core.SimpleDbTemplate;
+
+public class LocalSimpleDbTemplateTest {
+
+	private static final int ITEMS = 30;
+
+	private LocalSimpleDb sdb;
+	private SimpleDb simpleDb;
+	private SimpleDbTemplate template;
+
+	@Before
+	public void setUp() {
+		sdb = new LocalSimpleDb();
+
+		simpleDb = new SimpleDb();
+		simpleDb.setSimpleDbClient(sdb);
+		simpleDb.afterPropertiesSet();
+
+		template = new SimpleDbTemplate(simpleDb);
+	}
+
+	@After
+	public void tearDown() {
+		simpleDb.destroy();
+	}
+
+	@Test
+	public void template_should_read_back_written_entities() {
+		List<Person> people = new ArrayList<Person>();
+		for(int i = 0; i < ITEMS; i++) {
+			people.add(new Person("p" + i, i));
+		}
+		template.createOrUpdate(people);
+
+		assertEquals(ITEMS, template.count(Person.class));
+		assertEquals(29, template.read("p29", Person.class).getAge());
+		assertEquals(10, template.createQuery(Person.class, "age >= ?", 20).find().size());
+
+		Page<Person> page = template.executePagedQuery(Person.class, "select * from `person`", new PageRequest(2,
+				4, new Sort(Sort.Direction.DESC, "age")));
+		assertEquals(ITEMS, page.getTotalElements());
+		assertEquals(21, page.getContent().get(0).getAge());
+
+		template.delete(Person.class, "p0");
+		assertEquals(ITEMS - 1, template.count(Person.class));
+	}
+
+	@Test
+	public void delete_all_should_purge_more_items_than_one_select_returns() {
+		final int itemCount = LocalSimpleDb.MAX_SELECT_LIMIT * 2 + 100;
+		List<Person> people = new ArrayList<Person>();
+		for(int i = 0; i < itemCount; i++) {
+			people.add(new Person("p" + i, i));
+		}
+		template.createOrUpdate(people);
+		assertEquals(itemCount, template.count(Person.class));
+
+		template.deleteAll(Person.class);
+
+		assertEquals(0, template.count(Person.class));
+	}
+
+	@Test
+	public void template_should_retry_unavailable_service() {
+		simpleDb.setUnavailableServiceRetries(10);
+		LocalSimpleDb flaky = new LocalSimpleDb(1L);
+		flaky.setServiceUnavailableRate(0.5);
+		simpleDb.setSimpleDbClient(flaky);
+		template = new SimpleDbTemplate(simpleDb);
+
+		template.createOrUpdate(new Person("p", 1));
+
+		assertEquals(1, template.read("p", Person.class).getAge());
+		assertTrue(flaky.getServiceUnavailableCount() > 0);
+	}
+
+	public static class Person {
+
+		@Id
+		private String id;
+
+		private int age;
+
+		public Person() {
+		}
+
+		Person(String id, int age) {
+			this.id = id;
+			this.age = age;
+		}
+
+		public String getId() {
+			return id;
+		}
+
+		public void setId(String id) {
+			this.id = id;
+		}
+
+		public int getAge() {
+			return age;
+		}
+
+		public void setAge(int age) {
+			this.age = age;
+		}
+	}
+}
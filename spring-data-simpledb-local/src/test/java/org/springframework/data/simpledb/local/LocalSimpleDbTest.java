@@ -0,0 +1,138 @@
+package org.springframework.data.simpledb.local;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.AttributeDoesNotExistException;
+import com.amazonaws.services.simpledb.model.BatchPutAttributesRequest;
+import com.amazonaws.services.simpledb.model.CreateDomainRequest;
+import com.amazonaws.services.simpledb.model.DeleteAttributesRequest;
+import com.amazonaws.services.simpledb.model.DomainMetadataRequest;
+import com.amazonaws.services.simpledb.model.DuplicateItemNameException;
+import com.amazonaws.services.simpledb.model.GetAttributesRequest;
+import com.amazonaws.services.simpledb.model.NoSuchDomainException;
+import com.amazonaws.services.simpledb.model.NumberSubmittedItemsExceededException;
+import com.amazonaws.services.simpledb.model.PutAttributesRequest;
+import com.amazonaws.services.simpledb.model.ReplaceableAttribute;
+import com.amazonaws.services.simpledb.model.ReplaceableItem;
+import com.amazonaws.services.simpledb.model.UpdateCondition;
+
+public class LocalSimpleDbTest {
+
+	private static final String DOMAIN = "domain";
+
+	private LocalSimpleDb sdb;
+
+	@Before
+	public void setUp() {
+		sdb = new LocalSimpleDb();
+		sdb.createDomain(new CreateDomainRequest(DOMAIN));
+	}
+
+	@Test
+	public void put_should_add_values_unless_replaced() {
+		put("item", new ReplaceableAttribute("color", "red", false), new ReplaceableAttribute("size", "1", false));
+		put("item", new ReplaceableAttribute("color", "blue", false), new ReplaceableAttribute("size", "2", true));
+
+		assertEquals(new HashSet<String>(Arrays.asList("red", "blue")), values("item", "color"));
+		assertEquals(new HashSet<String>(Arrays.asList("2")), values("item", "size"));
+	}
+
+	@Test
+	public void delete_should_remove_values_then_item() {
+		put("item", new ReplaceableAttribute("color", "red", false), new ReplaceableAttribute("color", "blue", false));
+
+		sdb.deleteAttributes(new DeleteAttributesRequest(DOMAIN, "item", Arrays.asList(new Attribute("color", "red"))));
+		assertEquals(new HashSet<String>(Arrays.asList("blue")), values("item", "color"));
+
+		sdb.deleteAttributes(new DeleteAttributesRequest(DOMAIN, "item"));
+		assertEquals(0, sdb.domainMetadata(new DomainMetadataRequest(DOMAIN)).getItemCount().intValue());
+	}
+
+	@Test
+	public void conditional_put_should_check_expected_value() {
+		put("item", new ReplaceableAttribute("version", "1", true));
+
+		sdb.putAttributes(new PutAttributesRequest(DOMAIN, "item", Arrays.asList(new ReplaceableAttribute("version",
+				"2", true)), new UpdateCondition("version", "1", true)));
+		assertEquals(new HashSet<String>(Arrays.asList("2")), values("item", "version"));
+
+		try {
+			sdb.putAttributes(new PutAttributesRequest(DOMAIN, "item", Arrays.asList(new ReplaceableAttribute(
+					"version", "3", true)), new UpdateCondition("version", "1", true)));
+			fail("Stale version should fail the conditional check");
+		} catch(AmazonServiceException e) {
+			assertEquals("ConditionalCheckFailed", e.getErrorCode());
+		}
+	}
+
+	@Test(expected = AttributeDoesNotExistException.class)
+	public void conditional_put_should_fail_on_missing_expected_attribute() {
+		sdb.putAttributes(new PutAttributesRequest(DOMAIN, "item", Arrays.asList(new ReplaceableAttribute("version",
+				"2", true)), new UpdateCondition("version", "1", true)));
+	}
+
+	@Test(expected = NoSuchDomainException.class)
+	public void unknown_domain_should_be_reported() {
+		sdb.getAttributes(new GetAttributesRequest("unknown", "item"));
+	}
+
+	@Test(expected = NumberSubmittedItemsExceededException.class)
+	public void batch_put_should_take_at_most_25_items() {
+		List<ReplaceableItem> items = new ArrayList<ReplaceableItem>();
+		for(int i = 0; i <= LocalSimpleDb.MAX_BATCH_ITEMS; i++) {
+			items.add(new ReplaceableItem("item" + i, Arrays.asList(new ReplaceableAttribute("a", "1", true))));
+		}
+
+		sdb.batchPutAttributes(new BatchPutAttributesRequest(DOMAIN, items));
+	}
+
+	@Test(expected = DuplicateItemNameException.class)
+	public void batch_put_should_reject_duplicate_item_names() {
+		ReplaceableItem item = new ReplaceableItem("item", Arrays.asList(new ReplaceableAttribute("a", "1", true)));
+		sdb.batchPutAttributes(new BatchPutAttributesRequest(DOMAIN, Arrays.asList(item, item)));
+	}
+
+	@Test
+	public void requests_should_fail_with_service_unavailable_at_configured_rate() {
+		sdb.setServiceUnavailableRate(1);
+
+		try {
+			sdb.getAttributes(new GetAttributesRequest(DOMAIN, "item"));
+			fail("Request should be unavailable");
+		} catch(AmazonServiceException e) {
+			assertEquals(AmazonServiceException.ErrorType.Service, e.getErrorType());
+			assertEquals(503, e.getStatusCode());
+		}
+
+		sdb.setServiceUnavailableRate(0);
+		sdb.getAttributes(new GetAttributesRequest(DOMAIN, "item"));
+
+		assertEquals(3, sdb.getRequestCount());
+		assertEquals(1, sdb.getServiceUnavailableCount());
+	}
+
+	private void put(String itemName, ReplaceableAttribute... attributes) {
+		sdb.putAttributes(new PutAttributesRequest(DOMAIN, itemName, Arrays.asList(attributes)));
+	}
+
+	private Set<String> values(String itemName, String attributeName) {
+		Set<String> values = new HashSet<String>();
+		for(Attribute attribute : sdb.getAttributes(new GetAttributesRequest(DOMAIN, itemName)).getAttributes()) {
+			if(attribute.getName().equals(attributeName)) {
+				values.add(attribute.getValue());
+			}
+		}
+		return values;
+	}
+}